@@ -0,0 +1,52 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of building a ray-intersection acceleration structure.
+ */
+@Name("renderer.AccelerationBuild")
+@Label("Acceleration Structure Build")
+@Category({"Renderer", "Setup"})
+@Description("Building of an acceleration structure over geometries")
+@StackTrace(false)
+public class AccelerationBuildEvent extends Event {
+    @Label("Structure")
+    private String structure;
+
+    @Label("Primitives")
+    @Description("Number of geometries the structure was built over")
+    private int primitives;
+
+    @Label("Nodes")
+    @Description("Number of nodes or cells of the structure")
+    private int nodes;
+
+    @Label("SAH Cost")
+    @Description("Expected cost of a ray through the structure by the surface area heuristic, 0 if not applicable")
+    private double sahCost;
+
+    /**
+     * Ends the event and commits it if it is enabled and passes its threshold.
+     *
+     * @param structure  the kind of the structure
+     * @param primitives the number of geometries the structure was built over
+     * @param nodes      the number of nodes or cells of the structure
+     * @param sahCost    the SAH cost of the structure, 0 if not applicable
+     */
+    public void finish(String structure, int primitives, int nodes, double sahCost) {
+        end();
+        if (shouldCommit()) {
+            this.structure = structure;
+            this.primitives = primitives;
+            this.nodes = nodes;
+            this.sahCost = sahCost;
+            commit();
+        }
+    }
+}
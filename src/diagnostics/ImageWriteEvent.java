@@ -0,0 +1,51 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of encoding an image and writing it to a file.
+ */
+@Name("renderer.ImageWrite")
+@Label("Image Write")
+@Category({"Renderer", "Output"})
+@Description("Encoding of a rendered image and writing it to a file")
+@StackTrace(false)
+public class ImageWriteEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Width")
+    private int width;
+
+    @Label("Height")
+    private int height;
+
+    @Label("File Size")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * Ends the event and commits it if it is enabled and passes its threshold.
+     *
+     * @param file   the path of the written file
+     * @param width  the image width in pixels
+     * @param height the image height in pixels
+     * @param bytes  the size of the written file
+     */
+    public void finish(String file, int width, int height, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.file = file;
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of building a scene for rendering.
+ */
+@Name("renderer.SceneBuild")
+@Label("Scene Build")
+@Category({"Renderer", "Setup"})
+@Description("Building of a scene before it is rendered")
+@StackTrace(false)
+public class SceneBuildEvent extends Event {
+    @Label("Scene")
+    private String scene;
+
+    @Label("Geometries")
+    @Description("Number of top-level geometries of the scene")
+    private int geometries;
+
+    @Label("Lights")
+    private int lights;
+
+    /**
+     * Ends the event and commits it if it is enabled and passes its threshold.
+     *
+     * @param scene      the name of the scene
+     * @param geometries the number of top-level geometries of the scene
+     * @param lights     the number of light sources of the scene
+     */
+    public void finish(String scene, int geometries, int lights) {
+        end();
+        if (shouldCommit()) {
+            this.scene = scene;
+            this.geometries = geometries;
+            this.lights = lights;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event of a pixel whose color took long to compute.
+ * <p>
+ * Every pixel is timed, and only pixels slower than the event threshold are recorded.
+ * The threshold defaults to 1 ms and is configured like any JFR threshold, e.g. in a
+ * {@code .jfc} settings file or with {@code Recording.enable(SlowPixelEvent.class).withThreshold(...)}.
+ * </p>
+ */
+@Name("renderer.SlowPixel")
+@Label("Slow Pixel")
+@Category({"Renderer", "Rendering"})
+@Description("A pixel whose color took longer than the threshold to compute")
+@Threshold("1 ms")
+@StackTrace(false)
+public class SlowPixelEvent extends Event {
+    @Label("Image")
+    private String image;
+
+    @Label("Column")
+    private int x;
+
+    @Label("Row")
+    private int y;
+
+    /**
+     * Ends the event and commits it if it is enabled and passes its threshold.
+     *
+     * @param image the name of the rendered image
+     * @param x     the pixel column
+     * @param y     the pixel row
+     */
+    public void finish(String image, int x, int y) {
+        end();
+        if (shouldCommit()) {
+            this.image = image;
+            this.x = x;
+            this.y = y;
+            commit();
+        }
+    }
+}
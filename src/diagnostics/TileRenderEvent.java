@@ -0,0 +1,58 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of rendering a single image tile.
+ * <p>
+ * Like all the renderer events, it costs practically nothing when no recording is running:
+ * {@link #begin()} and {@link #finish} are no-ops and the event object is not allocated.
+ * </p>
+ */
+@Name("renderer.TileRender")
+@Label("Tile Render")
+@Category({"Renderer", "Rendering"})
+@Description("Rendering of a tile of an image")
+@StackTrace(false)
+public class TileRenderEvent extends Event {
+    @Label("Image")
+    private String image;
+
+    @Label("Column")
+    private int x;
+
+    @Label("Row")
+    private int y;
+
+    @Label("Width")
+    private int width;
+
+    @Label("Height")
+    private int height;
+
+    /**
+     * Ends the event and commits it if it is enabled and passes its threshold.
+     *
+     * @param image  the name of the rendered image
+     * @param x      the column of the upper-left pixel of the tile
+     * @param y      the row of the upper-left pixel of the tile
+     * @param width  the tile width in pixels
+     * @param height the tile height in pixels
+     */
+    public void finish(String image, int x, int y, int width, int height) {
+        end();
+        if (shouldCommit()) {
+            this.image = image;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Ray;
+import primitives.RayPacket;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A spatial structure over the members of a {@link Geometries} collection, speeding up the
+ * search for their intersections with rays.
+ * <p>
+ * A structure is built over the members of a single collection and holds them as they were
+ * at build time; the collection drops its structure whenever members are added.
+ * </p>
+ */
+abstract class AccelerationStructure implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The collection whose members the structure holds; it intersects and counts the members.
+     */
+    protected final Geometries owner;
+
+    /**
+     * Constructs a structure over the members of a collection.
+     *
+     * @param owner the collection
+     */
+    protected AccelerationStructure(Geometries owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Finds all the intersections of a ray with the geometries of the structure.
+     *
+     * @param ray the ray
+     * @return the intersections, or null if there are none
+     */
+    abstract List<GeoPoint> findGeoIntersections(Ray ray);
+
+    /**
+     * Finds the intersection of a ray with the geometries of the structure closest to the ray origin.
+     *
+     * @param ray the ray
+     * @return the closest intersection, or null if there is none
+     */
+    abstract GeoPoint findClosestGeoIntersection(Ray ray);
+
+    /**
+     * Finds the intersections of a packet of rays with the geometries of the structure closest
+     * to the ray origins. Structures that cannot trace packets trace the rays one by one.
+     *
+     * @param packet the rays
+     * @return the closest intersection of every ray of the packet, null for the rays without one
+     */
+    GeoPoint[] findClosestGeoIntersections(RayPacket packet) {
+        GeoPoint[] intersections = new GeoPoint[packet.size()];
+        for (int i = 0; i < intersections.length; i++) {
+            intersections[i] = findClosestGeoIntersection(packet.getRay(i));
+        }
+        return intersections;
+    }
+
+    /**
+     * Gets the box bounding all the geometries of the structure.
+     *
+     * @return the bounding box, or null if there are unbounded geometries or no geometries at all
+     */
+    abstract BoundingBox getBoundingBox();
+
+    /**
+     * Updates the structure after its geometries moved.
+     *
+     * @return true if the structure was updated, false if it should be rebuilt instead
+     */
+    abstract boolean refit();
+}
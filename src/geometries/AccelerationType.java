@@ -0,0 +1,16 @@
+package geometries;
+
+/**
+ * The kinds of acceleration structures a {@link Geometries} collection can be searched by.
+ */
+public enum AccelerationType {
+    /**
+     * Bounding volume hierarchy - a good default for any scene.
+     */
+    BVH,
+    /**
+     * Uniform grid - built in linear time, and fast for many similarly sized geometries spread
+     * evenly, but slow for scenes of very uneven density or of large geometries.
+     */
+    GRID
+}
@@ -0,0 +1,1066 @@
+package geometries;
+
+import diagnostics.AccelerationBuildEvent;
+import geometries.Intersectable.GeoPoint;
+import primitives.Point;
+import primitives.Ray;
+import primitives.RayPacket;
+import primitives.Vector;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+/**
+ * Bounding volume hierarchy over the geometries of a {@link Geometries} collection.
+ * <p>
+ * The hierarchy is a binary tree of bounding boxes whose leaves hold a few geometries each.
+ * A ray only tests the geometries of the leaves whose boxes it crosses, and a closest-hit
+ * search also skips boxes that are farther than the closest hit found so far.
+ * Unbounded geometries (planes, tubes) cannot be placed in the tree, so they are tested
+ * against every ray.
+ * </p>
+ * <p>
+ * The hierarchy is built over the direct members of the collection only. A member that is a
+ * collection itself, or an instance of one, keeps its own hierarchy, so that scenes form a
+ * two-level structure: rebuilding the top level after objects move does not rebuild the
+ * hierarchies of the objects.
+ * </p>
+ * <p>
+ * After small motions the hierarchy can be refitted instead of rebuilt: the boxes are
+ * recomputed bottom-up, keeping the tree. The quality of the tree is measured by its surface
+ * area heuristic (SAH) cost - the expected cost of tracing a random ray through it - and a
+ * refit reports when the cost grew so much over the cost of the built tree that a rebuild pays off.
+ * </p>
+ * <p>
+ * The tree is stored flat, in depth-first order, in primitive arrays: node {@code i} has its
+ * box in {@code bounds[6i..6i+5]} and its links in {@code links[2i..2i+1]}. The first child of
+ * an inner node directly follows it, so only the index of the second child is stored; a leaf
+ * stores the range of its geometries in {@link #geometries}. Traversal walks the arrays with
+ * an explicit per-thread stack, without recursion or allocation.
+ * </p>
+ * <p>
+ * The tree is built top-down by the binned surface area heuristic, with large subtrees built
+ * in parallel on a fork-join pool. The build time and the SAH cost of the built tree are
+ * reported to Java Flight Recorder ({@link AccelerationBuildEvent}) and logged at level FINE.
+ * </p>
+ */
+class BVH extends AccelerationStructure {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The largest number of geometries in a leaf.
+     */
+    static final int MAX_LEAF_SIZE = 4;
+
+    /**
+     * The number of bins of the surface area heuristic along the split axis.
+     */
+    static final int BINS = 16;
+
+    /**
+     * The smallest number of geometries whose subtree is built as a separate fork-join task.
+     */
+    static final int PARALLEL_THRESHOLD = 4096;
+
+    /**
+     * The SAH cost of visiting a node, relative to {@link #INTERSECTION_COST}.
+     */
+    static final double TRAVERSAL_COST = 1;
+
+    /**
+     * The SAH cost of intersecting a geometry.
+     */
+    static final double INTERSECTION_COST = 1;
+
+    /**
+     * The growth of the SAH cost over the cost of the built tree from which a refitted tree should be rebuilt.
+     */
+    static final double REBUILD_THRESHOLD = 1.5;
+
+    /**
+     * Relative widening of the ray interval inside a box, see {@link BoundingBox#intersect(Ray, double)}.
+     */
+    private static final double ROBUST_FACTOR = 1 + 1e-9;
+
+    private static final Logger LOGGER = Logger.getLogger("BVH");
+
+    /**
+     * The traversal stacks, one per thread, shared by all the hierarchies (nested hierarchies
+     * push above the entries of the hierarchy that reached them).
+     */
+    private static final ThreadLocal<TraversalStack> STACKS = ThreadLocal.withInitial(TraversalStack::new);
+
+    /**
+     * The boxes of the nodes, 6 values per node: the lowest x, y, z and the highest x, y, z.
+     */
+    private double[] bounds;
+
+    /**
+     * The links of the nodes, 2 values per node: for an inner node 0 and the index of its second
+     * child, for a leaf the number of its geometries and the index of its first geometry.
+     */
+    private int[] links;
+
+    /**
+     * The bounded geometries, ordered by the leaves holding them.
+     */
+    private final Intersectable[] geometries;
+
+    /**
+     * The coordinates of the bounded geometries that are plain triangles, for the batch
+     * intersection kernels, 12 per triangle: the 3 vertices and the unit normal.
+     */
+    private final double[] triangleCoordinates;
+
+    /**
+     * The index of the first coordinate in {@link #triangleCoordinates} of every bounded geometry,
+     * or -1 for the geometries that are not plain triangles.
+     */
+    private final int[] triangleOffsets;
+
+    /**
+     * The geometries without bounding boxes.
+     */
+    private final ArrayList<Intersectable> unbounded = new ArrayList<>();
+
+    private int nodeCount;
+
+    /**
+     * The number of levels of the tree.
+     */
+    private int depth;
+
+    /**
+     * The SAH cost of the tree as built.
+     */
+    private final double buildCost;
+
+    /**
+     * The SAH cost of the tree as last refitted.
+     */
+    private double cost;
+
+    /**
+     * The time the build took.
+     */
+    private final long buildNanos;
+
+    /**
+     * A member geometry with its bounding box, used while building.
+     *
+     * @param geometry the geometry
+     * @param box      its bounding box
+     */
+    private record Entry(Intersectable geometry, BoundingBox box) {
+    }
+
+    /**
+     * The stack of the nodes waiting to be visited by a traversal, with their entry distances.
+     */
+    private static class TraversalStack {
+        int[] nodes = new int[64];
+        double[] distances = new double[64];
+        int size;
+
+        /**
+         * Makes room for a number of entries above the current top.
+         *
+         * @param count the number of entries
+         */
+        void ensureCapacity(int count) {
+            if (size + count > nodes.length) {
+                int capacity = Math.max(nodes.length * 2, size + count);
+                nodes = Arrays.copyOf(nodes, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+            }
+        }
+    }
+
+    /**
+     * Builds a hierarchy over the members of a collection on the common fork-join pool.
+     *
+     * @param owner      the collection
+     * @param geometries the members of the collection
+     */
+    BVH(Geometries owner, List<Intersectable> geometries) {
+        this(owner, geometries, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds a hierarchy over the members of a collection.
+     * <p>
+     * Subtrees over {@value #PARALLEL_THRESHOLD} geometries or more are built as separate tasks of
+     * the pool. The tasks build a temporary tree of {@link BuildNode}s over disjoint ranges of the
+     * geometries, which is then laid out in the flat arrays.
+     * </p>
+     *
+     * @param owner      the collection
+     * @param geometries the members of the collection
+     * @param pool       the pool building the subtrees
+     */
+    BVH(Geometries owner, List<Intersectable> geometries, ForkJoinPool pool) {
+        super(owner);
+        AccelerationBuildEvent event = new AccelerationBuildEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        List<Entry> bounded = new ArrayList<>(geometries.size());
+        for (Intersectable geometry : geometries) {
+            BoundingBox box = geometry.getBoundingBox();
+            if (box == null) unbounded.add(geometry);
+            else bounded.add(new Entry(geometry, box));
+        }
+        Entry[] entries = bounded.toArray(Entry[]::new);
+
+        // A binary tree with at least one geometry per leaf has less than twice as many nodes as geometries
+        int capacity = Math.max(2 * entries.length - 1, 0);
+        bounds = new double[6 * capacity];
+        links = new int[2 * capacity];
+        this.geometries = new Intersectable[entries.length];
+        if (entries.length > 0) {
+            BuildNode root = pool.invoke(new BuildTask(entries, 0, entries.length));
+            for (int i = 0; i < entries.length; i++) {
+                this.geometries[i] = entries[i].geometry();
+            }
+            flatten(root, 1);
+        }
+        triangleOffsets = new int[entries.length];
+        int triangleCount = 0;
+        for (int i = 0; i < entries.length; i++) {
+            triangleOffsets[i] = this.geometries[i].getClass() == Triangle.class ? 12 * triangleCount++ : -1;
+        }
+        triangleCoordinates = new double[12 * triangleCount];
+        for (int i = 0; i < entries.length; i++) {
+            if (triangleOffsets[i] >= 0) {
+                System.arraycopy(((Triangle) this.geometries[i]).getCoordinates(), 0, triangleCoordinates, triangleOffsets[i], 12);
+            }
+        }
+        bounds = Arrays.copyOf(bounds, 6 * nodeCount);
+        links = Arrays.copyOf(links, 2 * nodeCount);
+        buildCost = cost = computeCost();
+        buildNanos = System.nanoTime() - start;
+
+        event.finish("BVH", geometries.size(), nodeCount, buildCost);
+        LOGGER.fine(() -> String.format("Built a BVH of %d nodes over %d geometries in %.1f ms, SAH cost %.2f",
+                nodeCount, geometries.size(), buildNanos / 1e6, buildCost));
+    }
+
+    /**
+     * A node of the temporary tree of a build.
+     */
+    private static class BuildNode {
+        final BoundingBox box;
+        final int start;
+        final int count;
+        final BuildNode left;
+        final BuildNode right;
+
+        /**
+         * Constructs a leaf.
+         *
+         * @param box   the box bounding the geometries of the leaf
+         * @param start the index of the first geometry of the leaf
+         * @param count the number of geometries of the leaf
+         */
+        BuildNode(BoundingBox box, int start, int count) {
+            this.box = box;
+            this.start = start;
+            this.count = count;
+            this.left = null;
+            this.right = null;
+        }
+
+        /**
+         * Constructs an inner node.
+         *
+         * @param left  the first child
+         * @param right the second child
+         */
+        BuildNode(BuildNode left, BuildNode right) {
+            this.box = left.box.union(right.box);
+            this.start = left.start;
+            this.count = 0;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Builds the subtree over a range of the geometries, reordering the range so that every
+     * subtree holds a contiguous part of it.
+     */
+    private static class BuildTask extends RecursiveTask<BuildNode> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The geometries of the build, transient as build tasks are never serialized.
+         */
+        private final transient Entry[] entries;
+        private final int start;
+        private final int end;
+
+        /**
+         * Constructs a task building a subtree.
+         *
+         * @param entries all the geometries of the build
+         * @param start   the first index of the range of the subtree
+         * @param end     the index following the range of the subtree
+         */
+        BuildTask(Entry[] entries, int start, int end) {
+            this.entries = entries;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected BuildNode compute() {
+            return build(entries, start, end);
+        }
+    }
+
+    /**
+     * Builds a subtree over a range of geometries, splitting it by the binned surface area heuristic:
+     * the centers of the geometries are sorted into {@value #BINS} bins along the longest axis of
+     * their extent, and the range is split at the bin boundary of the lowest expected cost - unless
+     * a leaf is cheaper. Geometries whose centers cannot be told apart are split in the middle.
+     *
+     * @param entries all the geometries of the build
+     * @param start   the first index of the range
+     * @param end     the index following the range
+     * @return the root of the subtree
+     */
+    private static BuildNode build(Entry[] entries, int start, int end) {
+        int count = end - start;
+        double[] box = emptyBounds();
+        double[] centers = emptyBounds();
+        for (int i = start; i < end; i++) {
+            BoundingBox entryBox = entries[i].box();
+            expand(box, entryBox);
+            for (int axis = 0; axis < 3; axis++) {
+                double center = entryBox.getCenter(axis);
+                centers[axis] = Math.min(centers[axis], center);
+                centers[axis + 3] = Math.max(centers[axis + 3], center);
+            }
+        }
+        BoundingBox nodeBox = toBox(box);
+        if (count == 1) return new BuildNode(nodeBox, start, 1);
+
+        int axis = toBox(centers).getLongestAxis();
+        double low = centers[axis];
+        double extent = centers[axis + 3] - low;
+        double area = nodeBox.getSurfaceArea();
+        int middle = -1;
+
+        if (extent > 0 && area > 0) {
+            // Sort the geometries into bins by their centers
+            int[] binCounts = new int[BINS];
+            double[][] binBounds = new double[BINS][];
+            for (int bin = 0; bin < BINS; bin++) binBounds[bin] = emptyBounds();
+            for (int i = start; i < end; i++) {
+                int bin = bin(entries[i].box(), axis, low, extent);
+                binCounts[bin]++;
+                expand(binBounds[bin], entries[i].box());
+            }
+
+            // Sweep from both sides for the areas and counts on each side of every bin boundary
+            double[] leftArea = new double[BINS - 1];
+            int[] leftCount = new int[BINS - 1];
+            double[] side = emptyBounds();
+            int sideCount = 0;
+            for (int bin = 0; bin < BINS - 1; bin++) {
+                union(side, binBounds[bin]);
+                sideCount += binCounts[bin];
+                leftArea[bin] = sideCount == 0 ? 0 : surfaceArea(side);
+                leftCount[bin] = sideCount;
+            }
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestBoundary = -1;
+            side = emptyBounds();
+            sideCount = 0;
+            for (int bin = BINS - 1; bin > 0; bin--) {
+                union(side, binBounds[bin]);
+                sideCount += binCounts[bin];
+                int boundary = bin - 1;
+                if (sideCount == 0 || leftCount[boundary] == 0) continue;
+                double splitCost = TRAVERSAL_COST
+                        + (leftArea[boundary] * leftCount[boundary] + surfaceArea(side) * sideCount) / area * INTERSECTION_COST;
+                if (splitCost < bestCost) {
+                    bestCost = splitCost;
+                    bestBoundary = boundary;
+                }
+            }
+
+            double leafCost = count * INTERSECTION_COST;
+            if (count <= MAX_LEAF_SIZE && leafCost <= bestCost) return new BuildNode(nodeBox, start, count);
+            if (bestBoundary >= 0) middle = partition(entries, start, end, axis, low, extent, bestBoundary);
+        }
+
+        if (middle <= start || middle >= end) {
+            if (count <= MAX_LEAF_SIZE) return new BuildNode(nodeBox, start, count);
+            middle = (start + end) >>> 1;
+        }
+
+        if (count < PARALLEL_THRESHOLD) {
+            return new BuildNode(build(entries, start, middle), build(entries, middle, end));
+        }
+        BuildTask left = new BuildTask(entries, start, middle);
+        left.fork();
+        BuildNode right = build(entries, middle, end);
+        return new BuildNode(left.join(), right);
+    }
+
+    /**
+     * Finds the bin of a geometry by the center of its box.
+     *
+     * @param box    the box of the geometry
+     * @param axis   the binning axis
+     * @param low    the lowest center coordinate along the axis
+     * @param extent the extent of the centers along the axis
+     * @return the bin index
+     */
+    private static int bin(BoundingBox box, int axis, double low, double extent) {
+        return Math.min(BINS - 1, (int) ((box.getCenter(axis) - low) * BINS / extent));
+    }
+
+    /**
+     * Reorders a range of geometries so that the geometries of the bins up to a boundary come first.
+     *
+     * @param entries  all the geometries of the build
+     * @param start    the first index of the range
+     * @param end      the index following the range
+     * @param axis     the binning axis
+     * @param low      the lowest center coordinate along the axis
+     * @param extent   the extent of the centers along the axis
+     * @param boundary the last bin of the first part
+     * @return the index of the first geometry of the second part
+     */
+    private static int partition(Entry[] entries, int start, int end, int axis, double low, double extent, int boundary) {
+        int i = start, j = end - 1;
+        while (i <= j) {
+            if (bin(entries[i].box(), axis, low, extent) <= boundary) {
+                i++;
+            } else {
+                Entry swap = entries[i];
+                entries[i] = entries[j];
+                entries[j--] = swap;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Creates empty bounds: the lowest coordinates are infinite and the highest negative infinite.
+     *
+     * @return the bounds as the lowest x, y, z and the highest x, y, z
+     */
+    private static double[] emptyBounds() {
+        double inf = Double.POSITIVE_INFINITY;
+        return new double[]{inf, inf, inf, -inf, -inf, -inf};
+    }
+
+    /**
+     * Expands bounds to contain a box.
+     *
+     * @param bounds the bounds to expand
+     * @param box    the box
+     */
+    private static void expand(double[] bounds, BoundingBox box) {
+        for (int axis = 0; axis < 3; axis++) {
+            bounds[axis] = Math.min(bounds[axis], box.getMin(axis));
+            bounds[axis + 3] = Math.max(bounds[axis + 3], box.getMax(axis));
+        }
+    }
+
+    /**
+     * Expands bounds to contain other bounds.
+     *
+     * @param bounds the bounds to expand
+     * @param other  the other bounds, possibly empty
+     */
+    private static void union(double[] bounds, double[] other) {
+        for (int axis = 0; axis < 3; axis++) {
+            bounds[axis] = Math.min(bounds[axis], other[axis]);
+            bounds[axis + 3] = Math.max(bounds[axis + 3], other[axis + 3]);
+        }
+    }
+
+    /**
+     * Calculates the surface area of non-empty bounds.
+     *
+     * @param bounds the bounds
+     * @return the total area of the six faces
+     */
+    private static double surfaceArea(double[] bounds) {
+        double dx = bounds[3] - bounds[0], dy = bounds[4] - bounds[1], dz = bounds[5] - bounds[2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Converts non-empty bounds to a box.
+     *
+     * @param bounds the bounds
+     * @return the box
+     */
+    private static BoundingBox toBox(double[] bounds) {
+        return new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+    }
+
+    /**
+     * Appends the nodes of a temporary subtree to the flat arrays in depth-first order.
+     *
+     * @param node  the root of the temporary subtree
+     * @param level the level of the subtree root, 1 for the root of the tree
+     */
+    private void flatten(BuildNode node, int level) {
+        int index = nodeCount++;
+        depth = Math.max(depth, level);
+        setBounds(index, node.box);
+        if (node.left == null) {
+            links[2 * index] = node.count;
+            links[2 * index + 1] = node.start;
+            return;
+        }
+        flatten(node.left, level + 1);
+        links[2 * index + 1] = nodeCount;
+        flatten(node.right, level + 1);
+    }
+
+    /**
+     * Stores the box of a node.
+     *
+     * @param node the node index
+     * @param box  the box
+     */
+    private void setBounds(int node, BoundingBox box) {
+        int b = 6 * node;
+        bounds[b] = box.getMinX();
+        bounds[b + 1] = box.getMinY();
+        bounds[b + 2] = box.getMinZ();
+        bounds[b + 3] = box.getMaxX();
+        bounds[b + 4] = box.getMaxY();
+        bounds[b + 5] = box.getMaxZ();
+    }
+
+    /**
+     * Sets the box of an inner node to the union of the boxes of its children.
+     *
+     * @param node the index of the inner node
+     */
+    private void unionChildBounds(int node) {
+        int b = 6 * node, left = 6 * (node + 1), right = 6 * links[2 * node + 1];
+        for (int i = 0; i < 3; i++) {
+            bounds[b + i] = Math.min(bounds[left + i], bounds[right + i]);
+            bounds[b + 3 + i] = Math.max(bounds[left + 3 + i], bounds[right + 3 + i]);
+        }
+    }
+
+    /**
+     * Calculates the surface area of the box of a node.
+     *
+     * @param node the node index
+     * @return the total area of the six faces of the box
+     */
+    private double surfaceArea(int node) {
+        int b = 6 * node;
+        double dx = bounds[b + 3] - bounds[b], dy = bounds[b + 4] - bounds[b + 1], dz = bounds[b + 5] - bounds[b + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Calculates the SAH cost of the tree: the cost of visiting every node and intersecting every
+     * geometry, each weighted by the probability that a random ray crossing the root box crosses
+     * the box of the node - the ratio of the surface areas of the boxes.
+     *
+     * @return the expected cost of a ray through the tree, 0 for an empty or flat tree
+     */
+    private double computeCost() {
+        if (nodeCount == 0) return 0;
+        double rootArea = surfaceArea(0);
+        if (rootArea == 0) return 0;
+        double sum = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            sum += surfaceArea(node) * (TRAVERSAL_COST + links[2 * node] * INTERSECTION_COST);
+        }
+        return sum / rootArea;
+    }
+
+    /**
+     * Gets the SAH cost of the tree as built.
+     *
+     * @return the expected cost of a ray through the built tree
+     */
+    double getBuildCost() {
+        return buildCost;
+    }
+
+    /**
+     * Gets the time the build took.
+     *
+     * @return the build time in nanoseconds
+     */
+    long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Gets the SAH cost of the tree as last refitted.
+     *
+     * @return the expected cost of a ray through the current tree
+     */
+    double getCost() {
+        return cost;
+    }
+
+    /**
+     * Recomputes the boxes of the tree bottom-up from the current boxes of the geometries,
+     * keeping the tree itself. In depth-first order children follow their parents, so a single
+     * backward pass over the nodes suffices.
+     *
+     * @return true if the refitted tree is still good, false if it should be rebuilt - because its
+     * SAH cost grew beyond {@link #REBUILD_THRESHOLD} times the built cost, or because a geometry
+     * became unbounded
+     */
+    @Override
+    boolean refit() {
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            int count = links[2 * node];
+            if (count == 0) {
+                unionChildBounds(node);
+                continue;
+            }
+
+            int first = links[2 * node + 1];
+            BoundingBox box = null;
+            for (int i = first; i < first + count; i++) {
+                BoundingBox geometryBox = geometries[i].getBoundingBox();
+                if (geometryBox == null) return false;
+                box = box == null ? geometryBox : box.union(geometryBox);
+            }
+            setBounds(node, box);
+        }
+        cost = computeCost();
+        return cost <= buildCost * REBUILD_THRESHOLD;
+    }
+
+    /**
+     * Gets the box bounding all the geometries of the hierarchy.
+     *
+     * @return the bounding box, or null if there are unbounded geometries or no geometries at all
+     */
+    @Override
+    BoundingBox getBoundingBox() {
+        return unbounded.isEmpty() && nodeCount > 0
+                ? new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5])
+                : null;
+    }
+
+    /**
+     * Gets the number of nodes of the tree.
+     *
+     * @return the number of inner nodes and leaves
+     */
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the number of levels of the tree.
+     *
+     * @return the length of the longest path from the root to a leaf, counted in nodes
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the second child of an inner node; the first child is the node following it.
+     *
+     * @param node the index of an inner node
+     * @return the index of the second child
+     */
+    int getSecondChild(int node) {
+        return links[2 * node + 1];
+    }
+
+    /**
+     * Gets the geometries of a leaf.
+     *
+     * @param node the index of a node
+     * @return the geometries of the leaf, or null for an inner node
+     */
+    Intersectable[] getLeafGeometries(int node) {
+        int count = links[2 * node];
+        return count == 0 ? null : Arrays.copyOfRange(geometries, links[2 * node + 1], links[2 * node + 1] + count);
+    }
+
+    /**
+     * Gets the box of a node.
+     *
+     * @param node the index of a node
+     * @return the box of the node
+     */
+    BoundingBox getNodeBox(int node) {
+        int b = 6 * node;
+        return new BoundingBox(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5]);
+    }
+
+    /**
+     * Finds the distance along a ray at which it enters the box of a node (slab method).
+     *
+     * @param node        the node index
+     * @param ox          the x coordinate of the ray origin
+     * @param oy          the y coordinate of the ray origin
+     * @param oz          the z coordinate of the ray origin
+     * @param ix          the inverse of the x component of the ray direction
+     * @param iy          the inverse of the y component of the ray direction
+     * @param iz          the inverse of the z component of the ray direction
+     * @param maxDistance the distance beyond which hits are of no interest
+     * @return the entry distance, or {@link Double#POSITIVE_INFINITY} if the ray misses the box within the distance
+     */
+    private double intersectBox(int node, double ox, double oy, double oz,
+                                double ix, double iy, double iz, double maxDistance) {
+        int b = 6 * node;
+        double tMin = 0, tMax = maxDistance;
+
+        double t1 = (bounds[b] - ox) * ix, t2 = (bounds[b + 3] - ox) * ix;
+        // NaN (a ray parallel to a slab and on its boundary) leaves the interval unchanged
+        if (t1 == t1 && t2 == t2) {
+            if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+            if (t1 > tMin) tMin = t1;
+            if (t2 * ROBUST_FACTOR < tMax) tMax = t2 * ROBUST_FACTOR;
+        }
+        t1 = (bounds[b + 1] - oy) * iy;
+        t2 = (bounds[b + 4] - oy) * iy;
+        if (t1 == t1 && t2 == t2) {
+            if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+            if (t1 > tMin) tMin = t1;
+            if (t2 * ROBUST_FACTOR < tMax) tMax = t2 * ROBUST_FACTOR;
+        }
+        t1 = (bounds[b + 2] - oz) * iz;
+        t2 = (bounds[b + 5] - oz) * iz;
+        if (t1 == t1 && t2 == t2) {
+            if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+            if (t1 > tMin) tMin = t1;
+            if (t2 * ROBUST_FACTOR < tMax) tMax = t2 * ROBUST_FACTOR;
+        }
+        return tMin <= tMax ? tMin : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds all the intersections of a ray with the geometries of the hierarchy.
+     *
+     * @param ray the ray
+     * @return the intersections, or null if there are none
+     */
+    @Override
+    List<GeoPoint> findGeoIntersections(Ray ray) {
+        List<GeoPoint> intersections = null;
+        for (Intersectable geometry : unbounded) {
+            intersections = addAll(intersections, owner.intersect(geometry, ray));
+        }
+        if (nodeCount == 0) return intersections;
+
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double ix = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+
+        TraversalStack stack = STACKS.get();
+        int base = stack.size;
+        stack.ensureCapacity(depth + 1);
+        int node = 0;
+        try {
+            while (true) {
+                if (intersectBox(node, ox, oy, oz, ix, iy, iz, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY) {
+                    int count = links[2 * node];
+                    if (count == 0) {
+                        // Visit the first child now and the second child later
+                        stack.nodes[stack.size++] = links[2 * node + 1];
+                        node++;
+                        continue;
+                    }
+                    int first = links[2 * node + 1];
+                    for (int i = first; i < first + count; i++) {
+                        intersections = addAll(intersections, owner.intersect(geometries[i], ray));
+                    }
+                }
+                if (stack.size == base) return intersections;
+                node = stack.nodes[--stack.size];
+            }
+        } finally {
+            stack.size = base;
+        }
+    }
+
+    /**
+     * Adds intersections to a list, creating the list only when there is something to add.
+     *
+     * @param intersections the list, or null
+     * @param found         the intersections to add, or null
+     * @return the list with the added intersections, or null if both are empty
+     */
+    private static List<GeoPoint> addAll(List<GeoPoint> intersections, List<GeoPoint> found) {
+        if (found == null) return intersections;
+        if (intersections == null) intersections = new LinkedList<>();
+        intersections.addAll(found);
+        return intersections;
+    }
+
+    /**
+     * Finds the intersection of a ray with the geometries of the hierarchy closest to the ray origin.
+     * The nearer child of every node is visited first, and nodes farther than the closest hit
+     * found so far are skipped.
+     *
+     * @param ray the ray
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    GeoPoint findClosestGeoIntersection(Ray ray) {
+        Point p0 = ray.getP0();
+        GeoPoint closest = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (Intersectable geometry : unbounded) {
+            GeoPoint candidate = owner.intersectClosest(geometry, ray);
+            if (candidate != null) {
+                double distance = p0.distance(candidate.point);
+                if (distance < closestDistance) {
+                    closest = candidate;
+                    closestDistance = distance;
+                }
+            }
+        }
+        if (nodeCount == 0) return closest;
+
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double ix = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+
+        TraversalStack stack = STACKS.get();
+        int base = stack.size;
+        stack.ensureCapacity(depth + 1);
+        int node = 0;
+        double nodeDistance = intersectBox(0, ox, oy, oz, ix, iy, iz, closestDistance);
+        try {
+            while (true) {
+                if (nodeDistance < closestDistance) {
+                    int count = links[2 * node];
+                    if (count == 0) {
+                        int left = node + 1, right = links[2 * node + 1];
+                        double leftDistance = intersectBox(left, ox, oy, oz, ix, iy, iz, closestDistance);
+                        double rightDistance = intersectBox(right, ox, oy, oz, ix, iy, iz, closestDistance);
+                        if (leftDistance <= rightDistance) {
+                            stack.nodes[stack.size] = right;
+                            stack.distances[stack.size++] = rightDistance;
+                            node = left;
+                            nodeDistance = leftDistance;
+                        } else {
+                            stack.nodes[stack.size] = left;
+                            stack.distances[stack.size++] = leftDistance;
+                            node = right;
+                            nodeDistance = rightDistance;
+                        }
+                        continue;
+                    }
+
+                    int first = links[2 * node + 1];
+                    for (int i = first; i < first + count; i++) {
+                        GeoPoint candidate = owner.intersectClosest(geometries[i], ray);
+                        if (candidate != null) {
+                            double distance = p0.distance(candidate.point);
+                            if (distance < closestDistance) {
+                                closest = candidate;
+                                closestDistance = distance;
+                            }
+                        }
+                    }
+                }
+                if (stack.size == base) return closest;
+                node = stack.nodes[--stack.size];
+                nodeDistance = stack.distances[stack.size];
+            }
+        } finally {
+            stack.size = base;
+        }
+    }
+
+    /**
+     * Finds the intersections of a packet of rays with the geometries of the hierarchy closest to
+     * the ray origins, traversing the tree once for the whole packet.
+     * <p>
+     * Every visited node carries the index of the first ray of the packet that hits its box
+     * (rays before it missed an ancestor box or already have a nearer hit), so that rays that
+     * left the subtree are not tested again. A subtree is skipped as soon as no ray hits its box;
+     * for coherent packets, a box missed by the interval test of the whole packet is skipped
+     * without testing the rays one by one.
+     * </p>
+     *
+     * @param packet the rays
+     * @return the closest intersection of every ray of the packet, null for the rays without one
+     */
+    @Override
+    GeoPoint[] findClosestGeoIntersections(RayPacket packet) {
+        int size = packet.size();
+        GeoPoint[] closest = new GeoPoint[size];
+        double[] closestDistances = new double[size];
+        Arrays.fill(closestDistances, Double.POSITIVE_INFINITY);
+        for (Intersectable geometry : unbounded) {
+            for (int r = 0; r < size; r++) {
+                updateClosest(closest, closestDistances, packet, r, owner.intersectClosest(geometry, packet.getRay(r)));
+            }
+        }
+        if (nodeCount == 0) return closest;
+
+        double[] ox = new double[size], oy = new double[size], oz = new double[size];
+        double[] dx = new double[size], dy = new double[size], dz = new double[size];
+        double[] ix = new double[size], iy = new double[size], iz = new double[size];
+        int[] active = new int[size];
+        double[] hitDistances = new double[size];
+        for (int r = 0; r < size; r++) {
+            ox[r] = packet.getOrigin(0, r);
+            oy[r] = packet.getOrigin(1, r);
+            oz[r] = packet.getOrigin(2, r);
+            ix[r] = packet.getInverseDirection(0, r);
+            iy[r] = packet.getInverseDirection(1, r);
+            iz[r] = packet.getInverseDirection(2, r);
+            dx[r] = packet.getDirection(0, r);
+            dy[r] = packet.getDirection(1, r);
+            dz[r] = packet.getDirection(2, r);
+        }
+
+        // Hits beyond the farthest closest hit of the packet are of no interest to any ray
+        double maxDistance = max(closestDistances);
+
+        // The nodes waiting to be visited, with the first ray that may hit each of them
+        int[] nodes = new int[depth + 1];
+        int[] firstRays = new int[depth + 1];
+        int stackSize = 0;
+        int node = 0, firstRay = 0;
+        while (true) {
+            int b = 6 * node;
+            if (!packet.missesBox(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5],
+                    maxDistance)) {
+                // Skip the rays that miss the box
+                while (firstRay < size && intersectBox(node, ox[firstRay], oy[firstRay], oz[firstRay],
+                        ix[firstRay], iy[firstRay], iz[firstRay], closestDistances[firstRay]) == Double.POSITIVE_INFINITY) {
+                    firstRay++;
+                }
+                if (firstRay < size) {
+                    int count = links[2 * node];
+                    if (count == 0) {
+                        // Visit the child the first hitting ray enters first now and the other later, both from that ray
+                        int left = node + 1, right = links[2 * node + 1];
+                        double leftDistance = intersectBox(left, ox[firstRay], oy[firstRay], oz[firstRay],
+                                ix[firstRay], iy[firstRay], iz[firstRay], Double.POSITIVE_INFINITY);
+                        double rightDistance = intersectBox(right, ox[firstRay], oy[firstRay], oz[firstRay],
+                                ix[firstRay], iy[firstRay], iz[firstRay], Double.POSITIVE_INFINITY);
+                        boolean leftFirst = leftDistance <= rightDistance;
+                        nodes[stackSize] = leftFirst ? right : left;
+                        firstRays[stackSize++] = firstRay;
+                        node = leftFirst ? left : right;
+                        continue;
+                    }
+
+                    // The rays that hit the leaf box
+                    int activeCount = 0;
+                    for (int r = firstRay; r < size; r++) {
+                        if (r == firstRay || intersectBox(node, ox[r], oy[r], oz[r], ix[r], iy[r], iz[r],
+                                closestDistances[r]) != Double.POSITIVE_INFINITY) active[activeCount++] = r;
+                    }
+
+                    int first = links[2 * node + 1];
+                    boolean kernels = IntersectionKernels.isEnabled();
+                    for (int i = first; i < first + count; i++) {
+                        Intersectable geometry = geometries[i];
+                        if (kernels && geometry.getClass() == Sphere.class) {
+                            Sphere sphere = (Sphere) geometry;
+                            Point center = sphere.getCenter();
+                            IntersectionKernels.intersectSphere(center.getX(), center.getY(), center.getZ(), sphere.radius,
+                                    ox, oy, oz, dx, dy, dz, active, activeCount, hitDistances);
+                            updateClosest(closest, closestDistances, packet, active, activeCount, sphere, hitDistances);
+                        } else if (kernels && triangleOffsets[i] >= 0) {
+                            IntersectionKernels.intersectTriangle(triangleCoordinates, triangleOffsets[i],
+                                    ox, oy, oz, dx, dy, dz, active, activeCount, hitDistances);
+                            updateClosest(closest, closestDistances, packet, active, activeCount, (Triangle) geometry,
+                                    hitDistances);
+                        } else {
+                            for (int a = 0; a < activeCount; a++) {
+                                int r = active[a];
+                                updateClosest(closest, closestDistances, packet, r,
+                                        owner.intersectClosest(geometry, packet.getRay(r)));
+                            }
+                        }
+                    }
+                    maxDistance = max(closestDistances);
+                }
+            }
+            if (stackSize == 0) return closest;
+            node = nodes[--stackSize];
+            firstRay = firstRays[stackSize];
+        }
+    }
+
+    /**
+     * Keeps an intersection of a ray of a packet if it is nearer than the closest one so far.
+     *
+     * @param closest          the closest intersection of every ray
+     * @param closestDistances the distance to the closest intersection of every ray
+     * @param packet           the rays
+     * @param ray              the index of the ray
+     * @param candidate        the intersection, or null
+     */
+    private static void updateClosest(GeoPoint[] closest, double[] closestDistances, RayPacket packet, int ray,
+                                      GeoPoint candidate) {
+        if (candidate == null) return;
+        double distance = packet.getRay(ray).getP0().distance(candidate.point);
+        if (distance < closestDistances[ray]) {
+            closest[ray] = candidate;
+            closestDistances[ray] = distance;
+        }
+    }
+
+    /**
+     * Keeps the hits of the rays of a packet with a geometry, found by a batch kernel, that are
+     * nearer than the closest ones so far, and counts the tests.
+     *
+     * @param closest          the closest intersection of every ray
+     * @param closestDistances the distance to the closest intersection of every ray
+     * @param packet           the rays
+     * @param active           the indices of the rays tested against the geometry
+     * @param activeCount      the number of the tested rays
+     * @param geometry         the geometry
+     * @param hitDistances     the distance along every ray to its hit with the geometry, infinite if none
+     */
+    private void updateClosest(GeoPoint[] closest, double[] closestDistances, RayPacket packet,
+                               int[] active, int activeCount, Geometry geometry, double[] hitDistances) {
+        for (int a = 0; a < activeCount; a++) {
+            int r = active[a];
+            boolean hit = hitDistances[r] != Double.POSITIVE_INFINITY;
+            owner.record(geometry, hit);
+            if (hit && hitDistances[r] < closestDistances[r]) {
+                updateClosest(closest, closestDistances, packet, r, new GeoPoint(geometry, packet.getRay(r).getPoint(hitDistances[r])));
+            }
+        }
+    }
+
+    /**
+     * Finds the largest of the values of an array.
+     *
+     * @param values the values
+     * @return the largest value, or negative infinity if there are none
+     */
+    private static double max(double[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] > max) max = values[i];
+        }
+        return max;
+    }
+}
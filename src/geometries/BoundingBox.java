@@ -0,0 +1,211 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Represents an axis-aligned bounding box.
+ * <p>
+ * Boxes bound the geometries of acceleration structures, which skip the geometries inside
+ * a box whenever a ray misses the box. Boxes are immutable.
+ * </p>
+ */
+public class BoundingBox implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Relative widening of the ray interval inside the box, so that rounding errors do not let
+     * a ray slip between a geometry and its box (e.g. the flat box of an axis-aligned triangle).
+     */
+    private static final double ROBUST_FACTOR = 1 + 1e-9;
+
+    private final double minX, minY, minZ;
+    private final double maxX, maxY, maxZ;
+
+    /**
+     * Constructs a box from its extreme coordinates.
+     *
+     * @param minX the lowest x coordinate
+     * @param minY the lowest y coordinate
+     * @param minZ the lowest z coordinate
+     * @param maxX the highest x coordinate
+     * @param maxY the highest y coordinate
+     * @param maxZ the highest z coordinate
+     * @throws IllegalArgumentException if a lowest coordinate is above the highest
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            throw new IllegalArgumentException("Box minimum cannot exceed its maximum");
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest box containing points.
+     *
+     * @param points the points, at least one
+     * @return the box bounding the points
+     */
+    public static BoundingBox of(Iterable<Point> points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public double getMinX() { return minX; }
+    public double getMinY() { return minY; }
+    public double getMinZ() { return minZ; }
+    public double getMaxX() { return maxX; }
+    public double getMaxY() { return maxY; }
+    public double getMaxZ() { return maxZ; }
+
+    /**
+     * Gets the lowest coordinate of the box along an axis.
+     *
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return the lowest coordinate
+     */
+    public double getMin(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Gets the highest coordinate of the box along an axis.
+     *
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return the highest coordinate
+     */
+    public double getMax(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Gets the center coordinate of the box along an axis.
+     *
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return the middle of the box along the axis
+     */
+    public double getCenter(int axis) {
+        return (getMin(axis) + getMax(axis)) / 2;
+    }
+
+    /**
+     * Gets the axis along which the box is the longest.
+     *
+     * @return 0 for x, 1 for y and 2 for z
+     */
+    public int getLongestAxis() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return dx >= dy && dx >= dz ? 0 : dy >= dz ? 1 : 2;
+    }
+
+    /**
+     * Calculates the surface area of the box.
+     *
+     * @return the total area of the six faces
+     */
+    public double getSurfaceArea() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Constructs the smallest box containing this box and another.
+     *
+     * @param other the other box
+     * @return the box bounding both boxes
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(
+                Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Constructs a box bounding this box after an affine transformation.
+     *
+     * @param transform the transformation
+     * @return the box bounding the 8 transformed corners of this box
+     */
+    public BoundingBox transform(Transform transform) {
+        Point[] corners = new Point[8];
+        for (int i = 0; i < 8; i++) {
+            corners[i] = transform.transformPoint(new Point(
+                    (i & 1) == 0 ? minX : maxX,
+                    (i & 2) == 0 ? minY : maxY,
+                    (i & 4) == 0 ? minZ : maxZ));
+        }
+        return of(Arrays.asList(corners));
+    }
+
+    /**
+     * Finds the distance along a ray at which it enters the box (slab method).
+     *
+     * @param ray         the ray
+     * @param maxDistance the distance beyond which hits are of no interest
+     * @return the entry distance (0 if the ray starts inside the box),
+     * or {@link Double#POSITIVE_INFINITY} if the ray misses the box within the distance
+     */
+    public double intersect(Ray ray, double maxDistance) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double tMin = 0, tMax = maxDistance;
+        for (int axis = 0; axis < 3; axis++) {
+            double origin = axis == 0 ? p0.getX() : axis == 1 ? p0.getY() : p0.getZ();
+            double d = axis == 0 ? dir.getX() : axis == 1 ? dir.getY() : dir.getZ();
+            double inverse = 1 / d; // infinite for rays parallel to the slab
+            double t1 = (getMin(axis) - origin) * inverse;
+            double t2 = (getMax(axis) - origin) * inverse;
+            if (t1 > t2) {
+                double swap = t1;
+                t1 = t2;
+                t2 = swap;
+            }
+            t2 *= ROBUST_FACTOR;
+            // NaN (a parallel ray on the slab boundary) keeps the current interval
+            if (t1 > tMin) tMin = t1;
+            if (t2 < tMax) tMax = t2;
+            if (tMin > tMax) return Double.POSITIVE_INFINITY;
+        }
+        return tMin;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof BoundingBox other
+                && minX == other.minX && minY == other.minY && minZ == other.minZ
+                && maxX == other.maxX && maxY == other.maxY && maxZ == other.maxZ;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{(" + minX + "," + minY + "," + minZ + ")-(" + maxX + "," + maxY + "," + maxZ + ")}";
+    }
+}
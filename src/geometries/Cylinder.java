@@ -2,11 +2,15 @@ package geometries;
 
 import primitives.*;
 
+import java.io.Serial;
+
 /**
  * Represents a cylinder in a 3D space.
  * The Cylinder class extends Tube and includes an additional height parameter.
  */
 public class Cylinder extends Tube {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * The height of the cylinder.
@@ -49,4 +53,20 @@ public class Cylinder extends Tube {
         }
     }
 
-}
\ No newline at end of file
+    @Override
+    public BoundingBox getBoundingBox() {
+        // Bound the two base discs: a disc of normal n extends r*sqrt(1-n^2) along each axis
+        Ray axis = getAxisRay();
+        Vector dir = axis.getDir();
+        Point bottom = axis.getP0();
+        Point top = axis.getPoint(height);
+        double ex = radius * Math.sqrt(1 - dir.getX() * dir.getX());
+        double ey = radius * Math.sqrt(1 - dir.getY() * dir.getY());
+        double ez = radius * Math.sqrt(1 - dir.getZ() * dir.getZ());
+        return new BoundingBox(
+                Math.min(bottom.getX(), top.getX()) - ex, Math.min(bottom.getY(), top.getY()) - ey,
+                Math.min(bottom.getZ(), top.getZ()) - ez,
+                Math.max(bottom.getX(), top.getX()) + ex, Math.max(bottom.getY(), top.getY()) + ey,
+                Math.max(bottom.getZ(), top.getZ()) + ez);
+    }
+}
@@ -2,17 +2,56 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a collection of geometric shapes.
  * This class implements the Composite design pattern.
+ * <p>
+ * A collection is searched linearly until {@link #buildAcceleration(AccelerationType)} builds an
+ * acceleration structure over it - a bounding volume hierarchy ({@link #buildBVH()}) or a uniform
+ * grid. Collections nested in a collection (directly or through instances) get structures of
+ * their own, forming a two-level structure: after objects of a scene move or change, rebuilding
+ * the scene collection rebuilds only its top level and the changed objects.
+ * </p>
  */
 public class Geometries extends Intersectable {
-    private final List<Intersectable> geometries = new LinkedList<>();
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final LinkedList<Intersectable> geometries = new LinkedList<>();
+
+    /**
+     * Counters of the intersection tests of the contained geometries, null when not collected.
+     */
+    private transient IntersectionStatistics statistics;
+
+    /**
+     * The acceleration structure over the geometries, null while they are searched linearly.
+     */
+    private AccelerationStructure acceleration;
+
+    /**
+     * The kind of the acceleration structure, kept for rebuilding it. Like the structure itself,
+     * it does not change the content of the collection, so it is not serialized.
+     */
+    private transient AccelerationType accelerationType = AccelerationType.BVH;
+
+    /**
+     * Whether the list of the geometries can no longer be changed. A deserialized collection is
+     * not frozen.
+     */
+    private transient boolean frozen;
 
     /**
      * Default constructor (empty)
@@ -33,26 +72,298 @@ public class Geometries extends Intersectable {
      * Adds the given geometries to the list.
      *
      * @param geometries the geometries to add
+     * @throws IllegalStateException if the collection is frozen
      */
     public void add(Intersectable... geometries) {
+        if (frozen) {
+            throw new IllegalStateException("A frozen collection of geometries cannot be changed");
+        }
         Collections.addAll(this.geometries, geometries);
+        acceleration = null; // the structure no longer covers all the geometries
+        if (statistics != null) {
+            for (Intersectable geometry : geometries) {
+                if (composite(geometry) instanceof Geometries composite) composite.setStatistics(statistics);
+            }
+        }
+    }
+
+    /**
+     * Sets the counters of the intersection tests of the geometries in this collection,
+     * including nested collections. Only tests of actual geometries are counted.
+     *
+     * @param statistics the counters, or null to stop counting
+     */
+    public void setStatistics(IntersectionStatistics statistics) {
+        this.statistics = statistics;
+        for (Intersectable geometry : geometries) {
+            if (composite(geometry) instanceof Geometries composite) composite.setStatistics(statistics);
+        }
+    }
+
+    /**
+     * Gets the collection a geometry consists of, looking through instances to their prototypes.
+     *
+     * @param geometry a contained geometry
+     * @return the collection of the geometry, or null if it is a single geometry
+     */
+    private static Geometries composite(Intersectable geometry) {
+        Intersectable prototype = prototype(geometry);
+        return prototype instanceof Geometries composite ? composite : null;
+    }
+
+    /**
+     * Gets the shared geometry a geometry consists of, looking through (nested) instances.
+     *
+     * @param geometry a contained geometry
+     * @return the prototype of an instance, or the geometry itself
+     */
+    private static Intersectable prototype(Intersectable geometry) {
+        while (geometry instanceof Instance instance) geometry = instance.getPrototype();
+        return geometry;
     }
 
     /**
      * Returns the list of geometries.
      *
-     * @return the list of geometries
+     * @return the list of geometries, unmodifiable if the collection is frozen
      */
     public List<Intersectable> getGeometries() {
-        return geometries;
+        return frozen ? Collections.unmodifiableList(geometries) : geometries;
+    }
+
+    /**
+     * Gets the geometries of this collection and of its nested collections, in the order of the
+     * collections. Instances are kept whole, as they place their prototypes.
+     *
+     * @return a new list of the geometries that are not collections
+     */
+    public List<Intersectable> getLeaves() {
+        List<Intersectable> leaves = new ArrayList<>();
+        addLeaves(leaves);
+        return leaves;
+    }
+
+    /**
+     * Adds the geometries of this collection and of its nested collections to a list.
+     *
+     * @param leaves the list of the geometries
+     */
+    private void addLeaves(List<Intersectable> leaves) {
+        for (Intersectable geometry : geometries) {
+            if (geometry instanceof Geometries nested) {
+                nested.addLeaves(leaves);
+            } else {
+                leaves.add(geometry);
+            }
+        }
+    }
+
+    /**
+     * Restores the kind of the acceleration structure of a deserialized collection.
+     *
+     * @param in the stream
+     * @throws IOException            if reading fails
+     * @throws ClassNotFoundException if a class of the geometries is missing
+     */
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        accelerationType = acceleration instanceof UniformGrid ? AccelerationType.GRID : AccelerationType.BVH;
+    }
+
+    /**
+     * Freezes the list of the geometries: no geometries can be added to the collection from now
+     * on, e.g. to a compiled snapshot of a scene.
+     *
+     * @return the collection itself for chaining
+     */
+    public Geometries freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Builds a bounding volume hierarchy over the geometries of this collection.
+     *
+     * @return the collection itself for chaining
+     * @see #buildAcceleration(AccelerationType)
+     */
+    public Geometries buildBVH() {
+        return buildAcceleration(AccelerationType.BVH);
+    }
+
+    /**
+     * Builds an acceleration structure over the geometries of this collection.
+     * <p>
+     * Nested collections that have no structure yet (new ones, or ones changed since their
+     * structure was built) get their own structures of the same kind first; the structures of
+     * the other nested collections are kept. Call this method again after geometries move (e.g.
+     * instances get new transforms) or are added anywhere below this collection.
+     * </p>
+     *
+     * @param type the kind of the structure
+     * @return the collection itself for chaining
+     * @throws IllegalArgumentException if the kind is null
+     */
+    public Geometries buildAcceleration(AccelerationType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Acceleration type cannot be null");
+        }
+        for (Intersectable geometry : geometries) {
+            Geometries composite = composite(geometry);
+            if (composite != null && composite.acceleration == null) composite.buildAcceleration(type);
+        }
+        accelerationType = type;
+        acceleration = switch (type) {
+            case BVH -> new BVH(this, geometries);
+            case GRID -> new UniformGrid(this, geometries);
+        };
+        return this;
+    }
+
+    /**
+     * Updates the acceleration structure of this collection after geometries moved,
+     * e.g. after instances got new transforms.
+     * <p>
+     * A bounding volume hierarchy recomputes its boxes bottom-up without changing the tree, which
+     * costs time linear in the size of the tree; a hierarchy whose quality degraded too much by
+     * the motion (see {@link BVH#refit()}) is rebuilt, and so is a uniform grid. Nested collections
+     * are refitted first, each once even when shared by several instances, and collections
+     * without a structure get one.
+     * </p>
+     *
+     * @return the collection itself for chaining
+     */
+    public Geometries refitAcceleration() {
+        refitAcceleration(Collections.newSetFromMap(new IdentityHashMap<>()));
+        return this;
+    }
+
+    /**
+     * Refits the structure of this collection and of the nested collections not refitted yet.
+     *
+     * @param refitted the collections already refitted
+     */
+    private void refitAcceleration(Set<Geometries> refitted) {
+        if (!refitted.add(this)) return;
+        if (acceleration == null) {
+            buildAcceleration(accelerationType);
+            return;
+        }
+        for (Intersectable geometry : geometries) {
+            Geometries composite = composite(geometry);
+            if (composite != null) composite.refitAcceleration(refitted);
+        }
+        if (!acceleration.refit()) buildAcceleration(accelerationType);
+    }
+
+    /**
+     * Checks whether this collection has an acceleration structure.
+     *
+     * @return true if a structure was built, false if the geometries are searched linearly
+     */
+    public boolean hasAcceleration() {
+        return acceleration != null;
+    }
+
+    /**
+     * Checks whether an object is a search structure over geometries - an acceleration structure
+     * of a collection or the hierarchy of a mesh or a sphere set. Such structures are derived from
+     * the geometries and do not change their content, e.g. they are left out of content hashes.
+     *
+     * @param object the object
+     * @return true if the object is a search structure
+     */
+    public static boolean isSearchStructure(Object object) {
+        return object instanceof AccelerationStructure || object instanceof PrimitiveTree;
+    }
+
+    /**
+     * Gets the acceleration structure of this collection.
+     *
+     * @return the structure, or null if the geometries are searched linearly
+     */
+    AccelerationStructure getAcceleration() {
+        return acceleration;
+    }
+
+    /**
+     * Gets the bounding volume hierarchy of this collection.
+     *
+     * @return the hierarchy, or null if the geometries are searched linearly or by another structure
+     */
+    BVH getBVH() {
+        return acceleration instanceof BVH bvh ? bvh : null;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (acceleration != null) return acceleration.getBoundingBox();
+        BoundingBox box = null;
+        for (Intersectable geometry : geometries) {
+            BoundingBox geometryBox = geometry.getBoundingBox();
+            if (geometryBox == null) return null;
+            box = box == null ? geometryBox : box.union(geometryBox);
+        }
+        return box;
+    }
+
+    /**
+     * Intersects a ray with a member geometry, counting the test.
+     *
+     * @param geometry a member of the collection
+     * @param ray      the ray
+     * @return the intersections, or null if there are none
+     */
+    List<GeoPoint> intersect(Intersectable geometry, Ray ray) {
+        List<GeoPoint> intersections = geometry.findGeoIntersectionsHelper(ray);
+        record(geometry, intersections != null);
+        return intersections;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with a member geometry, counting the test.
+     *
+     * @param geometry a member of the collection
+     * @param ray      the ray
+     * @return the closest intersection, or null if there is none
+     */
+    GeoPoint intersectClosest(Intersectable geometry, Ray ray) {
+        GeoPoint intersection = geometry.findClosestGeoIntersection(ray);
+        record(geometry, intersection != null);
+        return intersection;
+    }
+
+    /**
+     * Counts an intersection test of a member geometry made outside this collection, e.g. by a batch kernel.
+     *
+     * @param geometry a member of the collection
+     * @param hit      whether the test found an intersection
+     */
+    void record(Intersectable geometry, boolean hit) {
+        if (statistics != null && composite(geometry) == null) {
+            statistics.record(prototype(geometry), hit);
+        }
+    }
+
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        return acceleration == null ? super.findClosestGeoIntersection(ray) : acceleration.findClosestGeoIntersection(ray);
+    }
+
+    @Override
+    public GeoPoint[] findClosestGeoIntersections(RayPacket packet) {
+        return acceleration == null ? super.findClosestGeoIntersections(packet) : acceleration.findClosestGeoIntersections(packet);
     }
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        if (acceleration != null) return acceleration.findGeoIntersections(ray);
+
         List<GeoPoint> intersections = null;
 
         for (Intersectable geometry : geometries) {
-            List<GeoPoint> geoIntersections = geometry.findGeoIntersectionsHelper(ray);
+            List<GeoPoint> geoIntersections = intersect(geometry, ray);
             if (geoIntersections != null) {
                 if (intersections == null) {
                     intersections = new LinkedList<>(); // Create list only when first intersection is found
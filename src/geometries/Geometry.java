@@ -2,12 +2,16 @@ package geometries;
 
 import primitives.*;
 
+import java.io.Serial;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Abstract class representing geometric objects in the scene.
  */
 public abstract class Geometry extends Intersectable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     private Material material = new Material(); // Default material
 
@@ -64,5 +68,16 @@ public abstract class Geometry extends Intersectable {
         return this;
     }
 
+    /**
+     * Passes the scene objects whose edits change the appearance of this geometry to an action:
+     * the geometry itself, or the placing instance and the prototype geometry of a hit of an
+     * {@link Instance}.
+     *
+     * @param action the action receiving the objects
+     */
+    public void forEachSource(Consumer<Intersectable> action) {
+        action.accept(this);
+    }
+
     protected abstract List<Intersectable.GeoPoint> findGeoIntersectionsHelper(Ray ray);
 }
@@ -0,0 +1,199 @@
+package geometries;
+
+import primitives.*;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Represents a placed copy of a shared geometry.
+ * <p>
+ * An instance references a prototype geometry (usually a {@link Geometries} model built around the
+ * origin) and places it in the scene by an affine {@link Transform}. Rays are mapped into the
+ * space of the prototype, so any number of instances share a single copy of the prototype's
+ * geometries. An instance may override the material of the whole prototype.
+ * </p>
+ * <p>
+ * An instance can be moved by a new transform; the acceleration structure of the collection
+ * holding it must then be rebuilt (see {@link Geometries#buildAcceleration(AccelerationType)}), which does not rebuild
+ * the structure of the prototype.
+ * </p>
+ * <p>
+ * The hit points of an instance are in world space, and their geometry is a lightweight view of
+ * the hit prototype geometry, giving its normal in world space and the instance material.
+ * </p>
+ */
+public class Instance extends Intersectable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Intersectable prototype;
+    private Transform transform;
+
+    /**
+     * Material replacing the materials of the prototype geometries, null to keep their own.
+     */
+    private Material material;
+
+    /**
+     * Constructs an instance of a prototype geometry.
+     *
+     * @param prototype the shared geometry, in its own (object) space
+     * @param transform the transformation from the object space to the world
+     * @throws IllegalArgumentException if the prototype or the transformation is null
+     */
+    public Instance(Intersectable prototype, Transform transform) {
+        if (prototype == null || transform == null) {
+            throw new IllegalArgumentException("Instance prototype and transform cannot be null");
+        }
+        this.prototype = prototype;
+        this.transform = transform;
+    }
+
+    /**
+     * Gets the shared geometry of the instance.
+     *
+     * @return the prototype geometry
+     */
+    public Intersectable getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Gets the placement of the instance.
+     *
+     * @return the transformation from the object space to the world
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Moves the instance.
+     *
+     * @param transform the new transformation from the object space to the world
+     * @return the instance itself for chaining
+     * @throws IllegalArgumentException if the transformation is null
+     */
+    public Instance setTransform(Transform transform) {
+        if (transform == null) {
+            throw new IllegalArgumentException("Instance transform cannot be null");
+        }
+        this.transform = transform;
+        return this;
+    }
+
+    /**
+     * Gets the material override of the instance.
+     *
+     * @return the material replacing the prototype materials, or null if there is none
+     */
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * Sets a material for all the geometries of this instance, replacing the prototype materials.
+     *
+     * @param material the material, or null to use the prototype materials
+     * @return the instance itself for chaining
+     */
+    public Instance setMaterial(Material material) {
+        this.material = material;
+        return this;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = prototype.getBoundingBox();
+        return box == null ? null : box.transform(transform);
+    }
+
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        // Affine maps keep the order of points along a ray, so the closest hit in object space is the closest in the world
+        GeoPoint intersection = prototype.findClosestGeoIntersection(transform.inverseTransformRay(ray));
+        return intersection == null ? null
+                : new GeoPoint(new InstancedGeometry(this, intersection.geometry), transform.transformPoint(intersection.point));
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        List<GeoPoint> intersections = prototype.findGeoIntersections(transform.inverseTransformRay(ray));
+        if (intersections == null) return null;
+        return intersections.stream()
+                .map(gp -> new GeoPoint(new InstancedGeometry(this, gp.geometry), transform.transformPoint(gp.point)))
+                .toList();
+    }
+
+    /**
+     * A prototype geometry as placed by an instance.
+     */
+    static class InstancedGeometry extends Geometry {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Instance instance;
+        private final Geometry geometry;
+
+        /**
+         * Constructs a view of a prototype geometry placed by an instance.
+         *
+         * @param instance the placing instance
+         * @param geometry the prototype geometry
+         */
+        InstancedGeometry(Instance instance, Geometry geometry) {
+            this.instance = instance;
+            this.geometry = geometry;
+            this.emission = geometry.getEmission();
+        }
+
+        /**
+         * Gets the prototype geometry.
+         *
+         * @return the geometry in the object space of the instance
+         */
+        Geometry getGeometry() {
+            return geometry;
+        }
+
+        @Override
+        public void forEachSource(Consumer<Intersectable> action) {
+            action.accept(instance);
+            geometry.forEachSource(action);
+        }
+
+        @Override
+        public Material getMaterial() {
+            return instance.material == null ? geometry.getMaterial() : instance.material;
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            Transform transform = instance.transform;
+            return transform.transformNormal(geometry.getNormal(transform.inverseTransformPoint(point)));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            Transform transform = instance.transform;
+            List<GeoPoint> intersections = geometry.findGeoIntersections(transform.inverseTransformRay(ray));
+            if (intersections == null) return null;
+            return intersections.stream()
+                    .map(gp -> new GeoPoint(this, transform.transformPoint(gp.point)))
+                    .toList();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            return o instanceof InstancedGeometry other && instance == other.instance && geometry.equals(other.geometry);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(instance) * 31 + geometry.hashCode();
+        }
+    }
+}
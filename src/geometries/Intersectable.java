@@ -2,14 +2,19 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * The Intersectable class represents geometric shapes that can be intersected by a ray.
  * It provides a method for finding the intersection points between a ray and the geometry.
  */
-public abstract class Intersectable {
+public abstract class Intersectable implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * Finds the intersection points between the given ray and the geometry.
@@ -32,6 +37,47 @@ public abstract class Intersectable {
         return findGeoIntersectionsHelper(ray);
     }
 
+    /**
+     * Finds the intersection point closest to the origin of the given ray.
+     * <p>
+     * Acceleration structures override this method to stop searching parts of the scene
+     * that are farther than a hit already found.
+     * </p>
+     *
+     * @param ray the ray to intersect with the geometry.
+     * @return the closest intersection point with its geometry, or null if the ray misses the geometry.
+     */
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        return ray.findClosestGeoPoint(findGeoIntersections(ray));
+    }
+
+    /**
+     * Finds the intersection points closest to the origins of a packet of rays.
+     * <p>
+     * Acceleration structures override this method to traverse the scene with all the rays
+     * together, culling the parts of the scene that the whole packet misses.
+     * </p>
+     *
+     * @param packet the rays
+     * @return the closest intersection of every ray of the packet, null for the rays that miss the geometry
+     */
+    public GeoPoint[] findClosestGeoIntersections(RayPacket packet) {
+        GeoPoint[] intersections = new GeoPoint[packet.size()];
+        for (int i = 0; i < intersections.length; i++) {
+            intersections[i] = findClosestGeoIntersection(packet.getRay(i));
+        }
+        return intersections;
+    }
+
+    /**
+     * Gets the axis-aligned box bounding the geometry, used by acceleration structures.
+     *
+     * @return the bounding box, or null if the geometry is unbounded (e.g. a plane)
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
     /**
      * Helper method to find the intersection points between the given ray and the geometry, including the geometry information.
      * This method should be implemented by subclasses.
@@ -0,0 +1,268 @@
+package geometries;
+
+/**
+ * Batch intersection kernels of spheres and triangles.
+ * <p>
+ * Every kernel intersects one ray with many primitives, or many rays with one primitive, whose
+ * coordinates are given in structure-of-arrays layout, and writes the distance along each ray
+ * to its nearest hit. The loops read primitive arrays only, without the allocations of points,
+ * vectors and lists or the virtual calls of the scalar path. The arithmetic repeats the scalar
+ * intersection code of {@link Sphere} and {@link Triangle} operation by operation, so both
+ * paths find the very same hit points (only rays grazing a triangle edge may be decided
+ * differently).
+ * </p>
+ * <p>
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector} and the processor holds at
+ * least 4 doubles in a vector, the loops intersect 4 or 8 primitives or rays at once by the
+ * Vector API kernels of {@link VectorKernels}. Otherwise, or when {@link #setVectorEnabled(boolean)}
+ * or the system property {@code renderer.kernels=loops} turns them off, they are plain scalar
+ * loops whose speed does not rely on the JIT compiler vectorizing them.
+ * </p>
+ * <p>
+ * The kernels are used by acceleration structures that trace many rays or primitives together.
+ * They are enabled by default; the scalar path (intersecting every primitive alone) is selected
+ * by {@link #setEnabled(boolean)} or by the system property {@code renderer.kernels=scalar}.
+ * </p>
+ */
+public final class IntersectionKernels {
+    /**
+     * Numbers below this magnitude are treated as zero, as by {@link primitives.Util#isZero(double)}.
+     */
+    private static final double EPSILON = 0x1p-40;
+
+    /**
+     * Whether the batch kernels are used.
+     */
+    private static volatile boolean enabled = !"scalar".equalsIgnoreCase(System.getProperty("renderer.kernels"));
+
+    /**
+     * Whether the Vector API kernels can run: the incubator module is present and a vector holds
+     * at least 4 doubles.
+     */
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorKernels.LANES >= 4;
+
+    /**
+     * Whether the loops use the Vector API kernels.
+     */
+    private static volatile boolean vectorEnabled = VECTOR_AVAILABLE
+            && !"loops".equalsIgnoreCase(System.getProperty("renderer.kernels"));
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private IntersectionKernels() {
+    }
+
+    /**
+     * Checks whether the batch kernels are used.
+     *
+     * @return true for the batch kernels, false for the scalar path
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Selects between the batch kernels and the scalar path.
+     *
+     * @param enabled true to use the batch kernels, false to intersect every primitive alone
+     */
+    public static void setEnabled(boolean enabled) {
+        IntersectionKernels.enabled = enabled;
+    }
+
+    /**
+     * Checks whether the Vector API kernels can run in this JVM.
+     *
+     * @return true if the module {@code jdk.incubator.vector} is present and a vector holds at least 4 doubles
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * Checks whether the loops use the Vector API kernels.
+     *
+     * @return true for the Vector API kernels, false for the scalar loops
+     */
+    public static boolean isVectorEnabled() {
+        return vectorEnabled;
+    }
+
+    /**
+     * Selects between the Vector API kernels and the scalar loops.
+     *
+     * @param vectorEnabled true to use the Vector API kernels, false for the scalar loops
+     * @throws IllegalStateException if the Vector API kernels are selected but cannot run in this JVM
+     */
+    public static void setVectorEnabled(boolean vectorEnabled) {
+        if (vectorEnabled && !VECTOR_AVAILABLE)
+            throw new IllegalStateException("The Vector API kernels need --add-modules jdk.incubator.vector");
+        IntersectionKernels.vectorEnabled = vectorEnabled;
+    }
+
+    /**
+     * Finds the distance along a ray to its nearest hit with a sphere.
+     *
+     * @param ox the x coordinate of the ray origin
+     * @param oy the y coordinate of the ray origin
+     * @param oz the z coordinate of the ray origin
+     * @param dx the x coordinate of the (normalized) ray direction
+     * @param dy the y coordinate of the ray direction
+     * @param dz the z coordinate of the ray direction
+     * @param cx the x coordinate of the sphere center
+     * @param cy the y coordinate of the sphere center
+     * @param cz the z coordinate of the sphere center
+     * @param r  the sphere radius
+     * @return the distance to the nearest hit ahead of the origin, or {@link Double#POSITIVE_INFINITY}
+     */
+    static double sphereDistance(double ox, double oy, double oz, double dx, double dy, double dz,
+                                 double cx, double cy, double cz, double r) {
+        double ux = cx - ox, uy = cy - oy, uz = cz - oz;
+        double tm = (dx * ux) + (dy * uy) + (dz * uz);
+        double dSquared = ((ux * ux) + (uy * uy) + (uz * uz)) - tm * tm;
+        double rSquared = r * r;
+        double th = Math.sqrt(Math.max(rSquared - dSquared, 0));
+        double t1 = tm - th, t2 = tm + th;
+        double t = t1 >= EPSILON ? t1 : t2 >= EPSILON ? t2 : Double.POSITIVE_INFINITY;
+        return dSquared - rSquared <= -EPSILON ? t : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Intersects one ray with many spheres.
+     *
+     * @param ox        the x coordinate of the ray origin
+     * @param oy        the y coordinate of the ray origin
+     * @param oz        the z coordinate of the ray origin
+     * @param dx        the x coordinate of the (normalized) ray direction
+     * @param dy        the y coordinate of the ray direction
+     * @param dz        the z coordinate of the ray direction
+     * @param cx        the x coordinates of the sphere centers
+     * @param cy        the y coordinates of the sphere centers
+     * @param cz        the z coordinates of the sphere centers
+     * @param radii     the sphere radii
+     * @param from      the index of the first sphere
+     * @param to        the index after the last sphere
+     * @param distances receives the distance to the nearest hit with every sphere, at the sphere index,
+     *                  or {@link Double#POSITIVE_INFINITY} for the spheres the ray misses
+     */
+    static void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                                 double[] cx, double[] cy, double[] cz, double[] radii, int from, int to,
+                                 double[] distances) {
+        int first = vectorEnabled ? VectorKernels.intersectSpheres(ox, oy, oz, dx, dy, dz, cx, cy, cz, radii, from, to, distances) : from;
+        for (int i = first; i < to; i++) {
+            distances[i] = sphereDistance(ox, oy, oz, dx, dy, dz, cx[i], cy[i], cz[i], radii[i]);
+        }
+    }
+
+    /**
+     * Intersects many rays with one sphere.
+     *
+     * @param cx        the x coordinate of the sphere center
+     * @param cy        the y coordinate of the sphere center
+     * @param cz        the z coordinate of the sphere center
+     * @param r         the sphere radius
+     * @param ox        the x coordinates of the ray origins
+     * @param oy        the y coordinates of the ray origins
+     * @param oz        the z coordinates of the ray origins
+     * @param dx        the x coordinates of the (normalized) ray directions
+     * @param dy        the y coordinates of the ray directions
+     * @param dz        the z coordinates of the ray directions
+     * @param rays      the indices of the rays to intersect
+     * @param count     the number of the rays to intersect
+     * @param distances receives the distance along every intersected ray to its nearest hit, at the ray
+     *                  index, or {@link Double#POSITIVE_INFINITY} for the rays that miss the sphere
+     */
+    static void intersectSphere(double cx, double cy, double cz, double r,
+                                double[] ox, double[] oy, double[] oz, double[] dx, double[] dy, double[] dz,
+                                int[] rays, int count, double[] distances) {
+        int first = vectorEnabled ? VectorKernels.intersectSphere(cx, cy, cz, r, ox, oy, oz, dx, dy, dz, rays, count, distances) : 0;
+        for (int a = first; a < count; a++) {
+            int i = rays[a];
+            distances[i] = sphereDistance(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i], cx, cy, cz, r);
+        }
+    }
+
+    /**
+     * Finds the distance along a ray to its hit with a triangle: the hit with the plane of the
+     * triangle, kept if the ray passes on the same side of all three edges.
+     *
+     * @param ox     the x coordinate of the ray origin
+     * @param oy     the y coordinate of the ray origin
+     * @param oz     the z coordinate of the ray origin
+     * @param dx     the x coordinate of the (normalized) ray direction
+     * @param dy     the y coordinate of the ray direction
+     * @param dz     the z coordinate of the ray direction
+     * @param t      the triangles, 12 coordinates each: the 3 vertices and the unit normal
+     * @param offset the index of the first coordinate of the triangle
+     * @return the distance to the hit ahead of the origin, or {@link Double#POSITIVE_INFINITY}
+     */
+    static double triangleDistance(double ox, double oy, double oz, double dx, double dy, double dz,
+                                   double[] t, int offset) {
+        double ax = t[offset] - ox, ay = t[offset + 1] - oy, az = t[offset + 2] - oz;
+        double bx = t[offset + 3] - ox, by = t[offset + 4] - oy, bz = t[offset + 5] - oz;
+        double cx = t[offset + 6] - ox, cy = t[offset + 7] - oy, cz = t[offset + 8] - oz;
+        double nx = t[offset + 9], ny = t[offset + 10], nz = t[offset + 11];
+
+        double numerator = (nx * ax) + (ny * ay) + (nz * az);
+        double denominator = (nx * dx) + (ny * dy) + (nz * dz);
+        double distance = numerator / denominator;
+
+        // The side of every edge is the sign of the direction against the normal of the edge plane
+        double s1 = dx * (ay * bz - az * by) + dy * (az * bx - ax * bz) + dz * (ax * by - ay * bx);
+        double s2 = dx * (by * cz - bz * cy) + dy * (bz * cx - bx * cz) + dz * (bx * cy - by * cx);
+        double s3 = dx * (cy * az - cz * ay) + dy * (cz * ax - cx * az) + dz * (cx * ay - cy * ax);
+        boolean inside = s1 > 0 ? s2 > 0 && s3 > 0 : s1 < 0 && s2 < 0 && s3 < 0;
+        return inside && Math.abs(denominator) >= EPSILON && distance > 0 ? distance : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Intersects one ray with many triangles.
+     *
+     * @param ox        the x coordinate of the ray origin
+     * @param oy        the y coordinate of the ray origin
+     * @param oz        the z coordinate of the ray origin
+     * @param dx        the x coordinate of the (normalized) ray direction
+     * @param dy        the y coordinate of the ray direction
+     * @param dz        the z coordinate of the ray direction
+     * @param triangles the triangles, 12 coordinates each: the 3 vertices and the unit normal
+     * @param from      the index of the first triangle
+     * @param to        the index after the last triangle
+     * @param distances receives the distance to the hit with every triangle, at the triangle index,
+     *                  or {@link Double#POSITIVE_INFINITY} for the triangles the ray misses
+     */
+    static void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                                   double[] triangles, int from, int to, double[] distances) {
+        int first = vectorEnabled ? VectorKernels.intersectTriangles(ox, oy, oz, dx, dy, dz, triangles, from, to, distances) : from;
+        for (int i = first; i < to; i++) {
+            distances[i] = triangleDistance(ox, oy, oz, dx, dy, dz, triangles, 12 * i);
+        }
+    }
+
+    /**
+     * Intersects many rays with one triangle.
+     *
+     * @param triangles the triangles, 12 coordinates each: the 3 vertices and the unit normal
+     * @param offset    the index of the first coordinate of the triangle
+     * @param ox        the x coordinates of the ray origins
+     * @param oy        the y coordinates of the ray origins
+     * @param oz        the z coordinates of the ray origins
+     * @param dx        the x coordinates of the (normalized) ray directions
+     * @param dy        the y coordinates of the ray directions
+     * @param dz        the z coordinates of the ray directions
+     * @param rays      the indices of the rays to intersect
+     * @param count     the number of the rays to intersect
+     * @param distances receives the distance along every intersected ray to its hit, at the ray index,
+     *                  or {@link Double#POSITIVE_INFINITY} for the rays that miss the triangle
+     */
+    static void intersectTriangle(double[] triangles, int offset,
+                                  double[] ox, double[] oy, double[] oz, double[] dx, double[] dy, double[] dz,
+                                  int[] rays, int count, double[] distances) {
+        int first = vectorEnabled ? VectorKernels.intersectTriangle(triangles, offset, ox, oy, oz, dx, dy, dz, rays, count, distances) : 0;
+        for (int a = first; a < count; a++) {
+            int i = rays[a];
+            distances[i] = triangleDistance(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i], triangles, offset);
+        }
+    }
+}
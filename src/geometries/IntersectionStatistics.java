@@ -0,0 +1,63 @@
+package geometries;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts ray-geometry intersection tests and hits per geometry class.
+ * <p>
+ * The counters are striped ({@link LongAdder}), so many rendering threads can update them
+ * concurrently without contending on a single memory location.
+ * </p>
+ */
+public class IntersectionStatistics {
+    /**
+     * Counters per geometry class: index 0 counts tests, index 1 counts hits.
+     */
+    private final Map<Class<?>, LongAdder[]> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Records a single intersection test.
+     *
+     * @param geometry the tested geometry
+     * @param hit      whether the ray intersected the geometry
+     */
+    public void record(Intersectable geometry, boolean hit) {
+        LongAdder[] counter = counters.computeIfAbsent(geometry.getClass(),
+                type -> new LongAdder[]{new LongAdder(), new LongAdder()});
+        counter[0].increment();
+        if (hit) counter[1].increment();
+    }
+
+    /**
+     * Gets the number of intersection tests per geometry class.
+     *
+     * @return the tests count by simple class name, sorted by name
+     */
+    public Map<String, Long> getTests() {
+        return snapshot(0);
+    }
+
+    /**
+     * Gets the number of intersection hits per geometry class.
+     *
+     * @return the hits count by simple class name, sorted by name
+     */
+    public Map<String, Long> getHits() {
+        return snapshot(1);
+    }
+
+    /**
+     * Takes a snapshot of one of the counters of all the geometry classes.
+     *
+     * @param index the counter index
+     * @return the counter values by simple class name
+     */
+    private Map<String, Long> snapshot(int index) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((type, counter) -> result.merge(type.getSimpleName(), counter[index].sum(), Long::sum));
+        return result;
+    }
+}
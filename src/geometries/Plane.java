@@ -6,6 +6,7 @@ import primitives.Util;
 import primitives.Vector;
 import geometries.Intersectable.GeoPoint;
 
+import java.io.Serial;
 import java.util.List;
 
 /**
@@ -13,6 +14,8 @@ import java.util.List;
  * The Plane class provides methods for creating a plane and getting its normal vector.
  */
 public class Plane extends Geometry {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * A point on the plane.
@@ -1,5 +1,6 @@
 package geometries;
 
+import java.io.Serial;
 import java.util.List;
 
 import static primitives.Util.isZero;
@@ -16,9 +17,13 @@ import geometries.Intersectable.GeoPoint;
  * @author Dan
  */
 public class Polygon extends Geometry {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /**
-     * List of polygon's vertices
+     * List of polygon's vertices (an unmodifiable {@link List#of} list, which is serializable)
      */
+    @SuppressWarnings("serial")
     protected final List<Point> vertices;
     /**
      * Associated plane in which the polygon lays
@@ -94,6 +99,11 @@ public class Polygon extends Geometry {
         return plane.getNormal();
     }
 
+    @Override
+    public BoundingBox getBoundingBox() {
+        return BoundingBox.of(vertices);
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
         return null;
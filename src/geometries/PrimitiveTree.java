@@ -0,0 +1,410 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A bounding volume hierarchy over the primitives of a compact geometry, such as the spheres of
+ * a {@link SphereSet} or the triangles of a {@link TriangleMesh}, which keep their primitives in
+ * primitive arrays rather than as objects.
+ * <p>
+ * The tree is built by median splits along the longest axis of the primitive centers, reordering
+ * the primitives of the geometry (through {@link Primitives#swap(int, int)}) so that every leaf
+ * holds a contiguous range of them. Like {@link BVH}, it is stored flat in depth-first order:
+ * node {@code i} has its box in {@code bounds[6i..6i+5]} and its links in {@code links[2i..2i+1]}.
+ * </p>
+ * <p>
+ * In single precision the boxes are stored as floats, halving the memory of the boxes and the
+ * memory read by a traversal. The float bounds are rounded outward, so a box still contains its
+ * primitives and no ray hitting a primitive misses its box.
+ * </p>
+ */
+class PrimitiveTree implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Relative widening of the ray interval inside a box, as in {@link BoundingBox#intersect(Ray, double)}.
+     */
+    private static final double ROBUST_FACTOR = 1 + 1e-9;
+
+    /**
+     * The primitives of a geometry, as seen by the tree.
+     */
+    interface Primitives {
+        /**
+         * Gets the number of primitives.
+         *
+         * @return the number of primitives
+         */
+        int size();
+
+        /**
+         * Gets the lowest coordinate of a primitive along an axis.
+         *
+         * @param axis  0 for x, 1 for y and 2 for z
+         * @param index the index of the primitive
+         * @return the lowest coordinate of the box bounding the primitive
+         */
+        double getMin(int axis, int index);
+
+        /**
+         * Gets the highest coordinate of a primitive along an axis.
+         *
+         * @param axis  0 for x, 1 for y and 2 for z
+         * @param index the index of the primitive
+         * @return the highest coordinate of the box bounding the primitive
+         */
+        double getMax(int axis, int index);
+
+        /**
+         * Swaps two primitives.
+         *
+         * @param i the index of one primitive
+         * @param j the index of the other primitive
+         */
+        void swap(int i, int j);
+    }
+
+    /**
+     * Intersects a ray with the primitives of a leaf.
+     */
+    @FunctionalInterface
+    interface LeafVisitor {
+        /**
+         * Intersects a ray with a range of primitives.
+         *
+         * @param first       the index of the first primitive of the leaf
+         * @param count       the number of primitives of the leaf
+         * @param maxDistance the distance beyond which hits are of no interest
+         * @return the distance to the closest hit below the maximal distance, or the maximal distance
+         */
+        double visit(int first, int count, double maxDistance);
+    }
+
+    /**
+     * The boxes of the nodes, 6 values per node: the lowest x, y, z and the highest x, y, z,
+     * in one of the two arrays by the precision of the tree.
+     */
+    private double[] bounds;
+    private float[] singleBounds;
+
+    /**
+     * The links of the nodes, 2 values per node: for an inner node 0 and the index of its second
+     * child, for a leaf the number of its primitives and the index of its first primitive.
+     */
+    private int[] links;
+
+    private int nodeCount;
+
+    /**
+     * The number of levels of the tree.
+     */
+    private int depth;
+
+    /**
+     * Builds a tree over the primitives of a geometry, reordering them.
+     *
+     * @param primitives      the primitives
+     * @param maxLeafSize     the largest number of primitives in a leaf
+     * @param singlePrecision true to store the boxes as floats
+     */
+    PrimitiveTree(Primitives primitives, int maxLeafSize, boolean singlePrecision) {
+        int size = primitives.size();
+        // Median splits leave at least (maxLeafSize + 1) / 2 primitives in every leaf of a split range
+        int leaves = Math.max(1, size / ((maxLeafSize + 1) / 2));
+        int capacity = size == 0 ? 0 : 2 * leaves - 1;
+        if (singlePrecision) singleBounds = new float[6 * capacity];
+        else bounds = new double[6 * capacity];
+        links = new int[2 * capacity];
+        float[] centers = new float[3 * size];
+        for (int i = 0; i < size; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                centers[3 * i + axis] = (float) ((primitives.getMin(axis, i) + primitives.getMax(axis, i)) / 2);
+            }
+        }
+        if (size > 0) build(primitives, centers, maxLeafSize, 0, size, 1);
+        if (singlePrecision) singleBounds = Arrays.copyOf(singleBounds, 6 * nodeCount);
+        else bounds = Arrays.copyOf(bounds, 6 * nodeCount);
+        links = Arrays.copyOf(links, 2 * nodeCount);
+    }
+
+    /**
+     * Rounds a number to the greatest float not above it.
+     *
+     * @param value the number
+     * @return the float
+     */
+    static float roundDown(double value) {
+        float rounded = (float) value;
+        return rounded > value ? Math.nextDown(rounded) : rounded;
+    }
+
+    /**
+     * Rounds a number to the least float not below it.
+     *
+     * @param value the number
+     * @return the float
+     */
+    static float roundUp(double value) {
+        float rounded = (float) value;
+        return rounded < value ? Math.nextUp(rounded) : rounded;
+    }
+
+    /**
+     * Builds the subtree over a range of the primitives in depth-first order, splitting the range
+     * at the median center along the longest axis of the centers. The box of a leaf bounds its
+     * primitives, and the box of an inner node is the union of the boxes of its children.
+     *
+     * @param primitives  the primitives
+     * @param centers     the centers of the boxes of the primitives, 3 per primitive, reordered with them
+     * @param maxLeafSize the largest number of primitives in a leaf
+     * @param start       the index of the first primitive of the range
+     * @param end         the index following the range
+     * @param level       the level of the subtree root, 1 for the root of the tree
+     */
+    private void build(Primitives primitives, float[] centers, int maxLeafSize, int start, int end, int level) {
+        int node = nodeCount++;
+        depth = Math.max(depth, level);
+        int b = 6 * node;
+        if (end - start <= maxLeafSize) {
+            for (int axis = 0; axis < 3; axis++) {
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                for (int i = start; i < end; i++) {
+                    min = Math.min(min, primitives.getMin(axis, i));
+                    max = Math.max(max, primitives.getMax(axis, i));
+                }
+                if (singleBounds == null) {
+                    bounds[b + axis] = min;
+                    bounds[b + 3 + axis] = max;
+                } else {
+                    singleBounds[b + axis] = roundDown(min);
+                    singleBounds[b + 3 + axis] = roundUp(max);
+                }
+            }
+            links[2 * node] = end - start;
+            links[2 * node + 1] = start;
+            return;
+        }
+
+        float inf = Float.POSITIVE_INFINITY;
+        float[] extent = {inf, inf, inf, -inf, -inf, -inf};
+        for (int i = start; i < end; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                float center = centers[3 * i + axis];
+                extent[axis] = Math.min(extent[axis], center);
+                extent[axis + 3] = Math.max(extent[axis + 3], center);
+            }
+        }
+        float dx = extent[3] - extent[0], dy = extent[4] - extent[1], dz = extent[5] - extent[2];
+        int axis = dx >= dy && dx >= dz ? 0 : dy >= dz ? 1 : 2;
+        int middle = (start + end) >>> 1;
+        select(primitives, centers, axis, start, end, middle);
+
+        build(primitives, centers, maxLeafSize, start, middle, level + 1);
+        int right = nodeCount;
+        links[2 * node + 1] = right;
+        build(primitives, centers, maxLeafSize, middle, end, level + 1);
+
+        int l = 6 * (node + 1), r = 6 * right;
+        for (int i = 0; i < 3; i++) {
+            if (singleBounds == null) {
+                bounds[b + i] = Math.min(bounds[l + i], bounds[r + i]);
+                bounds[b + 3 + i] = Math.max(bounds[l + 3 + i], bounds[r + 3 + i]);
+            } else {
+                singleBounds[b + i] = Math.min(singleBounds[l + i], singleBounds[r + i]);
+                singleBounds[b + 3 + i] = Math.max(singleBounds[l + 3 + i], singleBounds[r + 3 + i]);
+            }
+        }
+    }
+
+    /**
+     * Reorders a range of the primitives so that the primitive at an index is the one that would
+     * be there if the range were sorted by the center coordinate along an axis, with no primitive
+     * before it greater and no primitive after it smaller (quickselect).
+     *
+     * @param primitives the primitives
+     * @param centers    the centers of the primitives, reordered with them
+     * @param axis       the sorting axis
+     * @param start      the index of the first primitive of the range
+     * @param end        the index following the range
+     * @param nth        the index to place
+     */
+    private static void select(Primitives primitives, float[] centers, int axis, int start, int end, int nth) {
+        int low = start, high = end - 1;
+        while (low < high) {
+            float pivot = centers[3 * ((low + high) >>> 1) + axis];
+            int i = low, j = high;
+            while (i <= j) {
+                while (centers[3 * i + axis] < pivot) i++;
+                while (centers[3 * j + axis] > pivot) j--;
+                if (i <= j) {
+                    for (int k = 0; k < 3; k++) {
+                        float center = centers[3 * i + k];
+                        centers[3 * i + k] = centers[3 * j + k];
+                        centers[3 * j + k] = center;
+                    }
+                    primitives.swap(i++, j--);
+                }
+            }
+            if (nth <= j) high = j;
+            else if (nth >= i) low = i;
+            else return;
+        }
+    }
+
+    /**
+     * Gets the number of nodes of the tree.
+     *
+     * @return the number of nodes, 0 for a tree over no primitives
+     */
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Checks whether the boxes are stored as floats.
+     *
+     * @return true for single precision, false for double precision
+     */
+    boolean isSinglePrecision() {
+        return singleBounds != null;
+    }
+
+    /**
+     * Gets a bound of a node.
+     *
+     * @param index the index of the bound: 6 times the node index plus 0-2 for the lowest x, y, z
+     *              or 3-5 for the highest x, y, z
+     * @return the bound
+     */
+    private double bound(int index) {
+        return bounds != null ? bounds[index] : singleBounds[index];
+    }
+
+    /**
+     * Gets the box of the root of the tree.
+     *
+     * @return the box bounding all the primitives, or null if there are none
+     */
+    BoundingBox getBoundingBox() {
+        return nodeCount == 0 ? null : new BoundingBox(bound(0), bound(1), bound(2), bound(3), bound(4), bound(5));
+    }
+
+    /**
+     * Finds the distance along a ray at which it enters the box of a node (slab method).
+     *
+     * @param node        the node index
+     * @param ox          the x coordinate of the ray origin
+     * @param oy          the y coordinate of the ray origin
+     * @param oz          the z coordinate of the ray origin
+     * @param ix          the inverse of the x component of the ray direction
+     * @param iy          the inverse of the y component of the ray direction
+     * @param iz          the inverse of the z component of the ray direction
+     * @param maxDistance the distance beyond which hits are of no interest
+     * @return the entry distance, or {@link Double#POSITIVE_INFINITY} if the ray misses the box within the distance
+     */
+    private double intersectBox(int node, double ox, double oy, double oz,
+                                double ix, double iy, double iz, double maxDistance) {
+        int b = 6 * node;
+        double tMin = 0, tMax = maxDistance;
+        for (int axis = 0; axis < 3; axis++) {
+            double origin = axis == 0 ? ox : axis == 1 ? oy : oz;
+            double inverse = axis == 0 ? ix : axis == 1 ? iy : iz;
+            double t1 = (bound(b + axis) - origin) * inverse, t2 = (bound(b + 3 + axis) - origin) * inverse;
+            // NaN (a ray parallel to a slab and on its boundary) leaves the interval unchanged
+            if (t1 == t1 && t2 == t2) {
+                if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+                if (t1 > tMin) tMin = t1;
+                if (t2 * ROBUST_FACTOR < tMax) tMax = t2 * ROBUST_FACTOR;
+            }
+        }
+        return tMin <= tMax ? tMin : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Searches the leaves crossed by a ray for the closest hit. The nearer child of every node is
+     * visited first, and nodes farther than the closest hit found so far are skipped.
+     *
+     * @param ray     the ray
+     * @param visitor intersects the ray with the primitives of a leaf
+     * @return the distance to the closest hit, or {@link Double#POSITIVE_INFINITY} if there is none
+     */
+    double findClosest(Ray ray, LeafVisitor visitor) {
+        double closestDistance = Double.POSITIVE_INFINITY;
+        if (nodeCount == 0) return closestDistance;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double ix = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+
+        int[] nodes = new int[depth + 1];
+        double[] distances = new double[depth + 1];
+        int top = 0;
+        int node = 0;
+        double nodeDistance = intersectBox(0, ox, oy, oz, ix, iy, iz, closestDistance);
+        while (true) {
+            if (nodeDistance < closestDistance) {
+                int count = links[2 * node];
+                if (count == 0) {
+                    int left = node + 1, right = links[2 * node + 1];
+                    double leftDistance = intersectBox(left, ox, oy, oz, ix, iy, iz, closestDistance);
+                    double rightDistance = intersectBox(right, ox, oy, oz, ix, iy, iz, closestDistance);
+                    // Visit the nearer child now and the farther child later
+                    if (leftDistance <= rightDistance) {
+                        nodes[top] = right;
+                        distances[top++] = rightDistance;
+                        node = left;
+                        nodeDistance = leftDistance;
+                    } else {
+                        nodes[top] = left;
+                        distances[top++] = leftDistance;
+                        node = right;
+                        nodeDistance = rightDistance;
+                    }
+                    continue;
+                }
+                closestDistance = visitor.visit(links[2 * node + 1], count, closestDistance);
+            }
+            if (top == 0) return closestDistance;
+            node = nodes[--top];
+            nodeDistance = distances[top];
+        }
+    }
+
+    /**
+     * Visits all the leaves crossed by a ray.
+     *
+     * @param ray     the ray
+     * @param visitor visits the primitives of a leaf, given an infinite maximal distance
+     */
+    void visitLeaves(Ray ray, LeafVisitor visitor) {
+        if (nodeCount == 0) return;
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double ix = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+
+        int[] nodes = new int[depth + 1];
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (intersectBox(node, ox, oy, oz, ix, iy, iz, Double.POSITIVE_INFINITY) != Double.POSITIVE_INFINITY) {
+                int count = links[2 * node];
+                if (count == 0) {
+                    nodes[top++] = links[2 * node + 1];
+                    node++;
+                    continue;
+                }
+                visitor.visit(links[2 * node + 1], count, Double.POSITIVE_INFINITY);
+            }
+            if (top == 0) return;
+            node = nodes[--top];
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package geometries;
 
+import java.io.Serial;
+
 /**
  * The RadialGeometry abstract class represents a circular geometric body.
  * It extends the Geometry class.
  */
 public abstract class RadialGeometry extends Geometry {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * The radius of the circular radial geometry.
@@ -3,6 +3,7 @@ package geometries;
 import primitives.*;
 import geometries.Intersectable.GeoPoint;
 
+import java.io.Serial;
 import java.util.List;
 
 /**
@@ -10,6 +11,8 @@ import java.util.List;
  * The Sphere class extends RadialGeometry and includes a center point and a radius.
  */
 public class Sphere extends RadialGeometry {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * The center point of the sphere.
@@ -27,6 +30,15 @@ public class Sphere extends RadialGeometry {
         this.center = center;
     }
 
+    /**
+     * Gets the center of the sphere.
+     *
+     * @return the center point
+     */
+    Point getCenter() {
+        return center;
+    }
+
     /**
      * Calculates the normal vector to the sphere at a given point.
      *
@@ -40,6 +52,13 @@ public class Sphere extends RadialGeometry {
         return point.subtract(center).normalize();
     }
 
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(
+                center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
         Point p0 = ray.getP0();
@@ -0,0 +1,401 @@
+package geometries;
+
+import primitives.*;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A set of many spheres stored compactly, for particle-style content such as clouds, grass or seeds.
+ * <p>
+ * Instead of a {@link Sphere} object per sphere, with its own header, center {@link Point} and
+ * material, the set keeps the centers and radii in parallel primitive arrays, and every sphere
+ * refers by index to one of a few shared appearances (a material and an emission color). A
+ * sphere takes about 50 bytes with its share of the hierarchy, so a million spheres fit in
+ * some 50 MB.
+ * </p>
+ * <p>
+ * The set is bounded by a hierarchy of its own ({@link PrimitiveTree}), built when the set is
+ * first intersected after spheres were added. The build reorders the spheres so that every leaf
+ * holds a contiguous range of the arrays, which is then intersected by a loop streaming through
+ * the arrays. Spheres should not be added while the set is being intersected by other threads.
+ * </p>
+ * <p>
+ * The hit points of the set have as their geometry a lightweight view of the hit sphere, giving
+ * its normal, material and emission.
+ * </p>
+ */
+public class SphereSet extends Intersectable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The largest number of spheres in a leaf of the hierarchy.
+     */
+    static final int MAX_LEAF_SIZE = 8;
+
+    /**
+     * The centers and radii of the spheres.
+     */
+    private double[] centerX, centerY, centerZ, radii;
+
+    /**
+     * The index of the appearance of every sphere.
+     */
+    private int[] appearances;
+
+    private int size;
+
+    /**
+     * The materials and emission colors of the appearances.
+     */
+    private final ArrayList<Material> materials = new ArrayList<>();
+    private final ArrayList<Color> emissions = new ArrayList<>();
+
+    /**
+     * The hierarchy over the spheres, null if spheres were added since it was last built.
+     */
+    private volatile PrimitiveTree tree;
+
+    /**
+     * Constructs an empty set of spheres.
+     */
+    public SphereSet() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty set of spheres with room for a number of spheres.
+     *
+     * @param capacity the number of spheres to allocate room for
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public SphereSet(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Sphere set capacity cannot be negative");
+        }
+        centerX = new double[capacity];
+        centerY = new double[capacity];
+        centerZ = new double[capacity];
+        radii = new double[capacity];
+        appearances = new int[capacity];
+    }
+
+    /**
+     * Adds an appearance shared by spheres of the set.
+     *
+     * @param material the material of the spheres
+     * @param emission the emission color of the spheres
+     * @return the index of the appearance, to be given to {@link #add(double, double, double, double, int)}
+     * @throws IllegalArgumentException if the material or the emission is null
+     */
+    public synchronized int addAppearance(Material material, Color emission) {
+        if (material == null || emission == null) {
+            throw new IllegalArgumentException("Appearance material and emission cannot be null");
+        }
+        materials.add(material);
+        emissions.add(emission);
+        return materials.size() - 1;
+    }
+
+    /**
+     * Adds a sphere to the set.
+     *
+     * @param radius     the radius of the sphere
+     * @param center     the center of the sphere
+     * @param appearance the index of the appearance of the sphere, as returned by {@link #addAppearance(Material, Color)}
+     * @return the set itself for chaining
+     * @throws IllegalArgumentException if the center is null, the radius is not positive or there is no such appearance
+     */
+    public SphereSet add(double radius, Point center, int appearance) {
+        if (center == null) {
+            throw new IllegalArgumentException("Sphere center cannot be null");
+        }
+        return add(radius, center.getX(), center.getY(), center.getZ(), appearance);
+    }
+
+    /**
+     * Adds a sphere to the set, without creating a center point.
+     *
+     * @param radius     the radius of the sphere
+     * @param x          the x coordinate of the center
+     * @param y          the y coordinate of the center
+     * @param z          the z coordinate of the center
+     * @param appearance the index of the appearance of the sphere, as returned by {@link #addAppearance(Material, Color)}
+     * @return the set itself for chaining
+     * @throws IllegalArgumentException if the radius is not positive or there is no such appearance
+     */
+    public synchronized SphereSet add(double radius, double x, double y, double z, int appearance) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        if (appearance < 0 || appearance >= materials.size()) {
+            throw new IllegalArgumentException("No appearance " + appearance + " in the sphere set");
+        }
+        if (size == radii.length) {
+            int capacity = Math.max(16, 2 * size);
+            centerX = Arrays.copyOf(centerX, capacity);
+            centerY = Arrays.copyOf(centerY, capacity);
+            centerZ = Arrays.copyOf(centerZ, capacity);
+            radii = Arrays.copyOf(radii, capacity);
+            appearances = Arrays.copyOf(appearances, capacity);
+        }
+        centerX[size] = x;
+        centerY[size] = y;
+        centerZ[size] = z;
+        radii[size] = radius;
+        appearances[size++] = appearance;
+        tree = null;
+        return this;
+    }
+
+    /**
+     * Gets the number of spheres in the set.
+     *
+     * @return the number of spheres
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return tree().getBoundingBox();
+    }
+
+    /**
+     * Gets the hierarchy, building it if spheres were added since it was last built.
+     *
+     * @return the hierarchy over all the spheres
+     */
+    private PrimitiveTree tree() {
+        PrimitiveTree current = tree;
+        return current != null ? current : build();
+    }
+
+    /**
+     * Builds the hierarchy over all the spheres, trimming the arrays to the number of spheres.
+     *
+     * @return the hierarchy
+     */
+    private synchronized PrimitiveTree build() {
+        if (tree != null) return tree;
+        centerX = Arrays.copyOf(centerX, size);
+        centerY = Arrays.copyOf(centerY, size);
+        centerZ = Arrays.copyOf(centerZ, size);
+        radii = Arrays.copyOf(radii, size);
+        appearances = Arrays.copyOf(appearances, size);
+        return tree = new PrimitiveTree(new Spheres(), MAX_LEAF_SIZE, false);
+    }
+
+    /**
+     * Serializes the set in its canonical form: the hierarchy is built first, so the arrays
+     * are trimmed and the spheres are in the order of the hierarchy, which depends only on the
+     * spheres added. Equal sets are serialized alike whether they were intersected or not.
+     *
+     * @param out the stream
+     * @throws IOException if writing fails
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (size() > 0) tree();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * The spheres of the set, as seen by the hierarchy.
+     */
+    private class Spheres implements PrimitiveTree.Primitives {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double getMin(int axis, int index) {
+            return center(axis, index) - radii[index];
+        }
+
+        @Override
+        public double getMax(int axis, int index) {
+            return center(axis, index) + radii[index];
+        }
+
+        /**
+         * Gets a center coordinate of a sphere.
+         *
+         * @param axis  0 for x, 1 for y and 2 for z
+         * @param index the index of the sphere
+         * @return the center coordinate
+         */
+        private double center(int axis, int index) {
+            return axis == 0 ? centerX[index] : axis == 1 ? centerY[index] : centerZ[index];
+        }
+
+        @Override
+        public void swap(int i, int j) {
+            double d = centerX[i];
+            centerX[i] = centerX[j];
+            centerX[j] = d;
+            d = centerY[i];
+            centerY[i] = centerY[j];
+            centerY[j] = d;
+            d = centerZ[i];
+            centerZ[i] = centerZ[j];
+            centerZ[j] = d;
+            d = radii[i];
+            radii[i] = radii[j];
+            radii[j] = d;
+            int a = appearances[i];
+            appearances[i] = appearances[j];
+            appearances[j] = a;
+        }
+    }
+
+    /**
+     * Finds the intersection of a ray with the spheres of the set closest to the ray origin.
+     * The spheres of every leaf crossed by the ray are tested by a single loop over the arrays.
+     *
+     * @param ray the ray
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        int[] closest = {-1};
+        double closestDistance = tree().findClosest(ray, (first, count, maxDistance) -> {
+            for (int i = first; i < first + count; i++) {
+                double distance = IntersectionKernels.sphereDistance(ox, oy, oz, dx, dy, dz,
+                        centerX[i], centerY[i], centerZ[i], radii[i]);
+                if (distance < maxDistance) {
+                    maxDistance = distance;
+                    closest[0] = i;
+                }
+            }
+            return maxDistance;
+        });
+        return closest[0] < 0 ? null : new GeoPoint(new Member(this, closest[0]), ray.getPoint(closestDistance));
+    }
+
+    /**
+     * Finds the intersections of a ray with the spheres of the set.
+     * The spheres of every leaf crossed by the ray are tested on the arrays, and a geometry and
+     * hit points are created for the spheres hit only.
+     *
+     * @param ray the ray
+     * @return the intersections, or null if there are none
+     */
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        List<GeoPoint> intersections = new LinkedList<>();
+        tree().visitLeaves(ray, (first, count, maxDistance) -> {
+            for (int i = first; i < first + count; i++) {
+                double distance = IntersectionKernels.sphereDistance(ox, oy, oz, dx, dy, dz,
+                        centerX[i], centerY[i], centerZ[i], radii[i]);
+                if (distance != Double.POSITIVE_INFINITY) {
+                    Member member = new Member(this, i);
+                    intersections.add(new GeoPoint(member, ray.getPoint(distance)));
+                    // A ray entering the sphere leaves it as far beyond the middle of the chord
+                    double middle = dx * (centerX[i] - ox) + dy * (centerY[i] - oy) + dz * (centerZ[i] - oz);
+                    if (distance < middle) intersections.add(new GeoPoint(member, ray.getPoint(2 * middle - distance)));
+                }
+            }
+            return maxDistance;
+        });
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    /**
+     * A sphere of a set, as the geometry of the hit points of the set.
+     */
+    static class Member extends Geometry {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final SphereSet set;
+        private final int index;
+
+        /**
+         * Constructs a view of a sphere of a set.
+         *
+         * @param set   the set
+         * @param index the index of the sphere in the (built) set
+         */
+        Member(SphereSet set, int index) {
+            this.set = set;
+            this.index = index;
+            this.emission = set.emissions.get(set.appearances[index]);
+        }
+
+        /**
+         * Gets the center of the sphere.
+         *
+         * @return the center point
+         */
+        Point getCenter() {
+            return new Point(set.centerX[index], set.centerY[index], set.centerZ[index]);
+        }
+
+        /**
+         * Gets the radius of the sphere.
+         *
+         * @return the radius
+         */
+        double getRadius() {
+            return set.radii[index];
+        }
+
+        @Override
+        public void forEachSource(Consumer<Intersectable> action) {
+            action.accept(set);
+        }
+
+        @Override
+        public Material getMaterial() {
+            return set.materials.get(set.appearances[index]);
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            return point.subtract(getCenter()).normalize();
+        }
+
+        @Override
+        public BoundingBox getBoundingBox() {
+            double r = getRadius();
+            return new BoundingBox(set.centerX[index] - r, set.centerY[index] - r, set.centerZ[index] - r,
+                    set.centerX[index] + r, set.centerY[index] + r, set.centerZ[index] + r);
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            List<GeoPoint> intersections = new Sphere(getRadius(), getCenter()).findGeoIntersectionsHelper(ray);
+            if (intersections == null) return null;
+            return intersections.stream().map(gp -> new GeoPoint(this, gp.point)).toList();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            return o instanceof Member other && set == other.set && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(set) * 31 + index;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package geometries;
+
+/**
+ * The precisions in which compact geometries such as a {@link TriangleMesh} store their coordinates.
+ */
+public enum StoragePrecision {
+    /**
+     * Double precision - exact for any coordinates, like all the other geometries.
+     */
+    DOUBLE,
+    /**
+     * Single precision - coordinates are rounded to floats, halving the memory of the vertices and
+     * of the hierarchy boxes. Intersection and shading math is still done in double precision.
+     */
+    SINGLE
+}
@@ -3,6 +3,7 @@ package geometries;
 import primitives.*;
 import geometries.Intersectable.GeoPoint;
 
+import java.io.Serial;
 import java.util.List;
 
 import static primitives.Util.*;
@@ -13,6 +14,8 @@ import static primitives.Util.*;
  * The Triangle class extends Polygon and is defined by three vertices.
  */
 public class Triangle extends Polygon {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * Constructor to initialize a triangle with three vertices.
@@ -25,6 +28,18 @@ public class Triangle extends Polygon {
         super(vertex1, vertex2, vertex3);
     }
 
+    /**
+     * Gets the coordinates of the triangle for the batch intersection kernels.
+     *
+     * @return a new array of the 3 vertices and the unit normal, 12 coordinates
+     */
+    double[] getCoordinates() {
+        Vector normal = plane.getNormal();
+        Point a = vertices.get(0), b = vertices.get(1), c = vertices.get(2);
+        return new double[]{a.getX(), a.getY(), a.getZ(), b.getX(), b.getY(), b.getZ(),
+                c.getX(), c.getY(), c.getZ(), normal.getX(), normal.getY(), normal.getZ()};
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
         // Step 1: Find intersection with the plane of the triangle
@@ -0,0 +1,492 @@
+package geometries;
+
+import primitives.*;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A mesh of triangles sharing indexed vertices, stored compactly for very large models.
+ * <p>
+ * The vertex coordinates are kept in a primitive array and every triangle is three indices into
+ * it, so a vertex shared by several triangles is stored once. All the triangles have the material
+ * and the emission of the mesh. The mesh is bounded by a hierarchy of its own ({@link PrimitiveTree}),
+ * built when the mesh is first intersected after triangles were added; the build reorders the
+ * triangles. Triangles should not be added while the mesh is being intersected by other threads.
+ * </p>
+ * <p>
+ * In {@link StoragePrecision#SINGLE} precision the vertices are rounded to floats when added, and
+ * the boxes of the hierarchy are stored as floats rounded outward. The mesh is then the mesh of
+ * the rounded vertices: its triangles still share their edges exactly, and a triangle is
+ * intersected in double precision, deciding a ray on a shared edge the same way from both
+ * sides, so the mesh stays watertight. Normals and all the shading math are in double precision.
+ * </p>
+ * <p>
+ * The hit points of the mesh have as their geometry a lightweight view of the hit triangle,
+ * giving its normal and the material of the mesh.
+ * </p>
+ */
+public class TriangleMesh extends Intersectable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The largest number of triangles in a leaf of the hierarchy.
+     */
+    static final int MAX_LEAF_SIZE = 8;
+
+    /**
+     * Numbers below this magnitude are treated as zero, as by {@link primitives.Util#isZero(double)}.
+     */
+    private static final double EPSILON = 0x1p-40;
+
+    private final StoragePrecision precision;
+
+    /**
+     * The vertex coordinates, 3 per vertex, in one of the two arrays by the precision of the mesh.
+     */
+    private double[] vertices;
+    private float[] singleVertices;
+
+    private int vertexCount;
+
+    /**
+     * The vertex indices of the triangles, 3 per triangle.
+     */
+    private int[] triangles = new int[48];
+
+    private int triangleCount;
+
+    private Material material = new Material();
+    private Color emission = Color.BLACK;
+
+    /**
+     * The hierarchy over the triangles, null if triangles were added since it was last built.
+     */
+    private volatile PrimitiveTree tree;
+
+    /**
+     * Constructs an empty mesh storing its coordinates in double precision.
+     */
+    public TriangleMesh() {
+        this(StoragePrecision.DOUBLE);
+    }
+
+    /**
+     * Constructs an empty mesh.
+     *
+     * @param precision the precision of the vertex coordinates and the hierarchy boxes
+     * @throws IllegalArgumentException if the precision is null
+     */
+    public TriangleMesh(StoragePrecision precision) {
+        if (precision == null) {
+            throw new IllegalArgumentException("Mesh precision cannot be null");
+        }
+        this.precision = precision;
+        if (precision == StoragePrecision.SINGLE) singleVertices = new float[48];
+        else vertices = new double[48];
+    }
+
+    /**
+     * Gets the precision of the mesh.
+     *
+     * @return the precision of the vertex coordinates and the hierarchy boxes
+     */
+    public StoragePrecision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Gets the material of the triangles.
+     *
+     * @return the material of the mesh
+     */
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * Sets the material of the triangles.
+     *
+     * @param material the material to set
+     * @return the mesh itself for chaining
+     */
+    public TriangleMesh setMaterial(Material material) {
+        this.material = material;
+        return this;
+    }
+
+    /**
+     * Gets the emission color of the triangles.
+     *
+     * @return the emission color of the mesh
+     */
+    public Color getEmission() {
+        return emission;
+    }
+
+    /**
+     * Sets the emission color of the triangles.
+     *
+     * @param emission the emission color to set
+     * @return the mesh itself for chaining
+     */
+    public TriangleMesh setEmission(Color emission) {
+        this.emission = emission;
+        return this;
+    }
+
+    /**
+     * Adds a vertex to the mesh.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the index of the vertex, to be given to {@link #addTriangle(int, int, int)}
+     */
+    public synchronized int addVertex(double x, double y, double z) {
+        int offset = 3 * vertexCount;
+        if (precision == StoragePrecision.SINGLE) {
+            if (offset == singleVertices.length) singleVertices = Arrays.copyOf(singleVertices, 2 * offset);
+            singleVertices[offset] = (float) x;
+            singleVertices[offset + 1] = (float) y;
+            singleVertices[offset + 2] = (float) z;
+        } else {
+            if (offset == vertices.length) vertices = Arrays.copyOf(vertices, 2 * offset);
+            vertices[offset] = x;
+            vertices[offset + 1] = y;
+            vertices[offset + 2] = z;
+        }
+        return vertexCount++;
+    }
+
+    /**
+     * Adds a vertex to the mesh.
+     *
+     * @param point the vertex
+     * @return the index of the vertex, to be given to {@link #addTriangle(int, int, int)}
+     * @throws IllegalArgumentException if the point is null
+     */
+    public int addVertex(Point point) {
+        if (point == null) {
+            throw new IllegalArgumentException("Mesh vertex cannot be null");
+        }
+        return addVertex(point.getX(), point.getY(), point.getZ());
+    }
+
+    /**
+     * Adds a triangle to the mesh.
+     *
+     * @param v1 the index of the first vertex
+     * @param v2 the index of the second vertex
+     * @param v3 the index of the third vertex
+     * @return the mesh itself for chaining
+     * @throws IllegalArgumentException if there is no such vertex, or if the vertices (as stored) lay in the same line
+     */
+    public synchronized TriangleMesh addTriangle(int v1, int v2, int v3) {
+        if (v1 < 0 || v2 < 0 || v3 < 0 || v1 >= vertexCount || v2 >= vertexCount || v3 >= vertexCount) {
+            throw new IllegalArgumentException("No such vertex in the mesh");
+        }
+        double ux = coordinate(v2, 0) - coordinate(v1, 0), uy = coordinate(v2, 1) - coordinate(v1, 1);
+        double uz = coordinate(v2, 2) - coordinate(v1, 2);
+        double wx = coordinate(v3, 0) - coordinate(v1, 0), wy = coordinate(v3, 1) - coordinate(v1, 1);
+        double wz = coordinate(v3, 2) - coordinate(v1, 2);
+        double nx = uy * wz - uz * wy, ny = uz * wx - ux * wz, nz = ux * wy - uy * wx;
+        if (nx * nx + ny * ny + nz * nz == 0) {
+            throw new IllegalArgumentException("Mesh triangle vertices lay in the same line");
+        }
+
+        int offset = 3 * triangleCount;
+        if (offset == triangles.length) triangles = Arrays.copyOf(triangles, 2 * offset);
+        triangles[offset] = v1;
+        triangles[offset + 1] = v2;
+        triangles[offset + 2] = v3;
+        triangleCount++;
+        tree = null;
+        return this;
+    }
+
+    /**
+     * Gets the number of vertices of the mesh.
+     *
+     * @return the number of vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the number of triangles of the mesh.
+     *
+     * @return the number of triangles
+     */
+    public int size() {
+        return triangleCount;
+    }
+
+    /**
+     * Gets a vertex of the mesh, as stored.
+     *
+     * @param index the index of the vertex
+     * @return the vertex, rounded to floats in single precision
+     * @throws IllegalArgumentException if there is no such vertex
+     */
+    public Point getVertex(int index) {
+        if (index < 0 || index >= vertexCount) {
+            throw new IllegalArgumentException("No such vertex in the mesh");
+        }
+        return new Point(coordinate(index, 0), coordinate(index, 1), coordinate(index, 2));
+    }
+
+    /**
+     * Gets a stored vertex coordinate.
+     *
+     * @param vertex the index of the vertex
+     * @param axis   0 for x, 1 for y and 2 for z
+     * @return the coordinate
+     */
+    private double coordinate(int vertex, int axis) {
+        return vertices != null ? vertices[3 * vertex + axis] : singleVertices[3 * vertex + axis];
+    }
+
+    /**
+     * Gets a vertex coordinate of a triangle.
+     *
+     * @param triangle the index of the triangle
+     * @param corner   0, 1 or 2 for the vertex of the triangle
+     * @param axis     0 for x, 1 for y and 2 for z
+     * @return the coordinate
+     */
+    private double coordinate(int triangle, int corner, int axis) {
+        return coordinate(triangles[3 * triangle + corner], axis);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return tree().getBoundingBox();
+    }
+
+    /**
+     * Gets the hierarchy, building it if triangles were added since it was last built.
+     *
+     * @return the hierarchy over all the triangles
+     */
+    private PrimitiveTree tree() {
+        PrimitiveTree current = tree;
+        return current != null ? current : build();
+    }
+
+    /**
+     * Builds the hierarchy over all the triangles, trimming the arrays to the numbers of vertices and triangles.
+     *
+     * @return the hierarchy
+     */
+    private synchronized PrimitiveTree build() {
+        if (tree != null) return tree;
+        if (vertices != null) vertices = Arrays.copyOf(vertices, 3 * vertexCount);
+        else singleVertices = Arrays.copyOf(singleVertices, 3 * vertexCount);
+        triangles = Arrays.copyOf(triangles, 3 * triangleCount);
+        return tree = new PrimitiveTree(new Triangles(), MAX_LEAF_SIZE, precision == StoragePrecision.SINGLE);
+    }
+
+    /**
+     * Serializes the mesh in its canonical form: the hierarchy is built first, so the arrays
+     * are trimmed and the triangles are in the order of the hierarchy, which depends only on the
+     * triangles added. Equal meshes are serialized alike whether they were intersected or not.
+     *
+     * @param out the stream
+     * @throws IOException if writing fails
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (size() > 0) tree();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * The triangles of the mesh, as seen by the hierarchy.
+     */
+    private class Triangles implements PrimitiveTree.Primitives {
+        @Override
+        public int size() {
+            return triangleCount;
+        }
+
+        @Override
+        public double getMin(int axis, int index) {
+            return Math.min(Math.min(coordinate(index, 0, axis), coordinate(index, 1, axis)), coordinate(index, 2, axis));
+        }
+
+        @Override
+        public double getMax(int axis, int index) {
+            return Math.max(Math.max(coordinate(index, 0, axis), coordinate(index, 1, axis)), coordinate(index, 2, axis));
+        }
+
+        @Override
+        public void swap(int i, int j) {
+            for (int k = 0; k < 3; k++) {
+                int index = triangles[3 * i + k];
+                triangles[3 * i + k] = triangles[3 * j + k];
+                triangles[3 * j + k] = index;
+            }
+        }
+    }
+
+    /**
+     * Finds the distance along a ray to its hit with a triangle of the mesh.
+     * <p>
+     * With the vertices a, b, c relative to the ray origin, the ray passes inside the triangle if
+     * the signed volumes d·(a×b), d·(b×c) and d·(c×a) of the direction d with the three edges have
+     * the same sign. An edge shared by two triangles gives the two the same volume of opposite
+     * signs, so a ray is never lost between them; a ray exactly on the edge hits both. The
+     * distance is then a·(b×c) divided by the sum of the volumes.
+     * </p>
+     *
+     * @param triangle the index of the triangle
+     * @param ox       the x coordinate of the ray origin
+     * @param oy       the y coordinate of the ray origin
+     * @param oz       the z coordinate of the ray origin
+     * @param dx       the x coordinate of the (normalized) ray direction
+     * @param dy       the y coordinate of the ray direction
+     * @param dz       the z coordinate of the ray direction
+     * @return the distance to the hit ahead of the origin, or {@link Double#POSITIVE_INFINITY}
+     */
+    private double distance(int triangle, double ox, double oy, double oz, double dx, double dy, double dz) {
+        int i = 3 * triangle;
+        int a = triangles[i], b = triangles[i + 1], c = triangles[i + 2];
+        double ax = coordinate(a, 0) - ox, ay = coordinate(a, 1) - oy, az = coordinate(a, 2) - oz;
+        double bx = coordinate(b, 0) - ox, by = coordinate(b, 1) - oy, bz = coordinate(b, 2) - oz;
+        double cx = coordinate(c, 0) - ox, cy = coordinate(c, 1) - oy, cz = coordinate(c, 2) - oz;
+
+        double bcx = by * cz - bz * cy, bcy = bz * cx - bx * cz, bcz = bx * cy - by * cx;
+        double s1 = dx * (ay * bz - az * by) + dy * (az * bx - ax * bz) + dz * (ax * by - ay * bx);
+        double s2 = dx * bcx + dy * bcy + dz * bcz;
+        double s3 = dx * (cy * az - cz * ay) + dy * (cz * ax - cx * az) + dz * (cx * ay - cy * ax);
+        if (!(s1 >= 0 && s2 >= 0 && s3 >= 0) && !(s1 <= 0 && s2 <= 0 && s3 <= 0)) return Double.POSITIVE_INFINITY;
+        double sum = s1 + s2 + s3;
+        if (sum == 0) return Double.POSITIVE_INFINITY; // the ray is parallel to the triangle
+        double distance = (ax * bcx + ay * bcy + az * bcz) / sum;
+        return distance >= EPSILON ? distance : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds the intersection of a ray with the triangles of the mesh closest to the ray origin.
+     *
+     * @param ray the ray
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        int[] closest = {-1};
+        double closestDistance = tree().findClosest(ray, (first, count, maxDistance) -> {
+            for (int i = first; i < first + count; i++) {
+                double distance = distance(i, ox, oy, oz, dx, dy, dz);
+                if (distance < maxDistance) {
+                    maxDistance = distance;
+                    closest[0] = i;
+                }
+            }
+            return maxDistance;
+        });
+        return closest[0] < 0 ? null : new GeoPoint(new Face(this, closest[0]), ray.getPoint(closestDistance));
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+        List<GeoPoint> intersections = new LinkedList<>();
+        tree().visitLeaves(ray, (first, count, maxDistance) -> {
+            for (int i = first; i < first + count; i++) {
+                double distance = distance(i, ox, oy, oz, dx, dy, dz);
+                if (distance != Double.POSITIVE_INFINITY) intersections.add(new GeoPoint(new Face(this, i), ray.getPoint(distance)));
+            }
+            return maxDistance;
+        });
+        return intersections.isEmpty() ? null : intersections;
+    }
+
+    /**
+     * A triangle of a mesh, as the geometry of the hit points of the mesh.
+     */
+    static class Face extends Geometry {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final TriangleMesh mesh;
+        private final int index;
+
+        /**
+         * Constructs a view of a triangle of a mesh.
+         *
+         * @param mesh  the mesh
+         * @param index the index of the triangle in the (built) mesh
+         */
+        Face(TriangleMesh mesh, int index) {
+            this.mesh = mesh;
+            this.index = index;
+            this.emission = mesh.emission;
+        }
+
+        /**
+         * Gets a vertex of the triangle.
+         *
+         * @param corner 0, 1 or 2 for the vertex of the triangle
+         * @return the vertex, as stored by the mesh
+         */
+        Point getVertex(int corner) {
+            return mesh.getVertex(mesh.triangles[3 * index + corner]);
+        }
+
+        @Override
+        public void forEachSource(Consumer<Intersectable> action) {
+            action.accept(mesh);
+        }
+
+        @Override
+        public Material getMaterial() {
+            return mesh.material;
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            Point v1 = getVertex(0);
+            return getVertex(1).subtract(v1).crossProduct(getVertex(2).subtract(v1)).normalize();
+        }
+
+        @Override
+        public BoundingBox getBoundingBox() {
+            return BoundingBox.of(List.of(getVertex(0), getVertex(1), getVertex(2)));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            double distance = mesh.distance(index, p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ());
+            return distance == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(distance)));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            return o instanceof Face other && mesh == other.mesh && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(mesh) * 31 + index;
+        }
+    }
+}
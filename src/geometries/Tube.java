@@ -6,6 +6,7 @@ import primitives.Util;
 import primitives.Vector;
 import geometries.Intersectable.GeoPoint;
 
+import java.io.Serial;
 import java.util.List;
 
 /**
@@ -13,6 +14,8 @@ import java.util.List;
  * The Tube class extends RadialGeometry and is defined by a central axis ray and a radius.
  */
 public class Tube extends RadialGeometry {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * The central axis ray of the tube.
@@ -0,0 +1,505 @@
+package geometries;
+
+import diagnostics.AccelerationBuildEvent;
+import geometries.Intersectable.GeoPoint;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Uniform grid over the geometries of a {@link Geometries} collection.
+ * <p>
+ * The box bounding the geometries is divided into equal cells, and every cell lists the
+ * geometries whose boxes overlap it. A ray walks the cells it crosses in order (3D-DDA,
+ * Amanatides and Woo) and tests only the geometries listed in them; a closest-hit search stops
+ * at the first cell that contains the closest hit found so far. Unbounded geometries (planes,
+ * tubes) cannot be placed in cells, so they are tested against every ray.
+ * </p>
+ * <p>
+ * The grid is built in time linear in the number of geometries, and its cells are visited
+ * without any box tests, which makes it faster than a {@link BVH} for many similarly sized
+ * geometries spread evenly (particles, foliage, crowds). Scenes of very uneven density or of
+ * large geometries are better served by a hierarchy: most cells are then empty or list many
+ * geometries.
+ * </p>
+ * <p>
+ * The cell lists are stored in two flat arrays: the geometries of cell {@code c} are
+ * {@code items[cellStart[c]..cellStart[c+1]-1]}. A geometry overlapping several cells is
+ * tested once per ray, by stamping it with a per-thread ray number (mailboxing).
+ * </p>
+ */
+class UniformGrid extends AccelerationStructure {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of cells per geometry the resolution is chosen for.
+     */
+    static final double DENSITY = 2;
+
+    /**
+     * The largest number of cells along an axis.
+     */
+    static final int MAX_RESOLUTION = 128;
+
+    /**
+     * Relative widening of the grid interval along a ray, as in {@link BoundingBox}.
+     */
+    private static final double ROBUST_FACTOR = 1 + 1e-9;
+
+    private static final Logger LOGGER = Logger.getLogger("UniformGrid");
+
+    /**
+     * The bounded geometries, indexed by the cell lists.
+     */
+    private final Intersectable[] geometries;
+
+    /**
+     * The geometries without bounding boxes.
+     */
+    private final ArrayList<Intersectable> unbounded = new ArrayList<>();
+
+    /**
+     * The box bounding all the bounded geometries, null if there are none.
+     */
+    private final BoundingBox box;
+
+    /**
+     * The number of cells along each axis.
+     */
+    private final int[] resolution = {1, 1, 1};
+
+    /**
+     * The size of a cell along each axis.
+     */
+    private final double[] cellSize = new double[3];
+
+    /**
+     * The start of the list of every cell in {@link #items}, plus the end of the last list.
+     */
+    private final int[] cellStart;
+
+    /**
+     * The indices in {@link #geometries} of the geometries of all the cells, cell after cell.
+     */
+    private final int[] items;
+
+    /**
+     * The stamps of the geometries tested by the current ray of every thread.
+     */
+    private transient ThreadLocal<Mailbox> mailboxes;
+
+    /**
+     * The number of the ray a thread is tracing, and the number of the last ray each geometry was tested against.
+     */
+    private static class Mailbox {
+        final int[] stamps;
+        int ray;
+
+        /**
+         * Constructs an empty mailbox.
+         *
+         * @param size the number of geometries
+         */
+        Mailbox(int size) {
+            stamps = new int[size];
+        }
+
+        /**
+         * Starts a new ray.
+         *
+         * @return the number of the ray
+         */
+        int next() {
+            if (++ray == 0) { // wrapped around: forget all stamps
+                Arrays.fill(stamps, 0);
+                ray = 1;
+            }
+            return ray;
+        }
+    }
+
+    /**
+     * Builds a grid over the members of a collection.
+     *
+     * @param owner      the collection
+     * @param geometries the members of the collection
+     */
+    UniformGrid(Geometries owner, List<Intersectable> geometries) {
+        super(owner);
+        AccelerationBuildEvent event = new AccelerationBuildEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        List<Intersectable> bounded = new ArrayList<>(geometries.size());
+        List<BoundingBox> boxes = new ArrayList<>(geometries.size());
+        BoundingBox union = null;
+        for (Intersectable geometry : geometries) {
+            BoundingBox geometryBox = geometry.getBoundingBox();
+            if (geometryBox == null) {
+                unbounded.add(geometry);
+            } else {
+                bounded.add(geometry);
+                boxes.add(geometryBox);
+                union = union == null ? geometryBox : union.union(geometryBox);
+            }
+        }
+        this.geometries = bounded.toArray(Intersectable[]::new);
+        box = union;
+        if (box != null) chooseResolution();
+
+        // Two passes over the overlapped cells: count the geometries of every cell, then place them
+        int cellCount = resolution[0] * resolution[1] * resolution[2];
+        cellStart = new int[cellCount + 1];
+        int[][] ranges = new int[boxes.size()][];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = cellRange(boxes.get(i));
+            forEachCell(ranges[i], cell -> cellStart[cell + 1]++);
+        }
+        for (int cell = 0; cell < cellCount; cell++) cellStart[cell + 1] += cellStart[cell];
+        items = new int[cellStart[cellCount]];
+        int[] fill = cellStart.clone();
+        for (int i = 0; i < ranges.length; i++) {
+            int geometry = i;
+            forEachCell(ranges[i], cell -> items[fill[cell]++] = geometry);
+        }
+        mailboxes = ThreadLocal.withInitial(() -> new Mailbox(this.geometries.length));
+
+        long buildNanos = System.nanoTime() - start;
+        event.finish("Grid", geometries.size(), cellCount, 0);
+        LOGGER.fine(() -> String.format("Built a %dx%dx%d grid over %d geometries in %.1f ms, %.2f references per geometry",
+                resolution[0], resolution[1], resolution[2], geometries.size(), buildNanos / 1e6,
+                (double) items.length / Math.max(this.geometries.length, 1)));
+    }
+
+    /**
+     * Chooses the number of cells along each axis, so that cells are roughly cubes and there
+     * are about {@value #DENSITY} cells per geometry. Flat axes get a single cell.
+     */
+    private void chooseResolution() {
+        double[] extent = new double[3];
+        double longest = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            extent[axis] = box.getMax(axis) - box.getMin(axis);
+            longest = Math.max(longest, extent[axis]);
+        }
+        if (longest == 0) return; // all the geometries are a single point: a single cell
+
+        // Flat axes count as a thin slab in the volume, so that planar scenes still get square cells
+        double volume = 1;
+        for (int axis = 0; axis < 3; axis++) volume *= Math.max(extent[axis], longest / MAX_RESOLUTION);
+        double cellsPerUnit = Math.cbrt(DENSITY * geometries.length / volume);
+        for (int axis = 0; axis < 3; axis++) {
+            int cells = (int) Math.round(extent[axis] * cellsPerUnit);
+            resolution[axis] = Math.clamp(cells, 1, MAX_RESOLUTION);
+            cellSize[axis] = extent[axis] / resolution[axis];
+        }
+    }
+
+    /**
+     * Finds the cells a box overlaps.
+     *
+     * @param geometryBox the box
+     * @return the lowest and highest cell index along each axis: x, y, z lows then x, y, z highs
+     */
+    private int[] cellRange(BoundingBox geometryBox) {
+        int[] range = new int[6];
+        for (int axis = 0; axis < 3; axis++) {
+            range[axis] = cellIndex(axis, geometryBox.getMin(axis));
+            range[axis + 3] = cellIndex(axis, geometryBox.getMax(axis));
+        }
+        return range;
+    }
+
+    /**
+     * Finds the cell containing a coordinate along an axis.
+     *
+     * @param axis       0 for x, 1 for y and 2 for z
+     * @param coordinate the coordinate
+     * @return the index of the cell along the axis, clamped to the grid
+     */
+    private int cellIndex(int axis, double coordinate) {
+        if (cellSize[axis] == 0) return 0;
+        return Math.clamp((long) Math.floor((coordinate - box.getMin(axis)) / cellSize[axis]), 0, resolution[axis] - 1);
+    }
+
+    /**
+     * Gets the number of a cell in the flat cell lists.
+     *
+     * @param x the cell index along the x-axis
+     * @param y the cell index along the y-axis
+     * @param z the cell index along the z-axis
+     * @return the cell number
+     */
+    private int cell(int x, int y, int z) {
+        return (z * resolution[1] + y) * resolution[0] + x;
+    }
+
+    /**
+     * Visits the cells of a range.
+     *
+     * @param range   the range, as returned by {@link #cellRange(BoundingBox)}
+     * @param visitor the visitor of the cell numbers
+     */
+    private void forEachCell(int[] range, IntConsumer visitor) {
+        for (int z = range[2]; z <= range[5]; z++) {
+            for (int y = range[1]; y <= range[4]; y++) {
+                for (int x = range[0]; x <= range[3]; x++) {
+                    visitor.accept(cell(x, y, z));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cells along an axis.
+     *
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return the number of cells
+     */
+    int getResolution(int axis) {
+        return resolution[axis];
+    }
+
+    /**
+     * Gets the number of geometry references in all the cells.
+     *
+     * @return the total length of the cell lists
+     */
+    int getReferenceCount() {
+        return items.length;
+    }
+
+    /**
+     * A grid has no cheap update: it is rebuilt after any motion.
+     *
+     * @return false
+     */
+    @Override
+    boolean refit() {
+        return false;
+    }
+
+    @Override
+    BoundingBox getBoundingBox() {
+        return unbounded.isEmpty() ? box : null;
+    }
+
+    /**
+     * A walk of a ray through the cells of the grid.
+     */
+    private class Walk {
+        /**
+         * The current cell along each axis.
+         */
+        final int[] index = new int[3];
+
+        /**
+         * The step to the next cell along each axis: 1, -1 or 0 for a ray parallel to the axis.
+         */
+        final int[] step = new int[3];
+
+        /**
+         * The distance along the ray at which it crosses into the next cell along each axis.
+         */
+        final double[] next = new double[3];
+
+        /**
+         * The distance along the ray between cell boundaries along each axis.
+         */
+        final double[] delta = new double[3];
+
+        /**
+         * The distance along the ray at which it leaves the grid.
+         */
+        double exit;
+
+        /**
+         * Starts a walk at the cell where a ray enters the grid.
+         *
+         * @param ray the ray
+         * @return false if the ray misses the grid
+         */
+        boolean start(Ray ray) {
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            double[] origin = {p0.getX(), p0.getY(), p0.getZ()};
+            double[] direction = {dir.getX(), dir.getY(), dir.getZ()};
+
+            double entry = 0;
+            exit = Double.POSITIVE_INFINITY;
+            for (int axis = 0; axis < 3; axis++) {
+                double inverse = 1 / direction[axis];
+                double t1 = (box.getMin(axis) - origin[axis]) * inverse;
+                double t2 = (box.getMax(axis) - origin[axis]) * inverse;
+                if (t1 != t1 || t2 != t2) continue; // parallel to the slab and on its boundary
+                if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+                if (t1 > entry) entry = t1;
+                if (t2 * ROBUST_FACTOR < exit) exit = t2 * ROBUST_FACTOR;
+            }
+            if (entry > exit) return false;
+
+            for (int axis = 0; axis < 3; axis++) {
+                double d = direction[axis];
+                index[axis] = cellIndex(axis, origin[axis] + entry * d);
+                if (d > 0 && cellSize[axis] > 0) {
+                    step[axis] = 1;
+                    next[axis] = (box.getMin(axis) + (index[axis] + 1) * cellSize[axis] - origin[axis]) / d;
+                    delta[axis] = cellSize[axis] / d;
+                } else if (d < 0 && cellSize[axis] > 0) {
+                    step[axis] = -1;
+                    next[axis] = (box.getMin(axis) + index[axis] * cellSize[axis] - origin[axis]) / d;
+                    delta[axis] = -cellSize[axis] / d;
+                } else {
+                    step[axis] = 0;
+                    next[axis] = Double.POSITIVE_INFINITY;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Gets the current cell.
+         *
+         * @return the cell number
+         */
+        int cell() {
+            return UniformGrid.this.cell(index[0], index[1], index[2]);
+        }
+
+        /**
+         * Gets the distance along the ray at which it leaves the current cell.
+         *
+         * @return the exit distance of the cell
+         */
+        double cellExit() {
+            return Math.min(Math.min(next[0], next[1]), Math.min(next[2], exit));
+        }
+
+        /**
+         * Moves to the next cell along the ray.
+         *
+         * @return false if the ray left the grid
+         */
+        boolean advance() {
+            int axis = next[0] <= next[1]
+                    ? (next[0] <= next[2] ? 0 : 2)
+                    : (next[1] <= next[2] ? 1 : 2);
+            if (next[axis] >= exit) return false;
+            index[axis] += step[axis];
+            if (index[axis] < 0 || index[axis] >= resolution[axis]) return false;
+            next[axis] += delta[axis];
+            return true;
+        }
+    }
+
+    @Override
+    List<GeoPoint> findGeoIntersections(Ray ray) {
+        List<GeoPoint> intersections = null;
+        for (Intersectable geometry : unbounded) {
+            intersections = addAll(intersections, owner.intersect(geometry, ray));
+        }
+        if (box == null) return intersections;
+
+        Walk walk = new Walk();
+        if (!walk.start(ray)) return intersections;
+        Mailbox mailbox = mailboxes.get();
+        int stamp = mailbox.next();
+        do {
+            int cell = walk.cell();
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                int geometry = items[i];
+                if (mailbox.stamps[geometry] == stamp) continue;
+                mailbox.stamps[geometry] = stamp;
+                intersections = addAll(intersections, owner.intersect(geometries[geometry], ray));
+            }
+        } while (walk.advance());
+        return intersections;
+    }
+
+    /**
+     * Adds intersections to a list, creating the list only when there is something to add.
+     *
+     * @param intersections the list, or null
+     * @param found         the intersections to add, or null
+     * @return the list with the added intersections, or null if both are empty
+     */
+    private static List<GeoPoint> addAll(List<GeoPoint> intersections, List<GeoPoint> found) {
+        if (found == null) return intersections;
+        if (intersections == null) intersections = new LinkedList<>();
+        intersections.addAll(found);
+        return intersections;
+    }
+
+    /**
+     * Finds the intersection of a ray with the geometries of the grid closest to the ray origin.
+     * The cells are visited in the order the ray crosses them, and the walk stops at the first cell
+     * the closest hit found so far lies in: a geometry of a later cell cannot be hit nearer.
+     *
+     * @param ray the ray
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    GeoPoint findClosestGeoIntersection(Ray ray) {
+        Point p0 = ray.getP0();
+        GeoPoint closest = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (Intersectable geometry : unbounded) {
+            GeoPoint candidate = owner.intersectClosest(geometry, ray);
+            if (candidate != null) {
+                double distance = p0.distance(candidate.point);
+                if (distance < closestDistance) {
+                    closest = candidate;
+                    closestDistance = distance;
+                }
+            }
+        }
+        if (box == null) return closest;
+
+        Walk walk = new Walk();
+        if (!walk.start(ray)) return closest;
+        Mailbox mailbox = mailboxes.get();
+        int stamp = mailbox.next();
+        do {
+            int cell = walk.cell();
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                int geometry = items[i];
+                if (mailbox.stamps[geometry] == stamp) continue;
+                mailbox.stamps[geometry] = stamp;
+                GeoPoint candidate = owner.intersectClosest(geometries[geometry], ray);
+                if (candidate != null) {
+                    double distance = p0.distance(candidate.point);
+                    if (distance < closestDistance) {
+                        closest = candidate;
+                        closestDistance = distance;
+                    }
+                }
+            }
+            // Hits beyond the cell (of geometries reaching out of it) may still be beaten in later cells
+            if (closestDistance <= walk.cellExit()) return closest;
+        } while (walk.advance());
+        return closest;
+    }
+
+    /**
+     * Restores the per-thread mailboxes of a deserialized grid.
+     *
+     * @param in the stream
+     * @throws IOException            if reading fails
+     * @throws ClassNotFoundException if a class of the grid is missing
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        mailboxes = ThreadLocal.withInitial(() -> new Mailbox(geometries.length));
+    }
+}
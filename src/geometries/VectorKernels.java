@@ -0,0 +1,282 @@
+package geometries;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The batch intersection kernels of {@link IntersectionKernels} on the incubating Vector API.
+ * <p>
+ * Every loop intersects as many primitives (or rays) at once as the preferred vector of the
+ * processor holds doubles: 4 with AVX2, 8 with AVX-512. The remaining primitives are intersected
+ * by the scalar code of {@link IntersectionKernels}. The lanes repeat the scalar arithmetic
+ * operation by operation, without fused multiply-adds, so both paths find the very same distances.
+ * </p>
+ * <p>
+ * The kernels load whole vectors of consecutive array elements only, never gathering by indices:
+ * the indexed gathers and scatters of the Vector API are compiled wrongly by some JIT compilers
+ * on AVX-512 processors. The many-rays kernels therefore intersect a run of consecutive ray
+ * indices (as a packet whose rays all hit a box gives) as a vector, and other rays one by one;
+ * the one-ray kernel of triangles transposes a vector of triangles into a scratch array first.
+ * </p>
+ * <p>
+ * This class is linked only when the module {@code jdk.incubator.vector} is present (the JVM is
+ * run with {@code --add-modules jdk.incubator.vector}); {@link IntersectionKernels} checks that
+ * before calling it.
+ * </p>
+ */
+final class VectorKernels {
+    /**
+     * The preferred vector shape of the processor.
+     */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * The number of doubles in a vector.
+     */
+    static final int LANES = SPECIES.length();
+
+    /**
+     * Numbers below this magnitude are treated as zero, as by {@link primitives.Util#isZero(double)}.
+     */
+    private static final double EPSILON = 0x1p-40;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private VectorKernels() {
+    }
+
+    /**
+     * Checks whether the next vector of ray indices is a run of consecutive indices.
+     *
+     * @param rays  the indices of the rays
+     * @param first the position of the first index of the vector
+     * @return true if the indices from {@code first} on go up one by one for a whole vector
+     */
+    private static boolean consecutive(int[] rays, int first) {
+        int ray = rays[first];
+        for (int lane = 1; lane < LANES; lane++) if (rays[first + lane] != ray + lane) return false;
+        return true;
+    }
+
+    /**
+     * Finds the distances along rays to their nearest hits with spheres, a lane each, as
+     * {@link IntersectionKernels#sphereDistance} does for one.
+     *
+     * @param ox the x coordinates of the ray origins
+     * @param oy the y coordinates of the ray origins
+     * @param oz the z coordinates of the ray origins
+     * @param dx the x coordinates of the (normalized) ray directions
+     * @param dy the y coordinates of the ray directions
+     * @param dz the z coordinates of the ray directions
+     * @param cx the x coordinates of the sphere centers
+     * @param cy the y coordinates of the sphere centers
+     * @param cz the z coordinates of the sphere centers
+     * @param r  the sphere radii
+     * @return the distances to the nearest hits ahead of the origins, or {@link Double#POSITIVE_INFINITY}
+     */
+    private static DoubleVector sphereDistance(DoubleVector ox, DoubleVector oy, DoubleVector oz,
+                                               DoubleVector dx, DoubleVector dy, DoubleVector dz,
+                                               DoubleVector cx, DoubleVector cy, DoubleVector cz, DoubleVector r) {
+        DoubleVector ux = cx.sub(ox), uy = cy.sub(oy), uz = cz.sub(oz);
+        DoubleVector tm = dx.mul(ux).add(dy.mul(uy)).add(dz.mul(uz));
+        DoubleVector dSquared = ux.mul(ux).add(uy.mul(uy)).add(uz.mul(uz)).sub(tm.mul(tm));
+        DoubleVector rSquared = r.mul(r);
+        DoubleVector th = rSquared.sub(dSquared).max(0).lanewise(VectorOperators.SQRT);
+        DoubleVector t1 = tm.sub(th), t2 = tm.add(th);
+        DoubleVector t = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY)
+                .blend(t2, t2.compare(VectorOperators.GE, EPSILON))
+                .blend(t1, t1.compare(VectorOperators.GE, EPSILON));
+        return DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY)
+                .blend(t, dSquared.sub(rSquared).compare(VectorOperators.LE, -EPSILON));
+    }
+
+    /**
+     * Intersects one ray with many spheres, as {@link IntersectionKernels#intersectSpheres} does.
+     *
+     * @param ox        the x coordinate of the ray origin
+     * @param oy        the y coordinate of the ray origin
+     * @param oz        the z coordinate of the ray origin
+     * @param dx        the x coordinate of the (normalized) ray direction
+     * @param dy        the y coordinate of the ray direction
+     * @param dz        the z coordinate of the ray direction
+     * @param cx        the x coordinates of the sphere centers
+     * @param cy        the y coordinates of the sphere centers
+     * @param cz        the z coordinates of the sphere centers
+     * @param radii     the sphere radii
+     * @param from      the index of the first sphere
+     * @param to        the index after the last sphere
+     * @param distances receives the distance to the nearest hit with every sphere, at the sphere index
+     * @return the index of the first sphere left for the scalar loop
+     */
+    static int intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                                double[] cx, double[] cy, double[] cz, double[] radii, int from, int to,
+                                double[] distances) {
+        DoubleVector vox = DoubleVector.broadcast(SPECIES, ox), voy = DoubleVector.broadcast(SPECIES, oy),
+                voz = DoubleVector.broadcast(SPECIES, oz);
+        DoubleVector vdx = DoubleVector.broadcast(SPECIES, dx), vdy = DoubleVector.broadcast(SPECIES, dy),
+                vdz = DoubleVector.broadcast(SPECIES, dz);
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            sphereDistance(vox, voy, voz, vdx, vdy, vdz,
+                    DoubleVector.fromArray(SPECIES, cx, i), DoubleVector.fromArray(SPECIES, cy, i),
+                    DoubleVector.fromArray(SPECIES, cz, i), DoubleVector.fromArray(SPECIES, radii, i))
+                    .intoArray(distances, i);
+        }
+        return i;
+    }
+
+    /**
+     * Intersects many rays with one sphere, as {@link IntersectionKernels#intersectSphere} does.
+     *
+     * @param cx        the x coordinate of the sphere center
+     * @param cy        the y coordinate of the sphere center
+     * @param cz        the z coordinate of the sphere center
+     * @param r         the sphere radius
+     * @param ox        the x coordinates of the ray origins
+     * @param oy        the y coordinates of the ray origins
+     * @param oz        the z coordinates of the ray origins
+     * @param dx        the x coordinates of the (normalized) ray directions
+     * @param dy        the y coordinates of the ray directions
+     * @param dz        the z coordinates of the ray directions
+     * @param rays      the indices of the rays to intersect
+     * @param count     the number of the rays to intersect
+     * @param distances receives the distance along every intersected ray to its nearest hit, at the ray index
+     * @return the position in {@code rays} of the first ray left for the scalar loop
+     */
+    static int intersectSphere(double cx, double cy, double cz, double r,
+                               double[] ox, double[] oy, double[] oz, double[] dx, double[] dy, double[] dz,
+                               int[] rays, int count, double[] distances) {
+        DoubleVector vcx = DoubleVector.broadcast(SPECIES, cx), vcy = DoubleVector.broadcast(SPECIES, cy),
+                vcz = DoubleVector.broadcast(SPECIES, cz), vr = DoubleVector.broadcast(SPECIES, r);
+        int a = 0;
+        while (a <= count - LANES) {
+            int i = rays[a];
+            if (consecutive(rays, a)) {
+                sphereDistance(DoubleVector.fromArray(SPECIES, ox, i), DoubleVector.fromArray(SPECIES, oy, i),
+                        DoubleVector.fromArray(SPECIES, oz, i), DoubleVector.fromArray(SPECIES, dx, i),
+                        DoubleVector.fromArray(SPECIES, dy, i), DoubleVector.fromArray(SPECIES, dz, i),
+                        vcx, vcy, vcz, vr)
+                        .intoArray(distances, i);
+                a += LANES;
+            } else {
+                distances[i] = IntersectionKernels.sphereDistance(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i], cx, cy, cz, r);
+                a++;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Finds the distances along rays to their hits with triangles, a lane each, as
+     * {@link IntersectionKernels#triangleDistance} does for one.
+     *
+     * @param ox the x coordinates of the ray origins
+     * @param oy the y coordinates of the ray origins
+     * @param oz the z coordinates of the ray origins
+     * @param dx the x coordinates of the (normalized) ray directions
+     * @param dy the y coordinates of the ray directions
+     * @param dz the z coordinates of the ray directions
+     * @param t  the 12 coordinates of the triangles: the 3 vertices and the unit normal
+     * @return the distances to the hits ahead of the origins, or {@link Double#POSITIVE_INFINITY}
+     */
+    private static DoubleVector triangleDistance(DoubleVector ox, DoubleVector oy, DoubleVector oz,
+                                                 DoubleVector dx, DoubleVector dy, DoubleVector dz, DoubleVector[] t) {
+        DoubleVector ax = t[0].sub(ox), ay = t[1].sub(oy), az = t[2].sub(oz);
+        DoubleVector bx = t[3].sub(ox), by = t[4].sub(oy), bz = t[5].sub(oz);
+        DoubleVector cx = t[6].sub(ox), cy = t[7].sub(oy), cz = t[8].sub(oz);
+        DoubleVector nx = t[9], ny = t[10], nz = t[11];
+
+        DoubleVector numerator = nx.mul(ax).add(ny.mul(ay)).add(nz.mul(az));
+        DoubleVector denominator = nx.mul(dx).add(ny.mul(dy)).add(nz.mul(dz));
+        DoubleVector distance = numerator.div(denominator);
+
+        DoubleVector s1 = dx.mul(ay.mul(bz).sub(az.mul(by))).add(dy.mul(az.mul(bx).sub(ax.mul(bz))))
+                .add(dz.mul(ax.mul(by).sub(ay.mul(bx))));
+        DoubleVector s2 = dx.mul(by.mul(cz).sub(bz.mul(cy))).add(dy.mul(bz.mul(cx).sub(bx.mul(cz))))
+                .add(dz.mul(bx.mul(cy).sub(by.mul(cx))));
+        DoubleVector s3 = dx.mul(cy.mul(az).sub(cz.mul(ay))).add(dy.mul(cz.mul(ax).sub(cx.mul(az))))
+                .add(dz.mul(cx.mul(ay).sub(cy.mul(ax))));
+        VectorMask<Double> inside = s1.compare(VectorOperators.GT, 0).and(s2.compare(VectorOperators.GT, 0))
+                .and(s3.compare(VectorOperators.GT, 0))
+                .or(s1.compare(VectorOperators.LT, 0).and(s2.compare(VectorOperators.LT, 0))
+                        .and(s3.compare(VectorOperators.LT, 0)));
+        VectorMask<Double> hit = inside.and(denominator.abs().compare(VectorOperators.GE, EPSILON))
+                .and(distance.compare(VectorOperators.GT, 0));
+        return DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY).blend(distance, hit);
+    }
+
+    /**
+     * Intersects one ray with many triangles, as {@link IntersectionKernels#intersectTriangles} does.
+     *
+     * @param ox        the x coordinate of the ray origin
+     * @param oy        the y coordinate of the ray origin
+     * @param oz        the z coordinate of the ray origin
+     * @param dx        the x coordinate of the (normalized) ray direction
+     * @param dy        the y coordinate of the ray direction
+     * @param dz        the z coordinate of the ray direction
+     * @param triangles the triangles, 12 coordinates each: the 3 vertices and the unit normal
+     * @param from      the index of the first triangle
+     * @param to        the index after the last triangle
+     * @param distances receives the distance to the hit with every triangle, at the triangle index
+     * @return the index of the first triangle left for the scalar loop
+     */
+    static int intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                                  double[] triangles, int from, int to, double[] distances) {
+        DoubleVector vox = DoubleVector.broadcast(SPECIES, ox), voy = DoubleVector.broadcast(SPECIES, oy),
+                voz = DoubleVector.broadcast(SPECIES, oz);
+        DoubleVector vdx = DoubleVector.broadcast(SPECIES, dx), vdy = DoubleVector.broadcast(SPECIES, dy),
+                vdz = DoubleVector.broadcast(SPECIES, dz);
+        DoubleVector[] t = new DoubleVector[12];
+        double[] transposed = new double[12 * LANES];
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            for (int lane = 0; lane < LANES; lane++) {
+                for (int k = 0; k < 12; k++) transposed[k * LANES + lane] = triangles[12 * (i + lane) + k];
+            }
+            for (int k = 0; k < 12; k++) t[k] = DoubleVector.fromArray(SPECIES, transposed, k * LANES);
+            triangleDistance(vox, voy, voz, vdx, vdy, vdz, t).intoArray(distances, i);
+        }
+        return i;
+    }
+
+    /**
+     * Intersects many rays with one triangle, as {@link IntersectionKernels#intersectTriangle} does.
+     *
+     * @param triangles the triangles, 12 coordinates each: the 3 vertices and the unit normal
+     * @param offset    the index of the first coordinate of the triangle
+     * @param ox        the x coordinates of the ray origins
+     * @param oy        the y coordinates of the ray origins
+     * @param oz        the z coordinates of the ray origins
+     * @param dx        the x coordinates of the (normalized) ray directions
+     * @param dy        the y coordinates of the ray directions
+     * @param dz        the z coordinates of the ray directions
+     * @param rays      the indices of the rays to intersect
+     * @param count     the number of the rays to intersect
+     * @param distances receives the distance along every intersected ray to its hit, at the ray index
+     * @return the position in {@code rays} of the first ray left for the scalar loop
+     */
+    static int intersectTriangle(double[] triangles, int offset,
+                                 double[] ox, double[] oy, double[] oz, double[] dx, double[] dy, double[] dz,
+                                 int[] rays, int count, double[] distances) {
+        DoubleVector[] t = new DoubleVector[12];
+        for (int k = 0; k < 12; k++) t[k] = DoubleVector.broadcast(SPECIES, triangles[offset + k]);
+        int a = 0;
+        while (a <= count - LANES) {
+            int i = rays[a];
+            if (consecutive(rays, a)) {
+                triangleDistance(DoubleVector.fromArray(SPECIES, ox, i), DoubleVector.fromArray(SPECIES, oy, i),
+                        DoubleVector.fromArray(SPECIES, oz, i), DoubleVector.fromArray(SPECIES, dx, i),
+                        DoubleVector.fromArray(SPECIES, dy, i), DoubleVector.fromArray(SPECIES, dz, i), t)
+                        .intoArray(distances, i);
+                a += LANES;
+            } else {
+                distances[i] = IntersectionKernels.triangleDistance(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i], triangles, offset);
+                a++;
+            }
+        }
+        return a;
+    }
+}
@@ -3,10 +3,14 @@ package lighting;
 import primitives.Color;
 import primitives.Double3;
 
+import java.io.Serial;
+
 /**
  * Class representing ambient light in the scene.
  */
 public class AmbientLight extends Light {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * Constructor for AmbientLight.
@@ -2,10 +2,16 @@ package lighting;
 
 import primitives.Color;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * Abstract class representing a light source.
  */
-abstract class Light {
+abstract class Light implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /**
      * The intensity of the light source.
      */
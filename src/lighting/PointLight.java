@@ -4,10 +4,15 @@ import primitives.Color;
 import primitives.Point;
 import primitives.Vector;
 
+import java.io.Serial;
+
 /**
  * Class representing a point light source.
  */
 public class PointLight extends Light implements LightSource {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final Point position;
     private double kC = 1;
     private double kL = 0;
@@ -4,10 +4,15 @@ import primitives.Color;
 import primitives.Point;
 import primitives.Vector;
 
+import java.io.Serial;
+
 /**
  * Class representing a spot light source.
  */
 public class SpotLight extends PointLight {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final Vector direction;
 
     /**
@@ -1,5 +1,8 @@
 package primitives;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * Wrapper class for java.jwt.Color The constructors operate with any
  * non-negative RGB values. The colors are maintained without upper limit of
@@ -8,7 +11,10 @@ package primitives;
  *
  * @author Dan Zilberstein
  */
-public class Color {
+public class Color implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /**
      * The internal fields maintain RGB components as double numbers from 0 to
      * whatever...
@@ -76,6 +82,33 @@ public class Color {
         return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
     }
 
+    /**
+     * Red component getter
+     *
+     * @return the red component, without upper limit
+     */
+    public double getRed() {
+        return rgb.d1;
+    }
+
+    /**
+     * Green component getter
+     *
+     * @return the green component, without upper limit
+     */
+    public double getGreen() {
+        return rgb.d2;
+    }
+
+    /**
+     * Blue component getter
+     *
+     * @return the blue component, without upper limit
+     */
+    public double getBlue() {
+        return rgb.d3;
+    }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      *
@@ -3,13 +3,19 @@
  */
 package primitives;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 import static primitives.Util.isZero;
 
 /**
  * This class will serve all primitive classes based on three numbers
  * @author Dan Zilberstein
  */
-public class Double3 {
+public class Double3 implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /** First number */
     final double                d1;
     /** Second number */
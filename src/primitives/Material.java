@@ -1,10 +1,16 @@
 package primitives;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * Class representing the material properties of a geometric object.
  * The properties include diffuse, specular, and shininess coefficients, as well as the transparency and reflection factors.
  */
-public class Material {
+public class Material implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     public Double3 kD = Double3.ZERO; // Diffuse coefficient
     public Double3 kS = Double3.ZERO; // Specular coefficient
     public Double3 kT = Double3.ZERO; // Transparency attenuation coefficient
@@ -1,5 +1,7 @@
 package primitives;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Objects;
 import java.lang.Math;
 
@@ -8,7 +10,10 @@ import java.lang.Math;
  * The Point class encapsulates the coordinates of a point and provides methods
  * for common geometric operations such as addition, subtraction, and distance calculations.
  */
-public class Point {
+public class Point implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     protected final Double3 _xyz;
 
     public static final Point ZERO = new Point(0, 0, 0);
@@ -2,6 +2,8 @@ package primitives;
 
 import geometries.Intersectable.GeoPoint;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.List;
 
 import static primitives.Util.isZero;
@@ -10,7 +12,9 @@ import static primitives.Util.isZero;
  * Represents a ray in 3D space.
  * A ray is defined by a starting point (p0) and a direction vector (dir).
  */
-public class Ray {
+public class Ray implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * The starting point of the ray.
@@ -0,0 +1,192 @@
+package primitives;
+
+/**
+ * Represents a packet of rays traced together, e.g. the primary rays of a block of pixels.
+ * <p>
+ * The origins and the inverse directions of the rays are kept in structure-of-arrays layout, one
+ * array per coordinate, so acceleration structures can test a box against all the rays of the
+ * packet in a tight loop. A packet also keeps the interval of each of these coordinates over all
+ * its rays: when the rays are coherent (their directions have the same signs), a box missed by
+ * the intervals is missed by every ray of the packet, and is skipped with a single test.
+ * </p>
+ */
+public class RayPacket {
+    private final Ray[] rays;
+
+    /**
+     * The origin coordinates of the rays, per axis.
+     */
+    private final double[][] origins = new double[3][];
+
+    /**
+     * The direction coordinates of the rays, per axis.
+     */
+    private final double[][] directions = new double[3][];
+
+    /**
+     * The inverses of the direction coordinates of the rays, per axis (infinite for zero coordinates).
+     */
+    private final double[][] inverseDirections = new double[3][];
+
+    /**
+     * The lowest and highest origin coordinate and inverse direction coordinate over the rays, per axis.
+     */
+    private final double[] minOrigin = new double[3], maxOrigin = new double[3];
+    private final double[] minInverseDirection = new double[3], maxInverseDirection = new double[3];
+
+    /**
+     * Whether the direction coordinates of all the rays have the same (nonzero) sign along every axis.
+     */
+    private final boolean coherent;
+
+    /**
+     * Constructs a packet of rays.
+     *
+     * @param rays the rays, at least one
+     * @throws IllegalArgumentException if there are no rays or a ray is null
+     */
+    public RayPacket(Ray... rays) {
+        if (rays == null || rays.length == 0) {
+            throw new IllegalArgumentException("Ray packet must contain rays");
+        }
+        this.rays = rays.clone();
+        int size = rays.length;
+        for (int axis = 0; axis < 3; axis++) {
+            origins[axis] = new double[size];
+            directions[axis] = new double[size];
+            inverseDirections[axis] = new double[size];
+            minOrigin[axis] = minInverseDirection[axis] = Double.POSITIVE_INFINITY;
+            maxOrigin[axis] = maxInverseDirection[axis] = Double.NEGATIVE_INFINITY;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (rays[i] == null) {
+                throw new IllegalArgumentException("Ray packet cannot contain null rays");
+            }
+            Point p0 = rays[i].getP0();
+            Vector dir = rays[i].getDir();
+            origins[0][i] = p0.getX();
+            origins[1][i] = p0.getY();
+            origins[2][i] = p0.getZ();
+            directions[0][i] = dir.getX();
+            directions[1][i] = dir.getY();
+            directions[2][i] = dir.getZ();
+            for (int axis = 0; axis < 3; axis++) {
+                inverseDirections[axis][i] = 1 / directions[axis][i];
+                minOrigin[axis] = Math.min(minOrigin[axis], origins[axis][i]);
+                maxOrigin[axis] = Math.max(maxOrigin[axis], origins[axis][i]);
+                minInverseDirection[axis] = Math.min(minInverseDirection[axis], inverseDirections[axis][i]);
+                maxInverseDirection[axis] = Math.max(maxInverseDirection[axis], inverseDirections[axis][i]);
+            }
+        }
+
+        boolean sameSigns = true;
+        for (int axis = 0; axis < 3; axis++) {
+            sameSigns &= Double.isFinite(minInverseDirection[axis]) && Double.isFinite(maxInverseDirection[axis])
+                    && (minInverseDirection[axis] > 0 || maxInverseDirection[axis] < 0);
+        }
+        coherent = sameSigns;
+    }
+
+    /**
+     * Gets the number of rays in the packet.
+     *
+     * @return the number of rays
+     */
+    public int size() {
+        return rays.length;
+    }
+
+    /**
+     * Gets a ray of the packet.
+     *
+     * @param index the index of the ray
+     * @return the ray
+     */
+    public Ray getRay(int index) {
+        return rays[index];
+    }
+
+    /**
+     * Gets the origin coordinate of a ray along an axis.
+     *
+     * @param axis  0 for x, 1 for y and 2 for z
+     * @param index the index of the ray
+     * @return the origin coordinate
+     */
+    public double getOrigin(int axis, int index) {
+        return origins[axis][index];
+    }
+
+    /**
+     * Gets the direction coordinate of a ray along an axis.
+     *
+     * @param axis  0 for x, 1 for y and 2 for z
+     * @param index the index of the ray
+     * @return the coordinate of the normalized direction
+     */
+    public double getDirection(int axis, int index) {
+        return directions[axis][index];
+    }
+
+    /**
+     * Gets the inverse of the direction coordinate of a ray along an axis.
+     *
+     * @param axis  0 for x, 1 for y and 2 for z
+     * @param index the index of the ray
+     * @return the inverse direction coordinate, infinite if the ray is parallel to the axis
+     */
+    public double getInverseDirection(int axis, int index) {
+        return inverseDirections[axis][index];
+    }
+
+    /**
+     * Checks whether the rays of the packet head into the same octant, so that
+     * {@link #missesBox(double, double, double, double, double, double, double)} can be used.
+     *
+     * @return true if the direction coordinates of all the rays have the same nonzero sign along every axis
+     */
+    public boolean isCoherent() {
+        return coherent;
+    }
+
+    /**
+     * Checks conservatively whether all the rays of a coherent packet miss a box, by the slab
+     * method over the intervals of the origins and the inverse directions.
+     *
+     * @param minX        the lowest x coordinate of the box
+     * @param minY        the lowest y coordinate of the box
+     * @param minZ        the lowest z coordinate of the box
+     * @param maxX        the highest x coordinate of the box
+     * @param maxY        the highest y coordinate of the box
+     * @param maxZ        the highest z coordinate of the box
+     * @param maxDistance the distance beyond which hits of all the rays are of no interest
+     * @return true if every ray misses the box within the distance, false if some ray may hit it
+     * (always false for a packet that is not coherent)
+     */
+    public boolean missesBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                             double maxDistance) {
+        if (!coherent) return false;
+        double entry = 0, exit = maxDistance;
+        for (int axis = 0; axis < 3; axis++) {
+            double low = axis == 0 ? minX : axis == 1 ? minY : minZ;
+            double high = axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+            if (maxInverseDirection[axis] < 0) { // the rays enter through the high side
+                double swap = low;
+                low = high;
+                high = swap;
+            }
+            // Bounds over the packet of the slab distances (low - o) * inverse and (high - o) * inverse
+            double nearest = Math.min(
+                    Math.min((low - maxOrigin[axis]) * minInverseDirection[axis], (low - maxOrigin[axis]) * maxInverseDirection[axis]),
+                    Math.min((low - minOrigin[axis]) * minInverseDirection[axis], (low - minOrigin[axis]) * maxInverseDirection[axis]));
+            double farthest = Math.max(
+                    Math.max((high - maxOrigin[axis]) * minInverseDirection[axis], (high - maxOrigin[axis]) * maxInverseDirection[axis]),
+                    Math.max((high - minOrigin[axis]) * minInverseDirection[axis], (high - minOrigin[axis]) * maxInverseDirection[axis]));
+            entry = Math.max(entry, nearest);
+            exit = Math.min(exit, farthest * (1 + 1e-9));
+            if (entry > exit) return true;
+        }
+        return false;
+    }
+}
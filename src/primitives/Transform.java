@@ -0,0 +1,253 @@
+package primitives;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static primitives.Util.isZero;
+
+/**
+ * Represents an invertible affine transformation of the 3D space.
+ * <p>
+ * The transformation is kept as a 3x4 matrix (a linear part and a translation) together with
+ * its inverse, so points, vectors, normals and rays can be mapped in both directions without
+ * inverting a matrix per use. Transformations are immutable and are combined with {@link #then(Transform)}.
+ * </p>
+ */
+public class Transform implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The identity transformation.
+     */
+    public static final Transform IDENTITY = new Transform(
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0},
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    /**
+     * The matrix of the transformation, row by row: each row holds 3 linear coefficients and a translation.
+     */
+    private final double[] matrix;
+
+    /**
+     * The matrix of the inverse transformation, in the same layout.
+     */
+    private final double[] inverse;
+
+    /**
+     * Constructs a transformation from its matrix and the matrix of its inverse.
+     *
+     * @param matrix  the 3x4 matrix of the transformation, row by row
+     * @param inverse the 3x4 matrix of the inverse transformation, row by row
+     */
+    private Transform(double[] matrix, double[] inverse) {
+        this.matrix = matrix;
+        this.inverse = inverse;
+    }
+
+    /**
+     * Creates a translation.
+     *
+     * @param dx the translation along the x-axis
+     * @param dy the translation along the y-axis
+     * @param dz the translation along the z-axis
+     * @return the translation
+     */
+    public static Transform translation(double dx, double dy, double dz) {
+        return new Transform(
+                new double[]{1, 0, 0, dx, 0, 1, 0, dy, 0, 0, 1, dz},
+                new double[]{1, 0, 0, -dx, 0, 1, 0, -dy, 0, 0, 1, -dz});
+    }
+
+    /**
+     * Creates a scaling about the origin.
+     *
+     * @param sx the scale factor along the x-axis
+     * @param sy the scale factor along the y-axis
+     * @param sz the scale factor along the z-axis
+     * @return the scaling
+     * @throws IllegalArgumentException if any of the factors is zero
+     */
+    public static Transform scaling(double sx, double sy, double sz) {
+        if (isZero(sx) || isZero(sy) || isZero(sz)) {
+            throw new IllegalArgumentException("Scale factors cannot be zero");
+        }
+        return new Transform(
+                new double[]{sx, 0, 0, 0, 0, sy, 0, 0, 0, 0, sz, 0},
+                new double[]{1 / sx, 0, 0, 0, 0, 1 / sy, 0, 0, 0, 0, 1 / sz, 0});
+    }
+
+    /**
+     * Creates a uniform scaling about the origin.
+     *
+     * @param scale the scale factor along all the axes
+     * @return the scaling
+     * @throws IllegalArgumentException if the factor is zero
+     */
+    public static Transform scaling(double scale) {
+        return scaling(scale, scale, scale);
+    }
+
+    /**
+     * Creates a rotation about an axis through the origin.
+     * The rotation is counterclockwise when looking against the axis direction.
+     *
+     * @param axis    the rotation axis
+     * @param degrees the rotation angle in degrees
+     * @return the rotation
+     */
+    public static Transform rotation(Vector axis, double degrees) {
+        Vector u = axis.normalize();
+        double x = u.getX(), y = u.getY(), z = u.getZ();
+        double radians = Math.toRadians(degrees);
+        double c = Math.cos(radians), s = Math.sin(radians), t = 1 - c;
+
+        // Rodrigues' rotation formula; the inverse of a rotation is its transpose
+        double[] matrix = {
+                t * x * x + c, t * x * y - s * z, t * x * z + s * y, 0,
+                t * x * y + s * z, t * y * y + c, t * y * z - s * x, 0,
+                t * x * z - s * y, t * y * z + s * x, t * z * z + c, 0};
+        double[] inverse = {
+                matrix[0], matrix[4], matrix[8], 0,
+                matrix[1], matrix[5], matrix[9], 0,
+                matrix[2], matrix[6], matrix[10], 0};
+        return new Transform(matrix, inverse);
+    }
+
+    /**
+     * Combines this transformation with a following one.
+     *
+     * @param next the transformation to apply after this one
+     * @return the transformation applying this transformation and then the next
+     */
+    public Transform then(Transform next) {
+        return new Transform(multiply(next.matrix, matrix), multiply(inverse, next.inverse));
+    }
+
+    /**
+     * Gets the inverse transformation.
+     *
+     * @return the transformation undoing this one
+     */
+    public Transform getInverse() {
+        return new Transform(inverse, matrix);
+    }
+
+    /**
+     * Multiplies two affine matrices.
+     *
+     * @param a the left matrix
+     * @param b the right matrix
+     * @return the matrix applying b and then a
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] result = new double[12];
+        for (int row = 0; row < 3; row++) {
+            int r = row * 4;
+            for (int column = 0; column < 4; column++) {
+                result[r + column] = a[r] * b[column] + a[r + 1] * b[4 + column] + a[r + 2] * b[8 + column];
+            }
+            result[r + 3] += a[r + 3];
+        }
+        return result;
+    }
+
+    /**
+     * Applies an affine matrix to coordinates.
+     *
+     * @param m           the matrix
+     * @param x           the x coordinate
+     * @param y           the y coordinate
+     * @param z           the z coordinate
+     * @param translation 1 to map a point, 0 to map a vector
+     * @return the mapped coordinates
+     */
+    private static Double3 apply(double[] m, double x, double y, double z, double translation) {
+        return new Double3(
+                m[0] * x + m[1] * y + m[2] * z + m[3] * translation,
+                m[4] * x + m[5] * y + m[6] * z + m[7] * translation,
+                m[8] * x + m[9] * y + m[10] * z + m[11] * translation);
+    }
+
+    /**
+     * Transforms a point.
+     *
+     * @param point the point
+     * @return the transformed point
+     */
+    public Point transformPoint(Point point) {
+        return new Point(apply(matrix, point.getX(), point.getY(), point.getZ(), 1));
+    }
+
+    /**
+     * Transforms a vector (a direction, which is not affected by the translation).
+     *
+     * @param vector the vector
+     * @return the transformed vector
+     */
+    public Vector transformVector(Vector vector) {
+        return new Vector(apply(matrix, vector.getX(), vector.getY(), vector.getZ(), 0));
+    }
+
+    /**
+     * Transforms a surface normal.
+     * Normals are mapped by the inverse transpose, so they stay perpendicular to scaled surfaces.
+     *
+     * @param normal the normal
+     * @return the transformed normal, normalized
+     */
+    public Vector transformNormal(Vector normal) {
+        double x = normal.getX(), y = normal.getY(), z = normal.getZ();
+        return new Vector(
+                inverse[0] * x + inverse[4] * y + inverse[8] * z,
+                inverse[1] * x + inverse[5] * y + inverse[9] * z,
+                inverse[2] * x + inverse[6] * y + inverse[10] * z).normalize();
+    }
+
+    /**
+     * Maps a point back through the transformation.
+     *
+     * @param point the transformed point
+     * @return the original point
+     */
+    public Point inverseTransformPoint(Point point) {
+        return new Point(apply(inverse, point.getX(), point.getY(), point.getZ(), 1));
+    }
+
+    /**
+     * Maps a vector back through the transformation.
+     *
+     * @param vector the transformed vector
+     * @return the original vector
+     */
+    public Vector inverseTransformVector(Vector vector) {
+        return new Vector(apply(inverse, vector.getX(), vector.getY(), vector.getZ(), 0));
+    }
+
+    /**
+     * Maps a ray back through the transformation, e.g. from the world into the space of a transformed object.
+     *
+     * @param ray the transformed ray
+     * @return the original ray (its direction is normalized, so distances along it are not preserved)
+     */
+    public Ray inverseTransformRay(Ray ray) {
+        return new Ray(inverseTransformPoint(ray.getP0()), inverseTransformVector(ray.getDir()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof Transform other && Arrays.equals(matrix, other.matrix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(matrix);
+    }
+
+    @Override
+    public String toString() {
+        return "Transform" + Arrays.toString(matrix);
+    }
+}
@@ -1,5 +1,6 @@
 package primitives;
 
+import java.io.Serial;
 import java.util.Objects;
 
 import static primitives.Util.isZero;
@@ -11,6 +12,8 @@ import static primitives.Util.isZero;
  * for vector operations such as addition, subtraction, scaling, dot product, and cross product.
  */
 public class Vector extends Point {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
      * Primary constructor for Vector.
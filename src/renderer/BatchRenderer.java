@@ -0,0 +1,139 @@
+package renderer;
+
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Renders several views of the same scene together, e.g. product shots from many viewpoints.
+ * <p>
+ * The scene is prepared once for all the views: its acceleration structure is built, unless it
+ * already has one, and a single ray tracer is shared by all the cameras. The tiles of all the
+ * views are then rendered by one pool of threads from one queue, view after view, so the threads
+ * go on to the next view as soon as the tiles of a view run out instead of waiting for its last
+ * tiles - there is no idle tail per view.
+ * </p>
+ */
+public class BatchRenderer {
+    private final RayTracerBase rayTracer;
+    private final List<Camera> cameras = new ArrayList<>();
+    private int threadsCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructs a batch renderer of a scene, traced by a {@link SimpleRayTracer}.
+     *
+     * @param scene the scene to render
+     * @throws IllegalArgumentException if the scene is null
+     */
+    public BatchRenderer(Scene scene) {
+        if (scene == null) {
+            throw new IllegalArgumentException("Scene cannot be null");
+        }
+        this.rayTracer = new SimpleRayTracer(scene);
+    }
+
+    /**
+     * Constructs a batch renderer of the scene of a ray tracer.
+     *
+     * @param rayTracer the ray tracer shared by all the views
+     * @throws IllegalArgumentException if the ray tracer is null
+     */
+    public BatchRenderer(RayTracerBase rayTracer) {
+        if (rayTracer == null) {
+            throw new IllegalArgumentException("Ray tracer cannot be null");
+        }
+        this.rayTracer = rayTracer;
+    }
+
+    /**
+     * Gets the ray tracer shared by all the views.
+     *
+     * @return the ray tracer
+     */
+    public RayTracerBase getRayTracer() {
+        return rayTracer;
+    }
+
+    /**
+     * Sets the number of rendering threads shared by all the views.
+     *
+     * @param threadsCount the number of threads, 1 to render on the calling thread
+     * @return the batch renderer itself for chaining
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public BatchRenderer setMultithreading(int threadsCount) {
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("Threads count must be positive");
+        }
+        this.threadsCount = threadsCount;
+        return this;
+    }
+
+    /**
+     * Adds a view. The camera is built with the shared ray tracer; its own multithreading
+     * setting is ignored.
+     *
+     * @param builder the builder of the camera of the view, with its image writer
+     * @return the batch renderer itself for chaining
+     * @throws IllegalArgumentException if the builder is null or its settings are invalid
+     */
+    public BatchRenderer addView(Camera.Builder builder) {
+        if (builder == null) {
+            throw new IllegalArgumentException("Camera builder cannot be null");
+        }
+        cameras.add(builder.setRayTracer(rayTracer).build());
+        return this;
+    }
+
+    /**
+     * Gets the cameras of the views.
+     *
+     * @return the cameras, in the order the views were added
+     */
+    public List<Camera> getCameras() {
+        return Collections.unmodifiableList(cameras);
+    }
+
+    /**
+     * Prepares the scene once and renders all the views.
+     *
+     * @return the batch renderer itself for chaining
+     * @throws IllegalStateException if rendering failed or was interrupted
+     */
+    public BatchRenderer render() {
+        long start = System.nanoTime();
+        try {
+            if (!rayTracer.getGeometries().hasAcceleration()) rayTracer.scene.buildAcceleration();
+
+            renderTiles();
+            for (Camera camera : cameras) camera.finishTiles();
+        } finally {
+            RayStatistics statistics = rayTracer.getStatistics();
+            if (statistics != null) statistics.addRenderTime(System.nanoTime() - start);
+        }
+        return this;
+    }
+
+    /**
+     * Renders the tiles of all the views, view after view, on the calling thread or on a pool of
+     * rendering threads.
+     */
+    private void renderTiles() {
+        List<Runnable> tasks = new ArrayList<>();
+        for (Camera camera : cameras) {
+            for (Tile tile : camera.getPendingTiles()) {
+                tasks.add(() -> camera.renderTile(tile));
+            }
+        }
+        TileTasks.run(tasks, threadsCount);
+    }
+
+    /**
+     * Writes the images of all the views to their files.
+     */
+    public void writeToImages() {
+        for (Camera camera : cameras) camera.writeToImage();
+    }
+}
@@ -1,11 +1,18 @@
 package renderer;
 
+import diagnostics.SlowPixelEvent;
+import diagnostics.TileRenderEvent;
+import geometries.Intersectable.GeoPoint;
 import primitives.Color;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 import renderer.superSampling.SamplingConfig;
 
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.MissingResourceException;
 
 import static primitives.Util.alignZero;
@@ -15,9 +22,16 @@ import static primitives.Util.isZero;
  * Represents a camera in a 3D space.
  * The Camera class manages the view plane and constructs rays for rendering.
  * It ensures proper configuration and enforces parameter validation.
+ * <p>
+ * The view parameters of a camera are serializable, so a built camera can be shipped to
+ * remote render workers; the image writer and the ray tracer are local to each process.
+ * </p>
  */
 
-public class Camera implements Cloneable {
+public class Camera implements Cloneable, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private Point p0;
     private Point VPCenter;
     private Vector vUp;
@@ -27,10 +41,26 @@ public class Camera implements Cloneable {
     private double height = 0.0;
     private double distance = 0.0;
 
-    private ImageWriter imageWriter;
-    private RayTracerBase rayTracer;
+    private int tileSize = Tile.DEFAULT_SIZE;
+    private int threadsCount = 1;
+    private int packetSize = 1;
+    private boolean collectStatistics = false;
+    private boolean incrementalRendering = false;
+
+    private transient ImageWriter heatmapWriter;
+    private transient CostHeatmap.Metric heatmapMetric;
+    private transient CostHeatmap heatmap;
+    private transient GeometryBuffer geometryBuffer;
+    private transient DependencyFilter[] tileDependencies;
+
+    private transient ImageWriter imageWriter;
+    private transient RayTracerBase rayTracer;
 
     // Getters
+    public Point getLocation() {
+        return p0;
+    }
+
     public Vector getvUp() {
         return vUp;
     }
@@ -51,6 +81,22 @@ public class Camera implements Cloneable {
         return distance;
     }
 
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getPacketSize() {
+        return packetSize;
+    }
+
+    public ImageWriter getImageWriter() {
+        return imageWriter;
+    }
+
+    public RayTracerBase getRayTracer() {
+        return rayTracer;
+    }
+
 
     /**
      * Private default constructor (no parameters)
@@ -94,34 +140,272 @@ public class Camera implements Cloneable {
 
     /**
      * Generates the rendered image by tracing rays through each pixel and computing their color.
+     * <p>
+     * The image is split into tiles which are rendered one after the other, or concurrently
+     * when multithreading is enabled. Tiles already completed in the framebuffer file of the
+     * image writer, by an earlier render that was killed, are skipped.
+     * </p>
      * @return The Camera object itself for method chaining.
      */
     public Camera generateRenderedImage() {
-        int pixelColumns = imageWriter.getImageHeight();
-        int pixelRows = imageWriter.getImageWidth();
+        long start = System.nanoTime();
+        try {
+            renderTiles(getPendingTiles());
+            finishTiles();
+        } finally {
+            RayStatistics statistics = rayTracer.getStatistics();
+            if (statistics != null) statistics.addRenderTime(System.nanoTime() - start);
+        }
+        return this;
+    }
 
-        for (int pixelRowIndex = 0; pixelRowIndex < pixelRows; pixelRowIndex++) {
-            for (int pixelColumnIndex = 0; pixelColumnIndex < pixelColumns; pixelColumnIndex++) {
-                shootRayAndComputeColor(pixelColumns, pixelRows, pixelColumnIndex, pixelRowIndex);
+    /**
+     * Gets the tiles left to render: all the tiles, but those already completed in the
+     * framebuffer file of the image writer.
+     *
+     * @return the tiles to render, in row-major order
+     */
+    List<Tile> getPendingTiles() {
+        List<Tile> tiles = getTiles();
+        tiles.removeIf(imageWriter::isTileComplete);
+        return tiles;
+    }
+
+    /**
+     * Completes the image after all its tiles were rendered, writing the colors of the heatmap.
+     */
+    void finishTiles() {
+        if (heatmap != null) heatmap.writeColors();
+    }
+
+    /**
+     * Renders tiles of the image, on the calling thread or on a pool of rendering threads.
+     *
+     * @param tiles the tiles to render
+     */
+    private void renderTiles(List<Tile> tiles) {
+        List<Runnable> tasks = new ArrayList<>(tiles.size());
+        for (Tile tile : tiles) {
+            tasks.add(() -> renderTile(tile));
+        }
+        TileTasks.run(tasks, threadsCount);
+    }
+
+    /**
+     * Gets the tiles whose pixels may be changed by edits of scene objects, i.e. the tiles whose
+     * last render was influenced by any of the objects. Tiles that were never rendered are
+     * included.
+     *
+     * @param edited the edited geometries, instances, materials or lights
+     * @return the tiles to render again, in row-major order
+     * @throws IllegalArgumentException if the edited objects are null
+     * @throws IllegalStateException    if incremental rendering is not enabled
+     */
+    public List<Tile> getDirtyTiles(Object... edited) {
+        if (edited == null) {
+            throw new IllegalArgumentException("Edited objects cannot be null");
+        }
+        if (tileDependencies == null) {
+            throw new IllegalStateException("Incremental rendering is not enabled");
+        }
+        List<Tile> tiles = getTiles();
+        tiles.removeIf(tile -> {
+            DependencyFilter dependencies = tileDependencies[tileIndex(tile)];
+            if (dependencies == null) return false;
+            for (Object source : edited) {
+                if (dependencies.mightContain(source)) return false;
             }
+            return true;
+        });
+        return tiles;
+    }
+
+    /**
+     * Renders again only the tiles whose pixels may be changed by edits of scene objects since the
+     * last render (see {@link #getDirtyTiles(Object...)}).
+     * <p>
+     * The edits may change materials, emissions and light attenuation, or replace lights - the
+     * replaced light is the edited object. Edits that may uncover new parts of the scene, such as
+     * moving, adding or removing geometries, or the background and the ambient light of the scene,
+     * need a full render by {@link #generateRenderedImage()}.
+     * </p>
+     *
+     * @param edited the edited geometries, instances, materials or lights
+     * @return The Camera object itself for method chaining.
+     * @throws IllegalArgumentException if the edited objects are null
+     * @throws IllegalStateException    if incremental rendering is not enabled, or the image
+     *                                  writer streams its rows to the file
+     */
+    public Camera renderEdits(Object... edited) {
+        List<Tile> tiles = getDirtyTiles(edited);
+        if (imageWriter.isStreaming()) {
+            throw new IllegalStateException("Rows streamed to the file cannot be rendered again");
+        }
+        long start = System.nanoTime();
+        try {
+            renderTiles(tiles);
+            finishTiles();
+        } finally {
+            RayStatistics statistics = rayTracer.getStatistics();
+            if (statistics != null) statistics.addRenderTime(System.nanoTime() - start);
         }
         return this;
     }
 
     /**
-     * Shoots a ray through the center of the specified pixel, computes its color,
-     * and writes the color to the image.
+     * Gets the index of a tile of the image in row-major order.
+     *
+     * @param tile the tile
+     * @return the index
+     */
+    private int tileIndex(Tile tile) {
+        int columns = (imageWriter.getImageWidth() + tileSize - 1) / tileSize;
+        return tile.getY() / tileSize * columns + tile.getX() / tileSize;
+    }
+
+    /**
+     * Gets the summary of the ray statistics collected by the ray tracer of the camera.
+     *
+     * @return the statistics of all the renders so far, or null if statistics are not collected
+     */
+    public RenderStatistics getStatistics() {
+        RayStatistics statistics = rayTracer.getStatistics();
+        return statistics == null ? null : statistics.summarize();
+    }
+
+    /**
+     * Splits the image of this camera into tiles of the configured tile size.
+     *
+     * @return the tiles covering the whole image, in row-major order
+     */
+    public List<Tile> getTiles() {
+        return Tile.split(imageWriter.getImageWidth(), imageWriter.getImageHeight(), tileSize);
+    }
+
+    /**
+     * Renders all the pixels of a tile and writes their colors to the image.
+     * <p>
+     * The tile and its slow pixels are reported to Java Flight Recorder when a recording
+     * enables the {@link TileRenderEvent} and {@link SlowPixelEvent} events.
+     * With packet tracing (see {@link Builder#setPacketSize(int)}) the pixels are traced block by
+     * block, and only the tile is reported. The complete tile is recorded in the framebuffer file
+     * of the image writer, if any, and the geometry buffer, if any, records the closest hits that
+     * the ray tracer found for the pixels. With incremental rendering, the scene objects
+     * influencing the tile are recorded for {@link #renderEdits(Object...)}.
+     * </p>
+     *
+     * @param tile the tile to render
+     */
+    public void renderTile(Tile tile) {
+        TileRenderEvent tileEvent = new TileRenderEvent();
+        tileEvent.begin();
+        DependencyFilter dependencies = tileDependencies == null ? null : new DependencyFilter();
+        List<GeoPoint> hits = geometryBuffer == null ? null : new ArrayList<>();
+        rayTracer.recordDependencies(dependencies);
+        rayTracer.recordPrimaryHits(hits);
+        try {
+            if (packetSize > 1 && heatmap == null) {
+                renderPackets(tile, hits);
+            } else {
+                for (int row = tile.getY(); row < tile.getY() + tile.getHeight(); row++) {
+                    for (int column = tile.getX(); column < tile.getX() + tile.getWidth(); column++) {
+                        SlowPixelEvent pixelEvent = new SlowPixelEvent();
+                        pixelEvent.begin();
+                        imageWriter.setPixelColor(column, row,
+                                heatmap == null ? computePixelColor(column, row) : computeMeasuredPixelColor(column, row));
+                        if (hits != null) recordGeometry(column, row, hits, 0, 1);
+                        pixelEvent.finish(imageWriter.getFileName(), column, row);
+                    }
+                }
+            }
+        } finally {
+            rayTracer.recordDependencies(null);
+            rayTracer.recordPrimaryHits(null);
+        }
+        if (dependencies != null) tileDependencies[tileIndex(tile)] = dependencies;
+        imageWriter.completeTile(tile);
+        tileEvent.finish(imageWriter.getFileName(), tile.getX(), tile.getY(), tile.getWidth(), tile.getHeight());
+    }
+
+    /**
+     * Records the closest hit of the ray through the center of a pixel in the geometry buffer:
+     * the hit reported by the ray tracer, or, if it did not report one hit for every ray it
+     * traced, the hit searched again. The hits are cleared after the last traced ray.
+     *
+     * @param column the column index of the pixel
+     * @param row    the row index of the pixel
+     * @param hits   the hits reported by the ray tracer for the traced rays
+     * @param index  the index of the ray of the pixel among the traced rays
+     * @param count  the number of the traced rays
+     */
+    private void recordGeometry(int column, int row, List<GeoPoint> hits, int index, int count) {
+        GeoPoint hit = hits.size() == count ? hits.get(index)
+                : rayTracer.getGeometries().findClosestGeoIntersection(
+                        generateRayThroughPixel(imageWriter.getImageWidth(), imageWriter.getImageHeight(), column, row));
+        geometryBuffer.record(column, row, p0, hit);
+        if (index == count - 1) hits.clear();
+    }
+
+    /**
+     * Renders the pixels of a tile in square blocks of the packet size, tracing the primary rays
+     * of every block together.
+     *
+     * @param tile the tile to render
+     * @param hits the list receiving the closest hits of the rays for the geometry buffer, or null
+     */
+    private void renderPackets(Tile tile, List<GeoPoint> hits) {
+        int pixelColumns = imageWriter.getImageWidth();
+        int pixelRows = imageWriter.getImageHeight();
+        for (int y = tile.getY(); y < tile.getY() + tile.getHeight(); y += packetSize) {
+            int rows = Math.min(packetSize, tile.getY() + tile.getHeight() - y);
+            for (int x = tile.getX(); x < tile.getX() + tile.getWidth(); x += packetSize) {
+                int columns = Math.min(packetSize, tile.getX() + tile.getWidth() - x);
+                Ray[] rays = new Ray[rows * columns];
+                for (int i = 0; i < rays.length; i++) {
+                    rays[i] = generateRayThroughPixel(pixelColumns, pixelRows, x + i % columns, y + i / columns);
+                }
+                Color[] colors = rayTracer.traceRays(rays);
+                for (int i = 0; i < rays.length; i++) {
+                    imageWriter.setPixelColor(x + i % columns, y + i / columns, colors[i]);
+                    if (hits != null) recordGeometry(x + i % columns, y + i / columns, hits, i, rays.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the color of a pixel and records its cost in the heatmap.
+     *
+     * @param column the column index of the pixel
+     * @param row    the row index of the pixel
+     * @return the color of the pixel
+     */
+    private Color computeMeasuredPixelColor(int column, int row) {
+        if (heatmap.getMetric() == CostHeatmap.Metric.RAYS) {
+            RayStatistics statistics = rayTracer.getStatistics();
+            long rays = statistics.getRaysOfCurrentThread();
+            Color color = computePixelColor(column, row);
+            heatmap.record(column, row, statistics.getRaysOfCurrentThread() - rays);
+            return color;
+        }
+
+        long start = System.nanoTime();
+        Color color = computePixelColor(column, row);
+        heatmap.record(column, row, System.nanoTime() - start);
+        return color;
+    }
+
+    /**
+     * Shoots a ray through the center of the specified pixel and computes its color.
      *
-     * @param pixelColumns Number of pixels in the x direction.
-     * @param pixelRows Number of pixels in the y direction.
      * @param pixelColumnIndex The column index of the pixel.
      * @param pixelRowIndex The row index of the pixel.
+     * @return the color of the pixel.
      */
-    private void shootRayAndComputeColor(int pixelColumns, int pixelRows, int pixelColumnIndex, int pixelRowIndex) {
-        imageWriter.setPixelColor(
-                pixelColumnIndex, pixelRowIndex,
-                rayTracer.traceRay(generateRayThroughPixel(pixelColumns, pixelRows, pixelColumnIndex, pixelRowIndex))
-        );
+    public Color computePixelColor(int pixelColumnIndex, int pixelRowIndex) {
+        int pixelColumns = imageWriter.getImageWidth();
+        int pixelRows = imageWriter.getImageHeight();
+        return rayTracer.traceRay(generateRayThroughPixel(pixelColumns, pixelRows, pixelColumnIndex, pixelRowIndex));
     }
 
     /**
@@ -149,6 +433,25 @@ public class Camera implements Cloneable {
      */
     public void writeToImage() {
         imageWriter.saveImageToFile();
+        if (heatmap != null) heatmap.getImageWriter().saveImageToFile();
+    }
+
+    /**
+     * Gets the geometry buffer of the renders.
+     *
+     * @return the geometry buffer, or null if the camera does not record one
+     */
+    public GeometryBuffer getGeometryBuffer() {
+        return geometryBuffer;
+    }
+
+    /**
+     * Gets the cost heatmap of the last render.
+     *
+     * @return the heatmap, or null if the camera does not produce one
+     */
+    public CostHeatmap getHeatmap() {
+        return heatmap;
     }
 
     @Override
@@ -283,6 +586,111 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the number of threads rendering the image tiles concurrently.
+         *
+         * @param threadsCount the number of rendering threads (1 renders on the calling thread)
+         * @return the Builder object itself
+         * @throws IllegalArgumentException if the number of threads is not positive
+         */
+        public Builder setMultithreading(int threadsCount) {
+            if (threadsCount < 1) {
+                throw new IllegalArgumentException("Threads count must be at least 1");
+            }
+            camera.threadsCount = threadsCount;
+            return this;
+        }
+
+        /**
+         * Sets the edge length of the tiles the image is split into while rendering.
+         *
+         * @param tileSize the tile edge length in pixels
+         * @return the Builder object itself
+         * @throws IllegalArgumentException if the tile size is not positive
+         */
+        public Builder setTileSize(int tileSize) {
+            if (tileSize < 1) {
+                throw new IllegalArgumentException("Tile size must be positive");
+            }
+            camera.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Sets the edge length of the square pixel blocks whose primary rays are traced together
+         * as a packet. Coherent packets let the acceleration structure skip whole parts of the
+         * scene with a single test. Packets are not used while a cost heatmap is recorded.
+         *
+         * @param packetSize the block edge length in pixels (1 traces every ray alone, the default)
+         * @return the Builder object itself
+         * @throws IllegalArgumentException if the packet size is not positive
+         */
+        public Builder setPacketSize(int packetSize) {
+            if (packetSize < 1) {
+                throw new IllegalArgumentException("Packet size must be positive");
+            }
+            camera.packetSize = packetSize;
+            return this;
+        }
+
+        /**
+         * Enables collecting ray statistics during rendering.
+         * The summary is available through {@link Camera#getStatistics()}.
+         *
+         * @return the Builder object itself
+         */
+        public Builder enableStatistics() {
+            camera.collectStatistics = true;
+            return this;
+        }
+
+        /**
+         * Enables incremental rendering: while rendering, the geometries, materials and lights
+         * influencing every tile are recorded, so that after editing some of them only the tiles
+         * they influenced are rendered again by {@link Camera#renderEdits(Object...)}.
+         *
+         * @return the Builder object itself
+         */
+        public Builder enableIncrementalRendering() {
+            camera.incrementalRendering = true;
+            return this;
+        }
+
+        /**
+         * Enables the diagnostic cost heatmap: while rendering, the cost of every pixel is
+         * measured, and a false-color image of the costs is written along with the image.
+         *
+         * @param heatmapWriter the writer of the heatmap image, of the same resolution as the image
+         * @param metric        the cost to measure per pixel
+         * @return the Builder object itself
+         * @throws IllegalArgumentException if the writer or the metric is null
+         */
+        public Builder setCostHeatmap(ImageWriter heatmapWriter, CostHeatmap.Metric metric) {
+            if (heatmapWriter == null || metric == null) {
+                throw new IllegalArgumentException("Heatmap image writer and metric cannot be null");
+            }
+            camera.heatmapWriter = heatmapWriter;
+            camera.heatmapMetric = metric;
+            if (metric == CostHeatmap.Metric.RAYS) camera.collectStatistics = true;
+            return this;
+        }
+
+        /**
+         * Enables the geometry buffer: while rendering, the depth and the normal of the closest
+         * hit through every pixel are recorded, to be saved for compositing.
+         *
+         * @param geometryBuffer the geometry buffer, of the same resolution as the image
+         * @return the Builder object itself
+         * @throws IllegalArgumentException if the geometry buffer is null
+         */
+        public Builder setGeometryBuffer(GeometryBuffer geometryBuffer) {
+            if (geometryBuffer == null) {
+                throw new IllegalArgumentException("Geometry buffer cannot be null");
+            }
+            camera.geometryBuffer = geometryBuffer;
+            return this;
+        }
+
         public Builder setSamplingConfig(SamplingConfig config) {
             if (camera.rayTracer instanceof SimpleRayTracer) {
                 ((SimpleRayTracer) camera.rayTracer).setSamplingConfig(config);
@@ -331,6 +739,32 @@ public class Camera implements Cloneable {
                 throw new IllegalArgumentException("vTo and vUp are not orthogonal");
             }
 
+            if (camera.collectStatistics && camera.rayTracer.getStatistics() == null) {
+                camera.rayTracer.setStatistics(new RayStatistics());
+            }
+
+            int framebufferTileSize = camera.imageWriter.getTileSize();
+            if (framebufferTileSize != 0 && framebufferTileSize != camera.tileSize) {
+                throw new IllegalArgumentException("Tile size must match the tile size of the framebuffer file");
+            }
+
+            if (camera.geometryBuffer != null && (camera.geometryBuffer.getWidth() != camera.imageWriter.getImageWidth()
+                    || camera.geometryBuffer.getHeight() != camera.imageWriter.getImageHeight())) {
+                throw new IllegalArgumentException("Geometry buffer resolution must match the image resolution");
+            }
+
+            if (camera.heatmapWriter != null) {
+                if (camera.heatmapWriter.getImageWidth() != camera.imageWriter.getImageWidth()
+                        || camera.heatmapWriter.getImageHeight() != camera.imageWriter.getImageHeight()) {
+                    throw new IllegalArgumentException("Heatmap resolution must match the image resolution");
+                }
+                camera.heatmap = new CostHeatmap(camera.heatmapWriter, camera.heatmapMetric);
+            }
+
+            if (camera.incrementalRendering) {
+                camera.tileDependencies = new DependencyFilter[camera.getTiles().size()];
+            }
+
             camera.vRight = camera.vTo.crossProduct(camera.vUp).normalize();
             camera.VPCenter = camera.p0.add(camera.vTo.scale(camera.distance));
             try {
@@ -0,0 +1,122 @@
+package renderer;
+
+import primitives.Color;
+
+import java.util.Arrays;
+
+/**
+ * Diagnostic image of the rendering cost of every pixel.
+ * <p>
+ * While the camera renders, the heatmap records the cost of each pixel - the time spent on it
+ * or the number of rays traced for it. After rendering, the costs are mapped to a false-color
+ * scale from dark blue (cheap) through cyan, green and yellow to red (expensive), and written
+ * to the heatmap's image writer. The top of the scale is the 99th percentile of the costs, so
+ * a few outliers (e.g. pixels rendered while the JIT was warming up) do not flatten the image.
+ * </p>
+ */
+public class CostHeatmap {
+    /**
+     * The cost measured per pixel.
+     */
+    public enum Metric {
+        /** Nanoseconds spent computing the pixel color */
+        TIME,
+        /** Number of rays traced for the pixel */
+        RAYS
+    }
+
+    /**
+     * The percentile of the costs mapped to the top of the color scale.
+     */
+    private static final double SCALE_PERCENTILE = 0.99;
+
+    /**
+     * The colors of the false-color scale, evenly spaced from the lowest to the highest cost.
+     */
+    private static final Color[] SCALE = {
+            new Color(0, 0, 64),
+            new Color(0, 128, 255),
+            new Color(0, 200, 0),
+            new Color(255, 220, 0),
+            new Color(255, 0, 0)
+    };
+
+    private final ImageWriter imageWriter;
+    private final Metric metric;
+    private final double[] costs;
+
+    /**
+     * Constructs a heatmap.
+     *
+     * @param imageWriter the writer of the heatmap image
+     * @param metric      the cost to measure
+     * @throws IllegalArgumentException if the image writer or the metric is null
+     */
+    public CostHeatmap(ImageWriter imageWriter, Metric metric) {
+        if (imageWriter == null || metric == null) {
+            throw new IllegalArgumentException("Heatmap image writer and metric cannot be null");
+        }
+        this.imageWriter = imageWriter;
+        this.metric = metric;
+        this.costs = new double[imageWriter.getImageWidth() * imageWriter.getImageHeight()];
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public ImageWriter getImageWriter() {
+        return imageWriter;
+    }
+
+    /**
+     * Records the cost of a pixel.
+     *
+     * @param x    the pixel column
+     * @param y    the pixel row
+     * @param cost the cost of the pixel in units of the metric
+     */
+    public void record(int x, int y, double cost) {
+        costs[y * imageWriter.getImageWidth() + x] = cost;
+    }
+
+    /**
+     * Gets the recorded cost of a pixel.
+     *
+     * @param x the pixel column
+     * @param y the pixel row
+     * @return the cost of the pixel in units of the metric
+     */
+    public double getCost(int x, int y) {
+        return costs[y * imageWriter.getImageWidth() + x];
+    }
+
+    /**
+     * Maps the recorded costs to colors and writes them to the heatmap image.
+     */
+    public void writeColors() {
+        double[] sorted = costs.clone();
+        Arrays.sort(sorted);
+        double top = sorted[(int) (SCALE_PERCENTILE * (sorted.length - 1))];
+        if (top <= 0) top = sorted[sorted.length - 1];
+
+        int width = imageWriter.getImageWidth();
+        for (int i = 0; i < costs.length; i++) {
+            imageWriter.setPixelColor(i % width, i / width, falseColor(top <= 0 ? 0 : costs[i] / top));
+        }
+    }
+
+    /**
+     * Maps a relative cost to the false-color scale.
+     *
+     * @param t the relative cost, 0 for the cheapest and 1 for the most expensive pixels;
+     *          values outside the range are clamped
+     * @return the color of the cost
+     */
+    public static Color falseColor(double t) {
+        double position = Math.min(Math.max(t, 0), 1) * (SCALE.length - 1);
+        int index = Math.min((int) position, SCALE.length - 2);
+        double fraction = position - index;
+        return SCALE[index].scale(1 - fraction).add(SCALE[index + 1].scale(fraction));
+    }
+}
@@ -0,0 +1,74 @@
+package renderer;
+
+import java.util.Arrays;
+
+/**
+ * A Bloom filter of the scene objects - geometries, materials and lights - that influenced the
+ * pixels of a tile.
+ * <p>
+ * Objects are identified by their identity. The filter is compact and of a fixed size however
+ * many objects a tile sees; in exchange it may report an object it has never seen (and then the
+ * tile is rendered again for nothing), but never misses an object it has seen.
+ * </p>
+ */
+final class DependencyFilter {
+    /**
+     * The number of bits of a filter.
+     */
+    private static final int BITS = 1024;
+
+    /**
+     * The number of bits set for every object.
+     */
+    private static final int HASHES = 3;
+
+    private final long[] words = new long[BITS / Long.SIZE];
+
+    /**
+     * Adds an object to the filter.
+     *
+     * @param source the object
+     */
+    void add(Object source) {
+        int hash = mix(System.identityHashCode(source));
+        int step = hash >>> 16 | 1;
+        for (int i = 0; i < HASHES; i++, hash += step) {
+            int bit = hash & BITS - 1;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether an object might have been added to the filter.
+     *
+     * @param source the object
+     * @return false if the object was surely not added
+     */
+    boolean mightContain(Object source) {
+        int hash = mix(System.identityHashCode(source));
+        int step = hash >>> 16 | 1;
+        for (int i = 0; i < HASHES; i++, hash += step) {
+            int bit = hash & BITS - 1;
+            if ((words[bit >>> 6] & 1L << bit) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the objects from the filter.
+     */
+    void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    /**
+     * Spreads the bits of an identity hash code over the whole integer.
+     *
+     * @param hash the hash code
+     * @return the mixed hash code
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ hash >>> 15;
+    }
+}
@@ -0,0 +1,30 @@
+package renderer;
+
+/**
+ * The formats of the floating-point images written by an {@link ImageWriter} and a
+ * {@link GeometryBuffer}, holding linear, unclamped values for compositing.
+ */
+public enum FloatFormat {
+    /**
+     * Portable float map - a minimal text header followed by the raw little-endian floats.
+     */
+    PFM("pfm"),
+    /**
+     * OpenEXR - an uncompressed scanline image of 32-bit float channels.
+     */
+    EXR("exr");
+
+    /**
+     * The file name extension of the format.
+     */
+    final String extension;
+
+    /**
+     * Constructs a format.
+     *
+     * @param extension the file name extension
+     */
+    FloatFormat(String extension) {
+        this.extension = extension;
+    }
+}
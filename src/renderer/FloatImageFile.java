@@ -0,0 +1,242 @@
+package renderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Writer of floating-point images in the {@link FloatFormat} formats.
+ * <p>
+ * The values are gathered row after row into a large byte buffer, which is written to the file
+ * channel in bulk whenever it is full - no value is written on its own.
+ * </p>
+ */
+final class FloatImageFile {
+    /**
+     * The size of the buffer of the rows written in bulk.
+     */
+    private static final int BUFFER_BYTES = 1 << 22;
+
+    /**
+     * The magic number starting every OpenEXR file.
+     */
+    private static final int EXR_MAGIC = 20000630;
+
+    /**
+     * The OpenEXR pixel type of 32-bit floats.
+     */
+    private static final int EXR_FLOAT = 2;
+
+    /**
+     * The source of the values of the rows of an image.
+     */
+    interface RowSource {
+        /**
+         * Gets the values of a row.
+         *
+         * @param y      the index of the row, 0 at the top
+         * @param values the array to fill with the values of the pixels of the row, interleaved by channel
+         */
+        void getRow(int y, float[] values);
+    }
+
+    /**
+     * Prevents instantiation of the writer.
+     */
+    private FloatImageFile() {
+    }
+
+    /**
+     * Writes an image.
+     *
+     * @param file     the file
+     * @param format   the format of the file
+     * @param width    the image width in pixels
+     * @param height   the image height in pixels
+     * @param channels the names of the channels, in the order of their interleaved values - 1 or 3
+     *                 channels, as PFM is either grayscale or RGB
+     * @param rows     the source of the rows
+     * @throws IOException if writing fails
+     */
+    static void write(File file, FloatFormat format, int width, int height, String[] channels, RowSource rows)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == FloatFormat.PFM) {
+                writePfm(channel, width, height, channels.length, rows);
+            } else {
+                writeExr(channel, width, height, channels, rows);
+            }
+        }
+    }
+
+    /**
+     * Writes a portable float map, whose rows go from the bottom of the image up.
+     *
+     * @param channel  the file channel
+     * @param width    the image width in pixels
+     * @param height   the image height in pixels
+     * @param channels the number of channels, 1 or 3
+     * @param rows     the source of the rows
+     * @throws IOException if writing fails
+     */
+    private static void writePfm(FileChannel channel, int width, int height, int channels, RowSource rows)
+            throws IOException {
+        String header = (channels == 3 ? "PF" : "Pf") + '\n' + width + ' ' + height + "\n-1.0\n"; // negative scale - little-endian
+        writeFully(channel, ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+
+        float[] values = new float[channels * width];
+        ByteBuffer buffer = allocate(4 * values.length);
+        for (int y = height - 1; y >= 0; y--) {
+            rows.getRow(y, values);
+            if (buffer.remaining() < 4 * values.length) flush(channel, buffer);
+            putFloats(buffer, values);
+        }
+        flush(channel, buffer);
+    }
+
+    /**
+     * Writes an uncompressed OpenEXR scanline image of float channels, one scanline per chunk.
+     *
+     * @param channel  the file channel
+     * @param width    the image width in pixels
+     * @param height   the image height in pixels
+     * @param channels the names of the channels
+     * @param rows     the source of the rows
+     * @throws IOException if writing fails
+     */
+    private static void writeExr(FileChannel channel, int width, int height, String[] channels, RowSource rows)
+            throws IOException {
+        // The channels are stored sorted by name, every channel of a scanline after the other
+        Integer[] order = new Integer[channels.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(i -> channels[i]));
+
+        ByteBuffer header = ByteBuffer.allocate(1024 + 32 * channels.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(EXR_MAGIC).putInt(2); // version 2, single part scanline image
+        int listSize = 1;
+        for (String name : channels) listSize += name.length() + 1 + 16;
+        putAttribute(header, "channels", "chlist", listSize);
+        for (int i : order) {
+            putString(header, channels[i]);
+            header.putInt(EXR_FLOAT).put(new byte[4]).putInt(1).putInt(1); // linear flag, reserved, sampling
+        }
+        header.put((byte) 0);
+        putAttribute(header, "compression", "compression", 1);
+        header.put((byte) 0);
+        putAttribute(header, "dataWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(width - 1).putInt(height - 1);
+        putAttribute(header, "displayWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(width - 1).putInt(height - 1);
+        putAttribute(header, "lineOrder", "lineOrder", 1);
+        header.put((byte) 0); // increasing y
+        putAttribute(header, "pixelAspectRatio", "float", 4);
+        header.putFloat(1);
+        putAttribute(header, "screenWindowCenter", "v2f", 8);
+        header.putFloat(0).putFloat(0);
+        putAttribute(header, "screenWindowWidth", "float", 4);
+        header.putFloat(1);
+        header.put((byte) 0);
+
+        // The offset table of the scanlines, each of its y, its size and its data
+        int lineBytes = 4 * channels.length * width;
+        long offset = header.position() + 8L * height;
+        ByteBuffer table = ByteBuffer.allocate(8 * height).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < height; y++) {
+            table.putLong(offset + (long) y * (8 + lineBytes));
+        }
+        writeFully(channel, header.flip());
+        writeFully(channel, table.flip());
+
+        float[] values = new float[channels.length * width];
+        float[] line = new float[values.length];
+        ByteBuffer buffer = allocate(8 + lineBytes);
+        for (int y = 0; y < height; y++) {
+            rows.getRow(y, values);
+            for (int c = 0, i = 0; c < order.length; c++) {
+                for (int x = 0; x < width; x++) {
+                    line[i++] = values[x * channels.length + order[c]];
+                }
+            }
+            if (buffer.remaining() < 8 + lineBytes) flush(channel, buffer);
+            putFloats(buffer.putInt(y).putInt(lineBytes), line);
+        }
+        flush(channel, buffer);
+    }
+
+    /**
+     * Puts the name, type and size of an OpenEXR header attribute.
+     *
+     * @param header the header
+     * @param name   the attribute name
+     * @param type   the attribute type
+     * @param size   the size of the attribute value
+     */
+    private static void putAttribute(ByteBuffer header, String name, String type, int size) {
+        putString(header, name);
+        putString(header, type);
+        header.putInt(size);
+    }
+
+    /**
+     * Puts a null terminated string.
+     *
+     * @param header the header
+     * @param value  the string
+     */
+    private static void putString(ByteBuffer header, String value) {
+        header.put(value.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+    }
+
+    /**
+     * Allocates the buffer of the rows written in bulk.
+     *
+     * @param minimum the minimal size of the buffer, of a row
+     * @return the little-endian buffer
+     */
+    private static ByteBuffer allocate(int minimum) {
+        return ByteBuffer.allocateDirect(Math.max(minimum, BUFFER_BYTES) / 4 * 4).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Puts an array of floats in a buffer in bulk.
+     *
+     * @param buffer the buffer
+     * @param values the floats
+     */
+    private static void putFloats(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    /**
+     * Writes the bytes put in a buffer to the file, emptying the buffer.
+     *
+     * @param channel the file channel
+     * @param buffer  the buffer
+     * @throws IOException if writing fails
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        writeFully(channel, buffer.flip());
+        buffer.clear();
+    }
+
+    /**
+     * Writes all the remaining bytes of a buffer.
+     *
+     * @param channel the file channel
+     * @param buffer  the buffer
+     * @throws IOException if writing fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package renderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The pixels of an {@link ImageWriter} kept in a memory-mapped file, with a map of the tiles
+ * of the image that have been completely rendered.
+ * <p>
+ * The file starts with a header of the image and tile sizes, followed by one byte per tile
+ * (non-zero once the tile is complete) and then by the pixels, in bands of rows mapped
+ * separately. The operating system pages the pixels in and out, so the heap stays small, and
+ * whatever was written survives the death of the JVM. Opening the file of an earlier render of
+ * the same sizes resumes it; any other file is overwritten.
+ * </p>
+ */
+class FramebufferFile {
+    /**
+     * The first int of the file, "RTFB".
+     */
+    private static final int MAGIC = 0x52544642;
+
+    /**
+     * The version of the file layout.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The number of bytes of the header, before the tile map.
+     */
+    private static final int HEADER_BYTES = 32;
+
+    /**
+     * The alignment of the pixels in the file.
+     */
+    private static final int PAGE_BYTES = 4096;
+
+    /**
+     * The maximal number of bytes of a mapped band of pixels.
+     */
+    private static final int MAX_BAND_BYTES = 1 << 26;
+
+    /**
+     * The number of rows of every band of pixels (but maybe the last).
+     */
+    final int bandHeight;
+
+    /**
+     * The mapped bands of pixels from the top of the image down.
+     */
+    final PixelBand[] bands;
+
+    /**
+     * The mapped header and tile map.
+     */
+    private final MappedByteBuffer header;
+
+    /**
+     * The edge length of a tile in pixels.
+     */
+    private final int tileSize;
+
+    /**
+     * The number of tiles in a row of tiles.
+     */
+    private final int tileColumns;
+
+    /**
+     * The number of tiles.
+     */
+    private final int tileCount;
+
+    /**
+     * Whether the file holds an earlier render that is resumed.
+     */
+    private final boolean resumed;
+
+    /**
+     * Opens or creates a framebuffer file.
+     *
+     * @param file     the file
+     * @param width    the image width in pixels
+     * @param height   the image height in pixels
+     * @param tileSize the edge length of the tiles the image is rendered in
+     * @throws IllegalArgumentException if any of the sizes is not positive
+     * @throws IOException              if the file cannot be opened or mapped
+     */
+    FramebufferFile(File file, int width, int height, int tileSize) throws IOException {
+        if (width <= 0 || height <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("Image and tile sizes must be positive");
+        }
+        this.tileSize = tileSize;
+        tileColumns = (width + tileSize - 1) / tileSize;
+        long tiles = (long) tileColumns * ((height + tileSize - 1) / tileSize);
+        if (HEADER_BYTES + tiles > Integer.MAX_VALUE - PAGE_BYTES) {
+            throw new IllegalArgumentException("Too many tiles");
+        }
+        tileCount = (int) tiles;
+        int dataStart = (HEADER_BYTES + tileCount + PAGE_BYTES - 1) / PAGE_BYTES * PAGE_BYTES;
+        bandHeight = Math.max(1, Math.min(height, MAX_BAND_BYTES / PixelBand.Mapped.PIXEL_BYTES / width));
+        long length = dataStart + (long) PixelBand.Mapped.PIXEL_BYTES * width * height;
+
+        try (RandomAccessFile access = new RandomAccessFile(file, "rw"); FileChannel channel = access.getChannel()) {
+            resumed = access.length() == length && matches(channel, width, height);
+            if (!resumed) {
+                access.setLength(0);
+                access.setLength(length);
+            }
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataStart);
+            header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, width).putInt(12, height).putInt(16, tileSize);
+
+            bands = new PixelBand[(height + bandHeight - 1) / bandHeight];
+            for (int i = 0; i < bands.length; i++) {
+                int rows = Math.min(bandHeight, height - i * bandHeight);
+                long offset = dataStart + (long) PixelBand.Mapped.PIXEL_BYTES * width * i * bandHeight;
+                bands[i] = new PixelBand.Mapped(channel.map(FileChannel.MapMode.READ_WRITE, offset,
+                        (long) PixelBand.Mapped.PIXEL_BYTES * width * rows));
+            }
+        }
+    }
+
+    /**
+     * Checks whether the header of a file matches the sizes of the image and the tiles.
+     *
+     * @param channel the channel of the file
+     * @param width   the image width in pixels
+     * @param height  the image height in pixels
+     * @return true if the file holds a render of the same sizes
+     * @throws IOException if the file cannot be read
+     */
+    private boolean matches(FileChannel channel, int width, int height) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(buffer, 0);
+        return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getInt(8) == width
+                && buffer.getInt(12) == height && buffer.getInt(16) == tileSize;
+    }
+
+    /**
+     * Checks whether the file holds an earlier render that is resumed.
+     *
+     * @return true if the file was resumed, false if it was created
+     */
+    boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * Gets the edge length of the tiles.
+     *
+     * @return the tile size in pixels
+     */
+    int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Gets the position of a tile in the tile map.
+     *
+     * @param tile the tile
+     * @return the position of the byte of the tile
+     * @throws IllegalArgumentException if the tile is not on the grid of the tile size
+     */
+    private int position(Tile tile) {
+        if (tile.getX() % tileSize != 0 || tile.getY() % tileSize != 0) {
+            throw new IllegalArgumentException("The tile " + tile + " is not on the grid of tiles of size " + tileSize);
+        }
+        return HEADER_BYTES + tile.getY() / tileSize * tileColumns + tile.getX() / tileSize;
+    }
+
+    /**
+     * Checks whether a tile is complete.
+     *
+     * @param tile the tile
+     * @return true if the tile was marked complete
+     */
+    boolean isTileComplete(Tile tile) {
+        return header.get(position(tile)) != 0;
+    }
+
+    /**
+     * Marks a tile complete.
+     *
+     * @param tile the tile
+     */
+    void completeTile(Tile tile) {
+        header.put(position(tile), (byte) 1);
+    }
+
+    /**
+     * Marks all the tiles incomplete.
+     */
+    void clearTiles() {
+        for (int i = 0; i < tileCount; i++) {
+            header.put(HEADER_BYTES + i, (byte) 0);
+        }
+    }
+}
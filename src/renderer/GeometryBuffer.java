@@ -0,0 +1,130 @@
+package renderer;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Buffers of the geometry seen through every pixel, written alongside the image for compositing.
+ * <p>
+ * While the camera renders, the buffer records, for the ray through the center of every pixel,
+ * the depth of its closest hit - its distance from the camera along the ray - and the unit
+ * normal of the hit geometry in world space. Pixels with no hit have an infinite depth and a
+ * zero normal. Both buffers are saved in floating-point files next to the image.
+ * </p>
+ */
+public class GeometryBuffer {
+    private final String fileName;
+    private final int width;
+    private final int height;
+    private final float[] depths;
+    private final float[] normals;
+
+    /**
+     * Logger for reporting I/O failures.
+     */
+    private final Logger logWriter = Logger.getLogger("GeometryBuffer");
+
+    /**
+     * Constructs geometry buffers.
+     *
+     * @param fileName the name of the output files (without the suffixes "_depth" and "_normal"
+     *                 and the extension)
+     * @param width    the image width in pixels
+     * @param height   the image height in pixels
+     * @throws IllegalArgumentException if the resolution is not positive
+     */
+    public GeometryBuffer(String fileName, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Image resolution must be positive");
+        }
+        this.fileName = fileName;
+        this.width = width;
+        this.height = height;
+        depths = new float[width * height];
+        normals = new float[3 * width * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Records the closest hit of the ray through a pixel.
+     *
+     * @param x      the pixel column
+     * @param y      the pixel row
+     * @param origin the origin of the ray through the center of the pixel
+     * @param hit    the closest hit of the ray, or null if it hits nothing
+     */
+    public void record(int x, int y, Point origin, GeoPoint hit) {
+        int pixel = y * width + x;
+        if (hit == null) {
+            depths[pixel] = Float.POSITIVE_INFINITY;
+            normals[3 * pixel] = normals[3 * pixel + 1] = normals[3 * pixel + 2] = 0;
+            return;
+        }
+        depths[pixel] = (float) origin.distance(hit.point);
+        Vector normal = hit.geometry.getNormal(hit.point);
+        normals[3 * pixel] = (float) normal.getX();
+        normals[3 * pixel + 1] = (float) normal.getY();
+        normals[3 * pixel + 2] = (float) normal.getZ();
+    }
+
+    /**
+     * Gets the depth of a pixel.
+     *
+     * @param x the pixel column
+     * @param y the pixel row
+     * @return the distance of the closest hit through the pixel, infinite if there is none
+     */
+    public double getDepth(int x, int y) {
+        return depths[y * width + x];
+    }
+
+    /**
+     * Gets the normal of a pixel.
+     *
+     * @param x the pixel column
+     * @param y the pixel row
+     * @return the unit normal at the closest hit through the pixel, or null if there is none
+     */
+    public Vector getNormal(int x, int y) {
+        int pixel = y * width + x;
+        if (depths[pixel] == Float.POSITIVE_INFINITY) return null;
+        return new Vector(normals[3 * pixel], normals[3 * pixel + 1], normals[3 * pixel + 2]);
+    }
+
+    /**
+     * Saves the depth buffer, as channel "Z", and the normal buffer, as channels "R", "G" and "B"
+     * for the X, Y and Z components, in the output directory of the image writers.
+     *
+     * @param format the format of the files
+     * @throws IllegalArgumentException if the format is null
+     * @throws IllegalStateException    if writing fails
+     */
+    public void saveToFiles(FloatFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        String path = ImageWriter.OUTPUT_DIRECTORY + '/' + fileName;
+        try {
+            FloatImageFile.write(new File(path + "_depth." + format.extension), format, width, height,
+                    new String[]{"Z"}, (y, values) -> System.arraycopy(depths, y * width, values, 0, width));
+            FloatImageFile.write(new File(path + "_normal." + format.extension), format, width, height,
+                    new String[]{"R", "G", "B"}, (y, values) -> System.arraycopy(normals, 3 * y * width, values, 0, 3 * width));
+        } catch (IOException e) {
+            logWriter.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - directory might be missing: " + ImageWriter.OUTPUT_DIRECTORY, e);
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package renderer;
 
-import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.imageio.ImageIO;
-
+import diagnostics.ImageWriteEvent;
 import primitives.Color;
 
 /**
@@ -15,6 +15,26 @@ import primitives.Color;
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible of holding image related parameters of View Plane - pixel matrix
  * size and resolution
+ * <p>
+ * The pixels are accumulated in high dynamic range: a primitive float buffer holds the sum of
+ * the color samples of every pixel, with no upper limit, and a per-pixel count holds the number
+ * of samples. A pixel can thus be refined over several passes without keeping its samples as
+ * objects. The average color of every pixel is brought to the 0-255 range of the image file only
+ * at output, by the {@link ToneMapping} operator of the writer after scaling by its exposure.
+ * </p>
+ * <p>
+ * A streaming writer keeps the pixels in horizontal bands of rows instead, allocated when their
+ * first pixel is set. As soon as every pixel of a band has been set by
+ * {@link #setPixelColor(int, int, Color)} and all the bands above it are written, the band is
+ * tone mapped, appended to the PNG file and released. Since the camera renders its tiles in
+ * row-major order, only a few bands are in memory at any time, so the image size does not bound
+ * the heap. Pixels of written bands can no longer be read or changed.
+ * </p>
+ * <p>
+ * A writer backed by a framebuffer file keeps the pixels in a memory-mapped file instead, with
+ * a map of the tiles completed by the camera (see {@link FramebufferFile}). A long render that
+ * was killed can then be resumed by a new writer on the same file, rendering only the missing tiles.
+ * </p>
  */
 public class ImageWriter {
     /**
@@ -30,12 +50,58 @@ public class ImageWriter {
     /**
      * Directory path where the image file will be saved.
      */
-    private static final String OUTPUT_DIRECTORY = System.getProperty("user.dir") + "/images";
+    static final String OUTPUT_DIRECTORY = System.getProperty("user.dir") + "/images";
 
     /**
-     * Pixel color matrix storing the image data.
+     * The number of rows of every band of pixels (but maybe the last).
      */
-    private BufferedImage pixelMatrix;
+    private final int bandHeight;
+
+    /**
+     * The bands of pixels from the top of the image down; a band is null before its first pixel
+     * is set (when streaming) and after it is written to the file.
+     */
+    private final PixelBand[] bands;
+
+    /**
+     * Whether the bands are written to the file as soon as they are complete.
+     */
+    private final boolean streaming;
+
+    /**
+     * The file the pixels are mapped to, or null if they are on the heap.
+     */
+    private final FramebufferFile framebuffer;
+
+    /**
+     * The PNG image the complete bands are written to, when streaming; null before the first band.
+     */
+    private PngStreamWriter stream;
+
+    /**
+     * The number of bands written to the file, when streaming.
+     */
+    private int writtenBands;
+
+    /**
+     * The operator mapping the pixel colors to the image file.
+     */
+    private ToneMapping toneMapping = ToneMapping.CLAMP;
+
+    /**
+     * The factor scaling the pixel colors before tone mapping.
+     */
+    private double exposureScale = 1;
+
+    /**
+     * The compression level of the PNG file.
+     */
+    private PngCompression compression = PngCompression.FAST;
+
+    /**
+     * The number of threads encoding the PNG file.
+     */
+    private int encodingThreads = Runtime.getRuntime().availableProcessors();
 
     /**
      * Image file name (without extension).
@@ -55,15 +121,108 @@ public class ImageWriter {
      * @param imageHeight The height of the image in pixels.
      */
     public ImageWriter(String fileName, int imageWidth, int imageHeight) {
+        this(fileName, imageWidth, imageHeight, imageHeight, false, null);
+    }
+
+    /**
+     * Constructs a streaming `ImageWriter`, writing the image to the file band after band while
+     * it is rendered.
+     *
+     * @param fileName    The name of the output file (without extension).
+     * @param imageWidth  The width of the image in pixels.
+     * @param imageHeight The height of the image in pixels.
+     * @param bandHeight  The number of rows of every band, best a multiple of the tile size of the camera.
+     */
+    public ImageWriter(String fileName, int imageWidth, int imageHeight, int bandHeight) {
+        this(fileName, imageWidth, imageHeight, bandHeight, true, null);
+    }
+
+    /**
+     * Constructs an `ImageWriter` backed by a memory-mapped framebuffer file. If the file holds
+     * an earlier render of the same image and tile sizes, its pixels and completed tiles are kept.
+     *
+     * @param fileName    The name of the output file (without extension).
+     * @param imageWidth  The width of the image in pixels.
+     * @param imageHeight The height of the image in pixels.
+     * @param framebuffer The framebuffer file, created if missing.
+     * @param tileSize    The tile size of the camera rendering the image.
+     * @throws IllegalStateException if the framebuffer file cannot be opened
+     */
+    public ImageWriter(String fileName, int imageWidth, int imageHeight, File framebuffer, int tileSize) {
+        this(fileName, imageWidth, imageHeight, openFramebuffer(framebuffer, imageWidth, imageHeight, tileSize));
+    }
+
+    /**
+     * Constructs an `ImageWriter` backed by an open framebuffer file.
+     *
+     * @param fileName    The name of the output file (without extension).
+     * @param imageWidth  The width of the image in pixels.
+     * @param imageHeight The height of the image in pixels.
+     * @param framebuffer The framebuffer file.
+     */
+    private ImageWriter(String fileName, int imageWidth, int imageHeight, FramebufferFile framebuffer) {
+        this(fileName, imageWidth, imageHeight, framebuffer.bandHeight, false, framebuffer);
+    }
+
+    /**
+     * Constructs an `ImageWriter`.
+     *
+     * @param fileName    The name of the output file (without extension).
+     * @param imageWidth  The width of the image in pixels.
+     * @param imageHeight The height of the image in pixels.
+     * @param bandHeight  The number of rows of every band.
+     * @param streaming   Whether the bands are written to the file as soon as they are complete.
+     * @param framebuffer The file the pixels are mapped to, or null to keep them on the heap.
+     */
+    private ImageWriter(String fileName, int imageWidth, int imageHeight, int bandHeight, boolean streaming,
+                        FramebufferFile framebuffer) {
         if (imageWidth <= 0 || imageHeight <= 0) {
             throw new IllegalArgumentException("Image resolution must be positive");
         }
+        if (bandHeight <= 0) {
+            throw new IllegalArgumentException("Band height must be positive");
+        }
+        bandHeight = Math.min(bandHeight, imageHeight);
+        if (framebuffer == null && 3L * imageWidth * bandHeight > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The image is too large to be held in memory - use a streaming writer");
+        }
 
         this.fileName = fileName;
         this.imageWidth = imageWidth;
         this.imageHeight = imageHeight;
+        this.bandHeight = bandHeight;
+        this.streaming = streaming;
+        this.framebuffer = framebuffer;
+
+        if (framebuffer != null) {
+            bands = framebuffer.bands;
+        } else {
+            bands = new PixelBand[(imageHeight + bandHeight - 1) / bandHeight];
+            if (!streaming) bands[0] = new PixelBand.Heap(imageWidth * imageHeight);
+        }
+    }
 
-        pixelMatrix = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+    /**
+     * Opens a framebuffer file.
+     *
+     * @param file        the file
+     * @param imageWidth  the image width in pixels
+     * @param imageHeight the image height in pixels
+     * @param tileSize    the tile size of the camera
+     * @return the open framebuffer
+     * @throws IllegalArgumentException if the file is null
+     * @throws IllegalStateException    if the file cannot be opened
+     */
+    private static FramebufferFile openFramebuffer(File file, int imageWidth, int imageHeight, int tileSize) {
+        if (file == null) {
+            throw new IllegalArgumentException("Framebuffer file cannot be null");
+        }
+        try {
+            return new FramebufferFile(file, imageWidth, imageHeight, tileSize);
+        } catch (IOException e) {
+            Logger.getLogger("ImageWriter").log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("Cannot map the framebuffer file " + file, e);
+        }
     }
 
     /**
@@ -84,31 +243,486 @@ public class ImageWriter {
         return imageHeight;
     }
 
+    /**
+     * Gets the image file name.
+     *
+     * @return The name of the output file (without extension).
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Renames the image file, e.g. to reuse the writer for the next frame of a sequence.
+     *
+     * @param fileName The name of the output file (without extension).
+     */
+    void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Checks whether the image is written to the file band after band while it is rendered.
+     *
+     * @return true if the writer is streaming
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Checks whether the pixels are kept in a framebuffer file holding an earlier, resumed render.
+     *
+     * @return true if a framebuffer file was resumed
+     */
+    public boolean isResumed() {
+        return framebuffer != null && framebuffer.isResumed();
+    }
+
+    /**
+     * Gets the tile size the image must be rendered in.
+     *
+     * @return the tile size of the framebuffer file, or 0 for any tile size
+     */
+    public int getTileSize() {
+        return framebuffer == null ? 0 : framebuffer.getTileSize();
+    }
+
+    /**
+     * Checks whether a tile of the image has been completely rendered, which is recorded only in
+     * a framebuffer file.
+     *
+     * @param tile the tile
+     * @return true if the tile is complete
+     * @throws IllegalArgumentException if the tile is not on the grid of the tile size
+     */
+    public boolean isTileComplete(Tile tile) {
+        return framebuffer != null && framebuffer.isTileComplete(tile);
+    }
+
+    /**
+     * Records that a tile of the image has been completely rendered, in a framebuffer file.
+     *
+     * @param tile the tile
+     * @throws IllegalArgumentException if the tile is not on the grid of the tile size
+     */
+    public void completeTile(Tile tile) {
+        if (framebuffer != null) framebuffer.completeTile(tile);
+    }
+
+    /**
+     * Gets the compression level of the PNG file.
+     *
+     * @return the compression level
+     */
+    public PngCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Sets the compression level of the PNG file, trading its size for encoding throughput.
+     *
+     * @param compression the compression level
+     * @return the image writer itself for chaining
+     * @throws IllegalArgumentException if the compression level is null
+     */
+    public ImageWriter setCompression(PngCompression compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression cannot be null");
+        }
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Sets the number of background threads encoding the PNG file. Blocks of rows are filtered
+     * and deflated by these threads in parallel, while a streaming writer goes on rendering.
+     *
+     * @param threads the number of threads, 0 to encode on the thread writing the image
+     * @return the image writer itself for chaining
+     * @throws IllegalArgumentException if the number of threads is negative
+     */
+    public ImageWriter setEncodingThreads(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("Number of encoding threads cannot be negative");
+        }
+        encodingThreads = threads;
+        return this;
+    }
+
+    /**
+     * Gets the tone mapping operator.
+     *
+     * @return the operator mapping the pixel colors to the image file
+     */
+    public ToneMapping getToneMapping() {
+        return toneMapping;
+    }
+
+    /**
+     * Sets the tone mapping operator.
+     *
+     * @param toneMapping the operator mapping the pixel colors to the image file
+     * @return the image writer itself for chaining
+     * @throws IllegalArgumentException if the operator is null
+     */
+    public ImageWriter setToneMapping(ToneMapping toneMapping) {
+        if (toneMapping == null) {
+            throw new IllegalArgumentException("Tone mapping cannot be null");
+        }
+        this.toneMapping = toneMapping;
+        return this;
+    }
+
+    /**
+     * Sets the exposure, scaling the pixel colors before tone mapping.
+     *
+     * @param stops the exposure in stops: every stop doubles the brightness, 0 keeps the colors
+     * @return the image writer itself for chaining
+     * @throws IllegalArgumentException if the exposure is not finite
+     */
+    public ImageWriter setExposure(double stops) {
+        if (!Double.isFinite(stops)) {
+            throw new IllegalArgumentException("Exposure must be finite");
+        }
+        exposureScale = Math.pow(2, stops);
+        return this;
+    }
+
+    /**
+     * Gets the exposure.
+     *
+     * @return the exposure in stops
+     */
+    public double getExposure() {
+        return Math.log(exposureScale) / Math.log(2);
+    }
+
+    /**
+     * Tone maps the colors of a row of pixels.
+     *
+     * @param band  the band of the row, or null if none of its pixels was set
+     * @param pixel the index in the band of the first pixel of the row
+     * @param row   the array to fill with the colors of the row
+     */
+    private void toRGB(PixelBand band, int pixel, int[] row) {
+        for (int x = 0; x < imageWidth; x++) {
+            row[x] = band == null ? 0 : toRGB(band, pixel + x);
+        }
+    }
+
+    /**
+     * Tone maps the color of a pixel.
+     *
+     * @param band  the band of the pixel
+     * @param pixel the index of the pixel in the band
+     * @return the tone mapped color packed as 0xRRGGBB
+     */
+    private int toRGB(PixelBand band, int pixel) {
+        int count = band.getSamples(pixel);
+        if (count == 0) return 0;
+        double scale = exposureScale / count;
+        int rgb = 0;
+        for (int channel = 0; channel < 3; channel++) {
+            double value = Math.max(band.getRadiance(pixel, channel) * scale, 0);
+            rgb = rgb << 8 | Math.min((int) toneMapping.map(value), 255);
+        }
+        return rgb;
+    }
+
     /**
      * Saves the image as a PNG file in the output directory.
      * <p>
      * If the directory does not exist, an error will be logged.
+     * Blocks of rows are compressed in parallel by the encoding threads (see
+     * {@link #setEncodingThreads(int)}); a streaming writer has written most of them while rendering.
+     * The encoding and writing is reported to Java Flight Recorder as an {@link ImageWriteEvent}.
      * </p>
      */
     public void saveImageToFile() {
+        ImageWriteEvent event = new ImageWriteEvent();
+        event.begin();
+        File file = getFile();
         try {
-            File file = new File(OUTPUT_DIRECTORY + '/' + fileName + ".png");
-            ImageIO.write(pixelMatrix, "png", file);
+            if (streaming) {
+                writeBands(true);
+            } else {
+                writeRows(file);
+            }
+            event.finish(file.getPath(), imageWidth, imageHeight, file.length());
         } catch (IOException e) {
-            logWriter.log(Level.SEVERE, "I/O error", e);
-            throw new IllegalStateException("I/O error - directory might be missing: " + OUTPUT_DIRECTORY, e);
+            throw ioError(e);
         }
     }
 
     /**
-     * Sets the color of a specific pixel in the image.
+     * Saves the accumulated colors in a floating-point file in the output directory, for
+     * compositing. Unlike the PNG image, the colors are linear and unclamped: they are the average
+     * of the samples of every pixel divided by 255, so the nominal white is 1, with neither the
+     * exposure nor the tone mapping applied.
+     *
+     * @param format the format of the file
+     * @throws IllegalArgumentException if the format is null
+     * @throws IllegalStateException    if the writer is streaming, so its pixels are released once
+     *                                  written, or if writing fails
+     */
+    public void saveRadianceToFile(FloatFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        if (streaming) {
+            throw new IllegalStateException("A streaming writer does not keep the pixels to save their radiance");
+        }
+        File file = new File(OUTPUT_DIRECTORY + '/' + fileName + '.' + format.extension);
+        try {
+            FloatImageFile.write(file, format, imageWidth, imageHeight, new String[]{"R", "G", "B"}, (y, values) -> {
+                PixelBand band = band(y);
+                for (int x = 0, pixel = pixel(0, y); x < imageWidth; x++, pixel++) {
+                    int count = band.getSamples(pixel);
+                    float scale = count == 0 ? 0 : 1f / (255 * count);
+                    for (int channel = 0; channel < 3; channel++) {
+                        values[3 * x + channel] = band.getRadiance(pixel, channel) * scale;
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw ioError(e);
+        }
+    }
+
+    /**
+     * Gets the image file.
+     *
+     * @return the PNG file in the output directory
+     */
+    File getFile() {
+        return new File(OUTPUT_DIRECTORY + '/' + fileName + ".png");
+    }
+
+    /**
+     * Logs an I/O failure.
+     *
+     * @param e the failure
+     * @return the exception to throw
+     */
+    private IllegalStateException ioError(IOException e) {
+        logWriter.log(Level.SEVERE, "I/O error", e);
+        return new IllegalStateException("I/O error - directory might be missing: " + OUTPUT_DIRECTORY, e);
+    }
+
+    /**
+     * Starts writing the image to a PNG file.
+     *
+     * @param file the file
+     * @return the PNG encoder
+     * @throws IOException if the file cannot be written
+     */
+    private PngStreamWriter createPng(File file) throws IOException {
+        return new PngStreamWriter(new BufferedOutputStream(new FileOutputStream(file)), imageWidth, imageHeight,
+                compression, encodingThreads);
+    }
+
+    /**
+     * Writes all the rows to a PNG file one after the other.
+     *
+     * @param file the file
+     * @throws IOException if writing fails
+     */
+    private void writeRows(File file) throws IOException {
+        PngStreamWriter png = createPng(file);
+        int[] row = new int[imageWidth];
+        for (int y = 0; y < imageHeight; y++) {
+            toRGB(band(y), pixel(0, y), row);
+            png.writeRow(row);
+        }
+        png.finish();
+    }
+
+    /**
+     * Writes the complete bands following the written ones to the file, when streaming.
+     *
+     * @param all whether to write all the remaining bands, complete or not, and finish the file
+     * @throws IOException if writing fails
+     */
+    private synchronized void writeBands(boolean all) throws IOException {
+        if (stream == null) {
+            if (writtenBands == bands.length) {
+                throw new IllegalStateException("The image was already written");
+            }
+            stream = createPng(getFile());
+        }
+        int[] row = new int[imageWidth];
+        for (; writtenBands < bands.length; writtenBands++) {
+            PixelBand band = bands[writtenBands];
+            int first = writtenBands * bandHeight, last = Math.min(first + bandHeight, imageHeight);
+            if (!all && (band == null || band.finished.get() < band.pixels)) return;
+            for (int y = first; y < last; y++) {
+                toRGB(band, (y - first) * imageWidth, row);
+                stream.writeRow(row);
+            }
+            bands[writtenBands] = null;
+        }
+        if (!all) return;
+        stream.finish();
+        stream = null;
+    }
+
+    /**
+     * Gets the band of a row of pixels.
+     *
+     * @param y the Y-coordinate of the row
+     * @return the band, or null if it has not been allocated (when streaming)
+     * @throws IllegalStateException if the band has already been written to the file
+     */
+    private PixelBand band(int y) {
+        int index = y / bandHeight;
+        PixelBand band = bands[index];
+        if (band == null && streaming && index < writtenBands) {
+            throw new IllegalStateException("Row " + y + " was already written to the file");
+        }
+        return band;
+    }
+
+    /**
+     * Gets the band of a row of pixels, allocating it if needed.
+     *
+     * @param y the Y-coordinate of the row
+     * @return the band
+     * @throws IllegalStateException if the band has already been written to the file
+     */
+    private PixelBand allocatedBand(int y) {
+        PixelBand band = band(y);
+        return band != null ? band : allocateBand(y / bandHeight);
+    }
+
+    /**
+     * Allocates a band of pixels unless another thread has just done so.
+     *
+     * @param index the index of the band
+     * @return the band
+     */
+    private synchronized PixelBand allocateBand(int index) {
+        if (bands[index] == null) {
+            if (index < writtenBands) {
+                throw new IllegalStateException("Band " + index + " was already written to the file");
+            }
+            int rows = Math.min(bandHeight, imageHeight - index * bandHeight);
+            bands[index] = new PixelBand.Heap(rows * imageWidth);
+        }
+        return bands[index];
+    }
+
+    /**
+     * Gets the index of a pixel in its band.
+     *
+     * @param x The X-coordinate of the pixel.
+     * @param y The Y-coordinate of the pixel.
+     * @return the index
+     */
+    private int pixel(int x, int y) {
+        return (y % bandHeight) * imageWidth + x;
+    }
+
+    /**
+     * Gets the color of a specific pixel in the image, as it will be written to the file.
+     *
+     * @param x The X-coordinate of the pixel.
+     * @param y The Y-coordinate of the pixel.
+     * @return The color of the pixel, tone mapped.
+     */
+    public Color getPixelColor(int x, int y) {
+        PixelBand band = band(y);
+        return new Color(new java.awt.Color(band == null ? 0 : toRGB(band, pixel(x, y))));
+    }
+
+    /**
+     * Gets the accumulated color of a specific pixel, before exposure and tone mapping.
+     *
+     * @param x The X-coordinate of the pixel.
+     * @param y The Y-coordinate of the pixel.
+     * @return The average of the color samples of the pixel, black if it has none.
+     */
+    public Color getRadiance(int x, int y) {
+        PixelBand band = band(y);
+        int pixel = pixel(x, y);
+        int count = band == null ? 0 : band.getSamples(pixel);
+        if (count == 0) return Color.BLACK;
+        return new Color(band.getRadiance(pixel, 0), band.getRadiance(pixel, 1), band.getRadiance(pixel, 2)).reduce(count);
+    }
+
+    /**
+     * Gets the number of color samples accumulated in a specific pixel.
+     *
+     * @param x The X-coordinate of the pixel.
+     * @param y The Y-coordinate of the pixel.
+     * @return The number of samples.
+     */
+    public int getSampleCount(int x, int y) {
+        PixelBand band = band(y);
+        return band == null ? 0 : band.getSamples(pixel(x, y));
+    }
+
+    /**
+     * Sets the color of a specific pixel in the image, replacing its samples.
+     * <p>
+     * When streaming, the pixel is final and must be set once: its band is written to the file
+     * once all its pixels are set.
+     * </p>
      *
      * @param x     The X-coordinate of the pixel.
      * @param y     The Y-coordinate of the pixel.
      * @param color The final color of the pixel.
+     * @throws IllegalStateException if the pixel has already been written to the file
      */
     public void setPixelColor(int x, int y, Color color) {
-        pixelMatrix.setRGB(x, y, color.getColor().getRGB());
+        PixelBand band = allocatedBand(y);
+        band.set(pixel(x, y), (float) color.getRed(), (float) color.getGreen(), (float) color.getBlue());
+        if (streaming && band.finished.incrementAndGet() == band.pixels) {
+            try {
+                writeBands(false);
+            } catch (IOException e) {
+                throw ioError(e);
+            }
+        }
+    }
+
+    /**
+     * Adds a color sample to a specific pixel, which takes the average color of its samples.
+     *
+     * @param x     The X-coordinate of the pixel.
+     * @param y     The Y-coordinate of the pixel.
+     * @param color The color of the sample.
+     */
+    public void addSample(int x, int y, Color color) {
+        addSample(x, y, color.getRed(), color.getGreen(), color.getBlue());
+    }
+
+    /**
+     * Adds a color sample to a specific pixel, without a color object.
+     *
+     * @param x     The X-coordinate of the pixel.
+     * @param y     The Y-coordinate of the pixel.
+     * @param red   The red component of the sample.
+     * @param green The green component of the sample.
+     * @param blue  The blue component of the sample.
+     */
+    public void addSample(int x, int y, double red, double green, double blue) {
+        PixelBand band = allocatedBand(y);
+        band.add(pixel(x, y), (float) red, (float) green, (float) blue);
     }
-}
 
+    /**
+     * Clears all the pixels, to accumulate a new image, and the completed tiles of a framebuffer file.
+     *
+     * @throws IllegalStateException if some pixels have already been written to the file
+     */
+    public synchronized void clear() {
+        if (writtenBands > 0) {
+            throw new IllegalStateException("Part of the image was already written to the file");
+        }
+        for (PixelBand band : bands) {
+            if (band != null) band.clear();
+        }
+        if (framebuffer != null) framebuffer.clearTiles();
+    }
+}
@@ -0,0 +1,193 @@
+package renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A band of rows of pixels of an {@link ImageWriter}, holding the sum of the color samples and
+ * the number of samples of every pixel, in row-major order.
+ */
+abstract class PixelBand {
+    /**
+     * The number of pixels of the band.
+     */
+    final int pixels;
+
+    /**
+     * The number of pixels set to their final color, when streaming.
+     */
+    final AtomicInteger finished = new AtomicInteger();
+
+    /**
+     * Constructs a band.
+     *
+     * @param pixels the number of pixels of the band
+     */
+    PixelBand(int pixels) {
+        this.pixels = pixels;
+    }
+
+    /**
+     * Gets a color channel of the sum of the samples of a pixel.
+     *
+     * @param pixel   the index of the pixel in the band
+     * @param channel the channel - 0 for red, 1 for green and 2 for blue
+     * @return the sum of the channel
+     */
+    abstract float getRadiance(int pixel, int channel);
+
+    /**
+     * Gets the number of samples of a pixel.
+     *
+     * @param pixel the index of the pixel in the band
+     * @return the number of samples
+     */
+    abstract int getSamples(int pixel);
+
+    /**
+     * Replaces the samples of a pixel by a single sample.
+     *
+     * @param pixel the index of the pixel in the band
+     * @param red   the red component of the sample
+     * @param green the green component of the sample
+     * @param blue  the blue component of the sample
+     */
+    abstract void set(int pixel, float red, float green, float blue);
+
+    /**
+     * Adds a sample to a pixel.
+     *
+     * @param pixel the index of the pixel in the band
+     * @param red   the red component of the sample
+     * @param green the green component of the sample
+     * @param blue  the blue component of the sample
+     */
+    abstract void add(int pixel, float red, float green, float blue);
+
+    /**
+     * Clears all the pixels of the band.
+     */
+    void clear() {
+        finished.set(0);
+    }
+
+    /**
+     * A band held in arrays on the heap.
+     */
+    static class Heap extends PixelBand {
+        /**
+         * The sums of the color samples of the pixels, 3 channels per pixel.
+         */
+        private final float[] radiance;
+
+        /**
+         * The numbers of color samples of the pixels.
+         */
+        private final int[] samples;
+
+        /**
+         * Allocates a band.
+         *
+         * @param pixels the number of pixels of the band
+         */
+        Heap(int pixels) {
+            super(pixels);
+            radiance = new float[3 * pixels];
+            samples = new int[pixels];
+        }
+
+        @Override
+        float getRadiance(int pixel, int channel) {
+            return radiance[3 * pixel + channel];
+        }
+
+        @Override
+        int getSamples(int pixel) {
+            return samples[pixel];
+        }
+
+        @Override
+        void set(int pixel, float red, float green, float blue) {
+            radiance[3 * pixel] = red;
+            radiance[3 * pixel + 1] = green;
+            radiance[3 * pixel + 2] = blue;
+            samples[pixel] = 1;
+        }
+
+        @Override
+        void add(int pixel, float red, float green, float blue) {
+            radiance[3 * pixel] += red;
+            radiance[3 * pixel + 1] += green;
+            radiance[3 * pixel + 2] += blue;
+            samples[pixel]++;
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            Arrays.fill(radiance, 0);
+            Arrays.fill(samples, 0);
+        }
+    }
+
+    /**
+     * A band held in a memory-mapped region of a file, paged in and out by the operating system.
+     * Every pixel takes {@link #PIXEL_BYTES} bytes: its 3 float channels and then its int sample count.
+     */
+    static class Mapped extends PixelBand {
+        /**
+         * The number of bytes of a pixel.
+         */
+        static final int PIXEL_BYTES = 16;
+
+        /**
+         * The mapped region of the band.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Wraps a mapped region.
+         *
+         * @param buffer the region, of {@link #PIXEL_BYTES} bytes per pixel
+         */
+        Mapped(ByteBuffer buffer) {
+            super(buffer.capacity() / PIXEL_BYTES);
+            this.buffer = buffer.order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        float getRadiance(int pixel, int channel) {
+            return buffer.getFloat(PIXEL_BYTES * pixel + 4 * channel);
+        }
+
+        @Override
+        int getSamples(int pixel) {
+            return buffer.getInt(PIXEL_BYTES * pixel + 12);
+        }
+
+        @Override
+        void set(int pixel, float red, float green, float blue) {
+            int offset = PIXEL_BYTES * pixel;
+            buffer.putFloat(offset, red).putFloat(offset + 4, green).putFloat(offset + 8, blue).putInt(offset + 12, 1);
+        }
+
+        @Override
+        void add(int pixel, float red, float green, float blue) {
+            int offset = PIXEL_BYTES * pixel;
+            buffer.putFloat(offset, buffer.getFloat(offset) + red)
+                    .putFloat(offset + 4, buffer.getFloat(offset + 4) + green)
+                    .putFloat(offset + 8, buffer.getFloat(offset + 8) + blue)
+                    .putInt(offset + 12, buffer.getInt(offset + 12) + 1);
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            for (int offset = 0; offset < buffer.capacity(); offset += 8) {
+                buffer.putLong(offset, 0);
+            }
+        }
+    }
+}
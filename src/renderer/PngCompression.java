@@ -0,0 +1,41 @@
+package renderer;
+
+import java.util.zip.Deflater;
+
+/**
+ * The compression levels of the PNG files written by an {@link ImageWriter}, trading file size
+ * for encoding throughput.
+ */
+public enum PngCompression {
+    /**
+     * No compression - the fastest encoding and the largest files.
+     */
+    NONE(Deflater.NO_COMPRESSION),
+    /**
+     * Low compression, several times faster than {@link #DEFAULT} with somewhat larger files - the
+     * default of an {@link ImageWriter}.
+     */
+    FAST(Deflater.BEST_SPEED),
+    /**
+     * The default compression level of deflate.
+     */
+    DEFAULT(Deflater.DEFAULT_COMPRESSION),
+    /**
+     * The best compression - the smallest files and the slowest encoding.
+     */
+    BEST(Deflater.BEST_COMPRESSION);
+
+    /**
+     * The deflate level.
+     */
+    final int level;
+
+    /**
+     * Constructs a compression level.
+     *
+     * @param level the deflate level
+     */
+    PngCompression(int level) {
+        this.level = level;
+    }
+}
@@ -0,0 +1,422 @@
+package renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encoder of an 8-bit RGB PNG image written to a stream row after row, top to bottom.
+ * <p>
+ * Unlike {@link javax.imageio.ImageIO}, which needs the whole image in memory, only a block of
+ * rows is kept: the rows are gathered in blocks of about {@link #BLOCK_BYTES} bytes, and every
+ * block is filtered with the PNG "up" filter and deflated on its own by a pool of encoding
+ * threads, while the caller goes on. The compressed blocks are stitched in order into a single
+ * zlib stream - every block but the last ends with a sync flush, so their raw deflate data can
+ * be concatenated, and the checksums of the blocks are combined - written in IDAT chunks of a
+ * bounded size.
+ * </p>
+ */
+class PngStreamWriter {
+    /**
+     * The signature starting every PNG file.
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * The maximal size of the data of an IDAT chunk.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The approximate number of bytes of the rows of a block deflated on its own.
+     */
+    static final int BLOCK_BYTES = 1 << 18;
+
+    /**
+     * The PNG filter type of the rows.
+     */
+    private static final int FILTER_UP = 2;
+
+    /**
+     * The modulus of the Adler-32 checksum.
+     */
+    private static final int ADLER_BASE = 65521;
+
+    /**
+     * The stream the chunks are written to.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * The image width in pixels.
+     */
+    private final int width;
+
+    /**
+     * The image height in pixels.
+     */
+    private final int height;
+
+    /**
+     * The number of RGB bytes of a row.
+     */
+    private final int rowBytes;
+
+    /**
+     * The number of rows of a block.
+     */
+    private final int blockRows;
+
+    /**
+     * The deflate level.
+     */
+    private final int level;
+
+    /**
+     * The encoding threads, or null to encode on the calling thread.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The maximal number of blocks being encoded before the caller waits for the oldest one.
+     */
+    private final int maxPending;
+
+    /**
+     * The blocks being encoded, oldest first.
+     */
+    private final Deque<Future<Block>> pending = new ArrayDeque<>();
+
+    /**
+     * The IDAT chunks of the compressed rows.
+     */
+    private final ChunkOutputStream chunks = new ChunkOutputStream();
+
+    /**
+     * The RGB bytes of the rows of the current block, after the last row of the previous block.
+     */
+    private byte[] block;
+
+    /**
+     * The number of rows in the current block.
+     */
+    private int blockRowCount;
+
+    /**
+     * The Adler-32 checksum of the filtered rows of the blocks written so far.
+     */
+    private long adler = 1;
+
+    /**
+     * The number of rows written so far.
+     */
+    private int rows;
+
+    /**
+     * Starts a PNG image, writing its signature and header.
+     *
+     * @param out         the stream to write to, closed when the image is finished
+     * @param width       the image width in pixels
+     * @param height      the image height in pixels
+     * @param compression the compression level
+     * @param threads     the number of encoding threads, 0 to encode on the calling thread
+     * @throws IOException if writing fails
+     */
+    PngStreamWriter(OutputStream out, int width, int height, PngCompression compression, int threads) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        rowBytes = 3 * width;
+        blockRows = Math.max(1, Math.min(height, BLOCK_BYTES / rowBytes));
+        level = compression.level;
+        executor = threads < 1 ? null : Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "PNG encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maxPending = 2 * Math.max(1, threads);
+        block = new byte[rowBytes * (1 + blockRows)];
+
+        this.out.write(SIGNATURE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerData = new DataOutputStream(header);
+        headerData.writeInt(width);
+        headerData.writeInt(height);
+        headerData.write(new byte[]{8, 2, 0, 0, 0}); // 8-bit RGB, deflate, adaptive filtering, no interlace
+        writeChunk("IHDR", header.toByteArray(), header.size());
+        chunks.write(new byte[]{0x78, (byte) 0x9C}, 0, 2); // the zlib header of a deflate stream
+    }
+
+    /**
+     * Writes the next row of the image.
+     *
+     * @param rgb the colors of the pixels of the row, packed as 0xRRGGBB
+     * @throws IOException           if writing fails
+     * @throws IllegalStateException if all the rows were already written
+     */
+    void writeRow(int[] rgb) throws IOException {
+        if (rows == height) {
+            throw new IllegalStateException("All the rows of the image were already written");
+        }
+        int i = rowBytes * (1 + blockRowCount);
+        for (int x = 0; x < width; x++) {
+            int color = rgb[x];
+            block[i++] = (byte) (color >> 16);
+            block[i++] = (byte) (color >> 8);
+            block[i++] = (byte) color;
+        }
+        rows++;
+        if (++blockRowCount == blockRows || rows == height) {
+            encodeBlock();
+        }
+    }
+
+    /**
+     * Gets the number of rows written so far.
+     *
+     * @return the number of rows
+     */
+    int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Hands the current block over to be encoded, and starts the next block.
+     *
+     * @throws IOException if writing the encoded blocks fails
+     */
+    private void encodeBlock() throws IOException {
+        byte[] full = block;
+        int count = blockRowCount;
+        boolean last = rows == height;
+        block = new byte[full.length];
+        // The last row of the block is kept before the next one, to be filtered against
+        System.arraycopy(full, rowBytes * count, block, 0, rowBytes);
+        blockRowCount = 0;
+
+        if (executor == null) {
+            writeBlock(new Block(full, count, last));
+            return;
+        }
+        pending.add(executor.submit(() -> new Block(full, count, last)));
+        while (!pending.isEmpty() && (pending.size() > maxPending || pending.peek().isDone())) {
+            writeBlock(await(pending.poll()));
+        }
+    }
+
+    /**
+     * Waits for a block to be encoded.
+     *
+     * @param future the encoding of the block
+     * @return the encoded block
+     * @throws IOException if the calling thread was interrupted
+     */
+    private static Block await(Future<Block> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("PNG encoding was interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("PNG encoding failed", e.getCause());
+        }
+    }
+
+    /**
+     * Writes an encoded block to the IDAT chunks.
+     *
+     * @param encoded the block
+     * @throws IOException if writing fails
+     */
+    private void writeBlock(Block encoded) throws IOException {
+        chunks.write(encoded.data, 0, encoded.length);
+        adler = combineAdler(adler, encoded.adler, encoded.filteredLength);
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two consecutive sequences of bytes, as zlib does.
+     *
+     * @param adler1  the checksum of the first sequence
+     * @param adler2  the checksum of the second sequence
+     * @param length2 the length of the second sequence
+     * @return the checksum of the two sequences
+     */
+    static long combineAdler(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (adler1 >> 16 & 0xFFFF) + (adler2 >> 16 & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE) sum1 -= ADLER_BASE;
+        if (sum2 >= 2L * ADLER_BASE) sum2 -= 2L * ADLER_BASE;
+        if (sum2 >= ADLER_BASE) sum2 -= ADLER_BASE;
+        return sum1 | sum2 << 16;
+    }
+
+    /**
+     * Finishes the image and closes the stream.
+     *
+     * @throws IOException           if writing fails
+     * @throws IllegalStateException if some rows were not written
+     */
+    void finish() throws IOException {
+        try {
+            if (rows != height) {
+                throw new IllegalStateException("Only " + rows + " of the " + height + " rows of the image were written");
+            }
+            while (!pending.isEmpty()) {
+                writeBlock(await(pending.poll()));
+            }
+            chunks.write(new byte[]{(byte) (adler >> 24), (byte) (adler >> 16), (byte) (adler >> 8), (byte) adler}, 0, 4);
+            chunks.flush();
+            writeChunk("IEND", new byte[0], 0);
+            out.close();
+        } finally {
+            if (executor != null) executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes a chunk to the stream.
+     *
+     * @param type   the chunk type
+     * @param data   the buffer of the chunk data
+     * @param length the length of the chunk data
+     * @throws IOException if writing fails
+     */
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * A block of rows, filtered and deflated on its own.
+     */
+    private class Block {
+        /**
+         * The raw deflate data of the block.
+         */
+        final byte[] data;
+
+        /**
+         * The length of the deflate data.
+         */
+        final int length;
+
+        /**
+         * The Adler-32 checksum of the filtered rows.
+         */
+        final long adler;
+
+        /**
+         * The number of bytes of the filtered rows.
+         */
+        final int filteredLength;
+
+        /**
+         * Filters and deflates a block of rows.
+         *
+         * @param raw   the RGB bytes of the last row of the previous block (zeros for the first
+         *              block) followed by the rows of the block
+         * @param count the number of rows of the block
+         * @param last  whether this is the last block of the image, finishing the deflate stream
+         */
+        Block(byte[] raw, int count, boolean last) {
+            byte[] filtered = new byte[count * (1 + rowBytes)];
+            for (int row = 0, i = 0; row < count; row++) {
+                filtered[i++] = FILTER_UP;
+                for (int j = rowBytes * (row + 1), end = j + rowBytes; j < end; j++) {
+                    filtered[i++] = (byte) (raw[j] - raw[j - rowBytes]);
+                }
+            }
+            Adler32 checksum = new Adler32();
+            checksum.update(filtered);
+            adler = checksum.getValue();
+            filteredLength = filtered.length;
+
+            Deflater deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(filtered);
+                if (last) deflater.finish();
+                byte[] buffer = new byte[filtered.length / 2 + 1024];
+                int size = 0;
+                while (true) {
+                    if (size == buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                    int written = last ? deflater.deflate(buffer, size, buffer.length - size)
+                            : deflater.deflate(buffer, size, buffer.length - size, Deflater.SYNC_FLUSH);
+                    size += written;
+                    if (last ? deflater.finished() : size < buffer.length) break;
+                }
+                data = buffer;
+                length = size;
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * The stream of the compressed image data, written to the file in IDAT chunks.
+     */
+    private class ChunkOutputStream extends OutputStream {
+        /**
+         * The data of the next chunk.
+         */
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+
+        /**
+         * The length of the data of the next chunk.
+         */
+        private int length;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int offset, int count) throws IOException {
+            while (count > 0) {
+                int copied = Math.min(count, CHUNK_SIZE - length);
+                System.arraycopy(b, offset, buffer, length, copied);
+                length += copied;
+                offset += copied;
+                count -= copied;
+                if (length == CHUNK_SIZE) flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (length > 0) {
+                writeChunk("IDAT", buffer, length);
+                length = 0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
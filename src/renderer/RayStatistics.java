@@ -0,0 +1,129 @@
+package renderer;
+
+import geometries.IntersectionStatistics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects statistics of the rays traced during rendering.
+ * <p>
+ * The collector counts the traced rays by type, the recursion depth in which the hit points
+ * were shaded, the intersection tests per geometry class and the rendering time.
+ * All the counters are striped ({@link LongAdder}), so parallel renders update them without
+ * contention. Use {@link #summarize()} to get an immutable summary.
+ * </p>
+ * <p>
+ * The rays are also counted per thread, so the cost of a single pixel can be measured by
+ * the thread rendering it (see {@link #getRaysOfCurrentThread()}).
+ * </p>
+ */
+public class RayStatistics {
+    /**
+     * The types of the counted rays.
+     */
+    public enum RayType {
+        PRIMARY, SHADOW, REFLECTION, REFRACTION, ANTI_ALIASING
+    }
+
+    /**
+     * Number of buckets of the recursion depth histogram; deeper levels fall in the last bucket.
+     */
+    static final int DEPTH_BUCKETS = 16;
+
+    private final LongAdder[] rays = createCounters(RayType.values().length);
+    private final LongAdder[] depths = createCounters(DEPTH_BUCKETS);
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder occluderCacheHits = new LongAdder();
+    private final IntersectionStatistics intersections = new IntersectionStatistics();
+    private final ThreadLocal<long[]> threadRays = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Creates an array of zero counters.
+     *
+     * @param size the number of counters
+     * @return the counters
+     */
+    private static LongAdder[] createCounters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    /**
+     * Counts a traced ray.
+     *
+     * @param type the type of the ray
+     */
+    public void countRay(RayType type) {
+        rays[type.ordinal()].increment();
+        threadRays.get()[0]++;
+    }
+
+    /**
+     * Gets the number of rays counted so far by the calling thread.
+     *
+     * @return the number of rays of all types traced by the current thread
+     */
+    public long getRaysOfCurrentThread() {
+        return threadRays.get()[0];
+    }
+
+    /**
+     * Counts a shadow ray found blocked by the cached occluder of its light, without searching the scene.
+     */
+    public void countOccluderCacheHit() {
+        occluderCacheHits.increment();
+    }
+
+    /**
+     * Counts a hit point shaded at a recursion depth.
+     *
+     * @param depth the recursion depth (0 for hit points of primary rays)
+     */
+    public void countDepth(int depth) {
+        depths[Math.min(depth, DEPTH_BUCKETS - 1)].increment();
+    }
+
+    /**
+     * Adds rendering wall time.
+     *
+     * @param nanos the rendering time in nanoseconds
+     */
+    public void addRenderTime(long nanos) {
+        renderNanos.add(nanos);
+    }
+
+    /**
+     * Gets the counters of the intersection tests, to be attached to the scene geometries.
+     *
+     * @return the intersection counters
+     */
+    public IntersectionStatistics getIntersectionStatistics() {
+        return intersections;
+    }
+
+    /**
+     * Takes a snapshot of the collected statistics.
+     *
+     * @return the summary of the statistics collected so far
+     */
+    public RenderStatistics summarize() {
+        long[] rayCounts = new long[rays.length];
+        for (int i = 0; i < rays.length; i++) {
+            rayCounts[i] = rays[i].sum();
+        }
+
+        // Trim the empty tail of the histogram
+        int depthCount = depths.length;
+        while (depthCount > 0 && depths[depthCount - 1].sum() == 0) depthCount--;
+        long[] depthCounts = new long[depthCount];
+        for (int i = 0; i < depthCount; i++) {
+            depthCounts[i] = depths[i].sum();
+        }
+
+        return new RenderStatistics(rayCounts, depthCounts, renderNanos.sum(), occluderCacheHits.sum(),
+                intersections.getTests(), intersections.getHits());
+    }
+}
@@ -1,19 +1,46 @@
 package renderer;
 
+import geometries.Geometries;
+import geometries.Intersectable.GeoPoint;
 import primitives.Color;
 import primitives.Ray;
+import scene.CompiledScene;
 import scene.Scene;
 
+import java.util.List;
+
 /**
  * Abstract class representing a base ray tracer.
  * Contains a scene and an abstract method for tracing rays.
  */
 public abstract class RayTracerBase {
     /**
-     * The scene to be rendered.
+     * The scene to be rendered, null when a compiled scene is rendered.
      */
     protected Scene scene;
 
+    /**
+     * The compiled scene to be rendered, null when the scene is read live.
+     */
+    protected final CompiledScene compiled;
+
+    /**
+     * Collector of ray statistics, null when statistics are not collected.
+     */
+    protected RayStatistics statistics;
+
+    /**
+     * The filter recording the scene objects that influence the rays traced by each rendering
+     * thread, absent when the thread does not record them.
+     */
+    private final ThreadLocal<DependencyFilter> dependencies = new ThreadLocal<>();
+
+    /**
+     * The list receiving the closest hits of the primary rays traced by each rendering thread,
+     * absent when the thread does not record them.
+     */
+    private final ThreadLocal<List<GeoPoint>> primaryHits = new ThreadLocal<>();
+
     /**
      * Constructor that initializes the ray tracer with a scene.
      *
@@ -21,6 +48,104 @@ public abstract class RayTracerBase {
      */
     public RayTracerBase(Scene scene) {
         this.scene = scene;
+        this.compiled = null;
+    }
+
+    /**
+     * Constructor that initializes the ray tracer with a compiled scene.
+     *
+     * @param compiled the compiled scene to be rendered
+     * @throws IllegalArgumentException if the compiled scene is null
+     */
+    public RayTracerBase(CompiledScene compiled) {
+        if (compiled == null) {
+            throw new IllegalArgumentException("Compiled scene cannot be null");
+        }
+        this.compiled = compiled;
+    }
+
+    /**
+     * Gets the geometries traced by the ray tracer.
+     *
+     * @return the geometries of the compiled scene, or of the scene
+     */
+    protected Geometries getGeometries() {
+        return compiled == null ? scene.geometries : compiled.getGeometries();
+    }
+
+    /**
+     * Sets the collector of the statistics of the traced rays.
+     *
+     * @param statistics the statistics collector, or null to stop collecting
+     * @return the ray tracer itself
+     */
+    public RayTracerBase setStatistics(RayStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /**
+     * Gets the collector of the statistics of the traced rays.
+     *
+     * @return the statistics collector, or null if statistics are not collected
+     */
+    public RayStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Starts or stops recording the scene objects that influence the rays traced by the current
+     * thread, e.g. while it renders a tile.
+     *
+     * @param filter the filter to add the objects to, or null to stop recording
+     */
+    void recordDependencies(DependencyFilter filter) {
+        if (filter == null) {
+            dependencies.remove();
+        } else {
+            dependencies.set(filter);
+        }
+    }
+
+    /**
+     * Gets the filter recording the scene objects that influence the rays traced by the current
+     * thread. Ray tracers add to it every geometry, material and light they shade with.
+     *
+     * @return the filter, or null if the thread does not record
+     */
+    DependencyFilter getDependencies() {
+        return dependencies.get();
+    }
+
+    /**
+     * Starts or stops recording the closest hits of the primary rays traced by the current
+     * thread, e.g. for the geometry buffer of a tile, so that they need not be searched again.
+     *
+     * @param hits the list to add the hits to, or null to stop recording
+     */
+    void recordPrimaryHits(List<GeoPoint> hits) {
+        if (hits == null) {
+            primaryHits.remove();
+        } else {
+            primaryHits.set(hits);
+        }
+    }
+
+    /**
+     * Adds the closest hit of a primary ray to the hits recorded by the current thread, if it
+     * records them.
+     * <p>
+     * Ray tracers should report every primary ray they trace in {@link #traceRay(Ray)} and
+     * {@link #traceRays(Ray[])}, once and in the order of the rays, so that the camera can record
+     * the hits in its geometry buffer without searching them again. For the pixels of a ray
+     * tracer that does not report its hits, the camera searches the hits itself.
+     * </p>
+     *
+     * @param hit the closest hit of the ray, or null if it hits nothing
+     */
+    protected void reportPrimaryHit(GeoPoint hit) {
+        List<GeoPoint> hits = primaryHits.get();
+        if (hits != null) hits.add(hit);
     }
 
     /**
@@ -30,4 +155,19 @@ public abstract class RayTracerBase {
      * @return the color at the intersection point
      */
     public abstract Color traceRay(Ray ray);
+
+    /**
+     * Traces rays together, e.g. the primary rays of a block of pixels.
+     * Ray tracers that cannot trace packets trace the rays one by one.
+     *
+     * @param rays the rays to be traced
+     * @return the color of every ray
+     */
+    public Color[] traceRays(Ray[] rays) {
+        Color[] colors = new Color[rays.length];
+        for (int i = 0; i < rays.length; i++) {
+            colors[i] = traceRay(rays[i]);
+        }
+        return colors;
+    }
 }
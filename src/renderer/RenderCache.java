@@ -0,0 +1,297 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Intersectable;
+import lighting.LightSource;
+import renderer.superSampling.SamplingConfig;
+import scene.CompiledScene;
+import scene.Scene;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A disk cache of rendered images, keyed by the content of what they show.
+ * <p>
+ * The key of a render is a SHA-256 hash of its content: the geometries, materials, lights,
+ * background and ambient light of the scene, the view and the resolution of the camera, the
+ * sampling configuration and the tone mapping of the image. Settings that do not change the
+ * image - the tiles, threads, packets and acceleration structures - are not part of the key.
+ * The geometries are hashed as the flat list of the leaves of their nested collections, so a
+ * scene hashes alike whether it is traced live or compiled, whatever its structures.
+ * A render whose key is cached is not rendered again: its cached image is copied to the file of
+ * the image writer.
+ * </p>
+ * <p>
+ * The cache keeps one PNG file per key in its directory, up to a total size. When a new image
+ * exceeds the size, the least recently used images are evicted. The order of use is kept in the
+ * modification times of the files, so a cache opened again on the same directory keeps it.
+ * </p>
+ */
+public class RenderCache {
+    /**
+     * The extension of the cached image files.
+     */
+    private static final String EXTENSION = ".png";
+
+    private final File directory;
+    private final long maxBytes;
+
+    /**
+     * The sizes of the cached images by their keys, from the least to the most recently used.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Logger for reporting I/O failures.
+     */
+    private final Logger logWriter = Logger.getLogger("RenderCache");
+
+    /**
+     * Opens a cache in a directory, keeping the images already cached there.
+     *
+     * @param directory the directory of the cached images, created if missing
+     * @param maxBytes  the maximal total size of the cached images in bytes
+     * @throws IllegalArgumentException if the directory is null or the size is not positive
+     * @throws IllegalStateException    if the directory cannot be created
+     */
+    public RenderCache(File directory, long maxBytes) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Cache directory cannot be null");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Cannot create the cache directory: " + directory);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                String name = file.getName();
+                entries.put(name.substring(0, name.length() - EXTENSION.length()), file.length());
+                bytes += file.length();
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Computes the content hash of the render of a camera.
+     *
+     * @param camera the built camera
+     * @return the hash, in hexadecimal digits
+     * @throws IllegalArgumentException if the camera is null
+     */
+    public static String contentHash(Camera camera) {
+        if (camera == null) {
+            throw new IllegalArgumentException("Camera cannot be null");
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        RayTracerBase rayTracer = camera.getRayTracer();
+        CompiledScene compiled = rayTracer.compiled;
+        Scene scene = rayTracer.scene;
+        ImageWriter imageWriter = camera.getImageWriter();
+        try (ContentStream content = new ContentStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            content.writeUTF(rayTracer.getClass().getName());
+            content.writeObject(compiled == null ? scene.background : compiled.getBackground());
+            content.writeObject(compiled == null ? scene.ambientLight.getIntensity() : compiled.getAmbient());
+            LightSource[] lights = compiled == null ? scene.lights.toArray(new LightSource[0]) : compiled.getLights();
+            content.writeInt(lights.length);
+            for (LightSource light : lights) content.writeObject(light);
+            List<Intersectable> leaves = rayTracer.getGeometries().getLeaves();
+            content.writeInt(leaves.size());
+            for (Intersectable leaf : leaves) content.writeObject(leaf);
+
+            content.writeObject(camera.getLocation());
+            content.writeObject(camera.getvTo());
+            content.writeObject(camera.getvUp());
+            content.writeDouble(camera.getWidth());
+            content.writeDouble(camera.getHeight());
+            content.writeDouble(camera.getDistance());
+            content.writeInt(imageWriter.getImageWidth());
+            content.writeInt(imageWriter.getImageHeight());
+            content.writeObject(imageWriter.getToneMapping());
+            content.writeDouble(imageWriter.getExposure());
+
+            SamplingConfig samplingConfig = rayTracer instanceof SimpleRayTracer tracer ? tracer.getSamplingConfig() : null;
+            content.writeObject(samplingConfig);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot hash the scene content", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Writes the image of a camera to its file: copies the cached image of the same content, or
+     * renders the image and caches it.
+     * <p>
+     * When the image is cached, the camera does not render, and the pixels of its image writer
+     * are left as they are.
+     * </p>
+     *
+     * @param camera the built camera
+     * @return true if the image was cached, false if it was rendered
+     * @throws IllegalArgumentException if the camera is null
+     * @throws IllegalStateException    if reading or writing an image fails
+     */
+    public boolean renderToImage(Camera camera) {
+        String key = contentHash(camera);
+        File target = camera.getImageWriter().getFile();
+        File cached = new File(directory, key + EXTENSION);
+
+        synchronized (this) {
+            if (entries.get(key) != null) {
+                try {
+                    Files.copy(cached.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw ioError(e);
+                }
+                cached.setLastModified(System.currentTimeMillis());
+                hits++;
+                return true;
+            }
+            misses++;
+        }
+
+        camera.generateRenderedImage().writeToImage();
+        long size = target.length();
+        if (size > maxBytes) return false;
+        try {
+            File temporary = File.createTempFile(key, ".tmp", directory);
+            Files.copy(target.toPath(), temporary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw ioError(e);
+        }
+        synchronized (this) {
+            Long previous = entries.put(key, size);
+            bytes += size - (previous == null ? 0 : previous);
+            evict();
+        }
+        return false;
+    }
+
+    /**
+     * Evicts the least recently used images until the cached images fit in the size of the cache.
+     */
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            new File(directory, entry.getKey() + EXTENSION).delete();
+            bytes -= entry.getValue();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Logs an I/O failure.
+     *
+     * @param e the failure
+     * @return the exception to throw
+     */
+    private IllegalStateException ioError(IOException e) {
+        logWriter.log(Level.SEVERE, "I/O error", e);
+        return new IllegalStateException("I/O error in the render cache: " + directory, e);
+    }
+
+    /**
+     * Gets the number of renders whose image was cached.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of renders whose image was not cached.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of images evicted to keep the cache within its size.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of cached images.
+     *
+     * @return the number of images
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the total size of the cached images.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return bytes;
+    }
+
+    /**
+     * A stream of the serialized content of a render, leaving out the search structures over the
+     * geometries, which may or may not be built for the same geometries.
+     */
+    private static class ContentStream extends ObjectOutputStream {
+        /**
+         * Constructs a content stream.
+         *
+         * @param out the stream of the serialized content
+         * @throws IOException if writing the stream header fails
+         */
+        ContentStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object object) {
+            return Geometries.isSearchStructure(object) ? null : object;
+        }
+    }
+}
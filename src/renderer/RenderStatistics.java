@@ -0,0 +1,154 @@
+package renderer;
+
+import renderer.RayStatistics.RayType;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable summary of the ray statistics of a render.
+ * <p>
+ * The summary is produced by {@link RayStatistics#summarize()} and can be exported as JSON
+ * with {@link #toJson()}.
+ * </p>
+ */
+public class RenderStatistics {
+    private final long[] rays;
+    private final long[] recursionDepths;
+    private final long renderNanos;
+    private final long occluderCacheHits;
+    private final Map<String, Long> intersectionTests;
+    private final Map<String, Long> intersectionHits;
+
+    /**
+     * Constructs a summary.
+     *
+     * @param rays              the number of rays per {@link RayType} ordinal
+     * @param recursionDepths   the number of shaded hit points per recursion depth
+     * @param renderNanos       the rendering wall time in nanoseconds
+     * @param occluderCacheHits the number of shadow rays blocked by the cached occluder of their light
+     * @param intersectionTests the number of intersection tests per geometry class
+     * @param intersectionHits  the number of intersection hits per geometry class
+     */
+    RenderStatistics(long[] rays, long[] recursionDepths, long renderNanos, long occluderCacheHits,
+                     Map<String, Long> intersectionTests, Map<String, Long> intersectionHits) {
+        this.rays = rays;
+        this.recursionDepths = recursionDepths;
+        this.renderNanos = renderNanos;
+        this.occluderCacheHits = occluderCacheHits;
+        this.intersectionTests = Map.copyOf(intersectionTests);
+        this.intersectionHits = Map.copyOf(intersectionHits);
+    }
+
+    /**
+     * Gets the number of traced rays of a type.
+     *
+     * @param type the ray type
+     * @return the number of rays
+     */
+    public long getRays(RayType type) {
+        return rays[type.ordinal()];
+    }
+
+    /**
+     * Gets the number of traced rays of all types.
+     *
+     * @return the total number of rays
+     */
+    public long getTotalRays() {
+        return Arrays.stream(rays).sum();
+    }
+
+    /**
+     * Gets the histogram of the recursion depths of the shaded hit points.
+     *
+     * @return the number of hit points per depth, starting at depth 0 (primary hits)
+     */
+    public long[] getRecursionDepthHistogram() {
+        return recursionDepths.clone();
+    }
+
+    /**
+     * Gets the rendering wall time.
+     *
+     * @return the rendering time in nanoseconds
+     */
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    /**
+     * Gets the throughput of the render.
+     *
+     * @return the number of traced rays per second of rendering time, 0 if no time was recorded
+     */
+    public double getRaysPerSecond() {
+        return renderNanos == 0 ? 0 : getTotalRays() * 1e9 / renderNanos;
+    }
+
+    /**
+     * Gets the number of shadow rays found blocked by the cached occluder of their light,
+     * without searching the scene.
+     *
+     * @return the number of occluder cache hits
+     */
+    public long getOccluderCacheHits() {
+        return occluderCacheHits;
+    }
+
+    /**
+     * Gets the number of intersection tests of a geometry class.
+     *
+     * @param geometryType the simple name of the geometry class
+     * @return the number of tests
+     */
+    public long getIntersectionTests(String geometryType) {
+        return intersectionTests.getOrDefault(geometryType, 0L);
+    }
+
+    /**
+     * Gets the number of intersection hits of a geometry class.
+     *
+     * @param geometryType the simple name of the geometry class
+     * @return the number of hits
+     */
+    public long getIntersectionHits(String geometryType) {
+        return intersectionHits.getOrDefault(geometryType, 0L);
+    }
+
+    /**
+     * Exports the statistics as a JSON object.
+     *
+     * @return the JSON representation of the statistics
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"renderNanos\":").append(renderNanos);
+        json.append(",\"raysPerSecond\":").append(String.format(Locale.ROOT, "%.1f", getRaysPerSecond()));
+
+        json.append(",\"rays\":{");
+        for (RayType type : RayType.values()) {
+            json.append('"').append(type.name().toLowerCase(Locale.ROOT)).append("\":").append(getRays(type)).append(',');
+        }
+        json.append("\"total\":").append(getTotalRays()).append('}');
+        json.append(",\"occluderCacheHits\":").append(occluderCacheHits);
+
+        json.append(",\"intersections\":{");
+        String separator = "";
+        for (String type : intersectionTests.keySet().stream().sorted().toList()) {
+            json.append(separator).append('"').append(type).append("\":{\"tests\":").append(getIntersectionTests(type))
+                    .append(",\"hits\":").append(getIntersectionHits(type)).append('}');
+            separator = ",";
+        }
+        json.append('}');
+
+        json.append(",\"recursionDepths\":").append(Arrays.toString(recursionDepths).replace(" ", ""));
+        return json.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
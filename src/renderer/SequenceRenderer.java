@@ -0,0 +1,184 @@
+package renderer;
+
+import scene.Scene;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Renders the frames of an animation, e.g. a turntable, into numbered images.
+ * <p>
+ * Every frame gets its camera from a function of the frame number, and optionally moves the
+ * geometries of the scene first (e.g. gives instances new transforms). The scene is prepared
+ * once: its acceleration structure is built before the first frame and only refitted after the
+ * geometries of a frame moved (see {@link geometries.Geometries#refitAcceleration()}), and one
+ * ray tracer serves all the frames. The frames are rendered into two image writers in turn, which
+ * are reused for all the frames: while a frame is rendered into one writer, the previous frame is
+ * encoded and written from the other writer on a background thread.
+ * </p>
+ */
+public class SequenceRenderer {
+    private final Scene scene;
+    private final RayTracerBase rayTracer;
+    private final String fileName;
+    private final ImageWriter[] imageWriters;
+    private IntFunction<Camera.Builder> cameraOfFrame;
+    private IntConsumer animation;
+    private int threadsCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructs a sequence renderer of a scene, traced by a {@link SimpleRayTracer}.
+     *
+     * @param scene    the scene to render
+     * @param fileName the name of the image files (without the frame number and the extension)
+     * @param width    the image width in pixels
+     * @param height   the image height in pixels
+     * @throws IllegalArgumentException if the scene is null or the resolution is not positive
+     */
+    public SequenceRenderer(Scene scene, String fileName, int width, int height) {
+        if (scene == null) {
+            throw new IllegalArgumentException("Scene cannot be null");
+        }
+        this.scene = scene;
+        this.rayTracer = new SimpleRayTracer(scene);
+        this.fileName = fileName;
+        imageWriters = new ImageWriter[]{new ImageWriter(fileName, width, height), new ImageWriter(fileName, width, height)};
+    }
+
+    /**
+     * Sets the camera of every frame.
+     *
+     * @param cameraOfFrame the function creating the builder of the camera of a frame number,
+     *                      without the ray tracer and the image writer
+     * @return the sequence renderer itself for chaining
+     * @throws IllegalArgumentException if the function is null
+     */
+    public SequenceRenderer setCamera(IntFunction<Camera.Builder> cameraOfFrame) {
+        if (cameraOfFrame == null) {
+            throw new IllegalArgumentException("Camera function cannot be null");
+        }
+        this.cameraOfFrame = cameraOfFrame;
+        return this;
+    }
+
+    /**
+     * Sets the animation of the scene geometries.
+     *
+     * @param animation the action moving the geometries of the scene to their places at a frame number
+     * @return the sequence renderer itself for chaining
+     */
+    public SequenceRenderer setAnimation(IntConsumer animation) {
+        this.animation = animation;
+        return this;
+    }
+
+    /**
+     * Applies settings to the image writers of the frames, e.g. their tone mapping or compression.
+     *
+     * @param settings the action setting up an image writer
+     * @return the sequence renderer itself for chaining
+     * @throws IllegalArgumentException if the action is null
+     */
+    public SequenceRenderer setImageSettings(Consumer<ImageWriter> settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Image settings cannot be null");
+        }
+        for (ImageWriter imageWriter : imageWriters) settings.accept(imageWriter);
+        return this;
+    }
+
+    /**
+     * Sets the number of rendering threads of every frame.
+     *
+     * @param threadsCount the number of threads, 1 to render on the calling thread
+     * @return the sequence renderer itself for chaining
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public SequenceRenderer setMultithreading(int threadsCount) {
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("Threads count must be positive");
+        }
+        this.threadsCount = threadsCount;
+        return this;
+    }
+
+    /**
+     * Gets the name of the image file of a frame.
+     *
+     * @param frame the frame number
+     * @return the file name (without extension), e.g. "turntable_0007" for frame 7
+     */
+    public String getFrameFileName(int frame) {
+        return String.format("%s_%04d", fileName, frame);
+    }
+
+    /**
+     * Renders frames and writes their images.
+     *
+     * @param first the number of the first frame
+     * @param count the number of frames
+     * @return the sequence renderer itself for chaining
+     * @throws IllegalArgumentException if the number of frames is negative
+     * @throws IllegalStateException    if the camera is not set, or rendering or writing failed
+     */
+    public SequenceRenderer render(int first, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Frame count cannot be negative");
+        }
+        if (cameraOfFrame == null) {
+            throw new IllegalStateException("The camera of the frames is not set");
+        }
+
+        ExecutorService encoder = Executors.newSingleThreadExecutor();
+        Future<?>[] writes = new Future<?>[imageWriters.length];
+        try {
+            for (int i = 0; i < count; i++) {
+                int frame = first + i;
+                if (animation != null) animation.accept(frame);
+                if (i == 0 && !scene.geometries.hasAcceleration()) {
+                    scene.buildAcceleration();
+                } else if (animation != null) {
+                    scene.geometries.refitAcceleration();
+                }
+
+                // The writer of the frame before the previous one must be written before it is reused
+                int buffer = i % imageWriters.length;
+                await(writes[buffer]);
+                ImageWriter imageWriter = imageWriters[buffer];
+                imageWriter.clear();
+                imageWriter.setFileName(getFrameFileName(frame));
+
+                cameraOfFrame.apply(frame).setRayTracer(rayTracer).setImageWriter(imageWriter)
+                        .setMultithreading(threadsCount).build().generateRenderedImage();
+                writes[buffer] = encoder.submit(imageWriter::saveImageToFile);
+            }
+            for (Future<?> write : writes) await(write);
+        } finally {
+            encoder.shutdownNow();
+        }
+        return this;
+    }
+
+    /**
+     * Waits for the image of a frame to be written.
+     *
+     * @param write the writing of the image, or null if none
+     * @throws IllegalStateException if writing failed or was interrupted
+     */
+    private static void await(Future<?> write) {
+        if (write == null) return;
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Writing a frame was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Writing a frame failed", e.getCause());
+        }
+    }
+}
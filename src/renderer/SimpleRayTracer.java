@@ -1,14 +1,19 @@
 package renderer;
 
+import geometries.Geometry;
 import lighting.LightSource;
 import primitives.*;
+import renderer.RayStatistics.RayType;
 import renderer.superSampling.SamplingConfig;
 import renderer.superSampling.SuperSampling;
+import scene.CompiledScene;
 import scene.Scene;
 import geometries.Intersectable.GeoPoint;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static primitives.Util.alignZero;
 
@@ -25,9 +30,28 @@ public class SimpleRayTracer extends RayTracerBase {
     private static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = Double3.ONE;
 
+    /**
+     * The lights, background and ambient light intensity of the compiled scene, null when the
+     * scene is read live.
+     */
+    private final LightSource[] lights;
+    private final Color background;
+    private final Color ambient;
+
     private SamplingConfig samplingConfig;
     private SuperSampling antiAliasingSampler;
 
+    /**
+     * The opaque geometry that last blocked a shadow ray toward each light, per rendering thread.
+     * Neighboring pixels are usually shadowed by the same geometry, so it is tested first.
+     */
+    private final ThreadLocal<Map<LightSource, Geometry>> occluders = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    /**
+     * Whether shadow rays test the cached occluder of their light first.
+     */
+    private boolean occluderCache = true;
+
     /**
      * Constructs a `SimpleRayTracer` with a given scene.
      *
@@ -35,6 +59,43 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     public SimpleRayTracer(Scene scene) {
         super(scene);
+        lights = null;
+        background = null;
+        ambient = null;
+    }
+
+    /**
+     * Constructs a `SimpleRayTracer` of a compiled scene. The tracer keeps the lights of the
+     * snapshot in an array of its own, and its background and ambient light intensity, and traces
+     * its flattened geometries instead of reading the lists of the scene; it may be shared by
+     * rendering threads while the scene is edited.
+     *
+     * @param compiled The compiled scene to be rendered.
+     * @throws IllegalArgumentException if the compiled scene is null
+     */
+    public SimpleRayTracer(CompiledScene compiled) {
+        super(compiled);
+        lights = compiled.getLights();
+        background = compiled.getBackground();
+        ambient = compiled.getAmbient();
+    }
+
+    /**
+     * Gets the background color of the rendered scene.
+     *
+     * @return the background color
+     */
+    private Color background() {
+        return compiled == null ? scene.background : background;
+    }
+
+    /**
+     * Gets the intensity of the ambient light of the rendered scene.
+     *
+     * @return the ambient light intensity
+     */
+    private Color ambient() {
+        return compiled == null ? scene.ambientLight.getIntensity() : ambient;
     }
 
     /**
@@ -57,6 +118,41 @@ public class SimpleRayTracer extends RayTracerBase {
         }
     }
 
+    /**
+     * Sets the collector of the statistics of the traced rays, and attaches its
+     * intersection counters to the scene geometries.
+     *
+     * @param statistics the statistics collector, or null to stop collecting
+     * @return the ray tracer itself
+     */
+    @Override
+    public SimpleRayTracer setStatistics(RayStatistics statistics) {
+        super.setStatistics(statistics);
+        getGeometries().setStatistics(statistics == null ? null : statistics.getIntersectionStatistics());
+        return this;
+    }
+
+    /**
+     * Enables or disables testing the geometry that last blocked the light first in shadow rays.
+     * The cache is enabled by default; it never changes the rendered image.
+     *
+     * @param enabled true to test the cached occluder first, false to always search the scene
+     * @return the ray tracer itself
+     */
+    public SimpleRayTracer setOccluderCache(boolean enabled) {
+        this.occluderCache = enabled;
+        return this;
+    }
+
+    /**
+     * Gets the sampling configuration of the ray tracer.
+     *
+     * @return the sampling configuration, or null if none was set
+     */
+    public SamplingConfig getSamplingConfig() {
+        return samplingConfig;
+    }
+
     /**
      * Traces a given ray and determines the color at the closest intersection point.
      * <p>
@@ -72,12 +168,14 @@ public class SimpleRayTracer extends RayTracerBase {
         if (ray == null) {
             throw new IllegalArgumentException("Ray cannot be null");
         }
+        if (statistics != null) statistics.countRay(RayType.PRIMARY);
 
         GeoPoint intersection = findClosestIntersection(ray);
+        reportPrimaryHit(intersection);
 
         // Return background color if no intersection is found
         if (intersection == null) {
-            return scene.background;
+            return background();
         }
 
         // Apply anti-aliasing if enabled
@@ -88,6 +186,30 @@ public class SimpleRayTracer extends RayTracerBase {
         return traceSimpleRay(ray, intersection);
     }
 
+    /**
+     * Traces primary rays together as a packet: the closest hits of all the rays are found in a
+     * single traversal of the scene, and then every hit is shaded alone.
+     * With anti-aliasing the rays are traced one by one.
+     *
+     * @param rays The primary rays to trace.
+     * @return The computed color of every ray.
+     */
+    @Override
+    public Color[] traceRays(Ray[] rays) {
+        if (samplingConfig != null && samplingConfig.isAntiAliasingEnabled()) return super.traceRays(rays);
+        if (statistics != null) {
+            for (int i = 0; i < rays.length; i++) statistics.countRay(RayType.PRIMARY);
+        }
+
+        GeoPoint[] intersections = getGeometries().findClosestGeoIntersections(new RayPacket(rays));
+        Color[] colors = new Color[rays.length];
+        for (int i = 0; i < rays.length; i++) {
+            reportPrimaryHit(intersections[i]);
+            colors[i] = intersections[i] == null ? background() : traceSimpleRay(rays[i], intersections[i]);
+        }
+        return colors;
+    }
+
     /**
      * Computes the color of a given ray at its intersection point.
      * <p>
@@ -129,8 +251,9 @@ public class SimpleRayTracer extends RayTracerBase {
 
         List<Color> colors = new ArrayList<>();
         for (Ray sampledRay : rays) {
+            if (statistics != null) statistics.countRay(RayType.ANTI_ALIASING);
             GeoPoint sampledIntersection = findClosestIntersection(sampledRay);
-            colors.add(sampledIntersection == null ? scene.background : traceSimpleRay(sampledRay, sampledIntersection));
+            colors.add(sampledIntersection == null ? background() : traceSimpleRay(sampledRay, sampledIntersection));
         }
 
         return antiAliasingSampler.calculateAverageColor(colors);
@@ -145,7 +268,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The color at the intersection point with ambient light.
      */
     private Color calcColor(GeoPoint intersection, Ray ray) {
-        return calcColor(intersection, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K).add(scene.ambientLight.getIntensity());
+        return calcColor(intersection, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K).add(ambient());
     }
 
     /**
@@ -161,6 +284,7 @@ public class SimpleRayTracer extends RayTracerBase {
         if (level == 0 || k.lowerThan(MIN_CALC_COLOR_K)) {
             return Color.BLACK;
         }
+        if (statistics != null) statistics.countDepth(MAX_CALC_COLOR_LEVEL - level);
 
         return calcLocalEffects(intersection, ray, k).add(calcGlobalEffects(intersection, ray, level, k));
     }
@@ -178,26 +302,55 @@ public class SimpleRayTracer extends RayTracerBase {
         Vector v = ray.getDir();
         Vector n = gp.geometry.getNormal(gp.point);
         double nv = alignZero(n.dotProduct(v));
+        Material material = gp.geometry.getMaterial();
 
+        DependencyFilter dependencies = getDependencies();
+        if (dependencies != null) {
+            gp.geometry.forEachSource(dependencies::add);
+            dependencies.add(material);
+        }
         if (nv == 0) return color;
 
-        Material material = gp.geometry.getMaterial();
-        for (LightSource lightSource : scene.lights) {
-            Vector l = lightSource.getL(gp.point);
-            double nl = alignZero(n.dotProduct(l));
-
-            // Only consider light contributions if light direction and view direction are on the same side of the surface
-            if (nl * nv > 0) {
-                Double3 ktr = transparency(gp, lightSource, l, n);
-                if (!ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {
-                    Color iL = lightSource.getIntensity(gp.point).scale(ktr);
-                    color = color.add(calcDiffusive(material.kD, nl, iL), calcSpecular(material.kS, n, l, nl, v, iL, material.Shininess));
-                }
+        if (lights != null) {
+            for (LightSource lightSource : lights) {
+                color = addLightEffects(color, gp, lightSource, material, n, v, nv, k, dependencies);
+            }
+        } else {
+            for (LightSource lightSource : scene.lights) {
+                color = addLightEffects(color, gp, lightSource, material, n, v, nv, k, dependencies);
             }
         }
         return color;
     }
 
+    /**
+     * Adds the diffuse and specular effects of a light source at a point to its color.
+     *
+     * @param color        The color of the point so far.
+     * @param gp           The geometry point to evaluate.
+     * @param lightSource  The light source.
+     * @param material     The material of the geometry.
+     * @param n            The normal vector at the point.
+     * @param v            The direction of the incoming ray.
+     * @param nv           The dot product of the normal and the ray direction, not zero.
+     * @param k            The attenuation coefficient.
+     * @param dependencies The filter recording the influencing objects, or null.
+     * @return The color of the point with the effects of the light.
+     */
+    private Color addLightEffects(Color color, GeoPoint gp, LightSource lightSource, Material material,
+                                  Vector n, Vector v, double nv, Double3 k, DependencyFilter dependencies) {
+        if (dependencies != null) dependencies.add(lightSource);
+        Vector l = lightSource.getL(gp.point);
+        double nl = alignZero(n.dotProduct(l));
+
+        // Only consider light contributions if light direction and view direction are on the same side of the surface
+        if (nl * nv <= 0) return color;
+        Double3 ktr = transparency(gp, lightSource, l, n);
+        if (ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) return color;
+        Color iL = lightSource.getIntensity(gp.point).scale(ktr);
+        return color.add(calcDiffusive(material.kD, nl, iL), calcSpecular(material.kS, n, l, nl, v, iL, material.Shininess));
+    }
+
     /**
      * Constructs a reflected ray from a given point.
      *
@@ -240,12 +393,14 @@ public class SimpleRayTracer extends RayTracerBase {
         // Reflection
         if (!material.kR.equals(Double3.ZERO)) {
             Ray reflectedRay = constructReflectedRay(gp, v, n);
+            if (statistics != null) statistics.countRay(RayType.REFLECTION);
             color = color.add(calcGlobalEffect(reflectedRay, level, k, material.kR));
         }
 
         // Refraction
         if (!material.kT.equals(Double3.ZERO)) {
             Ray refractedRay = constructRefractedRay(gp, v, n);
+            if (statistics != null) statistics.countRay(RayType.REFRACTION);
             color = color.add(calcGlobalEffect(refractedRay, level, k, material.kT));
         }
 
@@ -266,11 +421,16 @@ public class SimpleRayTracer extends RayTracerBase {
         if (kkx.lowerThan(MIN_CALC_COLOR_K)) return Color.BLACK;
 
         GeoPoint gp = findClosestIntersection(ray);
-        return (gp == null ? scene.background : calcColor(gp, ray, level - 1, kkx)).scale(kx);
+        return (gp == null ? background() : calcColor(gp, ray, level - 1, kkx)).scale(kx);
     }
 
     /**
      * Calculates the transparency factor for a given point by evaluating light occlusions.
+     * <p>
+     * The opaque geometry that last blocked a shadow ray of the current thread toward the light
+     * is tested first: if it is still opaque and blocks this ray too, the point is in full shadow
+     * without searching the scene.
+     * </p>
      *
      * @param gp    The geometry point to evaluate.
      * @param light The light source being considered.
@@ -279,22 +439,68 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The transparency coefficient (1 if fully transparent, 0 if fully blocked).
      */
     private Double3 transparency(GeoPoint gp, LightSource light, Vector l, Vector n) {
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(new Ray(gp.point, l.scale(-1), n));
+        if (statistics != null) statistics.countRay(RayType.SHADOW);
+        Ray shadowRay = new Ray(gp.point, l.scale(-1), n);
+        double lightDistance = light.getDistance(gp.point);
+
+        Map<LightSource, Geometry> lightOccluders = occluderCache ? occluders.get() : null;
+        if (lightOccluders != null) {
+            // The material of the occluder may have been made transparent since it was cached
+            Geometry occluder = lightOccluders.remove(light);
+            if (occluder != null && occluder.getMaterial().kT.lowerThan(MIN_CALC_COLOR_K)
+                    && blocks(occluder.findGeoIntersections(shadowRay), gp.point, lightDistance)) {
+                lightOccluders.put(light, occluder);
+                recordOccluder(occluder);
+                if (statistics != null) statistics.countOccluderCacheHit();
+                return Double3.ZERO;
+            }
+        }
 
+        List<GeoPoint> intersections = getGeometries().findGeoIntersections(shadowRay);
         if (intersections == null) return Double3.ONE;
 
         Double3 ktr = Double3.ONE;
-        double lightDistance = light.getDistance(gp.point);
-
         for (GeoPoint intersection : intersections) {
             if (alignZero(intersection.point.distance(gp.point) - lightDistance) <= 0) {
-                ktr = ktr.product(intersection.geometry.getMaterial().kT);
+                Double3 kT = intersection.geometry.getMaterial().kT;
+                recordOccluder(intersection.geometry);
+                if (lightOccluders != null && kT.lowerThan(MIN_CALC_COLOR_K)) lightOccluders.put(light, intersection.geometry);
+                ktr = ktr.product(kT);
                 if (ktr.lowerThan(MIN_CALC_COLOR_K)) return Double3.ZERO;
             }
         }
         return ktr;
     }
 
+    /**
+     * Records a geometry blocking a shadow ray, and its material, as influencing the rays traced
+     * by the current thread, if it records.
+     *
+     * @param occluder the blocking geometry
+     */
+    private void recordOccluder(Geometry occluder) {
+        DependencyFilter dependencies = getDependencies();
+        if (dependencies == null) return;
+        occluder.forEachSource(dependencies::add);
+        dependencies.add(occluder.getMaterial());
+    }
+
+    /**
+     * Checks whether any of the intersections of a shadow ray lies between its point and the light.
+     *
+     * @param intersections the intersections of the shadow ray with an opaque geometry, or null
+     * @param point         the shaded point
+     * @param lightDistance the distance from the point to the light
+     * @return true if the light is blocked
+     */
+    private static boolean blocks(List<GeoPoint> intersections, Point point, double lightDistance) {
+        if (intersections == null) return false;
+        for (GeoPoint intersection : intersections) {
+            if (alignZero(intersection.point.distance(point) - lightDistance) <= 0) return true;
+        }
+        return false;
+    }
+
     /**
      * Finds the closest intersection point for a given ray.
      *
@@ -302,7 +508,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The closest intersection point, or null if no intersections are found.
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        return ray.findClosestGeoPoint(scene.geometries.findGeoIntersections(ray));
+        return getGeometries().findClosestGeoIntersection(ray);
     }
 
     /**
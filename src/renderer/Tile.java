@@ -0,0 +1,111 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a rectangular block of pixels in the rendered image.
+ * <p>
+ * Tiles are the unit of work of a render: the camera renders an image tile by tile,
+ * whether the tiles are rendered by local threads or sent to remote workers.
+ * </p>
+ */
+public class Tile {
+    /**
+     * Default tile edge length in pixels.
+     */
+    public static final int DEFAULT_SIZE = 32;
+
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    /**
+     * Constructs a tile.
+     *
+     * @param x      the column of the upper-left pixel of the tile
+     * @param y      the row of the upper-left pixel of the tile
+     * @param width  the number of pixel columns in the tile
+     * @param height the number of pixel rows in the tile
+     * @throws IllegalArgumentException if the position is negative or the size is not positive
+     */
+    public Tile(int x, int y, int width, int height) {
+        if (x < 0 || y < 0) {
+            throw new IllegalArgumentException("Tile position cannot be negative");
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Splits an image into tiles in row-major order.
+     * Tiles on the right and bottom edges are cropped to the image size.
+     *
+     * @param imageWidth  the image width in pixels
+     * @param imageHeight the image height in pixels
+     * @param tileSize    the edge length of a tile in pixels
+     * @return the list of tiles covering the whole image
+     * @throws IllegalArgumentException if any of the sizes is not positive
+     */
+    public static List<Tile> split(int imageWidth, int imageHeight, int tileSize) {
+        if (imageWidth <= 0 || imageHeight <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("Image and tile sizes must be positive");
+        }
+
+        List<Tile> tiles = new ArrayList<>();
+        for (int y = 0; y < imageHeight; y += tileSize) {
+            for (int x = 0; x < imageWidth; x += tileSize) {
+                tiles.add(new Tile(x, y, Math.min(tileSize, imageWidth - x), Math.min(tileSize, imageHeight - y)));
+            }
+        }
+        return tiles;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of pixels in the tile.
+     *
+     * @return the tile area in pixels
+     */
+    public int getPixelCount() {
+        return width * height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return (o instanceof Tile tile)
+                && x == tile.x && y == tile.y && width == tile.width && height == tile.height;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((x * 31 + y) * 31 + width) * 31 + height;
+    }
+
+    @Override
+    public String toString() {
+        return "Tile{" + "x=" + x + ", y=" + y + ", width=" + width + ", height=" + height + '}';
+    }
+}
@@ -0,0 +1,57 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the tasks rendering the tiles of images, shared by the renderers of one camera and of
+ * many views.
+ */
+final class TileTasks {
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private TileTasks() {
+    }
+
+    /**
+     * Runs tasks, each rendering a tile: one after the other on the calling thread, or
+     * concurrently on a pool of rendering threads, which is shut down when they are done.
+     *
+     * @param tasks        the tasks
+     * @param threadsCount the number of rendering threads, 1 or less for the calling thread
+     * @throws IllegalStateException if the rendering is interrupted or a task fails on a pool thread
+     */
+    static void run(List<Runnable> tasks, int threadsCount) {
+        if (threadsCount <= 1) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+
+        List<Callable<Void>> callables = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            callables.add(Executors.callable(task, null));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threadsCount);
+        try {
+            for (Future<Void> future : pool.invokeAll(callables)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package renderer;
+
+/**
+ * The operators mapping the unbounded colors accumulated by an {@link ImageWriter} to the 0-255
+ * range of an image file.
+ */
+public enum ToneMapping {
+    /**
+     * Every channel is truncated to an integer and clamped at 255, so over-exposed colors burn out.
+     */
+    CLAMP {
+        @Override
+        double map(double value) {
+            return Math.min(value, 255);
+        }
+    },
+    /**
+     * Reinhard's operator: every channel c (with 255 as 1) is mapped to c / (1 + c), compressing
+     * bright colors smoothly instead of clipping them.
+     */
+    REINHARD {
+        @Override
+        double map(double value) {
+            double c = value / 255;
+            return c / (1 + c) * 255 + 0.5;
+        }
+    };
+
+    /**
+     * Maps a color channel.
+     *
+     * @param value the channel value, not negative, with 255 as the nominal white
+     * @return the mapped value, from 0 up to (but not including) 256, to be truncated to an integer
+     */
+    abstract double map(double value);
+}
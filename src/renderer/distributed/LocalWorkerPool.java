@@ -0,0 +1,124 @@
+package renderer.distributed;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Launches {@link RenderWorker} processes on the local machine.
+ * <p>
+ * Every worker is a separate JVM with the classpath of the current one, listening on a free
+ * port of the loopback interface. The pool is mainly used to run a distributed render on a
+ * single box; closing the pool destroys the worker processes.
+ * </p>
+ */
+public class LocalWorkerPool implements AutoCloseable {
+    private final List<Process> processes = new ArrayList<>();
+    private final List<InetSocketAddress> addresses = new ArrayList<>();
+
+    /**
+     * Private constructor - use {@link #start(int)}
+     */
+    private LocalWorkerPool() {
+    }
+
+    /**
+     * Starts worker processes and waits until all of them listen for connections.
+     *
+     * @param workersCount the number of worker processes
+     * @return the pool of the started workers
+     * @throws IllegalArgumentException if the number of workers is not positive
+     * @throws IOException              if a worker process fails to start
+     */
+    public static LocalWorkerPool start(int workersCount) throws IOException {
+        if (workersCount < 1) {
+            throw new IllegalArgumentException("Workers count must be at least 1");
+        }
+
+        LocalWorkerPool pool = new LocalWorkerPool();
+        try {
+            for (int i = 0; i < workersCount; i++) {
+                pool.startWorker();
+            }
+        } catch (IOException e) {
+            pool.close();
+            throw e;
+        }
+        return pool;
+    }
+
+    /**
+     * Starts a single worker process and reads the port it listens on.
+     *
+     * @throws IOException if the process fails to start
+     */
+    private void startWorker() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", classPath(), RenderWorker.class.getName(), "0")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        processes.add(process);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line = reader.readLine();
+        if (line == null || !line.startsWith(RenderWorker.READY_MESSAGE)) {
+            throw new IOException("Render worker failed to start: " + line);
+        }
+        int port = Integer.parseInt(line.substring(RenderWorker.READY_MESSAGE.length()).trim());
+        addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Builds the classpath of the worker processes: the classpath of this JVM together with
+     * the location the renderer classes were loaded from (they may come from a nested class loader).
+     *
+     * @return the worker classpath
+     */
+    private static String classPath() {
+        String classPath = System.getProperty("java.class.path");
+        CodeSource codeSource = RenderWorker.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null) return classPath;
+        try {
+            String rendererLocation = Path.of(codeSource.getLocation().toURI()).toString();
+            return classPath.isEmpty() ? rendererLocation : classPath + File.pathSeparator + rendererLocation;
+        } catch (URISyntaxException e) {
+            return classPath;
+        }
+    }
+
+    /**
+     * Gets the addresses of the worker processes.
+     *
+     * @return the worker addresses
+     */
+    public List<InetSocketAddress> getAddresses() {
+        return List.copyOf(addresses);
+    }
+
+    /**
+     * Gets the worker processes, e.g. to kill one of them.
+     *
+     * @return the worker processes, in the order of their addresses
+     */
+    public List<Process> getProcesses() {
+        return List.copyOf(processes);
+    }
+
+    /**
+     * Destroys all the worker processes.
+     */
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package renderer.distributed;
+
+import primitives.Color;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.Tile;
+import scene.Scene;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Renders the image of a camera on a set of {@link RenderWorker}s.
+ * <p>
+ * The image is split into tiles which are handed out to the workers on demand, so faster
+ * workers render more tiles. Every worker receives the serialized scene once, and then
+ * streams back the colors of the tiles it renders; the coordinator writes them to the
+ * camera's {@link ImageWriter}. When a worker fails, the tile it was rendering is put back
+ * in the queue and re-issued to another worker. The render fails only when all workers did.
+ * </p>
+ */
+public class RenderCoordinator {
+    private static final Logger LOGGER = Logger.getLogger("RenderCoordinator");
+
+    /**
+     * Timeout for connecting to a worker, in milliseconds.
+     */
+    private static final int CONNECT_TIMEOUT = 10_000;
+
+    /**
+     * Interval in which idle workers check whether the render is complete, in milliseconds.
+     */
+    private static final long POLL_INTERVAL = 50;
+
+    private final Camera camera;
+    private final RenderJob job;
+    private int workerTimeout = 0;
+    private final AtomicInteger reissuedTiles = new AtomicInteger();
+
+    /**
+     * Constructs a coordinator rendering a scene through a camera.
+     *
+     * @param scene  the scene to render
+     * @param camera the built camera whose image writer receives the rendered pixels
+     * @throws IllegalArgumentException if the scene or the camera is null
+     */
+    public RenderCoordinator(Scene scene, Camera camera) {
+        this.job = new RenderJob(scene, camera);
+        this.camera = camera;
+    }
+
+    /**
+     * Sets the time to wait for a single tile before a worker is considered hung.
+     *
+     * @param workerTimeout the timeout in milliseconds, 0 waits forever
+     * @return the coordinator itself
+     * @throws IllegalArgumentException if the timeout is negative
+     */
+    public RenderCoordinator setWorkerTimeout(int workerTimeout) {
+        if (workerTimeout < 0) {
+            throw new IllegalArgumentException("Worker timeout cannot be negative");
+        }
+        this.workerTimeout = workerTimeout;
+        return this;
+    }
+
+    /**
+     * Gets the number of tiles that were re-issued after their worker failed.
+     *
+     * @return the number of re-issued tiles
+     */
+    public int getReissuedTiles() {
+        return reissuedTiles.get();
+    }
+
+    /**
+     * Renders the whole image on the given workers.
+     *
+     * @param workers the addresses of the workers
+     * @return the camera, whose image writer holds the rendered image
+     * @throws IllegalArgumentException if no worker is given
+     * @throws IllegalStateException    if all the workers failed before the image was complete
+     */
+    public Camera render(List<InetSocketAddress> workers) {
+        if (workers == null || workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one render worker is required");
+        }
+
+        List<Tile> tiles = camera.getTiles();
+        BlockingDeque<Tile> pending = new LinkedBlockingDeque<>(tiles);
+        AtomicInteger remaining = new AtomicInteger(tiles.size());
+
+        List<Thread> threads = new ArrayList<>(workers.size());
+        for (InetSocketAddress address : workers) {
+            Thread thread = new Thread(() -> serveWorker(address, pending, remaining), "RenderCoordinator-" + address);
+            thread.start();
+            threads.add(thread);
+        }
+
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            threads.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Distributed rendering was interrupted", e);
+        }
+
+        if (remaining.get() > 0) {
+            throw new IllegalStateException("All render workers failed, " + remaining.get() + " tiles were not rendered");
+        }
+        return camera;
+    }
+
+    /**
+     * Feeds a single worker with tiles until the image is complete or the worker fails.
+     *
+     * @param address   the address of the worker
+     * @param pending   the tiles waiting to be rendered
+     * @param remaining the number of tiles not rendered yet
+     */
+    private void serveWorker(InetSocketAddress address, BlockingDeque<Tile> pending, AtomicInteger remaining) {
+        try (Socket socket = new Socket()) {
+            socket.connect(address, CONNECT_TIMEOUT);
+            socket.setSoTimeout(workerTimeout);
+            socket.setTcpNoDelay(true);
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeObject(job);
+            out.flush();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            while (remaining.get() > 0) {
+                Tile tile = pending.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (tile == null) continue;
+
+                try {
+                    renderTile(tile, out, in);
+                } catch (IOException e) {
+                    pending.addFirst(tile);
+                    reissuedTiles.incrementAndGet();
+                    throw e;
+                }
+                remaining.decrementAndGet();
+            }
+
+            out.writeInt(RenderWorker.END_OF_JOB);
+            out.flush();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Render worker " + address + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Requests a tile from a worker and writes the received pixels to the image.
+     *
+     * @param tile the tile to render
+     * @param out  the stream to the worker
+     * @param in   the stream from the worker
+     * @throws IOException if the worker fails
+     */
+    private void renderTile(Tile tile, ObjectOutputStream out, DataInputStream in) throws IOException {
+        out.writeInt(tile.getX());
+        out.writeInt(tile.getY());
+        out.writeInt(tile.getWidth());
+        out.writeInt(tile.getHeight());
+        out.flush();
+
+        // Read the whole tile before writing it, so a failing worker leaves no partial tile behind
+        Color[] colors = new Color[tile.getPixelCount()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = new Color(in.readDouble(), in.readDouble(), in.readDouble());
+        }
+
+        ImageWriter imageWriter = camera.getImageWriter();
+        int i = 0;
+        for (int row = tile.getY(); row < tile.getY() + tile.getHeight(); row++) {
+            for (int column = tile.getX(); column < tile.getX() + tile.getWidth(); column++) {
+                imageWriter.setPixelColor(column, row, colors[i++]);
+            }
+        }
+    }
+}
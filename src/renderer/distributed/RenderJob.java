@@ -0,0 +1,77 @@
+package renderer.distributed;
+
+import diagnostics.SceneBuildEvent;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import renderer.superSampling.SamplingConfig;
+import scene.Scene;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Everything a render worker needs in order to render tiles of an image.
+ * <p>
+ * A job is serialized and sent once to every worker at the beginning of a distributed render.
+ * It holds the scene, the view parameters of the camera, the image resolution and the
+ * sampling configuration, so that the worker can rebuild an equivalent camera locally.
+ * </p>
+ */
+public class RenderJob implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Name of the (never written) image of a worker camera.
+     */
+    private static final String WORKER_IMAGE_NAME = "worker";
+
+    private final Scene scene;
+    private final Camera camera;
+    private final int imageWidth;
+    private final int imageHeight;
+    private final SamplingConfig samplingConfig;
+
+    /**
+     * Constructs a render job from a scene and a camera that renders it.
+     *
+     * @param scene  the scene to render
+     * @param camera the built camera, whose image writer defines the resolution
+     * @throws IllegalArgumentException if the scene or the camera is null
+     */
+    public RenderJob(Scene scene, Camera camera) {
+        if (scene == null || camera == null) {
+            throw new IllegalArgumentException("Scene and camera cannot be null");
+        }
+        this.scene = scene;
+        this.camera = camera;
+        this.imageWidth = camera.getImageWriter().getImageWidth();
+        this.imageHeight = camera.getImageWriter().getImageHeight();
+        this.samplingConfig = camera.getRayTracer() instanceof SimpleRayTracer tracer
+                ? tracer.getSamplingConfig()
+                : null;
+    }
+
+    /**
+     * Rebuilds the camera of the job with a local image writer and ray tracer.
+     * <p>
+     * The setup of the scene in the worker is reported to Java Flight Recorder as a {@link SceneBuildEvent}.
+     * </p>
+     *
+     * @return a camera rendering the same view of the same scene
+     */
+    public Camera createCamera() {
+        SceneBuildEvent event = new SceneBuildEvent();
+        event.begin();
+        Camera.Builder builder = new Camera.Builder(camera)
+                .setImageWriter(new ImageWriter(WORKER_IMAGE_NAME, imageWidth, imageHeight))
+                .setRayTracer(new SimpleRayTracer(scene));
+        if (samplingConfig != null) {
+            builder.setSamplingConfig(samplingConfig);
+        }
+        Camera built = builder.build();
+        event.finish(scene.name, scene.geometries.getGeometries().size(), scene.lights.size());
+        return built;
+    }
+}
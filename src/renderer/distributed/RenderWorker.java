@@ -0,0 +1,155 @@
+package renderer.distributed;
+
+import primitives.Color;
+import renderer.Camera;
+import renderer.Tile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A render worker serving tile requests of a {@link RenderCoordinator} over a socket.
+ * <p>
+ * For every connection the worker reads a {@link RenderJob} once, and then answers tile
+ * requests (column, row, width and height of the tile) with the colors of the tile pixels
+ * in row-major order, three doubles per pixel. The coordinator ends the session by
+ * sending {@link #END_OF_JOB} instead of a tile. Connections are served one at a time.
+ * </p>
+ * <p>
+ * The worker can run inside the coordinator's JVM (mainly for testing) or as a separate
+ * process started through {@link #main(String[])}.
+ * </p>
+ * <p>
+ * A job is deserialized under {@link #JOB_FILTER}, which admits only the classes of the scene
+ * model and the renderer settings. Still, a worker executes whatever job it is sent, so a
+ * worker process listens on the loopback interface unless it is given another bind address,
+ * and should be exposed to trusted coordinators only.
+ * </p>
+ */
+public class RenderWorker implements Runnable {
+    /**
+     * Marker sent by the coordinator instead of a tile when the render is complete.
+     */
+    static final int END_OF_JOB = -1;
+
+    /**
+     * The line a worker process prints to the standard output once it accepts connections.
+     */
+    static final String READY_MESSAGE = "Render worker listening on port ";
+
+    /**
+     * The filter of the deserialization of a render job: the classes of the scene model and the
+     * renderer settings, the JDK collections and enums they are built of, and limits on the depth
+     * of the object graph and the length of arrays. Any other class is rejected before it is
+     * instantiated, so a client cannot run the deserialization code of other classes of the
+     * worker class path.
+     */
+    static final ObjectInputFilter JOB_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=100;maxarray=16777216;"
+                    + "scene.*;geometries.*;lighting.*;primitives.*;renderer.*;renderer.superSampling.*;"
+                    + "renderer.distributed.RenderJob;"
+                    + "java.lang.Object;java.lang.Enum;java.util.ArrayList;java.util.LinkedList;"
+                    + "java.util.CollSer;java.util.ImmutableCollections$List12;java.util.ImmutableCollections$ListN;!*");
+
+    private static final Logger LOGGER = Logger.getLogger("RenderWorker");
+
+    private final ServerSocket serverSocket;
+
+    /**
+     * Constructs a worker accepting coordinator connections on the given server socket.
+     *
+     * @param serverSocket the bound server socket
+     * @throws IllegalArgumentException if the server socket is null
+     */
+    public RenderWorker(ServerSocket serverSocket) {
+        if (serverSocket == null) {
+            throw new IllegalArgumentException("Server socket cannot be null");
+        }
+        this.serverSocket = serverSocket;
+    }
+
+    /**
+     * Gets the port the worker listens on.
+     *
+     * @return the local port of the server socket
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Serves coordinator sessions until the server socket is closed.
+     */
+    @Override
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                serve(socket);
+            } catch (IOException | ClassNotFoundException e) {
+                if (!serverSocket.isClosed()) {
+                    LOGGER.log(Level.WARNING, "Render session failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Serves a single coordinator session.
+     *
+     * @param socket the connection to the coordinator
+     * @throws IOException            if the connection fails
+     * @throws ClassNotFoundException if the render job cannot be deserialized
+     */
+    private void serve(Socket socket) throws IOException, ClassNotFoundException {
+        socket.setTcpNoDelay(true);
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+        in.setObjectInputFilter(JOB_FILTER);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        Camera camera = ((RenderJob) in.readObject()).createCamera();
+        for (int x = in.readInt(); x != END_OF_JOB; x = in.readInt()) {
+            Tile tile = new Tile(x, in.readInt(), in.readInt(), in.readInt());
+            for (int row = tile.getY(); row < tile.getY() + tile.getHeight(); row++) {
+                for (int column = tile.getX(); column < tile.getX() + tile.getWidth(); column++) {
+                    Color color = camera.computePixelColor(column, row);
+                    out.writeDouble(color.getRed());
+                    out.writeDouble(color.getGreen());
+                    out.writeDouble(color.getBlue());
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Runs a worker process.
+     * <p>
+     * The worker listens on the loopback interface, for coordinators on the same machine, unless
+     * a bind address is given: other hosts can connect only to a worker bound to an address they
+     * reach, e.g. {@code 0.0.0.0} for all the interfaces. Once listening, the worker prints
+     * {@value #READY_MESSAGE} followed by its port number.
+     * </p>
+     *
+     * @param args optional port number to listen on (0 or missing picks a free port), and
+     *             optional address to bind to (missing binds to the loopback interface)
+     * @throws IOException if the server socket cannot be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        InetAddress bindAddress = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        try (ServerSocket serverSocket = new ServerSocket(port, 0, bindAddress)) {
+            System.out.println(READY_MESSAGE + serverSocket.getLocalPort());
+            System.out.flush();
+            new RenderWorker(serverSocket).run();
+        }
+    }
+}
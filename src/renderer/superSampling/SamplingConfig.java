@@ -1,5 +1,8 @@
 package renderer.superSampling;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * Configuration class for multi-sampling techniques.
  * <p>
@@ -11,7 +14,10 @@ package renderer.superSampling;
  * but additional sampling techniques can be added in the future.
  * </p>
  */
-public class SamplingConfig {
+public class SamplingConfig implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private int antiAliasingSamples = 0;
     private double antiAliasingSize = 0.5;
     private SamplingPattern antiAliasingPattern = SamplingPattern.JITTERED;
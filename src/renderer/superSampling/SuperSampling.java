@@ -18,7 +18,8 @@ import java.util.List;
  */
 public class SuperSampling {
     protected int numSamples;
-    protected TargetArea targetArea;
+    protected double size;
+    protected SamplingPattern pattern;
 
     /**
      * Constructs a `SuperSampling` instance with a given number of samples, sampling area size, and pattern.
@@ -41,7 +42,8 @@ public class SuperSampling {
         }
 
         this.numSamples = numSamples;
-        this.targetArea = new TargetArea(new Point(0, 0, 0), size, pattern);
+        this.size = size;
+        this.pattern = pattern;
     }
 
     /**
@@ -51,6 +53,10 @@ public class SuperSampling {
      * corresponding rays from the given center point, and returns a list of those rays.
      * The rays are used to compute multiple color samples per pixel, improving anti-aliasing quality.
      * </p>
+     * <p>
+     * A fresh target area is created for every call, so a single instance can be shared
+     * by several rendering threads.
+     * </p>
      *
      * @param newCenter The center of the sampling area where the rays will originate (must not be null).
      * @param ray The original ray being sampled (must not be null).
@@ -62,7 +68,7 @@ public class SuperSampling {
             throw new IllegalArgumentException("Center point and ray cannot be null");
         }
 
-        targetArea.setCenter(newCenter);
+        TargetArea targetArea = new TargetArea(newCenter, size, pattern);
         List<Point> samplePoints = targetArea.generateSamplePoints(numSamples, ray.getDir());
         List<Ray> sampleRays = new ArrayList<>();
 
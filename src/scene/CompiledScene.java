@@ -0,0 +1,106 @@
+package scene;
+
+import diagnostics.SceneBuildEvent;
+import geometries.Geometries;
+import geometries.Intersectable;
+import lighting.LightSource;
+import primitives.Color;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of a {@link Scene}, prepared for rendering.
+ * <p>
+ * Compiling a scene (see {@link Scene#compile()}) copies its lights into a fixed array, flattens
+ * its nested collections of geometries into a single frozen collection with an acceleration
+ * structure, and keeps the background and the intensity of the ambient light. Later changes of
+ * the lists and the fields of the scene do not change the snapshot, so it can be shared by any
+ * number of rendering threads without locking. The geometries and the lights themselves are
+ * shared with the scene, not copied: edits of their own properties, e.g. of materials, are seen
+ * by the snapshot.
+ * </p>
+ */
+public final class CompiledScene {
+    private final String name;
+    private final Color background;
+    private final Color ambient;
+    private final LightSource[] lights;
+    private final Geometries geometries;
+
+    /**
+     * Compiles a scene.
+     * <p>
+     * The compilation is reported to Java Flight Recorder as a {@link SceneBuildEvent}.
+     * </p>
+     *
+     * @param scene the scene
+     */
+    CompiledScene(Scene scene) {
+        SceneBuildEvent event = new SceneBuildEvent();
+        event.begin();
+        name = scene.name;
+        background = scene.background;
+        ambient = scene.ambientLight.getIntensity();
+        lights = scene.lights.toArray(new LightSource[0]);
+
+        List<Intersectable> leaves = scene.geometries.getLeaves();
+        geometries = new Geometries(leaves.toArray(new Intersectable[0]));
+        geometries.buildAcceleration(scene.acceleration).freeze();
+        event.finish(name, leaves.size(), lights.length);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Color getBackground() {
+        return background;
+    }
+
+    /**
+     * Gets the intensity of the ambient light.
+     *
+     * @return the ambient light intensity
+     */
+    public Color getAmbient() {
+        return ambient;
+    }
+
+    /**
+     * Gets the light sources.
+     *
+     * @return a copy of the array of the lights, in the order of the lights of the scene
+     */
+    public LightSource[] getLights() {
+        return lights.clone();
+    }
+
+    /**
+     * Gets the number of light sources.
+     *
+     * @return the number of lights
+     */
+    public int getLightCount() {
+        return lights.length;
+    }
+
+    /**
+     * Gets a light source.
+     *
+     * @param index the index of the light, in the order of the lights of the scene
+     * @return the light
+     */
+    public LightSource getLight(int index) {
+        return lights[index];
+    }
+
+    /**
+     * Gets the flattened collection of the geometries, with its acceleration structure.
+     * The collection is frozen: no geometries can be added to it.
+     *
+     * @return the geometries
+     */
+    public Geometries getGeometries() {
+        return geometries;
+    }
+}
@@ -3,8 +3,11 @@ package scene;
 import lighting.LightSource;
 import primitives.Color;
 import lighting.AmbientLight;
+import geometries.AccelerationType;
 import geometries.Geometries;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -12,12 +15,21 @@ import java.util.List;
  * The Scene class represents a 3D scene containing geometric shapes, lights, and other objects.
  * It uses a fluent interface for setting its properties.
  */
-public class Scene {
+public class Scene implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     public String name;
     public Color background = Color.BLACK;
     public AmbientLight ambientLight = new AmbientLight();
     public Geometries geometries = new Geometries();
+    /**
+     * The light sources. The list may be replaced by {@link #setLights(List)}, so its declared
+     * type is an interface; the scene serializes only with a serializable list, e.g. of the JDK.
+     */
+    @SuppressWarnings("serial")
     public List<LightSource> lights = new LinkedList<>();
+    public AccelerationType acceleration = AccelerationType.BVH;
 
     /**
      * Constructor to initialize the scene with a name.
@@ -72,4 +84,42 @@ public class Scene {
         this.lights = lights;
         return this;
     }
+
+    /**
+     * Sets the kind of acceleration structure built over the geometries of the scene.
+     *
+     * @param acceleration the kind of the structure
+     * @return the Scene object itself (fluent interface)
+     * @throws IllegalArgumentException if the kind is null
+     */
+    public Scene setAcceleration(AccelerationType acceleration) {
+        if (acceleration == null) {
+            throw new IllegalArgumentException("Acceleration type cannot be null");
+        }
+        this.acceleration = acceleration;
+        return this;
+    }
+
+    /**
+     * Builds the acceleration structure of the scene geometries, of the kind set by
+     * {@link #setAcceleration(AccelerationType)}. Call it after all the geometries were added.
+     *
+     * @return the Scene object itself (fluent interface)
+     */
+    public Scene buildAcceleration() {
+        geometries.buildAcceleration(acceleration);
+        return this;
+    }
+
+    /**
+     * Compiles the scene into an immutable snapshot for rendering, whose nested geometries are
+     * flattened under a single acceleration structure of the kind set by
+     * {@link #setAcceleration(AccelerationType)}. Call it after the scene is complete; the
+     * snapshot does not follow later changes of the scene lists and fields.
+     *
+     * @return the compiled scene
+     */
+    public CompiledScene compile() {
+        return new CompiledScene(this);
+    }
 }
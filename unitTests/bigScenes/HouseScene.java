@@ -97,17 +97,19 @@ public class HouseScene {
         createCloud(scene, 8, 13, -12, 1.8);
 
 
+        // A single sunflower model, placed by instances
+        Geometries sunflower = createSunflower();
 //        for (double x = -6; x <= -3; x += 1.5) {
-//            createSunflower(scene, x, -5);
+//            scene.geometries.add(new Instance(sunflower, Transform.translation(x, 0, -5)));
 //        }
         for (double x = 3; x <= 6; x += 1.5) {
-            createSunflower(scene, x, -5);
+            scene.geometries.add(new Instance(sunflower, Transform.translation(x, 0, -5)));
         }
 
 
 //// חמניות מאחורי הבית
 //        for (double x = -10; x <= 10; x += 2) {
-//            createSunflower(scene, x, -15);
+//            scene.geometries.add(new Instance(sunflower, Transform.translation(x, 0, -15)));
 //        }
 
 
@@ -121,6 +123,9 @@ public class HouseScene {
         scene.lights.add(new DirectionalLight(new Color(255, 250, 224), new Vector(-1, -1, -0.5)));
 
 
+        // Two-level acceleration: one hierarchy per model, one over the scene
+        scene.geometries.buildBVH();
+
         // 📸 Camera
         Camera camera = Camera.getBuilder()
                 .setLocation(new Point(10, 0, -20))
@@ -146,40 +151,47 @@ public class HouseScene {
                 .setEmission(new Color(255, 255, 255)).setMaterial(cloudMaterial));
     }
 
-    static void createSunflower(Scene scene, double x, double z) {
+    /**
+     * Builds a sunflower model standing at the origin, to be placed by instances.
+     *
+     * @return the geometries of the sunflower
+     */
+    static Geometries createSunflower() {
+        Geometries sunflower = new Geometries();
         // גבעול
         for (double y = -5; y <= -0.7; y += 0.3) {
-            scene.geometries.add(new Sphere(0.15, new Point(x, y, z))
+            sunflower.add(new Sphere(0.15, new Point(0, y, 0))
                     .setEmission(new Color(34, 139, 34)));
         }
 
         // עלים
-        scene.geometries.add(new Triangle(new Point(x, -3, z), new Point(x - 0.7, -3.3, z + 0.3), new Point(x - 0.4, -4, z))
+        sunflower.add(new Triangle(new Point(0, -3, 0), new Point(-0.7, -3.3, 0.3), new Point(-0.4, -4, 0))
                 .setEmission(new Color(34, 139, 34)));
-        scene.geometries.add(new Triangle(new Point(x, -3.5, z), new Point(x + 0.7, -4, z + 0.3), new Point(x + 0.4, -4.5, z))
+        sunflower.add(new Triangle(new Point(0, -3.5, 0), new Point(0.7, -4, 0.3), new Point(0.4, -4.5, 0))
                 .setEmission(new Color(34, 139, 34)));
 
         // מרכז חמנייה
-        scene.geometries.add(new Sphere(0.5, new Point(x, 0, z))
+        sunflower.add(new Sphere(0.5, Point.ZERO)
                 .setEmission(new Color(80, 50, 20)));
 
         // זרעים
         for (double angle = 0; angle < 360; angle += 30) {
             double rad = Math.toRadians(angle);
-            scene.geometries.add(new Sphere(0.07, new Point(x + Math.cos(rad) * 0.4, Math.sin(rad) * 0.4, z + 0.4))
+            sunflower.add(new Sphere(0.07, new Point(Math.cos(rad) * 0.4, Math.sin(rad) * 0.4, 0.4))
                     .setEmission(new Color(110, 70, 30)));
         }
 
         // עלי כותרת צהובים
         for (double angle = 0; angle < 360; angle += 30) {
             double rad = Math.toRadians(angle);
-            Point base1 = new Point(x + Math.cos(rad) * 0.6, Math.sin(rad) * 0.6, z);
-            Point base2 = new Point(x + Math.cos(rad + 0.2) * 0.6, Math.sin(rad + 0.2) * 0.6, z);
-            Point tip = new Point(x + Math.cos(rad + 0.1) * 1.2, Math.sin(rad + 0.1) * 1.2, z + 0.3);
-            scene.geometries.add(new Triangle(base1, base2, tip)
+            Point base1 = new Point(Math.cos(rad) * 0.6, Math.sin(rad) * 0.6, 0);
+            Point base2 = new Point(Math.cos(rad + 0.2) * 0.6, Math.sin(rad + 0.2) * 0.6, 0);
+            Point tip = new Point(Math.cos(rad + 0.1) * 1.2, Math.sin(rad + 0.1) * 1.2, 0.3);
+            sunflower.add(new Triangle(base1, base2, tip)
                     .setEmission(new Color(255, 215, 0))
                     .setMaterial(new Material().setKD(0.5).setKS(0.2)));
         }
+        return sunflower;
     }
 
 
@@ -26,12 +26,14 @@ public class SunflowerScene {
 
 
 // Small grass elements randomly scattered
+        SphereSet grass = new SphereSet();
+        int grassAppearance = grass.addAppearance(new Material(), new Color(34,139,34));
         for (int i = -30; i <= 30; i += 2) {
             for (int j = -30; j <= 10; j += 2) {
-                scene.geometries.add(new Sphere(0.1, new Point(i, -4.9, j))
-                        .setEmission(new Color(34,139,34)));
+                grass.add(0.1, i, -4.9, j, grassAppearance);
             }
         }
+        scene.geometries.add(grass);
 
 // יצירת עננים מתוכננים ולא רנדומליים
 //        createCloud(scene, -15, 14, -30, 2.5); // ענן גדול יחסית
@@ -43,9 +45,11 @@ public class SunflowerScene {
 
 
         // יצירת בתים - מתחילים רחוק יותר כך שהשורה הראשונה לא מופיעה
+        // A single house model, placed by instances
+        Geometries house = createHouse();
         for (int z = -15; z >= -40; z -= 10) { // התחל מהשורה השנייה, לא הראשונה
             for (int x = -30; x <= 30; x += 10) {
-                createHouse(scene, x, z);
+                scene.geometries.add(new Instance(house, Transform.translation(x, 0, z)));
             }
         }
 
@@ -107,6 +111,9 @@ public class SunflowerScene {
 //// כיוון נוסף של אור (מאוד חלש כדי רק לתת קצת יותר משחק בצללים)
 //        scene.lights.add(new DirectionalLight(new Color(200, 200, 200), new Vector(1, -1, -0.5)));
 
+        // Two-level acceleration: one grid per model, one over the evenly spread field
+        scene.setAcceleration(AccelerationType.GRID).buildAcceleration();
+
         // מצלמה ממוקמת בצורה שתדגיש את הפרח
         Camera camera = Camera.getBuilder()
                 .setLocation(new Point(0, 0, 5)) // בתוך השדה, בגובה נמוך יותר
@@ -125,48 +132,50 @@ public class SunflowerScene {
     static void createCloud(Scene scene, double centerX, double centerY, double centerZ, double scale) {
         Material cloudMaterial = new Material().setKT(0.6).setKR(0.3); // שקיפות ורפלקציה עדינה
 
-        scene.geometries.add(new Sphere(scale * 2.0, new Point(centerX, centerY, centerZ))
-                .setEmission(new Color(255,255,255)).setMaterial(cloudMaterial));
-        scene.geometries.add(new Sphere(scale * 1.7, new Point(centerX + scale * 1.2, centerY - scale * 0.4, centerZ - scale * 0.5))
-                .setEmission(new Color(255,255,255)).setMaterial(cloudMaterial));
-        scene.geometries.add(new Sphere(scale * 1.5, new Point(centerX - scale * 1.3, centerY - scale * 0.5, centerZ + scale * 0.8))
-                .setEmission(new Color(255,255,255)).setMaterial(cloudMaterial));
+        SphereSet cloud = new SphereSet(3);
+        int cloudAppearance = cloud.addAppearance(cloudMaterial, new Color(255,255,255));
+        cloud.add(scale * 2.0, centerX, centerY, centerZ, cloudAppearance)
+                .add(scale * 1.7, centerX + scale * 1.2, centerY - scale * 0.4, centerZ - scale * 0.5, cloudAppearance)
+                .add(scale * 1.5, centerX - scale * 1.3, centerY - scale * 0.5, centerZ + scale * 0.8, cloudAppearance);
+        scene.geometries.add(cloud);
     }
 
 
-    // Function to create a 3D house
-    static void createHouse(Scene scene, double x, double z) {
+    // Function to create a 3D house model at the origin, to be placed by instances
+    static Geometries createHouse() {
+        Geometries house = new Geometries();
         // חומרים וצבעים
         Material wallMaterial = new Material().setKD(0.6).setKS(0.3).setShininess(30);
         Color wallColor = new Color(210, 180, 140);
         Color roofColor = new Color(178, 34, 34);
 
         // קירות הבית
-        scene.geometries.add(
-                new Triangle(new Point(x, -5, z), new Point(x + 4, -5, z), new Point(x, -2, z))
+        house.add(
+                new Triangle(new Point(0, -5, 0), new Point(4, -5, 0), new Point(0, -2, 0))
                         .setEmission(wallColor).setMaterial(wallMaterial),
-                new Triangle(new Point(x + 4, -5, z), new Point(x + 4, -2, z), new Point(x, -2, z))
+                new Triangle(new Point(4, -5, 0), new Point(4, -2, 0), new Point(0, -2, 0))
                         .setEmission(wallColor).setMaterial(wallMaterial),
-                new Triangle(new Point(x, -5, z), new Point(x, -5, z - 3), new Point(x, -2, z))
+                new Triangle(new Point(0, -5, 0), new Point(0, -5, -3), new Point(0, -2, 0))
                         .setEmission(wallColor).setMaterial(wallMaterial),
-                new Triangle(new Point(x, -5, z - 3), new Point(x, -2, z - 3), new Point(x, -2, z))
+                new Triangle(new Point(0, -5, -3), new Point(0, -2, -3), new Point(0, -2, 0))
                         .setEmission(wallColor).setMaterial(wallMaterial)
         );
 
         // ✅ בדיקה יסודית של נקודת גג ממורכזת
-        Point roofTop = new Point(x + 2, 0, z - 1.5);  // ממורכז מעל הבית
+        Point roofTop = new Point(2, 0, -1.5);  // ממורכז מעל הבית
 
         // ✅ חיבור 4 הצדדים של הגג לנקודה אחת מרכזית
-        scene.geometries.add(
-                new Triangle(new Point(x, -2, z), new Point(x + 4, -2, z), roofTop) // צד קדמי
+        house.add(
+                new Triangle(new Point(0, -2, 0), new Point(4, -2, 0), roofTop) // צד קדמי
                         .setEmission(roofColor).setMaterial(new Material().setKD(0.3).setKS(0.4).setShininess(100)),
-                new Triangle(new Point(x, -2, z - 3), new Point(x + 4, -2, z - 3), roofTop) // צד אחורי
+                new Triangle(new Point(0, -2, -3), new Point(4, -2, -3), roofTop) // צד אחורי
                         .setEmission(roofColor).setMaterial(new Material().setKD(0.3).setKS(0.4).setShininess(100)),
-                new Triangle(new Point(x, -2, z), new Point(x, -2, z - 3), roofTop) // צד שמאלי
+                new Triangle(new Point(0, -2, 0), new Point(0, -2, -3), roofTop) // צד שמאלי
                         .setEmission(roofColor).setMaterial(new Material().setKD(0.3).setKS(0.4).setShininess(100)),
-                new Triangle(new Point(x + 4, -2, z), new Point(x + 4, -2, z - 3), roofTop) // צד ימני
+                new Triangle(new Point(4, -2, 0), new Point(4, -2, -3), roofTop) // צד ימני
                         .setEmission(roofColor).setMaterial(new Material().setKD(0.3).setKS(0.4).setShininess(100))
         );
+        return house;
     }
 
 
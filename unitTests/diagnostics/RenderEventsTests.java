@@ -0,0 +1,127 @@
+package diagnostics;
+
+import geometries.Geometries;
+import geometries.Sphere;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Flight Recorder events of the renderer.
+ */
+class RenderEventsTests {
+
+    /**
+     * Builds a camera of a 4x4 image of a single sphere, rendered in 2x2 tiles.
+     *
+     * @return the camera
+     */
+    private Camera buildCamera() {
+        Scene scene = new Scene("Events");
+        scene.geometries.add(new Sphere(30, new Point(0, 0, -50)).setEmission(new Color(50, 10, 10)));
+        return Camera.getBuilder()
+                .setLocation(new Point(0, 0, 100))
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(100, 100)
+                .setImageWriter(new ImageWriter("events", 4, 4))
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setTileSize(2)
+                .build();
+    }
+
+    /**
+     * Records a render of {@link #buildCamera()} and reads back the recorded events.
+     *
+     * @param pixelThreshold the threshold of the slow pixel events
+     * @return the recorded events
+     * @throws IOException if the recording cannot be written or read
+     */
+    private List<RecordedEvent> recordRender(Duration pixelThreshold) throws IOException {
+        Path file = Files.createTempFile("render", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TileRenderEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(SlowPixelEvent.class).withThreshold(pixelThreshold);
+            recording.start();
+            buildCamera().generateRenderedImage();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Counts the recorded events of a type.
+     *
+     * @param events the recorded events
+     * @param name   the event type name
+     * @return the number of events of the type
+     */
+    private long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+    }
+
+    /**
+     * Test method for the tile and pixel events of {@link Camera#renderTile(renderer.Tile)}.
+     */
+    @Test
+    void testRenderEvents() throws IOException {
+        // TC01: every tile is recorded, and every pixel passes a zero threshold
+        List<RecordedEvent> events = recordRender(Duration.ZERO);
+        assertEquals(4, count(events, "renderer.TileRender"), "Wrong number of tile events");
+        assertEquals(16, count(events, "renderer.SlowPixel"), "Every pixel should pass a zero threshold");
+
+        RecordedEvent tile = events.stream()
+                .filter(e -> e.getEventType().getName().equals("renderer.TileRender"))
+                .filter(e -> e.getInt("x") == 2 && e.getInt("y") == 2)
+                .findFirst().orElseThrow();
+        assertEquals("events", tile.getString("image"), "Wrong image of a tile event");
+        assertEquals(2, tile.getInt("width"), "Wrong width of a tile event");
+
+        // TC02: no pixel of the tiny scene is slower than a minute
+        events = recordRender(Duration.ofMinutes(1));
+        assertEquals(0, count(events, "renderer.SlowPixel"), "Fast pixels should not be recorded");
+    }
+
+    /**
+     * Test method for the event of {@link Geometries#buildBVH()}.
+     */
+    @Test
+    void testAccelerationBuildEvent() throws IOException {
+        Path file = Files.createTempFile("build", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AccelerationBuildEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            new Geometries(new Sphere(1, Point.ZERO), new Sphere(1, new Point(3, 0, 0)), new Sphere(1, new Point(6, 0, 0)))
+                    .buildBVH();
+            recording.stop();
+            recording.dump(file);
+
+            RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("renderer.AccelerationBuild"))
+                    .findFirst().orElseThrow();
+            assertEquals("BVH", event.getString("structure"), "Wrong structure of the build event");
+            assertEquals(3, event.getInt("primitives"), "Wrong number of primitives of the build event");
+            // the surface area heuristic splits off one sphere and keeps the other two in a leaf
+            assertEquals(3, event.getInt("nodes"), "Wrong number of nodes of the build event");
+            assertTrue(event.getDouble("sahCost") > 0, "The build event should report the SAH cost");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
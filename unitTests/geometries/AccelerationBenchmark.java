@@ -0,0 +1,90 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+
+/**
+ * Benchmark of the uniform grid against the bounding volume hierarchy.
+ * <p>
+ * Both structures are built over the same scenes and trace the same rays. The first scene is a
+ * field of equal spheres spread evenly, where the grid is expected to win; the second puts most
+ * of the spheres in a small cluster inside a large empty scene ("teapot in a stadium"), where
+ * the grid cells around the cluster are either empty or crowded and the hierarchy should win.
+ * Run with an optional number of geometries (default 100000) and of rays (default 200000).
+ * </p>
+ */
+public class AccelerationBenchmark {
+    /**
+     * Creates a scene of spheres.
+     *
+     * @param random    the random generator
+     * @param count     the number of spheres
+     * @param clustered true to put 99% of the spheres in a cluster of 1/1000 of the scene volume
+     * @return the geometries of the scene
+     */
+    private static Geometries createScene(Random random, int count, boolean clustered) {
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < count; i++) {
+            double size = clustered && i % 100 != 0 ? 10 : 100;
+            double radius = clustered && i % 100 != 0 ? 0.03 : 0.3;
+            geometries.add(new Sphere(radius, new Point(random.nextDouble(-size, size), random.nextDouble(-size, size), random.nextDouble(-size, size))));
+        }
+        return geometries;
+    }
+
+    /**
+     * Builds a structure over a scene and traces rays through it.
+     *
+     * @param geometries the scene
+     * @param type       the kind of the structure
+     * @param rays       the rays
+     * @return the number of rays that hit
+     */
+    private static int run(Geometries geometries, AccelerationType type, Ray[] rays) {
+        long start = System.nanoTime();
+        geometries.buildAcceleration(type);
+        long buildNanos = System.nanoTime() - start;
+
+        int hits = 0;
+        start = System.nanoTime();
+        for (Ray ray : rays) {
+            if (geometries.findClosestGeoIntersection(ray) != null) hits++;
+        }
+        long traceNanos = System.nanoTime() - start;
+        System.out.printf("  %-4s build %7.1f ms, trace %6.0f ns/ray, %d hits%n",
+                type, buildNanos / 1e6, (double) traceNanos / rays.length, hits);
+        return hits;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of geometries and number of rays
+     */
+    public static void main(String[] args) {
+        int geometryCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rayCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        for (boolean clustered : new boolean[]{false, true}) {
+            Random random = new Random(1);
+            Geometries geometries = createScene(random, geometryCount, clustered);
+            Ray[] rays = new Ray[rayCount];
+            for (int i = 0; i < rayCount; i++) {
+                rays[i] = new Ray(new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), 150),
+                        new Vector(random.nextDouble(-0.2, 0.2), random.nextDouble(-0.2, 0.2), -1));
+            }
+
+            System.out.println(clustered ? "Clustered scene:" : "Uniform scene:");
+            for (int round = 0; round < 3; round++) { // the first rounds warm the JIT up
+                int bvhHits = run(geometries, AccelerationType.BVH, rays);
+                int gridHits = run(geometries, AccelerationType.GRID, rays);
+                if (bvhHits != gridHits) {
+                    throw new IllegalStateException("Structures disagree: " + bvhHits + " != " + gridHits + " hits");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for every {@link geometries.AccelerationType} through
+ * {@link geometries.Geometries#buildAcceleration(AccelerationType)}.
+ */
+public class AccelerationTests {
+
+    /**
+     * Creates a collection of random spheres and triangles and a floor plane.
+     *
+     * @param random the random generator
+     * @return the collection
+     */
+    static Geometries createRandomGeometries(Random random) {
+        Geometries geometries = new Geometries(new Plane(new Point(0, -20, 0), new Vector(0, 1, 0)));
+        for (int i = 0; i < 200; i++) {
+            Point p = new Point(random.nextDouble(-10, 10), random.nextDouble(-10, 10), random.nextDouble(-10, 10));
+            geometries.add(i % 2 == 0
+                    ? new Sphere(random.nextDouble(0.1, 1), p)
+                    : new Triangle(p, p.add(new Vector(random.nextDouble(0.5, 1), 0, 0)), p.add(new Vector(0, random.nextDouble(0.5, 1), 0.2))));
+        }
+        return geometries;
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersection(primitives.Ray)} and
+     * {@link geometries.Geometries#findGeoIntersections(primitives.Ray)} with every acceleration structure.
+     */
+    @Test
+    void testSameIntersectionsAsLinearSearch() {
+        Geometries linear = createRandomGeometries(new Random(1));
+        for (AccelerationType type : AccelerationType.values()) {
+            Random random = new Random(7);
+            Geometries accelerated = createRandomGeometries(new Random(1)).buildAcceleration(type);
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: random rays from outside and inside the collection find the same hits
+            for (int i = 0; i < 500; i++) {
+                Ray ray = new Ray(new Point(random.nextDouble(-15, 15), random.nextDouble(-15, 15), random.nextDouble(-15, 15)),
+                        new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+                GeoPoint expected = linear.findClosestGeoIntersection(ray);
+                GeoPoint actual = accelerated.findClosestGeoIntersection(ray);
+                if (expected == null) assertNull(actual, type + " found a hit the linear search did not");
+                else assertEquals(expected.point, actual.point, "Wrong closest hit with " + type);
+
+                List<GeoPoint> expectedAll = linear.findGeoIntersections(ray);
+                List<GeoPoint> actualAll = accelerated.findGeoIntersections(ray);
+                assertEquals(expectedAll == null ? 0 : expectedAll.size(), actualAll == null ? 0 : actualAll.size(),
+                        "Wrong number of intersections with " + type);
+            }
+
+            // =============== Boundary Values Tests ==================
+            // TC10: rays along an axis, parallel to the walls of boxes and cells
+            for (int i = 0; i < 100; i++) {
+                Ray ray = new Ray(new Point(random.nextDouble(-10, 10), random.nextDouble(-10, 10), 30), new Vector(0, 0, -1));
+                GeoPoint expected = linear.findClosestGeoIntersection(ray);
+                GeoPoint actual = accelerated.findClosestGeoIntersection(ray);
+                assertEquals(expected == null ? null : expected.point, actual == null ? null : actual.point,
+                        "Wrong closest hit with " + type);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark of the parallel binned-SAH build of {@link BVH} over a triangle soup.
+ * <p>
+ * The hierarchy is built with pools of 1, 2, 4... threads up to the number of processors,
+ * reporting the best build time of a few builds and the SAH cost of the built tree.
+ * Run with an optional number of triangles (default 500000).
+ * </p>
+ */
+public class BVHBuildBenchmark {
+    /**
+     * Number of builds per thread count; the best time is reported.
+     */
+    private static final int BUILDS = 3;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of triangles
+     */
+    public static void main(String[] args) {
+        int triangleCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+
+        Random random = new Random(1);
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < triangleCount; i++) {
+            Point p = new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), random.nextDouble(-100, 100));
+            geometries.add(new Triangle(p,
+                    p.add(new Vector(random.nextDouble(0.1, 1), 0, random.nextDouble(-0.5, 0.5))),
+                    p.add(new Vector(0, random.nextDouble(0.1, 1), random.nextDouble(-0.5, 0.5)))));
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double singleThreadMillis = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long best = Long.MAX_VALUE;
+                BVH bvh = null;
+                for (int build = 0; build < BUILDS; build++) {
+                    bvh = new BVH(geometries, geometries.getGeometries(), pool);
+                    best = Math.min(best, bvh.getBuildNanos());
+                }
+                double millis = best / 1e6;
+                if (threads == 1) singleThreadMillis = millis;
+                System.out.printf("%2d threads: %8.1f ms (speedup %.2f), %d nodes, SAH cost %.2f%n",
+                        threads, millis, singleThreadMillis / millis, bvh.getNodeCount(), bvh.getBuildCost());
+            } finally {
+                pool.shutdown();
+            }
+            if (threads == processors) break;
+        }
+    }
+}
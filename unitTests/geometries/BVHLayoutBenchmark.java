@@ -0,0 +1,140 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+
+/**
+ * Benchmark of the flat array layout of {@link BVH} against a tree of node objects.
+ * <p>
+ * Both layouts hold the very same tree: the object tree is copied node by node from the
+ * flat hierarchy, so the benchmark measures the layout and the traversal only.
+ * Run with an optional number of geometries (default 100000) and of rays (default 200000).
+ * </p>
+ */
+public class BVHLayoutBenchmark {
+    /**
+     * Approximate size of a flat node: 6 doubles of bounds and 2 ints of links.
+     */
+    private static final int FLAT_NODE_BYTES = 6 * Double.BYTES + 2 * Integer.BYTES;
+
+    /**
+     * Approximate size of an object node with compressed references: the node object (header
+     * and 4 references) plus its bounding box object (header and 6 doubles).
+     */
+    private static final int OBJECT_NODE_BYTES = (12 + 4 * 4) + (16 + 6 * Double.BYTES);
+
+    /**
+     * A node of the object tree.
+     */
+    private static class Node {
+        final BoundingBox box;
+        Node left;
+        Node right;
+        Intersectable[] geometries;
+
+        Node(BoundingBox box) {
+            this.box = box;
+        }
+    }
+
+    /**
+     * Copies the subtree of a flat hierarchy into node objects.
+     *
+     * @param bvh  the flat hierarchy
+     * @param node the index of the subtree root
+     * @return the root of the copied subtree
+     */
+    private static Node copy(BVH bvh, int node) {
+        Node copy = new Node(bvh.getNodeBox(node));
+        copy.geometries = bvh.getLeafGeometries(node);
+        if (copy.geometries == null) {
+            copy.left = copy(bvh, node + 1);
+            copy.right = copy(bvh, bvh.getSecondChild(node));
+        }
+        return copy;
+    }
+
+    /**
+     * Finds the closest hit in an object subtree, recursively and nearer child first.
+     *
+     * @param node    the subtree root
+     * @param ray     the ray
+     * @param closest the closest hit so far, or null
+     * @return the closest hit including the subtree, or null
+     */
+    private static GeoPoint findClosest(Node node, Ray ray, GeoPoint closest) {
+        double closestDistance = closest == null ? Double.POSITIVE_INFINITY : ray.getP0().distance(closest.point);
+        if (node.geometries != null) {
+            for (Intersectable geometry : node.geometries) {
+                GeoPoint candidate = geometry.findClosestGeoIntersection(ray);
+                if (candidate != null && ray.getP0().distance(candidate.point) < closestDistance) {
+                    closest = candidate;
+                    closestDistance = ray.getP0().distance(candidate.point);
+                }
+            }
+            return closest;
+        }
+
+        double leftDistance = node.left.box.intersect(ray, closestDistance);
+        double rightDistance = node.right.box.intersect(ray, closestDistance);
+        Node near = leftDistance <= rightDistance ? node.left : node.right;
+        Node far = near == node.left ? node.right : node.left;
+        if (Math.min(leftDistance, rightDistance) < closestDistance) closest = findClosest(near, ray, closest);
+        closestDistance = closest == null ? Double.POSITIVE_INFINITY : ray.getP0().distance(closest.point);
+        if (Math.max(leftDistance, rightDistance) < closestDistance) closest = findClosest(far, ray, closest);
+        return closest;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of geometries and number of rays
+     */
+    public static void main(String[] args) {
+        int geometryCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rayCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        Random random = new Random(1);
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < geometryCount; i++) {
+            geometries.add(new Sphere(0.3, new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), random.nextDouble(-100, 100))));
+        }
+        long start = System.nanoTime();
+        geometries.buildBVH();
+        BVH bvh = geometries.getBVH();
+        System.out.printf("Built %d nodes over %d geometries in %.1f ms%n",
+                bvh.getNodeCount(), geometryCount, (System.nanoTime() - start) / 1e6);
+        Node root = copy(bvh, 0);
+
+        Ray[] rays = new Ray[rayCount];
+        for (int i = 0; i < rayCount; i++) {
+            rays[i] = new Ray(new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), 150),
+                    new Vector(random.nextDouble(-0.2, 0.2), random.nextDouble(-0.2, 0.2), -1));
+        }
+
+        for (int round = 0; round < 3; round++) { // the first rounds warm the JIT up
+            int flatHits = 0, objectHits = 0;
+            start = System.nanoTime();
+            for (Ray ray : rays) {
+                if (geometries.findClosestGeoIntersection(ray) != null) flatHits++;
+            }
+            long flatNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Ray ray : rays) {
+                if (findClosest(root, ray, null) != null) objectHits++;
+            }
+            long objectNanos = System.nanoTime() - start;
+
+            if (flatHits != objectHits) {
+                throw new IllegalStateException("Layouts disagree: " + flatHits + " != " + objectHits + " hits");
+            }
+            System.out.printf("Round %d: flat %.0f ns/ray (%d B/node), object tree %.0f ns/ray (~%d B/node), %d hits%n",
+                    round + 1, (double) flatNanos / rayCount, FLAT_NODE_BYTES,
+                    (double) objectNanos / rayCount, OBJECT_NODE_BYTES, flatHits);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link geometries.BVH} through {@link geometries.Geometries#buildBVH()}.
+ */
+public class BVHTests {
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersections(primitives.RayPacket)} with a hierarchy.
+     */
+    @Test
+    void testPacketTraversal() {
+        Random random = new Random(3);
+        Geometries linear = AccelerationTests.createRandomGeometries(new Random(1));
+        Geometries accelerated = AccelerationTests.createRandomGeometries(new Random(1)).buildBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a coherent packet from a common origin finds the same hits as single rays
+        Point origin = new Point(1, 2, 30);
+        Ray[] coherent = new Ray[64];
+        for (int i = 0; i < coherent.length; i++) {
+            coherent[i] = new Ray(origin, new Vector(i % 8 * 0.05 - 0.2, i / 8 * 0.05 - 0.2, -1));
+        }
+        // TC02: an incoherent packet of random rays finds the same hits as single rays
+        Ray[] incoherent = new Ray[64];
+        for (int i = 0; i < incoherent.length; i++) {
+            incoherent[i] = new Ray(new Point(random.nextDouble(-15, 15), random.nextDouble(-15, 15), random.nextDouble(-15, 15)),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+        }
+        // TC03: both packets find the same hits with the scalar intersection path
+        try {
+            for (boolean kernels : new boolean[]{true, false}) {
+                IntersectionKernels.setEnabled(kernels);
+                for (Ray[] rays : List.of(coherent, incoherent)) {
+                    GeoPoint[] actual = accelerated.findClosestGeoIntersections(new RayPacket(rays));
+                    assertEquals(rays.length, actual.length, "Wrong number of results");
+                    for (int i = 0; i < rays.length; i++) {
+                        GeoPoint expected = linear.findClosestGeoIntersection(rays[i]);
+                        assertEquals(expected == null ? null : expected.point, actual[i] == null ? null : actual[i].point,
+                                "Wrong closest hit of ray " + i);
+                    }
+                }
+            }
+        } finally {
+            IntersectionKernels.setEnabled(true);
+        }
+    }
+
+    /**
+     * Test method for culling of {@link geometries.Geometries#buildBVH()}.
+     */
+    @Test
+    void testFewerIntersectionTests() {
+        Geometries accelerated = AccelerationTests.createRandomGeometries(new Random(1)).buildBVH();
+        IntersectionStatistics statistics = new IntersectionStatistics();
+        accelerated.setStatistics(statistics);
+        accelerated.findClosestGeoIntersection(new Ray(new Point(0, 0, 50), new Vector(0, 0, -1)));
+        long tests = statistics.getTests().values().stream().mapToLong(Long::longValue).sum();
+        assertTrue(tests < 50, "The hierarchy should skip most geometries, but tested " + tests);
+        assertTrue(accelerated.getBVH().getNodeCount() > 1, "The hierarchy should have inner nodes");
+    }
+
+    /**
+     * Test method for rebuilding the top level of {@link geometries.Geometries#buildBVH()}.
+     */
+    @Test
+    void testTwoLevelRebuild() {
+        Geometries house = new Geometries(
+                new Triangle(new Point(0, 0, 0), new Point(2, 0, 0), new Point(0, 2, 0)),
+                new Sphere(0.5, new Point(1, 3, 0)));
+        Instance still = new Instance(house, Transform.translation(-10, 0, 0));
+        Instance moving = new Instance(house, Transform.translation(10, 0, 0));
+        Geometries scene = new Geometries(still, moving).buildBVH();
+
+        BVH houseHierarchy = house.getBVH();
+        assertNotNull(houseHierarchy, "The prototype should get its own hierarchy");
+
+        Ray ray = new Ray(new Point(0.5, 0.5, 10), new Vector(0, 0, -1));
+        assertNull(scene.findClosestGeoIntersection(ray), "No instance is at the origin yet");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: moving an instance rebuilds only the top level
+        moving.setTransform(Transform.IDENTITY);
+        scene.buildBVH();
+        assertSame(houseHierarchy, house.getBVH(), "Rebuilding the top level should keep the prototype hierarchy");
+        GeoPoint hit = scene.findClosestGeoIntersection(ray);
+        assertNotNull(hit, "The moved instance should be hit");
+        assertEquals(new Point(0.5, 0.5, 0), hit.point, "Wrong hit of the moved instance");
+
+        // TC02: changing a nested collection rebuilds its hierarchy with the top level
+        house.add(new Sphere(0.5, new Point(0.5, 0.5, 5)));
+        assertNull(house.getBVH(), "Adding geometries should drop the hierarchy");
+        scene.buildBVH();
+        assertNotNull(house.getBVH(), "The changed prototype should be rebuilt");
+        assertEquals(new Point(0.5, 0.5, 5.5), scene.findClosestGeoIntersection(ray).point,
+                "The added geometry should be hit");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#refitAcceleration()}.
+     */
+    @Test
+    void testRefit() {
+        Geometries ball = new Geometries(new Sphere(0.4, Point.ZERO));
+        List<Instance> instances = new ArrayList<>();
+        Geometries scene = new Geometries();
+        for (int i = 0; i < 64; i++) {
+            Instance instance = new Instance(ball, Transform.translation(i % 8, i / 8, 0));
+            instances.add(instance);
+            scene.add(instance);
+        }
+        scene.buildBVH();
+        BVH built = scene.getBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a small motion refits the tree in place
+        instances.get(9).setTransform(Transform.translation(1.2, 1, 0));
+        scene.refitAcceleration();
+        assertSame(built, scene.getBVH(), "A small motion should not rebuild the tree");
+        assertEquals(new Point(1.2, 1, 0.4),
+                scene.findClosestGeoIntersection(new Ray(new Point(1.2, 1, 10), new Vector(0, 0, -1))).point,
+                "The refitted tree should find the moved instance");
+        assertTrue(scene.getBVH().getCost() <= built.getBuildCost() * BVH.REBUILD_THRESHOLD, "The refitted tree should stay good");
+
+        // TC02: scrambling the instances degrades the tree, which is then rebuilt
+        Random random = new Random(3);
+        for (int i = 0; i < 64; i++) {
+            int j = random.nextInt(64);
+            instances.get(i).setTransform(Transform.translation(j % 8 * 3, (63 - j) / 8 * 3, random.nextDouble(-20, 20)));
+        }
+        scene.refitAcceleration();
+        assertNotSame(built, scene.getBVH(), "A degraded tree should be rebuilt");
+        Instance last = instances.get(63);
+        Point center = last.getTransform().transformPoint(Point.ZERO);
+        assertEquals(center.add(new Vector(0, 0, 0.4)),
+                scene.findClosestGeoIntersection(new Ray(center.add(new Vector(0, 0, 1)), new Vector(0, 0, -1))).point,
+                "The rebuilt tree should find the moved instance");
+    }
+
+    /**
+     * Test method for the parallel build of {@link geometries.BVH}.
+     */
+    @Test
+    void testParallelBuild() {
+        Random random = new Random(5);
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 3 * BVH.PARALLEL_THRESHOLD; i++) {
+            geometries.add(new Sphere(0.2, new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), random.nextDouble(-50, 50))));
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the tree does not depend on the number of building threads
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            BVH sequential = new BVH(geometries, geometries.getGeometries(), single);
+            BVH concurrent = new BVH(geometries, geometries.getGeometries(), parallel);
+            assertEquals(sequential.getNodeCount(), concurrent.getNodeCount(), "Parallel build should build the same tree");
+            assertEquals(sequential.getBuildCost(), concurrent.getBuildCost(), "Parallel build should build the same tree");
+            assertTrue(concurrent.getBuildNanos() > 0, "Build time should be measured");
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+
+        // TC02: the built tree finds the same hits as a linear search
+        Geometries linear = new Geometries(geometries.getGeometries().toArray(Intersectable[]::new));
+        geometries.buildBVH();
+        for (int i = 0; i < 200; i++) {
+            Ray ray = new Ray(new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), 60), new Vector(0, 0, -1));
+            GeoPoint expected = linear.findClosestGeoIntersection(ray);
+            GeoPoint actual = geometries.findClosestGeoIntersection(ray);
+            assertEquals(expected == null ? null : expected.point, actual == null ? null : actual.point, "Wrong closest hit");
+        }
+    }
+}
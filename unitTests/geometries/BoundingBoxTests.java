@@ -0,0 +1,74 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link geometries.BoundingBox}.
+ */
+public class BoundingBoxTests {
+
+    private final BoundingBox box = new BoundingBox(-1, -1, -1, 1, 1, 1);
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersect(primitives.Ray, double)}.
+     */
+    @Test
+    void testIntersect() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the ray crosses the box
+        assertEquals(4, box.intersect(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY), 1e-9,
+                "Wrong entry distance");
+        // TC02: the ray misses the box
+        assertEquals(Double.POSITIVE_INFINITY, box.intersect(new Ray(new Point(-5, 3, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "The ray should miss the box");
+        // TC03: the box is behind the ray
+        assertEquals(Double.POSITIVE_INFINITY, box.intersect(new Ray(new Point(5, 0, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "The box behind the ray should be missed");
+        // TC04: the ray starts inside the box
+        assertEquals(0, box.intersect(new Ray(Point.ZERO, new Vector(1, 1, 1)), Double.POSITIVE_INFINITY),
+                "A ray starting inside should enter at its origin");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the box is beyond the distance of interest
+        assertEquals(Double.POSITIVE_INFINITY, box.intersect(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), 3),
+                "A box beyond the maximal distance should be missed");
+        // TC11: the ray crosses a flat box
+        BoundingBox flat = BoundingBox.of(new Triangle(new Point(0, 0, 0), new Point(1, 0, 0), new Point(0, 1, 0)).vertices);
+        assertEquals(5, flat.intersect(new Ray(new Point(0.2, 0.2, 5), new Vector(0, 0, -1)), Double.POSITIVE_INFINITY), 1e-9,
+                "The ray should cross a flat box");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#transform(primitives.Transform)}.
+     */
+    @Test
+    void testTransform() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a rotated box is bounded by a larger box
+        BoundingBox rotated = box.transform(Transform.rotation(new Vector(0, 0, 1), 45));
+        assertEquals(Math.sqrt(2), rotated.getMaxX(), 1e-9, "Wrong extent of a rotated box");
+        assertEquals(1, rotated.getMaxZ(), 1e-9, "Rotation about z should keep the z extent");
+
+        // TC02: union
+        BoundingBox union = box.union(new BoundingBox(2, 2, 2, 3, 3, 3));
+        assertEquals(new BoundingBox(-1, -1, -1, 3, 3, 3), union, "Wrong union of boxes");
+        assertEquals(96, union.getSurfaceArea(), 1e-9, "Wrong surface area");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: unbounded geometries have no box
+        assertNull(new Plane(Point.ZERO, new Vector(0, 0, 1)).getBoundingBox(), "A plane should be unbounded");
+        assertNull(new Geometries(new Sphere(1, Point.ZERO), new Plane(Point.ZERO, new Vector(0, 0, 1))).getBoundingBox(),
+                "A collection with an unbounded geometry should be unbounded");
+        assertEquals(new BoundingBox(-1, -1, -1, 4, 1, 1),
+                new Geometries(new Sphere(1, Point.ZERO), new Sphere(1, new Point(3, 0, 0))).getBoundingBox(),
+                "Wrong box of a collection");
+        assertEquals(BoundingBox.of(List.of(new Point(-1, -1, 0), new Point(1, 1, 2))),
+                new Cylinder(1, new Ray(Point.ZERO, new Vector(0, 0, 1)), 2).getBoundingBox(),
+                "Wrong box of a cylinder");
+    }
+}
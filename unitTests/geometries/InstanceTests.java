@@ -0,0 +1,71 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link geometries.Instance}.
+ */
+public class InstanceTests {
+
+    /**
+     * Test method for {@link geometries.Instance#Instance(Intersectable, primitives.Transform)}.
+     */
+    @Test
+    void testConstructor() {
+        // =============== Boundary Values Tests ==================
+        // TC10: missing prototype or transformation
+        assertThrows(IllegalArgumentException.class, () -> new Instance(null, Transform.IDENTITY), "Null prototype should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> new Instance(new Sphere(1, Point.ZERO), null), "Null transform should be rejected");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#findGeoIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Sphere sphere = (Sphere) new Sphere(1, Point.ZERO).setEmission(new Color(10, 20, 30));
+        Instance instance = new Instance(new Geometries(sphere),
+                Transform.scaling(2, 1, 1).then(Transform.translation(10, 0, 0)));
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the ray crosses the stretched, moved sphere
+        List<GeoPoint> result = instance.findGeoIntersections(ray);
+        assertNotNull(result, "The ray should hit the instance");
+        List<Point> points = result.stream().map(gp -> gp.point).sorted((a, b) -> Double.compare(a.getX(), b.getX())).toList();
+        assertEquals(List.of(new Point(8, 0, 0), new Point(12, 0, 0)), points, "Wrong intersection points in world space");
+
+        // TC02: hit geometries give world normals and the prototype emission and material
+        Geometry hit = result.getFirst().geometry;
+        assertEquals(sphere.getEmission(), hit.getEmission(), "Instance should keep the prototype emission");
+        assertSame(sphere.getMaterial(), hit.getMaterial(), "Instance should keep the prototype material");
+        assertEquals(new Vector(-1, 0, 0), hit.getNormal(new Point(8, 0, 0)), "Wrong normal in world space");
+        Vector normal = hit.getNormal(new Point(10 + 2 * Math.sqrt(0.5), Math.sqrt(0.5), 0));
+        assertEquals(new Vector(1, 2, 0).normalize(), normal, "Normal of a stretched sphere should follow the inverse transpose");
+
+        // TC03: material override
+        Material material = new Material().setKD(0.5);
+        instance.setMaterial(material);
+        assertSame(material, instance.findGeoIntersections(ray).getFirst().geometry.getMaterial(),
+                "Instance material should override the prototype material");
+
+        // TC04: the ray misses the instance, although it crosses the prototype in object space
+        assertNull(instance.findGeoIntersections(new Ray(new Point(0, 0, 5), new Vector(0, 0, -1))),
+                "The ray should miss the moved instance");
+
+        // TC05: nested instances combine their transformations
+        Instance nested = new Instance(instance, Transform.translation(0, 5, 0));
+        List<GeoPoint> nestedResult = nested.findGeoIntersections(new Ray(new Point(0, 5, 0), new Vector(1, 0, 0)));
+        assertEquals(2, nestedResult.size(), "The ray should cross the nested instance twice");
+        assertEquals(new Vector(-1, 0, 0), nestedResult.stream()
+                        .min((a, b) -> Double.compare(a.point.getX(), b.point.getX())).orElseThrow()
+                        .geometry.getNormal(new Point(8, 5, 0)),
+                "Wrong normal of a nested instance");
+    }
+}
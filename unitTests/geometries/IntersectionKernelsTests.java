@@ -0,0 +1,228 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link geometries.IntersectionKernels}.
+ */
+public class IntersectionKernelsTests {
+
+    /**
+     * Creates a random ray from around the origin.
+     *
+     * @param random the random generator
+     * @return the ray
+     */
+    private Ray randomRay(Random random) {
+        return new Ray(new Point(random.nextDouble(-3, 3), random.nextDouble(-3, 3), random.nextDouble(-3, 3)),
+                new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+    }
+
+    /**
+     * Checks that a kernel distance gives the hit point of the scalar intersection.
+     *
+     * @param expected the closest hit of the scalar intersection, or null
+     * @param ray      the ray
+     * @param distance the distance found by the kernel
+     */
+    private void assertSameHit(GeoPoint expected, Ray ray, double distance) {
+        if (expected == null) assertEquals(Double.POSITIVE_INFINITY, distance, "The kernel found a hit the geometry did not");
+        else assertEquals(expected.point, ray.getPoint(distance), "Wrong hit point");
+    }
+
+    /**
+     * Test method for {@link IntersectionKernels#intersectSpheres} and {@link IntersectionKernels#intersectSphere}.
+     */
+    @Test
+    void testSpheres() {
+        Random random = new Random(2);
+        int count = 50;
+        Sphere[] spheres = new Sphere[count];
+        double[] cx = new double[count], cy = new double[count], cz = new double[count], radii = new double[count];
+        for (int i = 0; i < count; i++) {
+            spheres[i] = new Sphere(random.nextDouble(0.2, 2), new Point(random.nextDouble(-5, 5), random.nextDouble(-5, 5), random.nextDouble(-5, 5)));
+            cx[i] = spheres[i].getCenter().getX();
+            cy[i] = spheres[i].getCenter().getY();
+            cz[i] = spheres[i].getCenter().getZ();
+            radii[i] = spheres[i].radius;
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: one ray against many spheres, from outside and inside them
+        double[] distances = new double[count];
+        for (int n = 0; n < 200; n++) {
+            Ray ray = randomRay(random);
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            IntersectionKernels.intersectSpheres(p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ(),
+                    cx, cy, cz, radii, 0, count, distances);
+            for (int i = 0; i < count; i++) {
+                assertSameHit(spheres[i].findClosestGeoIntersection(ray), ray, distances[i]);
+            }
+        }
+
+        // TC02: many rays against one sphere
+        Ray[] rays = new Ray[64];
+        for (int n = 0; n < rays.length; n++) rays[n] = randomRay(random);
+        RayPacket packet = new RayPacket(rays);
+        double[][] coordinates = new double[6][rays.length];
+        for (int n = 0; n < rays.length; n++) {
+            for (int axis = 0; axis < 3; axis++) {
+                coordinates[axis][n] = packet.getOrigin(axis, n);
+                coordinates[axis + 3][n] = packet.getDirection(axis, n);
+            }
+        }
+        distances = new double[rays.length];
+        int[] indices = IntStream.range(0, rays.length).toArray();
+        for (Sphere sphere : spheres) {
+            Point center = sphere.getCenter();
+            IntersectionKernels.intersectSphere(center.getX(), center.getY(), center.getZ(), sphere.radius,
+                    coordinates[0], coordinates[1], coordinates[2], coordinates[3], coordinates[4], coordinates[5],
+                    indices, rays.length, distances);
+            for (int n = 0; n < rays.length; n++) {
+                assertSameHit(sphere.findClosestGeoIntersection(rays[n]), rays[n], distances[n]);
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: ray starting at the center
+        IntersectionKernels.intersectSpheres(0, 0, 0, 0, 0, 1, new double[]{0}, new double[]{0}, new double[]{0},
+                new double[]{2}, 0, 1, distances);
+        assertEquals(2, distances[0], 1e-12, "A ray from the center should hit at the radius");
+        // TC11: ray tangent to the sphere
+        IntersectionKernels.intersectSpheres(-5, 2, 0, 1, 0, 0, new double[]{0}, new double[]{0}, new double[]{0},
+                new double[]{2}, 0, 1, distances);
+        assertEquals(Double.POSITIVE_INFINITY, distances[0], "A tangent ray should not hit");
+    }
+
+    /**
+     * Test method for {@link IntersectionKernels#intersectTriangles} and {@link IntersectionKernels#intersectTriangle}.
+     */
+    @Test
+    void testTriangles() {
+        Random random = new Random(4);
+        int count = 50;
+        Triangle[] triangles = new Triangle[count];
+        double[] coordinates = new double[12 * count];
+        for (int i = 0; i < count; i++) {
+            Point p = new Point(random.nextDouble(-5, 5), random.nextDouble(-5, 5), random.nextDouble(-5, 5));
+            triangles[i] = new Triangle(p, p.add(new Vector(random.nextDouble(1, 3), 0, random.nextDouble(-1, 1))),
+                    p.add(new Vector(0, random.nextDouble(1, 3), random.nextDouble(-1, 1))));
+            System.arraycopy(triangles[i].getCoordinates(), 0, coordinates, 12 * i, 12);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: one ray against many triangles
+        double[] distances = new double[count];
+        for (int n = 0; n < 200; n++) {
+            Ray ray = randomRay(random);
+            Point p0 = ray.getP0();
+            Vector dir = ray.getDir();
+            IntersectionKernels.intersectTriangles(p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ(),
+                    coordinates, 0, count, distances);
+            for (int i = 0; i < count; i++) {
+                assertSameHit(triangles[i].findClosestGeoIntersection(ray), ray, distances[i]);
+            }
+        }
+
+        // TC02: many rays against one triangle
+        Ray[] rays = new Ray[64];
+        for (int n = 0; n < rays.length; n++) rays[n] = randomRay(random);
+        RayPacket packet = new RayPacket(rays);
+        double[][] rayCoordinates = new double[6][rays.length];
+        for (int n = 0; n < rays.length; n++) {
+            for (int axis = 0; axis < 3; axis++) {
+                rayCoordinates[axis][n] = packet.getOrigin(axis, n);
+                rayCoordinates[axis + 3][n] = packet.getDirection(axis, n);
+            }
+        }
+        distances = new double[rays.length];
+        int[] indices = IntStream.range(0, rays.length).toArray();
+        for (int i = 0; i < count; i++) {
+            IntersectionKernels.intersectTriangle(coordinates, 12 * i, rayCoordinates[0], rayCoordinates[1],
+                    rayCoordinates[2], rayCoordinates[3], rayCoordinates[4], rayCoordinates[5], indices, rays.length, distances);
+            for (int n = 0; n < rays.length; n++) {
+                assertSameHit(triangles[i].findClosestGeoIntersection(rays[n]), rays[n], distances[n]);
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: ray parallel to the triangle plane
+        Triangle flat = new Triangle(new Point(0, 0, 0), new Point(2, 0, 0), new Point(0, 2, 0));
+        IntersectionKernels.intersectTriangles(-1, 0.5, 0, 1, 0, 0, flat.getCoordinates(), 0, 1, distances);
+        assertEquals(Double.POSITIVE_INFINITY, distances[0], "A parallel ray should not hit");
+        // TC11: triangle behind the ray
+        IntersectionKernels.intersectTriangles(0.5, 0.5, 1, 0, 0, 1, flat.getCoordinates(), 0, 1, distances);
+        assertEquals(Double.POSITIVE_INFINITY, distances[0], "A triangle behind the ray should not be hit");
+    }
+
+    /**
+     * Test method for {@link IntersectionKernels#setVectorEnabled(boolean)}.
+     */
+    @Test
+    void testVectorKernels() {
+        // =============== Boundary Values Tests ==================
+        // TC10: the Vector API kernels cannot be selected without the incubator module
+        if (!IntersectionKernels.isVectorAvailable()) {
+            assertThrows(IllegalStateException.class, () -> IntersectionKernels.setVectorEnabled(true),
+                    "The Vector API kernels need the incubator module");
+            return;
+        }
+
+        Random random = new Random(6);
+        int count = 53; // not a multiple of the vector length, to run the scalar tail too
+        double[][] spheres = new double[4][count];
+        double[] triangles = new double[12 * count];
+        for (int i = 0; i < count; i++) {
+            Point p = new Point(random.nextDouble(-5, 5), random.nextDouble(-5, 5), random.nextDouble(-5, 5));
+            spheres[0][i] = p.getX();
+            spheres[1][i] = p.getY();
+            spheres[2][i] = p.getZ();
+            spheres[3][i] = random.nextDouble(0.2, 2);
+            Triangle triangle = new Triangle(p, p.add(new Vector(random.nextDouble(1, 3), 0, random.nextDouble(-1, 1))),
+                    p.add(new Vector(0, random.nextDouble(1, 3), random.nextDouble(-1, 1))));
+            System.arraycopy(triangle.getCoordinates(), 0, triangles, 12 * i, 12);
+        }
+        double[][] rays = new double[6][count];
+        for (int n = 0; n < count; n++) {
+            Ray ray = randomRay(random);
+            double[] coordinates = {ray.getP0().getX(), ray.getP0().getY(), ray.getP0().getZ(),
+                    ray.getDir().getX(), ray.getDir().getY(), ray.getDir().getZ()};
+            for (int k = 0; k < 6; k++) rays[k][n] = coordinates[k];
+        }
+        // runs of consecutive rays, intersected as vectors, with gaps, intersected one by one
+        int[] indices = IntStream.range(0, count).filter(n -> n % 17 != 16 && n % 5 != 2 || n < 20).toArray();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the Vector API kernels find the very same distances as the scalar loops
+        boolean vectorEnabled = IntersectionKernels.isVectorEnabled();
+        try {
+            double[][][] distances = new double[2][4][count];
+            for (int mode = 0; mode < 2; mode++) {
+                IntersectionKernels.setVectorEnabled(mode == 0);
+                double[][] d = distances[mode];
+                IntersectionKernels.intersectSpheres(rays[0][0], rays[1][0], rays[2][0], rays[3][0], rays[4][0], rays[5][0],
+                        spheres[0], spheres[1], spheres[2], spheres[3], 2, count, d[0]);
+                IntersectionKernels.intersectSphere(spheres[0][0], spheres[1][0], spheres[2][0], spheres[3][0],
+                        rays[0], rays[1], rays[2], rays[3], rays[4], rays[5], indices, indices.length, d[1]);
+                IntersectionKernels.intersectTriangles(rays[0][0], rays[1][0], rays[2][0], rays[3][0], rays[4][0], rays[5][0],
+                        triangles, 2, count, d[2]);
+                IntersectionKernels.intersectTriangle(triangles, 0, rays[0], rays[1], rays[2], rays[3], rays[4], rays[5],
+                        indices, indices.length, d[3]);
+            }
+            assertArrayEquals(distances[1][0], distances[0][0], "Wrong distances of one ray against many spheres");
+            assertArrayEquals(distances[1][1], distances[0][1], "Wrong distances of many rays against one sphere");
+            assertArrayEquals(distances[1][2], distances[0][2], "Wrong distances of one ray against many triangles");
+            assertArrayEquals(distances[1][3], distances[0][3], "Wrong distances of many rays against one triangle");
+        } finally {
+            IntersectionKernels.setVectorEnabled(vectorEnabled);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmark of the batch kernels of {@link IntersectionKernels} against intersecting every
+ * {@link Sphere} and {@link Triangle} alone.
+ * <p>
+ * Measures one ray against many primitives and many rays against one primitive, the two shapes
+ * of work of the kernels, with the scalar loops and, when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, with the Vector API kernels. The speedups are against
+ * the scalar path. Run with an optional number of primitives and rays (default 1024).
+ * </p>
+ */
+public class KernelBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of primitives and rays
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        Random random = new Random(1);
+
+        Sphere[] spheres = new Sphere[count];
+        Triangle[] triangles = new Triangle[count];
+        double[] cx = new double[count], cy = new double[count], cz = new double[count], radii = new double[count];
+        double[] coordinates = new double[12 * count];
+        for (int i = 0; i < count; i++) {
+            Point p = new Point(random.nextDouble(-10, 10), random.nextDouble(-10, 10), random.nextDouble(-10, 10));
+            spheres[i] = new Sphere(random.nextDouble(0.2, 1), p);
+            cx[i] = p.getX();
+            cy[i] = p.getY();
+            cz[i] = p.getZ();
+            radii[i] = spheres[i].radius;
+            triangles[i] = new Triangle(p, p.add(new Vector(random.nextDouble(1, 2), 0, 0.3)), p.add(new Vector(0, random.nextDouble(1, 2), 0.3)));
+            System.arraycopy(triangles[i].getCoordinates(), 0, coordinates, 12 * i, 12);
+        }
+
+        Ray[] rays = new Ray[count];
+        double[] ox = new double[count], oy = new double[count], oz = new double[count];
+        double[] dx = new double[count], dy = new double[count], dz = new double[count];
+        for (int i = 0; i < count; i++) {
+            rays[i] = new Ray(new Point(random.nextDouble(-1, 1), random.nextDouble(-1, 1), 20),
+                    new Vector(random.nextDouble(-0.5, 0.5), random.nextDouble(-0.5, 0.5), -1));
+            Point p0 = rays[i].getP0();
+            Vector dir = rays[i].getDir();
+            ox[i] = p0.getX();
+            oy[i] = p0.getY();
+            oz[i] = p0.getZ();
+            dx[i] = dir.getX();
+            dy[i] = dir.getY();
+            dz[i] = dir.getZ();
+        }
+
+        double[] distances = new double[count];
+        int[] indices = IntStream.range(0, count).toArray();
+        long tests = (long) count * count;
+        boolean[] vectorModes = IntersectionKernels.isVectorAvailable() ? new boolean[]{false, true} : new boolean[]{false};
+        if (!IntersectionKernels.isVectorAvailable()) {
+            System.out.println("Vector API kernels unavailable: run with --add-modules jdk.incubator.vector to compare them");
+        }
+        for (int round = 0; round < 5; round++) { // the first rounds warm the JIT up
+            int scalarHits = 0;
+
+            // Every primitive alone
+            long start = System.nanoTime();
+            for (Ray ray : rays) {
+                for (Sphere sphere : spheres) if (sphere.findClosestGeoIntersection(ray) != null) scalarHits++;
+            }
+            long sphereScalar = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Ray ray : rays) {
+                for (Triangle triangle : triangles) if (triangle.findClosestGeoIntersection(ray) != null) scalarHits++;
+            }
+            long triangleScalar = System.nanoTime() - start;
+            System.out.printf("Round %d: scalar path spheres %.1f ns/test, triangles %.1f ns/test; hits %d%n",
+                    round + 1, (double) sphereScalar / tests, (double) triangleScalar / tests, scalarHits);
+
+            for (boolean vector : vectorModes) {
+                IntersectionKernels.setVectorEnabled(vector);
+                int kernelHits = 0;
+
+                // One ray against many spheres
+                start = System.nanoTime();
+                for (int r = 0; r < count; r++) {
+                    IntersectionKernels.intersectSpheres(ox[r], oy[r], oz[r], dx[r], dy[r], dz[r], cx, cy, cz, radii, 0, count, distances);
+                    for (double distance : distances) if (distance != Double.POSITIVE_INFINITY) kernelHits++;
+                }
+                long sphereKernel = System.nanoTime() - start;
+
+                // Many rays against one sphere
+                start = System.nanoTime();
+                for (int s = 0; s < count; s++) {
+                    IntersectionKernels.intersectSphere(cx[s], cy[s], cz[s], radii[s], ox, oy, oz, dx, dy, dz, indices, count, distances);
+                    for (double distance : distances) if (distance != Double.POSITIVE_INFINITY) kernelHits++;
+                }
+                long sphereRays = System.nanoTime() - start;
+
+                // One ray against many triangles
+                start = System.nanoTime();
+                for (int r = 0; r < count; r++) {
+                    IntersectionKernels.intersectTriangles(ox[r], oy[r], oz[r], dx[r], dy[r], dz[r], coordinates, 0, count, distances);
+                    for (double distance : distances) if (distance != Double.POSITIVE_INFINITY) kernelHits++;
+                }
+                long triangleKernel = System.nanoTime() - start;
+
+                // Many rays against one triangle
+                start = System.nanoTime();
+                for (int t = 0; t < count; t++) {
+                    IntersectionKernels.intersectTriangle(coordinates, 12 * t, ox, oy, oz, dx, dy, dz, indices, count, distances);
+                    for (double distance : distances) if (distance != Double.POSITIVE_INFINITY) kernelHits++;
+                }
+                long triangleRays = System.nanoTime() - start;
+
+                System.out.printf("         %-6s spheres 1xN %.1f ns/test (%.1fx), Nx1 %.1f (%.1fx); "
+                                + "triangles 1xN %.1f ns/test (%.1fx), Nx1 %.1f (%.1fx); hits %d%n",
+                        vector ? "vector" : "loops", (double) sphereKernel / tests, (double) sphereScalar / sphereKernel,
+                        (double) sphereRays / tests, (double) sphereScalar / sphereRays,
+                        (double) triangleKernel / tests, (double) triangleScalar / triangleKernel,
+                        (double) triangleRays / tests, (double) triangleScalar / triangleRays, kernelHits / 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+
+/**
+ * Benchmark of the storage precisions of a {@link TriangleMesh}.
+ * <p>
+ * Builds the same terrain mesh - a heightfield grid of squares split into two triangles each -
+ * in double and in single precision, measuring the heap used by each after a garbage collection
+ * and the time to trace the same rays through it. Run with an optional number of triangles
+ * (default 10000000) and of rays (default 500000), with a large enough heap, e.g. {@code -Xmx4g}.
+ * </p>
+ */
+public class MeshBenchmark {
+    /**
+     * Measures the heap in use after a garbage collection.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Creates a terrain mesh over the square [0, size]x[0, size].
+     *
+     * @param precision the precision of the mesh
+     * @param size      the number of squares along each edge
+     * @return the mesh, with its hierarchy built
+     */
+    private static TriangleMesh createTerrain(StoragePrecision precision, int size) {
+        Random random = new Random(1);
+        TriangleMesh mesh = new TriangleMesh(precision);
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                mesh.addVertex(x, y, Math.sin(x * 0.01) * Math.cos(y * 0.013) * 50 + random.nextDouble());
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int v = y * (size + 1) + x;
+                mesh.addTriangle(v, v + 1, v + size + 2).addTriangle(v, v + size + 2, v + size + 1);
+            }
+        }
+        mesh.getBoundingBox(); // builds the hierarchy
+        return mesh;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of triangles and rays
+     */
+    public static void main(String[] args) {
+        int triangleCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int rayCount = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int size = (int) Math.sqrt(triangleCount / 2.0);
+
+        Random random = new Random(2);
+        Ray[] rays = new Ray[rayCount];
+        for (int i = 0; i < rayCount; i++) {
+            rays[i] = new Ray(new Point(random.nextDouble(0, size), random.nextDouble(0, size), 200),
+                    new Vector(random.nextDouble(-0.5, 0.5), random.nextDouble(-0.5, 0.5), -1));
+        }
+
+        for (StoragePrecision precision : StoragePrecision.values()) {
+            long base = usedMemory();
+            long start = System.nanoTime();
+            TriangleMesh mesh = createTerrain(precision, size);
+            long buildNanos = System.nanoTime() - start;
+            long bytes = usedMemory() - base;
+            System.out.printf("%s precision: %d triangles, %.0f MB (%.1f bytes/triangle), built in %.0f ms%n",
+                    precision, mesh.size(), bytes / 1e6, (double) bytes / mesh.size(), buildNanos / 1e6);
+
+            for (int round = 0; round < 3; round++) { // the first rounds warm the JIT up
+                int hits = 0;
+                start = System.nanoTime();
+                for (Ray ray : rays) {
+                    if (mesh.findClosestGeoIntersection(ray) != null) hits++;
+                }
+                long nanos = System.nanoTime() - start;
+                System.out.printf("  round %d: %.0f ns/ray, %d hits%n", round + 1, (double) nanos / rayCount, hits);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Point;
+import primitives.Ray;
+import primitives.RayPacket;
+import primitives.Vector;
+
+import java.util.Random;
+
+/**
+ * Benchmark of packet traversal of {@link BVH} against tracing the rays one by one.
+ * <p>
+ * The rays are the primary rays of a pinhole camera, traced in square blocks of pixels as the
+ * camera does with {@code setPacketSize}. Run with an optional number of geometries (default
+ * 100000), image edge length (default 512) and block edge length (default 8).
+ * </p>
+ */
+public class PacketBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of geometries, image size and block size
+     */
+    public static void main(String[] args) {
+        int geometryCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int imageSize = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+        int blockSize = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        Random random = new Random(1);
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < geometryCount; i++) {
+            geometries.add(new Sphere(0.3, new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), random.nextDouble(-100, 100))));
+        }
+        geometries.buildBVH();
+
+        // The primary rays of a camera at z=150 looking down the z-axis, block by block
+        Point origin = new Point(0, 0, 150);
+        int blocksPerRow = (imageSize + blockSize - 1) / blockSize;
+        RayPacket[] packets = new RayPacket[blocksPerRow * blocksPerRow];
+        for (int block = 0; block < packets.length; block++) {
+            int x0 = block % blocksPerRow * blockSize, y0 = block / blocksPerRow * blockSize;
+            int columns = Math.min(blockSize, imageSize - x0), rows = Math.min(blockSize, imageSize - y0);
+            Ray[] rays = new Ray[columns * rows];
+            for (int i = 0; i < rays.length; i++) {
+                double x = (x0 + i % columns + 0.5) / imageSize - 0.5, y = (y0 + i / columns + 0.5) / imageSize - 0.5;
+                rays[i] = new Ray(origin, new Vector(x * 1.2, y * 1.2, -1));
+            }
+            packets[block] = new RayPacket(rays);
+        }
+        int rayCount = imageSize * imageSize;
+
+        for (int round = 0; round < 3; round++) { // the first rounds warm the JIT up
+            int singleHits = 0, packetHits = 0;
+            long start = System.nanoTime();
+            for (RayPacket packet : packets) {
+                for (int i = 0; i < packet.size(); i++) {
+                    if (geometries.findClosestGeoIntersection(packet.getRay(i)) != null) singleHits++;
+                }
+            }
+            long singleNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (RayPacket packet : packets) {
+                for (GeoPoint hit : geometries.findClosestGeoIntersections(packet)) {
+                    if (hit != null) packetHits++;
+                }
+            }
+            long packetNanos = System.nanoTime() - start;
+
+            if (singleHits != packetHits) {
+                throw new IllegalStateException("Traversals disagree: " + singleHits + " != " + packetHits + " hits");
+            }
+            System.out.printf("Round %d: single rays %.0f ns/ray, %dx%d packets %.0f ns/ray (%.2fx), %d hits%n",
+                    round + 1, (double) singleNanos / rayCount, blockSize, blockSize, (double) packetNanos / rayCount,
+                    (double) singleNanos / packetNanos, singleHits);
+        }
+    }
+}
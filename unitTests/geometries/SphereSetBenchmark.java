@@ -0,0 +1,103 @@
+package geometries;
+
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+
+/**
+ * Benchmark of a {@link SphereSet} against a collection of separate {@link Sphere}s with a
+ * bounding volume hierarchy.
+ * <p>
+ * Both hold the same spheres and trace the same rays; the heap used by each is measured after a
+ * garbage collection. Run with an optional number of spheres (default 1000000) and of rays
+ * (default 200000), with a heap large enough for both, e.g. {@code -Xmx4g}.
+ * </p>
+ */
+public class SphereSetBenchmark {
+    /**
+     * Measures the heap in use after a garbage collection.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Traces rays through a geometry.
+     *
+     * @param geometry the geometry
+     * @param rays     the rays
+     * @param name     the name of the geometry for the report
+     * @return the number of rays that hit
+     */
+    private static int trace(Intersectable geometry, Ray[] rays, String name) {
+        int hits = 0;
+        long start = System.nanoTime();
+        for (Ray ray : rays) {
+            if (geometry.findClosestGeoIntersection(ray) != null) hits++;
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("  %s: %.0f ns/ray, %d hits%n", name, (double) nanos / rays.length, hits);
+        return hits;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional number of spheres and rays
+     */
+    public static void main(String[] args) {
+        int sphereCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rayCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        long base = usedMemory();
+        long start = System.nanoTime();
+        Random random = new Random(1);
+        SphereSet set = new SphereSet();
+        int appearance = set.addAppearance(new Material().setKD(0.5), new Color(200, 200, 200));
+        for (int i = 0; i < sphereCount; i++) {
+            set.add(0.2, random.nextDouble(-100, 100), random.nextDouble(-100, 100), random.nextDouble(-100, 100), appearance);
+        }
+        set.getBoundingBox(); // builds the hierarchy of the set
+        long setNanos = System.nanoTime() - start;
+        long setBytes = usedMemory() - base;
+
+        base = usedMemory();
+        start = System.nanoTime();
+        random = new Random(1);
+        Material material = new Material().setKD(0.5);
+        Color emission = new Color(200, 200, 200);
+        Geometries spheres = new Geometries();
+        for (int i = 0; i < sphereCount; i++) {
+            spheres.add(new Sphere(0.2, new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), random.nextDouble(-100, 100)))
+                    .setMaterial(material).setEmission(emission));
+        }
+        spheres.buildBVH();
+        long spheresNanos = System.nanoTime() - start;
+        long spheresBytes = usedMemory() - base;
+
+        System.out.printf("Sphere set: %.1f MB, built in %.0f ms%n", setBytes / 1e6, setNanos / 1e6);
+        System.out.printf("Spheres with BVH: %.1f MB, built in %.0f ms%n", spheresBytes / 1e6, spheresNanos / 1e6);
+
+        Ray[] rays = new Ray[rayCount];
+        for (int i = 0; i < rayCount; i++) {
+            rays[i] = new Ray(new Point(random.nextDouble(-100, 100), random.nextDouble(-100, 100), 150),
+                    new Vector(random.nextDouble(-0.3, 0.3), random.nextDouble(-0.3, 0.3), -1));
+        }
+        for (int round = 0; round < 3; round++) { // the first rounds warm the JIT up
+            System.out.printf("Round %d:%n", round + 1);
+            int setHits = trace(set, rays, "sphere set");
+            int sphereHits = trace(spheres, rays, "spheres with BVH");
+            if (setHits != sphereHits) {
+                throw new IllegalStateException("Geometries disagree: " + setHits + " != " + sphereHits + " hits");
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link geometries.SphereSet}.
+ */
+public class SphereSetTests {
+
+    /**
+     * Test method for {@link geometries.SphereSet#add(double, primitives.Point, int)}.
+     */
+    @Test
+    void testAdd() {
+        SphereSet set = new SphereSet();
+        int appearance = set.addAppearance(new Material(), Color.BLACK);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the set grows past its initial capacity
+        for (int i = 0; i < 100; i++) set.add(1, new Point(i, 0, 0), appearance);
+        assertEquals(100, set.size(), "Wrong number of spheres");
+        assertEquals(new BoundingBox(-1, -1, -1, 100, 1, 1), set.getBoundingBox(), "Wrong bounding box");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: non-positive radius
+        assertThrows(IllegalArgumentException.class, () -> set.add(0, Point.ZERO, appearance), "Zero radius");
+        // TC11: unknown appearance
+        assertThrows(IllegalArgumentException.class, () -> set.add(1, Point.ZERO, appearance + 1), "Unknown appearance");
+        // TC12: null center
+        assertThrows(IllegalArgumentException.class, () -> set.add(1, null, appearance), "Null center");
+        // TC13: null material
+        assertThrows(IllegalArgumentException.class, () -> set.addAppearance(null, Color.BLACK), "Null material");
+        // TC14: an empty set is not intersected and not bounded
+        SphereSet empty = new SphereSet();
+        assertNull(empty.getBoundingBox(), "An empty set has no bounding box");
+        assertNull(empty.findClosestGeoIntersection(new Ray(Point.ZERO, new Vector(1, 0, 0))), "An empty set has no hits");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereSet#findClosestGeoIntersection(primitives.Ray)}
+     * and {@link geometries.SphereSet#findGeoIntersections(primitives.Ray)}.
+     */
+    @Test
+    void testIntersections() {
+        Random random = new Random(5);
+        Material matte = new Material().setKD(0.5), shiny = new Material().setKS(0.8);
+        Color red = new Color(200, 0, 0), blue = new Color(0, 0, 200);
+        SphereSet set = new SphereSet();
+        int[] appearances = {set.addAppearance(matte, red), set.addAppearance(shiny, blue)};
+        Geometries spheres = new Geometries();
+        for (int i = 0; i < 500; i++) {
+            double radius = random.nextDouble(0.1, 1);
+            Point center = new Point(random.nextDouble(-10, 10), random.nextDouble(-10, 10), random.nextDouble(-10, 10));
+            set.add(radius, center, appearances[i % 2]);
+            spheres.add(new Sphere(radius, center).setMaterial(i % 2 == 0 ? matte : shiny).setEmission(i % 2 == 0 ? red : blue));
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest hits, normals and appearances match separate spheres
+        for (int n = 0; n < 300; n++) {
+            Ray ray = new Ray(new Point(random.nextDouble(-12, 12), random.nextDouble(-12, 12), random.nextDouble(-12, 12)),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+            GeoPoint expected = spheres.findClosestGeoIntersection(ray);
+            GeoPoint actual = set.findClosestGeoIntersection(ray);
+            if (expected == null) {
+                assertNull(actual, "The set found a hit the spheres did not");
+                continue;
+            }
+            assertNotNull(actual, "The set missed a hit");
+            assertEquals(expected.point, actual.point, "Wrong closest hit");
+            assertEquals(expected.geometry.getNormal(expected.point), actual.geometry.getNormal(actual.point), "Wrong normal");
+            assertSame(expected.geometry.getMaterial(), actual.geometry.getMaterial(), "Wrong material");
+            assertSame(expected.geometry.getEmission(), actual.geometry.getEmission(), "Wrong emission");
+
+            // TC02: all the hits match separate spheres
+            List<GeoPoint> all = set.findGeoIntersections(ray);
+            assertEquals(spheres.findGeoIntersections(ray).size(), all.size(), "Wrong number of hits");
+        }
+
+        // TC03: the geometry of a hit intersects the hit sphere alone, as the shadow occluder cache does
+        Ray ray = new Ray(new Point(0, 0, 30), new Vector(0, 0, -1));
+        set.add(0.5, new Point(0, 0, 20), appearances[0]);
+        GeoPoint hit = set.findClosestGeoIntersection(ray);
+        assertEquals(new Point(0, 0, 20.5), hit.point, "A sphere added after the build should be hit");
+        assertEquals(2, hit.geometry.findGeoIntersections(ray).size(), "The hit sphere should be hit twice");
+        assertNull(hit.geometry.findGeoIntersections(new Ray(Point.ZERO, new Vector(0, 1, 0))),
+                "The hit sphere alone should not be hit by another ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a set inside the bounding volume hierarchy of a collection
+        Geometries scene = new Geometries(set, new Plane(new Point(0, 0, -50), new Vector(0, 0, 1))).buildBVH();
+        assertEquals(hit.point, scene.findClosestGeoIntersection(ray).point, "Wrong closest hit through the hierarchy");
+    }
+}
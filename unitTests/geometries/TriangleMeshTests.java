@@ -0,0 +1,150 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link geometries.TriangleMesh}.
+ */
+public class TriangleMeshTests {
+
+    /**
+     * Creates a heightfield mesh: a grid of squares over the xy-plane, each split into two triangles.
+     *
+     * @param precision the precision of the mesh
+     * @param size      the number of squares along each edge
+     * @param random    the random generator of the heights
+     * @return the mesh
+     */
+    private static TriangleMesh createTerrain(StoragePrecision precision, int size, Random random) {
+        TriangleMesh mesh = new TriangleMesh(precision);
+        for (int y = 0; y <= size; y++) {
+            for (int x = 0; x <= size; x++) {
+                mesh.addVertex(x * 0.1, y * 0.1, random.nextDouble(0, 0.03));
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int v = y * (size + 1) + x;
+                mesh.addTriangle(v, v + 1, v + size + 2).addTriangle(v, v + size + 2, v + size + 1);
+            }
+        }
+        return mesh;
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#addTriangle(int, int, int)}.
+     */
+    @Test
+    void testAddTriangle() {
+        TriangleMesh mesh = new TriangleMesh();
+        int a = mesh.addVertex(0, 0, 0), b = mesh.addVertex(1, 0, 0), c = mesh.addVertex(0, 1, 0);
+        int d = mesh.addVertex(2, 0, 0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: triangles share their vertices
+        mesh.addTriangle(a, b, c).addTriangle(b, d, c);
+        assertEquals(4, mesh.getVertexCount(), "Wrong number of vertices");
+        assertEquals(2, mesh.size(), "Wrong number of triangles");
+        assertEquals(new BoundingBox(0, 0, 0, 2, 1, 0), mesh.getBoundingBox(), "Wrong bounding box");
+        // TC02: single precision stores the vertices rounded to floats
+        TriangleMesh single = new TriangleMesh(StoragePrecision.SINGLE);
+        single.addVertex(0.1, 0.2, 0.3);
+        assertEquals(new Point((float) 0.1, (float) 0.2, (float) 0.3).toString(), single.getVertex(0).toString(),
+                "The vertex should be rounded to floats");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: vertices in the same line
+        assertThrows(IllegalArgumentException.class, () -> mesh.addTriangle(a, b, d), "Collinear vertices");
+        // TC11: repeated vertex
+        assertThrows(IllegalArgumentException.class, () -> mesh.addTriangle(a, a, c), "Repeated vertex");
+        // TC12: unknown vertex
+        assertThrows(IllegalArgumentException.class, () -> mesh.addTriangle(a, b, 4), "Unknown vertex");
+        // TC13: null precision
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(null), "Null precision");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findClosestGeoIntersection(primitives.Ray)}.
+     */
+    @Test
+    void testIntersections() {
+        Random random = new Random(6);
+        Material material = new Material().setKD(0.4);
+        Color emission = new Color(10, 20, 30);
+        TriangleMesh mesh = new TriangleMesh().setMaterial(material).setEmission(emission);
+        Geometries triangles = new Geometries();
+        for (int i = 0; i < 300; i++) {
+            Point p = new Point(random.nextDouble(-5, 5), random.nextDouble(-5, 5), random.nextDouble(-5, 5));
+            Point q = p.add(new Vector(random.nextDouble(0.5, 2), 0, random.nextDouble(-1, 1)));
+            Point r = p.add(new Vector(0, random.nextDouble(0.5, 2), random.nextDouble(-1, 1)));
+            mesh.addTriangle(mesh.addVertex(p), mesh.addVertex(q), mesh.addVertex(r));
+            triangles.add(new Triangle(p, q, r));
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the closest hits and normals match separate triangles
+        for (int n = 0; n < 300; n++) {
+            Ray ray = new Ray(new Point(random.nextDouble(-6, 6), random.nextDouble(-6, 6), random.nextDouble(-6, 6)),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+            GeoPoint expected = triangles.findClosestGeoIntersection(ray);
+            GeoPoint actual = mesh.findClosestGeoIntersection(ray);
+            if (expected == null) {
+                assertNull(actual, "The mesh found a hit the triangles did not");
+                continue;
+            }
+            assertNotNull(actual, "The mesh missed a hit");
+            assertEquals(0, expected.point.distance(actual.point), 1e-9, "Wrong closest hit");
+            Vector normal = expected.geometry.getNormal(expected.point);
+            assertEquals(1, Math.abs(normal.dotProduct(actual.geometry.getNormal(actual.point))), 1e-9, "Wrong normal");
+            assertSame(material, actual.geometry.getMaterial(), "Wrong material");
+            assertSame(emission, actual.geometry.getEmission(), "Wrong emission");
+        }
+
+        // TC02: single precision finds the same hits up to float rounding
+        TriangleMesh terrain = createTerrain(StoragePrecision.DOUBLE, 40, new Random(7));
+        TriangleMesh singleTerrain = createTerrain(StoragePrecision.SINGLE, 40, new Random(7));
+        for (int n = 0; n < 300; n++) {
+            Ray ray = new Ray(new Point(random.nextDouble(0, 4), random.nextDouble(0, 4), 5),
+                    new Vector(random.nextDouble(-0.2, 0.2), random.nextDouble(-0.2, 0.2), -1));
+            GeoPoint expected = terrain.findClosestGeoIntersection(ray);
+            GeoPoint actual = singleTerrain.findClosestGeoIntersection(ray);
+            if (expected == null || actual == null) {
+                assertSame(expected, actual, "Single precision should find the same hits");
+                continue;
+            }
+            assertEquals(0, expected.point.distance(actual.point), 1e-5, "Wrong single precision hit");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: rays through the shared edges of a single precision mesh (facing the rays) are never lost
+        int size = 40;
+        Point origin = new Point(1.234, 2.345, 5);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                Point vertex = singleTerrain.getVertex(y * (size + 1) + x);
+                // The diagonal of the square, and its bottom and left edges unless they are on the border
+                for (int other : new int[]{(y + 1) * (size + 1) + x + 1, y > 0 ? y * (size + 1) + x + 1 : -1,
+                        x > 0 ? (y + 1) * (size + 1) + x : -1}) {
+                    if (other < 0) continue;
+                    Point end = singleTerrain.getVertex(other);
+                    Point middle = new Point((vertex.getX() + end.getX()) / 2, (vertex.getY() + end.getY()) / 2,
+                            (vertex.getZ() + end.getZ()) / 2);
+                    Ray ray = new Ray(origin, middle.subtract(origin));
+                    assertNotNull(singleTerrain.findClosestGeoIntersection(ray), "The ray leaked through the mesh at " + middle);
+                }
+            }
+        }
+        // TC11: the geometry of a hit intersects the hit triangle alone
+        Ray ray = new Ray(new Point(2, 2, 5), new Vector(0, 0, -1));
+        GeoPoint hit = terrain.findClosestGeoIntersection(ray);
+        assertEquals(1, hit.geometry.findGeoIntersections(ray).size(), "The hit triangle should be hit once");
+        assertNull(hit.geometry.findGeoIntersections(new Ray(new Point(0.05, 3.95, 5), new Vector(0, 0, -1))),
+                "The hit triangle alone should not be hit by another ray");
+    }
+}
@@ -0,0 +1,119 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link geometries.UniformGrid} through {@link geometries.Geometries#buildAcceleration(AccelerationType)}.
+ */
+public class UniformGridTests {
+
+    /**
+     * Test method for the cells of {@link geometries.UniformGrid}.
+     */
+    @Test
+    void testCells() {
+        Random random = new Random(7);
+        Geometries accelerated = AccelerationTests.createRandomGeometries(new Random(1))
+                .buildAcceleration(AccelerationType.GRID);
+        UniformGrid grid = (UniformGrid) accelerated.getAcceleration();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the grid is divided along every axis
+        assertTrue(grid.getResolution(0) > 1 && grid.getResolution(1) > 1 && grid.getResolution(2) > 1,
+                "The grid should have cells along every axis");
+
+        // TC02: geometries spanning several cells are referenced by each of them
+        assertTrue(grid.getReferenceCount() > accelerated.getGeometries().size(), "Geometries should span several cells");
+
+        // TC03: a geometry spanning several cells is reported once
+        for (int i = 0; i < 500; i++) {
+            Ray ray = new Ray(new Point(random.nextDouble(-15, 15), random.nextDouble(-15, 15), random.nextDouble(-15, 15)),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(-1, 1) + 1e-3));
+            List<GeoPoint> hits = accelerated.findGeoIntersections(ray);
+            if (hits != null) {
+                assertEquals(hits.size(), new HashSet<>(hits).size(), "A geometry spanning cells was hit twice");
+            }
+        }
+    }
+
+    /**
+     * Test method for a grid over geometries in a plane.
+     */
+    @Test
+    void testFlatGrid() {
+        Geometries linear = new Geometries();
+        Geometries accelerated = new Geometries();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                Triangle triangle = new Triangle(new Point(x, y, 0), new Point(x + 1, y, 0), new Point(x, y + 1, 0));
+                linear.add(triangle);
+                accelerated.add(triangle);
+            }
+        }
+        accelerated.buildAcceleration(AccelerationType.GRID);
+        UniformGrid grid = (UniformGrid) accelerated.getAcceleration();
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a flat collection gets a single layer of cells
+        assertEquals(1, grid.getResolution(2), "A flat grid should have a single layer of cells");
+        assertTrue(grid.getResolution(0) > 1, "A flat grid should be divided along the plane");
+
+        // TC11: rays through and along the plane find the same hits
+        Ray[] rays = {
+                new Ray(new Point(3.2, 4.1, 5), new Vector(0, 0, -1)),
+                new Ray(new Point(3.2, 4.1, 5), new Vector(0.3, 0.1, -1)),
+                new Ray(new Point(-1, 0.3, 0), new Vector(1, 0, 0))};
+        for (Ray ray : rays) {
+            List<GeoPoint> expected = linear.findGeoIntersections(ray);
+            List<GeoPoint> actual = accelerated.findGeoIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "Wrong number of intersections");
+            GeoPoint expectedClosest = linear.findClosestGeoIntersection(ray);
+            GeoPoint actualClosest = accelerated.findClosestGeoIntersection(ray);
+            assertEquals(expectedClosest == null ? null : expectedClosest.point,
+                    actualClosest == null ? null : actualClosest.point, "Wrong closest hit");
+        }
+    }
+
+    /**
+     * Test method for {@link scene.Scene#buildAcceleration()}.
+     */
+    @Test
+    void testSceneSelection() {
+        Geometries model = new Geometries(new Sphere(1, new Point(0, 0, 0)), new Sphere(1, new Point(3, 0, 0)));
+        Scene scene = new Scene("Grid")
+                .setGeometries(new Geometries(new Instance(model, Transform.translation(0, 0, -10))));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a scene builds a hierarchy by default
+        scene.buildAcceleration();
+        assertInstanceOf(BVH.class, scene.geometries.getAcceleration(), "Scenes should build a hierarchy by default");
+
+        // TC02: a scene set to a grid builds grids, for the nested models too
+        model.add(new Sphere(1, new Point(6, 0, 0)));
+        scene.setAcceleration(AccelerationType.GRID).buildAcceleration();
+        assertInstanceOf(UniformGrid.class, scene.geometries.getAcceleration(), "The scene should build a grid");
+        assertInstanceOf(UniformGrid.class, model.getAcceleration(), "Changed models should get grids");
+        assertEquals(new Point(6, 0, -9), scene.geometries.findClosestGeoIntersection(
+                new Ray(new Point(6, 0, 0), new Vector(0, 0, -1))).point, "Wrong closest hit");
+
+        // TC03: refitting a grid rebuilds it
+        AccelerationStructure grid = scene.geometries.getAcceleration();
+        scene.geometries.refitAcceleration();
+        assertNotSame(grid, scene.geometries.getAcceleration(), "A refitted grid should be rebuilt");
+        assertInstanceOf(UniformGrid.class, scene.geometries.getAcceleration(), "A rebuilt grid should stay a grid");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no acceleration kind
+        assertThrows(IllegalArgumentException.class, () -> scene.setAcceleration(null), "Null acceleration kind");
+    }
+}
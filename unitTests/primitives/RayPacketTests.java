@@ -0,0 +1,64 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link primitives.RayPacket}.
+ */
+public class RayPacketTests {
+
+    /**
+     * Test method for {@link primitives.RayPacket#RayPacket(primitives.Ray...)}.
+     */
+    @Test
+    void testConstructor() {
+        Ray ray = new Ray(new Point(1, 2, 3), new Vector(0, 0, -2));
+        RayPacket packet = new RayPacket(ray);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the coordinates are laid out per axis
+        assertEquals(1, packet.size(), "Wrong packet size");
+        assertSame(ray, packet.getRay(0), "Wrong ray");
+        assertEquals(2, packet.getOrigin(1, 0), "Wrong origin coordinate");
+        assertEquals(-1, packet.getInverseDirection(2, 0), "Wrong inverse direction coordinate");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: empty packet
+        assertThrows(IllegalArgumentException.class, RayPacket::new, "Empty packet");
+        // TC11: null ray
+        assertThrows(IllegalArgumentException.class, () -> new RayPacket(ray, null), "Null ray");
+    }
+
+    /**
+     * Test method for {@link primitives.RayPacket#missesBox(double, double, double, double, double, double, double)}.
+     */
+    @Test
+    void testMissesBox() {
+        RayPacket packet = new RayPacket(
+                new Ray(Point.ZERO, new Vector(0.1, 0.1, -1)),
+                new Ray(Point.ZERO, new Vector(0.2, 0.1, -1)),
+                new Ray(Point.ZERO, new Vector(0.1, 0.2, -1)));
+        assertTrue(packet.isCoherent(), "Rays into the same octant should be coherent");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: box ahead of the packet
+        assertFalse(packet.missesBox(0, 0, -11, 3, 3, -9, Double.POSITIVE_INFINITY), "The packet hits the box");
+        // TC02: box beside the packet
+        assertTrue(packet.missesBox(-5, -5, -11, -3, -3, -9, Double.POSITIVE_INFINITY), "The packet misses the box");
+        // TC03: box behind the packet
+        assertTrue(packet.missesBox(0, 0, 9, 3, 3, 11, Double.POSITIVE_INFINITY), "The box is behind the packet");
+        // TC04: box beyond the distance of interest
+        assertTrue(packet.missesBox(0, 0, -11, 3, 3, -9, 5), "The box is too far");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: rays parallel to an axis are not coherent, and the test never culls
+        RayPacket parallel = new RayPacket(new Ray(Point.ZERO, new Vector(0, 0, -1)));
+        assertFalse(parallel.isCoherent(), "Rays parallel to an axis should not be coherent");
+        assertFalse(parallel.missesBox(-5, -5, -11, -3, -3, -9, Double.POSITIVE_INFINITY), "Incoherent packets are not culled");
+        // TC11: rays into different octants are not coherent
+        assertFalse(new RayPacket(new Ray(Point.ZERO, new Vector(1, 1, -1)), new Ray(Point.ZERO, new Vector(-1, 1, -1)))
+                .isCoherent(), "Rays into different octants should not be coherent");
+    }
+}
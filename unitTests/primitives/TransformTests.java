@@ -0,0 +1,71 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link primitives.Transform}.
+ */
+public class TransformTests {
+
+    /**
+     * Test method for {@link primitives.Transform#transformPoint(Point)}.
+     */
+    @Test
+    void testTransformPoint() {
+        Point p = new Point(1, 2, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: translation
+        assertEquals(new Point(2, 4, 6), Transform.translation(1, 2, 3).transformPoint(p), "Wrong translated point");
+        // TC02: scaling
+        assertEquals(new Point(2, 6, 12), Transform.scaling(2, 3, 4).transformPoint(p), "Wrong scaled point");
+        // TC03: rotation of 90 degrees about the z-axis
+        assertEquals(new Point(-2, 1, 3), Transform.rotation(new Vector(0, 0, 1), 90).transformPoint(p),
+                "Wrong rotated point");
+        // TC04: combination applies the transformations in order
+        assertEquals(new Point(3, 5, 7), Transform.scaling(2).then(Transform.translation(1, 1, 1)).transformPoint(p),
+                "Wrong point of a combined transformation");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: identity
+        assertEquals(p, Transform.IDENTITY.transformPoint(p), "Identity should keep the point");
+        // TC11: zero scaling is not invertible
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1), "Zero scaling should be rejected");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#inverseTransformPoint(Point)}.
+     */
+    @Test
+    void testInverse() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a combined transformation is undone by its inverse
+        Transform transform = Transform.rotation(new Vector(1, 1, 0), 37)
+                .then(Transform.scaling(2, 3, 0.5))
+                .then(Transform.translation(-4, 5, 6));
+        Point p = new Point(1, -2, 3);
+        assertEquals(p, transform.inverseTransformPoint(transform.transformPoint(p)), "Inverse should undo the transformation");
+        assertEquals(p, transform.getInverse().transformPoint(transform.transformPoint(p)), "Wrong inverse transformation");
+
+        // TC02: vectors are not translated
+        Vector v = new Vector(0, 0, 1);
+        assertEquals(v, Transform.translation(1, 2, 3).transformVector(v), "Vectors should not be translated");
+        assertEquals(v, transform.inverseTransformVector(transform.transformVector(v)), "Inverse should undo the vector transformation");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#transformNormal(Vector)}.
+     */
+    @Test
+    void testTransformNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the normal of a plane stays perpendicular to the plane after non-uniform scaling
+        Transform transform = Transform.scaling(4, 1, 1);
+        Vector normal = transform.transformNormal(new Vector(1, 1, 0).normalize());
+        Vector tangent = transform.transformVector(new Vector(1, -1, 0));
+        assertEquals(0, normal.dotProduct(tangent), 1e-10, "Transformed normal should stay perpendicular to the surface");
+        assertEquals(1, normal.length(), 1e-10, "Transformed normal should be normalized");
+    }
+}
@@ -0,0 +1,74 @@
+package renderer;
+
+import geometries.Sphere;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link renderer.BatchRenderer}.
+ */
+public class BatchRendererTests {
+
+    /**
+     * Creates a camera builder of a view of the scene, looking at the origin.
+     *
+     * @param location the location of the camera
+     * @return the builder, with an image writer but without a ray tracer
+     */
+    private static Camera.Builder createView(Point location) {
+        Vector vTo = Point.ZERO.subtract(location).normalize();
+        Vector vUp = vTo.crossProduct(new Vector(0, 1, 0)).crossProduct(vTo).normalize();
+        return Camera.getBuilder()
+                .setLocation(location)
+                .setDirection(vTo, vUp)
+                .setVPDistance(10).setVPSize(12, 8)
+                .setTileSize(8)
+                .setImageWriter(new ImageWriter("Test", 30, 20));
+    }
+
+    /**
+     * Test method for {@link renderer.BatchRenderer#render()}.
+     */
+    @Test
+    void testRender() {
+        Scene scene = new Scene("Test");
+        for (int i = 0; i < 10; i++) {
+            scene.geometries.add(new Sphere(1 + i % 3, new Point(i % 5 * 4 - 8, i / 5 * 4 - 2, -i)).setEmission(new Color(100, 50, 20))
+                    .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20)));
+        }
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 10, 30)));
+        List<Point> locations = List.of(new Point(0, 0, 40), new Point(30, 5, 25), new Point(-20, 15, 30), new Point(5, -30, 25));
+
+        BatchRenderer batch = new BatchRenderer(scene).setMultithreading(3);
+        for (Point location : locations) batch.addView(createView(location));
+        assertFalse(scene.geometries.hasAcceleration(), "The scene should not be prepared before rendering");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every view renders as it does alone, and the scene is prepared once
+        batch.render();
+        assertTrue(scene.geometries.hasAcceleration(), "The scene should be prepared for the views");
+        for (int view = 0; view < locations.size(); view++) {
+            ImageWriter expected = createView(locations.get(view)).setRayTracer(new SimpleRayTracer(scene)).build()
+                    .generateRenderedImage().getImageWriter();
+            ImageWriter actual = batch.getCameras().get(view).getImageWriter();
+            for (int y = 0; y < 20; y++) {
+                for (int x = 0; x < 30; x++) {
+                    assertEquals(expected.getPixelColor(x, y).getColor(), actual.getPixelColor(x, y).getColor(),
+                            "View " + view + " differs at (" + x + "," + y + ")");
+                }
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: invalid arguments
+        assertThrows(IllegalArgumentException.class, () -> batch.setMultithreading(0), "No threads");
+        assertThrows(IllegalArgumentException.class, () -> batch.addView(null), "Null view");
+        assertThrows(IllegalArgumentException.class, () -> new BatchRenderer((Scene) null), "Null scene");
+    }
+}
@@ -1,12 +1,22 @@
 package renderer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Geometries;
+import geometries.Instance;
+import geometries.SphereSet;
+import geometries.TriangleMesh;
+import geometries.Sphere;
+import lighting.PointLight;
 import primitives.*;
 import scene.Scene;
 
+import java.util.List;
+
 /**
  * Testing Camera Class
  *
@@ -59,4 +69,209 @@ class CameraTests {
 
     }
 
+    /**
+     * Test method for {@link renderer.Tile#split(int, int, int)}.
+     */
+    @Test
+    void testTileSplit() {
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: image size is not a multiple of the tile size - edge tiles are cropped
+        List<Tile> tiles = Tile.split(50, 30, 16);
+        assertEquals(8, tiles.size(), "Wrong number of tiles");
+        assertEquals(new Tile(48, 16, 2, 14), tiles.getLast(), "Wrong edge tile");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: tile larger than the image
+        assertEquals(List.of(new Tile(0, 0, 5, 3)), Tile.split(5, 3, 16), "Wrong single tile");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#generateRenderedImage()} with several threads
+     * on a non-square image.
+     */
+    @Test
+    void testGenerateRenderedImageMultithreading() {
+        Scene scene = new Scene("Test");
+        scene.geometries.add(new Sphere(4, new Point(0, 0, -20)).setEmission(new Color(100, 50, 20))
+                .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20)));
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 10, 0)));
+
+        Camera.Builder builder = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(12, 8)
+                .setTileSize(7);
+        ImageWriter single = builder.setImageWriter(new ImageWriter("Test", 30, 20)).build()
+                .generateRenderedImage().getImageWriter();
+        ImageWriter multi = builder.setImageWriter(new ImageWriter("Test", 30, 20)).setMultithreading(4).build()
+                .generateRenderedImage().getImageWriter();
+
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 30; x++) {
+                assertEquals(single.getPixelColor(x, y).getColor(), multi.getPixelColor(x, y).getColor(),
+                        "Multithreaded rendering differs at (" + x + "," + y + ")");
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#generateRenderedImage()} with packets of primary rays.
+     */
+    @Test
+    void testGenerateRenderedImagePackets() {
+        Scene scene = new Scene("Test");
+        Geometries spheres = new Geometries();
+        for (int i = 0; i < 20; i++) {
+            spheres.add(new Sphere(1 + i % 3, new Point(i % 5 * 4 - 8, i / 5 * 3 - 5, -20 - i)).setEmission(new Color(100, 50, 20))
+                    .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20)));
+        }
+        scene.geometries.add(spheres);
+        scene.geometries.buildBVH();
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 10, 0)));
+
+        Camera.Builder builder = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(12, 8)
+                .setTileSize(16);
+        ImageWriter single = builder.setImageWriter(new ImageWriter("Test", 30, 20)).build()
+                .generateRenderedImage().getImageWriter();
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: packets of 8x8 rays, cropped at the tile and image edges, render the same image
+        ImageWriter packets = builder.setImageWriter(new ImageWriter("Test", 30, 20)).setPacketSize(8).build()
+                .generateRenderedImage().getImageWriter();
+
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 30; x++) {
+                assertEquals(single.getPixelColor(x, y).getColor(), packets.getPixelColor(x, y).getColor(),
+                        "Packet rendering differs at (" + x + "," + y + ")");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: packets must have pixels
+        assertThrows(IllegalArgumentException.class, () -> builder.setPacketSize(0), "Zero packet size");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderEdits(Object...)}.
+     */
+    @Test
+    void testRenderEdits() {
+        Scene scene = new Scene("Test");
+        Sphere[] spheres = new Sphere[4];
+        for (int i = 0; i < spheres.length; i++) {
+            spheres[i] = (Sphere) new Sphere(1.5, new Point(i * 8 - 12, i % 2 * 6 - 3, -20)).setEmission(new Color(100, 50, 20))
+                    .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20));
+            scene.geometries.add(spheres[i]);
+        }
+        Sphere prototype = new Sphere(1, Point.ZERO);
+        Instance instance = new Instance(prototype, Transform.translation(0, 0, -20));
+        scene.geometries.add(instance);
+        PointLight light = new PointLight(new Color(300, 300, 300), new Point(0, 0, 0));
+        scene.lights.add(light);
+
+        Camera.Builder builder = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(18, 12)
+                .setTileSize(6)
+                .setMultithreading(2);
+        Camera camera = builder.setImageWriter(new ImageWriter("Test", 60, 40)).enableIncrementalRendering().build()
+                .generateRenderedImage();
+        int tiles = camera.getTiles().size();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a new material renders again only the tiles seeing the geometry, as a full render
+        spheres[1].setMaterial(new Material().setKD(0.2).setKS(0.8).setShininess(50));
+        int dirty = camera.getDirtyTiles(spheres[1]).size();
+        assertTrue(dirty > 0 && dirty < tiles / 4, "Wrong number of tiles seeing the geometry: " + dirty);
+        assertImage(builder, camera.renderEdits(spheres[1]).getImageWriter());
+
+        // TC02: a new emission of the prototype of an instance renders again the tiles of the instance
+        prototype.setEmission(new Color(20, 80, 40));
+        dirty = camera.getDirtyTiles(prototype).size();
+        assertTrue(dirty > 0 && dirty < tiles / 4, "Wrong number of tiles seeing the instance: " + dirty);
+        assertImage(builder, camera.renderEdits(prototype).getImageWriter());
+
+        // TC03: a light attenuation renders again the tiles of every lit geometry, but not the background
+        light.setKL(0.05);
+        dirty = camera.getDirtyTiles(light).size();
+        assertTrue(dirty > 0 && dirty < tiles, "Wrong number of lit tiles: " + dirty);
+        assertImage(builder, camera.renderEdits(light).getImageWriter());
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an object influencing no tile renders nothing
+        assertEquals(0, camera.getDirtyTiles(new Sphere(1, Point.ZERO)).size(), "Unseen geometry should render nothing");
+
+        // TC11: incremental rendering must be enabled
+        Camera full = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(18, 12)
+                .setImageWriter(new ImageWriter("Test", 60, 40)).build();
+        assertThrows(IllegalStateException.class, () -> full.renderEdits(light), "Incremental rendering not enabled");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderEdits(Object...)} of meshes and sphere sets.
+     */
+    @Test
+    void testRenderEditsPrimitives() {
+        Scene scene = new Scene("Test");
+        TriangleMesh mesh = new TriangleMesh().setEmission(new Color(100, 50, 20))
+                .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20));
+        mesh.addTriangle(mesh.addVertex(-14, -4, -20), mesh.addVertex(-6, -4, -20), mesh.addVertex(-10, 3, -20));
+        Material setMaterial = new Material().setKD(0.5).setKS(0.5).setShininess(20);
+        SphereSet set = new SphereSet();
+        int appearance = set.addAppearance(setMaterial, new Color(20, 50, 100));
+        set.add(1.5, new Point(8, 0, -20), appearance).add(1.5, new Point(12, 0, -20), appearance);
+        scene.geometries.add(mesh, set);
+        scene.lights.add(new PointLight(new Color(300, 300, 300), Point.ZERO));
+
+        Camera.Builder builder = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(18, 12)
+                .setTileSize(6);
+        Camera camera = builder.setImageWriter(new ImageWriter("Test", 60, 40)).enableIncrementalRendering().build()
+                .generateRenderedImage();
+        int tiles = camera.getTiles().size();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a new emission of a mesh renders again the tiles of its triangles
+        mesh.setEmission(new Color(20, 100, 20));
+        int dirty = camera.getDirtyTiles(mesh).size();
+        assertTrue(dirty > 0 && dirty < tiles / 4, "Wrong number of tiles seeing the mesh: " + dirty);
+        assertImage(builder, camera.renderEdits(mesh).getImageWriter());
+
+        // TC02: a changed material of a sphere set renders again the tiles of its spheres
+        setMaterial.setKD(0.9);
+        dirty = camera.getDirtyTiles(set).size();
+        assertTrue(dirty > 0 && dirty < tiles / 4, "Wrong number of tiles seeing the sphere set: " + dirty);
+        assertEquals(dirty, camera.getDirtyTiles(setMaterial).size(), "The material should influence the tiles of the set");
+        assertImage(builder, camera.renderEdits(set).getImageWriter());
+    }
+
+    /**
+     * Asserts that an image equals a full render of the current scene.
+     *
+     * @param builder the builder of the camera rendering the scene
+     * @param actual  the image to check
+     */
+    private static void assertImage(Camera.Builder builder, ImageWriter actual) {
+        ImageWriter expected = builder.setImageWriter(new ImageWriter("Test", 60, 40)).build()
+                .generateRenderedImage().getImageWriter();
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 60; x++) {
+                assertEquals(expected.getPixelColor(x, y).getColor(), actual.getPixelColor(x, y).getColor(),
+                        "Incremental render differs at (" + x + "," + y + ")");
+            }
+        }
+    }
 }
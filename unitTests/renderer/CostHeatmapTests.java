@@ -0,0 +1,78 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.DirectionalLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CostHeatmap}.
+ */
+class CostHeatmapTests {
+
+    /**
+     * Test method for {@link CostHeatmap#falseColor(double)}.
+     */
+    @Test
+    void testFalseColor() {
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: middle of the scale is green
+        assertEquals(new java.awt.Color(0, 200, 0), CostHeatmap.falseColor(0.5).getColor(), "Wrong middle color");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: cheapest cost is dark blue
+        assertEquals(new java.awt.Color(0, 0, 64), CostHeatmap.falseColor(0).getColor(), "Wrong lowest color");
+        // BV02: highest cost is red
+        assertEquals(new java.awt.Color(255, 0, 0), CostHeatmap.falseColor(1).getColor(), "Wrong highest color");
+        // BV03: costs above the scale are clamped
+        assertEquals(new java.awt.Color(255, 0, 0), CostHeatmap.falseColor(3).getColor(), "Costs above the scale should be clamped");
+    }
+
+    /**
+     * Test method for the ray-count heatmap of {@link Camera#generateRenderedImage()}.
+     */
+    @Test
+    void testRaysHeatmap() {
+        // A reflective sphere in front of an empty background - its pixels trace more rays
+        Scene scene = new Scene("Heatmap");
+        scene.geometries.add(
+                new Sphere(30, new Point(0, 0, -50))
+                        .setEmission(new Color(50, 10, 10))
+                        .setMaterial(new Material().setKD(0.5).setKR(0.5)),
+                new Plane(new Point(0, 0, 150), new Vector(0, 0, 1)).setEmission(new Color(20, 20, 20)));
+        scene.lights.add(new DirectionalLight(new Color(200, 200, 200), new Vector(1, 1, -1)));
+
+        ImageWriter heatmapWriter = new ImageWriter("heatmap", 21, 21);
+        Camera camera = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 100))
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(100, 100)
+                .setImageWriter(new ImageWriter("heatmapImage", 21, 21))
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setCostHeatmap(heatmapWriter, CostHeatmap.Metric.RAYS)
+                .build()
+                .generateRenderedImage();
+
+        CostHeatmap heatmap = camera.getHeatmap();
+        assertEquals(1, heatmap.getCost(0, 0), "A background pixel should trace only its primary ray");
+        // primary, shadow and reflected rays
+        assertEquals(3, heatmap.getCost(10, 10), "Wrong number of rays of the reflective sphere center pixel");
+        assertEquals(CostHeatmap.falseColor(1 / 3d).getColor(), heatmapWriter.getPixelColor(0, 0).getColor(),
+                "A background pixel should cost a third of the scale");
+        assertEquals(new java.awt.Color(255, 0, 0), heatmapWriter.getPixelColor(10, 10).getColor(),
+                "The most expensive pixel should be red");
+
+        // the heatmap must match the image resolution
+        assertThrows(IllegalArgumentException.class, () -> Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(1).setVPSize(1, 1)
+                .setImageWriter(new ImageWriter("heatmapImage", 2, 2))
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setCostHeatmap(new ImageWriter("heatmap", 3, 2), CostHeatmap.Metric.TIME)
+                .build(), "Heatmap of a different resolution should be rejected");
+    }
+}
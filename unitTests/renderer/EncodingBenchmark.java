@@ -0,0 +1,59 @@
+package renderer;
+
+import primitives.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Benchmark of the PNG encoding of an {@link ImageWriter} against {@link ImageIO}.
+ * <p>
+ * Fills an 8K frame (7680x4320) with smooth gradients and some noise, like a rendered image,
+ * and measures the time and file size of writing it with ImageIO on one thread and with the
+ * encoder of the writer at every compression level, on the calling thread and on a thread per
+ * core. Run with an optional image width and height.
+ * </p>
+ */
+public class EncodingBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional image width and height
+     * @throws IOException if an image cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 7680;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 4320;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        Random random = new Random(1);
+        ImageWriter imageWriter = new ImageWriter("Benchmark/encoding", width, height);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Color color = new Color(255.0 * x / width, 255.0 * y / height, 128 + random.nextInt(16));
+                imageWriter.setPixelColor(x, y, color);
+                image.setRGB(x, y, color.getColor().getRGB());
+            }
+        }
+
+        File file = new File(System.getProperty("user.dir") + "/images/Benchmark/encoding.png");
+        for (int round = 0; round < 2; round++) { // the first round warms the JIT up
+            System.out.printf("Round %d (%d cores):%n", round + 1, cores);
+            long start = System.nanoTime();
+            ImageIO.write(image, "png", file);
+            System.out.printf("  ImageIO: %.0f ms, %.1f MB%n", (System.nanoTime() - start) / 1e6, file.length() / 1e6);
+            for (PngCompression compression : PngCompression.values()) {
+                for (int threads : new int[]{0, cores}) {
+                    start = System.nanoTime();
+                    imageWriter.setCompression(compression).setEncodingThreads(threads).saveImageToFile();
+                    System.out.printf("  %s on %d threads: %.0f ms, %.1f MB%n", compression, threads,
+                            (System.nanoTime() - start) / 1e6, file.length() / 1e6);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package renderer;
+
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link renderer.GeometryBuffer}.
+ */
+public class GeometryBufferTests {
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setGeometryBuffer(GeometryBuffer)}.
+     *
+     * @throws IOException if the written files cannot be read
+     */
+    @Test
+    void testRecord() throws IOException {
+        Scene scene = new Scene("Test");
+        scene.geometries.add(new Sphere(4, new Point(0, 0, -20)).setEmission(new Color(100, 50, 20)));
+        GeometryBuffer geometryBuffer = new GeometryBuffer("Base/test_geometry", 21, 11);
+        Camera.Builder builder = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(21, 11)
+                .setImageWriter(new ImageWriter("Test", 21, 11));
+        builder.setGeometryBuffer(geometryBuffer).setPacketSize(4).build().generateRenderedImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the center pixel sees the front of the sphere
+        assertEquals(16, geometryBuffer.getDepth(10, 5), 1e-5, "Wrong depth of the center");
+        assertEquals(new Vector(0, 0, 1), geometryBuffer.getNormal(10, 5), "Wrong normal of the center");
+        // TC02: a pixel off the center sees the sphere at an angle
+        Ray ray = new Ray(Point.ZERO, new Vector(1, 0, -10));
+        Point hit = ray.getPoint(geometryBuffer.getDepth(11, 5));
+        assertEquals(4, hit.distance(new Point(0, 0, -20)), 1e-5, "The depth should reach the sphere");
+        assertEquals(hit.subtract(new Point(0, 0, -20)).normalize().dotProduct(geometryBuffer.getNormal(11, 5)), 1, 1e-6,
+                "Wrong normal off the center");
+        // TC03: the buffers are saved in float files
+        geometryBuffer.saveToFiles(FloatFormat.PFM);
+        ByteBuffer depth = ImageWriterTests.readFile("Base/test_geometry_depth.pfm");
+        String header = "Pf\n21 11\n-1.0\n";
+        assertEquals(header.length() + 4 * 21 * 11, depth.limit(), "Wrong depth file size");
+        assertEquals(16, depth.getFloat(header.length() + 4 * (5 * 21 + 10)), 1e-5, "Wrong saved depth");
+        ByteBuffer normal = ImageWriterTests.readFile("Base/test_geometry_normal.pfm");
+        assertEquals(header.length() + 3 * 4 * 21 * 11, normal.limit(), "Wrong normal file size");
+        // TC04: rendering pixel by pixel records the same buffers
+        GeometryBuffer pixelBuffer = new GeometryBuffer("Base/test_geometry_pixels", 21, 11);
+        builder.setGeometryBuffer(pixelBuffer).setPacketSize(1).build().generateRenderedImage();
+        for (int y = 0; y < 11; y++) {
+            for (int x = 0; x < 21; x++) {
+                assertEquals(geometryBuffer.getDepth(x, y), pixelBuffer.getDepth(x, y), "Wrong depth at (" + x + "," + y + ")");
+                assertEquals(geometryBuffer.getNormal(x, y), pixelBuffer.getNormal(x, y), "Wrong normal at (" + x + "," + y + ")");
+            }
+        }
+        // TC05: the hits of a ray tracer that does not report them are searched by the camera
+        RayTracerBase silent = new RayTracerBase(scene) {
+            @Override
+            public Color traceRay(Ray ray) {
+                return Color.BLACK;
+            }
+        };
+        for (int packetSize : new int[]{1, 4}) {
+            GeometryBuffer silentBuffer = new GeometryBuffer("Base/test_geometry_silent", 21, 11);
+            builder.setRayTracer(silent).setGeometryBuffer(silentBuffer).setPacketSize(packetSize).build()
+                    .generateRenderedImage();
+            for (int y = 0; y < 11; y++) {
+                for (int x = 0; x < 21; x++) {
+                    assertEquals(geometryBuffer.getDepth(x, y), silentBuffer.getDepth(x, y),
+                            "Wrong depth at (" + x + "," + y + ") of packets of " + packetSize);
+                }
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a pixel missing the sphere has an infinite depth and no normal
+        assertEquals(Double.POSITIVE_INFINITY, geometryBuffer.getDepth(0, 0), "Wrong depth of a miss");
+        assertNull(geometryBuffer.getNormal(0, 0), "Wrong normal of a miss");
+        // TC11: the resolution must match the image
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.setGeometryBuffer(new GeometryBuffer("Test", 20, 11)).build(), "Wrong resolution");
+    }
+}
@@ -1,11 +1,24 @@
 package renderer;
 
+import geometries.Sphere;
+import lighting.PointLight;
 import org.junit.jupiter.api.Test;
-import primitives.Color;
+import primitives.*;
+import scene.Scene;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Adler32;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for ImageWriter class.
@@ -48,4 +61,297 @@ public class ImageWriterTests {
         File file = new File(System.getProperty("user.dir") + "/images/Base/test_grid_image.png");
         assertTrue(file.exists(), "Image file was not created");
     }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#addSample(int, int, Color)}.
+     */
+    @Test
+    void testAccumulation() {
+        ImageWriter imageWriter = new ImageWriter("Base/test_accumulation", 2, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the pixel takes the average of its samples, accumulated beyond 255
+        imageWriter.addSample(0, 0, new Color(100, 400, 0));
+        imageWriter.addSample(0, 0, 300, 200, 50);
+        assertEquals(2, imageWriter.getSampleCount(0, 0), "Wrong sample count");
+        assertEquals(new Color(200, 300, 25).toString(), imageWriter.getRadiance(0, 0).toString(),
+                "Wrong average color");
+        assertEquals(new java.awt.Color(200, 255, 25), imageWriter.getPixelColor(0, 0).getColor(),
+                "The written color should be clamped");
+        // TC02: setting a pixel color replaces its samples
+        imageWriter.setPixelColor(0, 0, new Color(10, 20, 30));
+        assertEquals(1, imageWriter.getSampleCount(0, 0), "Setting a color should replace the samples");
+        assertEquals(new java.awt.Color(10, 20, 30), imageWriter.getPixelColor(0, 0).getColor(), "Wrong color");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a pixel without samples is black
+        assertEquals(0, imageWriter.getSampleCount(1, 0), "Wrong sample count");
+        assertEquals(new java.awt.Color(0, 0, 0), imageWriter.getPixelColor(1, 0).getColor(), "Wrong empty pixel");
+        // TC11: clearing removes all the samples
+        imageWriter.clear();
+        assertEquals(0, imageWriter.getSampleCount(0, 0), "The pixels should be cleared");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#setToneMapping(ToneMapping)}.
+     */
+    @Test
+    void testToneMapping() {
+        ImageWriter imageWriter = new ImageWriter("Base/test_tone_mapping", 1, 1);
+        imageWriter.addSample(0, 0, 255, 765, 51);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: clamping burns out the bright channels
+        assertEquals(ToneMapping.CLAMP, imageWriter.getToneMapping(), "Clamping should be the default");
+        assertEquals(new java.awt.Color(255, 255, 51), imageWriter.getPixelColor(0, 0).getColor(), "Wrong clamp");
+        // TC02: Reinhard compresses the bright channels, keeping them apart
+        imageWriter.setToneMapping(ToneMapping.REINHARD);
+        assertEquals(new java.awt.Color(128, 191, 43), imageWriter.getPixelColor(0, 0).getColor(), "Wrong Reinhard");
+        // TC03: every stop of exposure doubles the colors before tone mapping
+        imageWriter.setToneMapping(ToneMapping.CLAMP).setExposure(-2);
+        assertEquals(-2, imageWriter.getExposure(), 1e-12, "Wrong exposure");
+        assertEquals(new java.awt.Color(63, 191, 12), imageWriter.getPixelColor(0, 0).getColor(), "Wrong exposure");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the accumulated color is not affected by the tone mapping
+        assertEquals(new Color(255, 765, 51).toString(), imageWriter.getRadiance(0, 0).toString(),
+                "Wrong accumulated color");
+        // TC11: invalid arguments
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.setToneMapping(null), "Null tone mapping");
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.setExposure(Double.NaN), "Invalid exposure");
+    }
+
+    /**
+     * Creates a camera builder of a scene of a lit sphere, with tiles of 8 pixels.
+     *
+     * @return the builder, without an image writer
+     */
+    private static Camera.Builder createCamera() {
+        Scene scene = new Scene("Test");
+        scene.geometries.add(new Sphere(4, new Point(0, 0, -20)).setEmission(new Color(100, 50, 20))
+                .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20)));
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 10, 0)));
+        return Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(12, 8)
+                .setTileSize(8);
+    }
+
+    /**
+     * Test method for the streaming {@link renderer.ImageWriter#ImageWriter(String, int, int, int)}.
+     *
+     * @throws IOException if the written image cannot be read
+     */
+    @Test
+    void testStreaming() throws IOException {
+        Camera.Builder builder = createCamera();
+        ImageWriter expected = builder.setImageWriter(new ImageWriter("Base/test_streaming", 60, 37)).build()
+                .generateRenderedImage().getImageWriter();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the bands are written while rendering on several threads, and the file holds the whole image
+        ImageWriter streaming = new ImageWriter("Base/test_streaming", 60, 37, 8);
+        assertTrue(streaming.isStreaming(), "The writer should be streaming");
+        builder.setImageWriter(streaming).setMultithreading(4).build().generateRenderedImage().writeToImage();
+        BufferedImage image = ImageIO.read(new File(System.getProperty("user.dir") + "/images/Base/test_streaming.png"));
+        assertEquals(60, image.getWidth(), "Wrong image width");
+        assertEquals(37, image.getHeight(), "Wrong image height");
+        for (int y = 0; y < 37; y++) {
+            for (int x = 0; x < 60; x++) {
+                assertEquals(expected.getPixelColor(x, y).getColor().getRGB(), image.getRGB(x, y),
+                        "The streamed image differs at (" + x + "," + y + ")");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the pixels of written bands are released
+        assertThrows(IllegalStateException.class, () -> streaming.getPixelColor(0, 0), "The row was written");
+        assertThrows(IllegalStateException.class, () -> streaming.setPixelColor(0, 36, Color.BLACK), "The row was written");
+        assertThrows(IllegalStateException.class, streaming::saveImageToFile, "The image was written");
+        // TC11: pixels never set are written black
+        ImageWriter partial = new ImageWriter("Base/test_streaming_partial", 5, 4, 2);
+        partial.setPixelColor(1, 2, new Color(10, 20, 30));
+        partial.saveImageToFile();
+        image = ImageIO.read(new File(System.getProperty("user.dir") + "/images/Base/test_streaming_partial.png"));
+        assertEquals(0x0A141E, image.getRGB(1, 2) & 0xFFFFFF, "Wrong set pixel");
+        assertEquals(0, image.getRGB(1, 1) & 0xFFFFFF, "Wrong unset pixel");
+        // TC12: invalid band height
+        assertThrows(IllegalArgumentException.class, () -> new ImageWriter("Test", 5, 4, 0), "Invalid band height");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#ImageWriter(String, int, int, File, int)}.
+     *
+     * @throws IOException if the framebuffer file cannot be created or the image cannot be read
+     */
+    @Test
+    void testFramebuffer() throws IOException {
+        Camera.Builder builder = createCamera();
+        ImageWriter expected = builder.setImageWriter(new ImageWriter("Test", 60, 37)).build()
+                .generateRenderedImage().getImageWriter();
+        File file = Files.createTempFile("framebuffer", ".bin").toFile();
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: a render killed after half of the tiles leaves them in the file
+            ImageWriter killed = new ImageWriter("Base/test_framebuffer", 60, 37, file, 8);
+            assertFalse(killed.isResumed(), "A new file should not be resumed");
+            Camera camera = builder.setImageWriter(killed).build();
+            List<Tile> tiles = camera.getTiles();
+            for (Tile tile : tiles.subList(0, tiles.size() / 2)) {
+                camera.renderTile(tile);
+            }
+
+            // TC02: a new writer on the file resumes the render, rendering only the missing tiles
+            ImageWriter resumed = new ImageWriter("Base/test_framebuffer", 60, 37, file, 8);
+            assertTrue(resumed.isResumed(), "The file should be resumed");
+            for (int i = 0; i < tiles.size(); i++) {
+                assertEquals(i < tiles.size() / 2, resumed.isTileComplete(tiles.get(i)), "Wrong completed tile " + i);
+            }
+            Color marker = new Color(1, 2, 3);
+            resumed.setPixelColor(0, 0, marker);
+            builder.setImageWriter(resumed).setMultithreading(4).build().generateRenderedImage().writeToImage();
+            assertEquals(marker.getColor(), resumed.getPixelColor(0, 0).getColor(), "A completed tile was rendered again");
+            resumed.setPixelColor(0, 0, expected.getPixelColor(0, 0));
+            resumed.saveImageToFile();
+            BufferedImage image = ImageIO.read(new File(System.getProperty("user.dir") + "/images/Base/test_framebuffer.png"));
+            for (int y = 0; y < 37; y++) {
+                for (int x = 0; x < 60; x++) {
+                    assertEquals(expected.getPixelColor(x, y).getColor().getRGB(), image.getRGB(x, y),
+                            "The resumed image differs at (" + x + "," + y + ")");
+                }
+            }
+
+            // =============== Boundary Values Tests ==================
+            // TC10: a file of another image size is overwritten
+            ImageWriter other = new ImageWriter("Test", 30, 37, file, 8);
+            assertFalse(other.isResumed(), "A file of another size should not be resumed");
+            assertEquals(0, other.getSampleCount(0, 0), "The overwritten file should be cleared");
+            // TC11: the camera must render in the tiles of the file
+            assertThrows(IllegalArgumentException.class, () -> builder.setImageWriter(other).setTileSize(16).build(),
+                    "Tile size differs from the framebuffer");
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#setCompression(PngCompression)} and
+     * {@link renderer.ImageWriter#setEncodingThreads(int)}.
+     *
+     * @throws IOException if the written image cannot be read
+     */
+    @Test
+    void testEncoding() throws IOException {
+        // Rows of 900 bytes, so the image is deflated in several blocks
+        ImageWriter imageWriter = new ImageWriter("Base/test_encoding", 300, 701);
+        Random random = new Random(3);
+        for (int y = 0; y < 701; y++) {
+            for (int x = 0; x < 300; x++) {
+                imageWriter.setPixelColor(x, y, new Color(x % 256, y % 256, random.nextInt(8) * 32));
+            }
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every compression level, on background threads or on the calling thread, writes the same image
+        for (PngCompression compression : PngCompression.values()) {
+            for (int threads : new int[]{0, 3}) {
+                imageWriter.setCompression(compression).setEncodingThreads(threads).saveImageToFile();
+                BufferedImage image = ImageIO.read(new File(System.getProperty("user.dir") + "/images/Base/test_encoding.png"));
+                for (int y = 0; y < 701; y++) {
+                    for (int x = 0; x < 300; x++) {
+                        assertEquals(imageWriter.getPixelColor(x, y).getColor().getRGB(), image.getRGB(x, y),
+                                compression + " on " + threads + " threads differs at (" + x + "," + y + ")");
+                    }
+                }
+            }
+        }
+        // TC02: the checksums of the blocks combine into the checksum of the whole stream
+        byte[] data = new byte[5000];
+        random.nextBytes(data);
+        Adler32 whole = new Adler32(), first = new Adler32(), second = new Adler32();
+        whole.update(data);
+        first.update(data, 0, 1234);
+        second.update(data, 1234, data.length - 1234);
+        assertEquals(whole.getValue(), PngStreamWriter.combineAdler(first.getValue(), second.getValue(), data.length - 1234),
+                "Wrong combined checksum");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: invalid arguments
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.setCompression(null), "Null compression");
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.setEncodingThreads(-1), "Negative threads");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#saveRadianceToFile(FloatFormat)}.
+     *
+     * @throws IOException if the written files cannot be read
+     */
+    @Test
+    void testSaveRadiance() throws IOException {
+        ImageWriter imageWriter = new ImageWriter("Base/test_radiance", 3, 2).setExposure(3);
+        imageWriter.addSample(0, 0, 510, 255, 0);
+        imageWriter.addSample(0, 0, 1020, 255, 51);
+        imageWriter.setPixelColor(2, 1, new Color(25.5, 0, 2550));
+        float[][] expected = {{3, 1, 0.1f}, {0, 0, 0}, {0, 0, 0}, {0, 0, 0}, {0, 0, 0}, {0.1f, 0, 10}};
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a PFM file holds the linear, unclamped averages from the bottom row up
+        imageWriter.saveRadianceToFile(FloatFormat.PFM);
+        ByteBuffer pfm = readFile("Base/test_radiance.pfm");
+        String header = "PF\n3 2\n-1.0\n";
+        assertEquals(header, new String(pfm.array(), 0, header.length(), StandardCharsets.US_ASCII), "Wrong PFM header");
+        assertEquals(header.length() + 4 * 18, pfm.limit(), "Wrong PFM size");
+        pfm.position(header.length());
+        for (int y = 1; y >= 0; y--) {
+            for (int x = 0; x < 3; x++) {
+                for (int channel = 0; channel < 3; channel++) {
+                    assertEquals(expected[3 * y + x][channel], pfm.getFloat(), 1e-6, "Wrong PFM value of (" + x + "," + y + ")");
+                }
+            }
+        }
+        // TC02: an EXR file holds the same values in scanlines of the channels sorted by name
+        imageWriter.saveRadianceToFile(FloatFormat.EXR);
+        ByteBuffer exr = readFile("Base/test_radiance.exr");
+        assertEquals(20000630, exr.getInt(), "Wrong EXR magic number");
+        assertEquals(2, exr.getInt(), "Wrong EXR version");
+        while (exr.get() != 0) { // the attributes, up to the empty name ending the header
+            while (exr.get() != 0) ;
+            while (exr.get() != 0) ;
+            int size = exr.getInt();
+            exr.position(exr.position() + size);
+        }
+        long[] offsets = {exr.getLong(), exr.getLong()};
+        for (int y = 0; y < 2; y++) {
+            exr.position((int) offsets[y]);
+            assertEquals(y, exr.getInt(), "Wrong EXR scanline");
+            assertEquals(4 * 9, exr.getInt(), "Wrong EXR scanline size");
+            for (int channel = 2; channel >= 0; channel--) { // B, G, R
+                for (int x = 0; x < 3; x++) {
+                    assertEquals(expected[3 * y + x][channel], exr.getFloat(), 1e-6, "Wrong EXR value of (" + x + "," + y + ")");
+                }
+            }
+        }
+        assertEquals(exr.limit(), exr.position(), "Wrong EXR size");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a streaming writer does not keep its pixels
+        assertThrows(IllegalStateException.class,
+                () -> new ImageWriter("Test", 3, 2, 1).saveRadianceToFile(FloatFormat.PFM), "Streaming writer");
+        // TC11: null format
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.saveRadianceToFile(null), "Null format");
+    }
+
+    /**
+     * Reads a file from the output directory.
+     *
+     * @param name the file name in the output directory
+     * @return the contents of the file, little-endian
+     * @throws IOException if the file cannot be read
+     */
+    static ByteBuffer readFile(String name) throws IOException {
+        byte[] bytes = Files.readAllBytes(new File(System.getProperty("user.dir") + "/images/" + name).toPath());
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
 }
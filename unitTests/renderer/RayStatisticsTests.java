@@ -0,0 +1,114 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.DirectionalLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import renderer.RayStatistics.RayType;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RayStatistics} and {@link RenderStatistics}.
+ */
+class RayStatisticsTests {
+
+    /**
+     * Builds a camera over a scene of a mirror plane and a transparent sphere.
+     *
+     * @param threads the number of rendering threads
+     * @return the camera, collecting statistics
+     */
+    private Camera buildCamera(int threads) {
+        Scene scene = new Scene("Statistics");
+        scene.geometries.add(
+                new Plane(new Point(0, 0, -100), new Vector(0, 0, 1))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKD(0.5).setKR(0.5)),
+                new Sphere(30, new Point(0, 0, -50))
+                        .setEmission(new Color(50, 10, 10))
+                        .setMaterial(new Material().setKD(0.5).setKT(0.5)));
+        scene.lights.add(new DirectionalLight(new Color(200, 200, 200), new Vector(1, 1, -1)));
+
+        return Camera.getBuilder()
+                .setLocation(new Point(0, 0, 100))
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(100, 100)
+                .setImageWriter(new ImageWriter("statistics", 20, 20))
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setMultithreading(threads)
+                .enableStatistics()
+                .build();
+    }
+
+    /**
+     * Test method for {@link Camera#getStatistics()} after {@link Camera#generateRenderedImage()}.
+     */
+    @Test
+    void testStatisticsOfRender() {
+        // TC01: without statistics there is no summary
+        Camera plain = Camera.getBuilder()
+                .setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(1).setVPSize(1, 1)
+                .setImageWriter(new ImageWriter("statistics", 1, 1))
+                .setRayTracer(new SimpleRayTracer(new Scene("Empty")))
+                .build();
+        assertNull(plain.getStatistics(), "Statistics should not be collected unless enabled");
+
+        // TC02: counters of a render
+        RenderStatistics statistics = buildCamera(1).generateRenderedImage().getStatistics();
+        assertEquals(400, statistics.getRays(RayType.PRIMARY), "Wrong number of primary rays");
+        assertTrue(statistics.getRays(RayType.SHADOW) > 0, "Shadow rays should be counted");
+        assertTrue(statistics.getRays(RayType.REFLECTION) > 0, "Reflection rays should be counted");
+        assertTrue(statistics.getRays(RayType.REFRACTION) > 0, "Refraction rays should be counted");
+        assertEquals(0, statistics.getRays(RayType.ANTI_ALIASING), "No anti-aliasing rays without anti-aliasing");
+        assertTrue(statistics.getRenderNanos() > 0, "Render time should be recorded");
+        assertTrue(statistics.getRaysPerSecond() > 0, "Throughput should be positive");
+
+        // Every ray tests both geometries
+        long tests = statistics.getIntersectionTests("Sphere");
+        assertEquals(tests, statistics.getIntersectionTests("Plane"), "Every ray should test every geometry");
+        assertTrue(statistics.getIntersectionHits("Sphere") <= tests, "Hits cannot exceed tests");
+
+        long[] depths = statistics.getRecursionDepthHistogram();
+        assertTrue(depths.length > 1, "Reflections should shade hit points below the first level");
+        assertTrue(depths[0] > 0 && depths[0] <= 400, "Wrong number of primary hits");
+    }
+
+    /**
+     * Test method for counting in parallel renders.
+     */
+    @Test
+    void testStatisticsOfParallelRender() {
+        RenderStatistics single = buildCamera(1).generateRenderedImage().getStatistics();
+        RenderStatistics parallel = buildCamera(4).generateRenderedImage().getStatistics();
+        for (RayType type : RayType.values()) {
+            assertEquals(single.getRays(type), parallel.getRays(type), "Parallel render counted a different number of " + type + " rays");
+        }
+        assertEquals(single.getIntersectionTests("Sphere"), parallel.getIntersectionTests("Sphere"),
+                "Parallel render counted a different number of intersection tests");
+    }
+
+    /**
+     * Test method for {@link RenderStatistics#toJson()}.
+     */
+    @Test
+    void testToJson() {
+        RayStatistics collector = new RayStatistics();
+        collector.countRay(RayType.PRIMARY);
+        collector.countRay(RayType.SHADOW);
+        collector.countDepth(0);
+        collector.countDepth(2);
+        collector.getIntersectionStatistics().record(new Sphere(1, Point.ZERO), true);
+        collector.addRenderTime(1_000_000_000L);
+
+        assertEquals("{\"renderNanos\":1000000000,\"raysPerSecond\":2.0,"
+                        + "\"rays\":{\"primary\":1,\"shadow\":1,\"reflection\":0,\"refraction\":0,\"anti_aliasing\":0,\"total\":2},"
+                        + "\"occluderCacheHits\":0,"
+                        + "\"intersections\":{\"Sphere\":{\"tests\":1,\"hits\":1}},"
+                        + "\"recursionDepths\":[1,0,1]}",
+                collector.summarize().toJson(), "Wrong JSON export");
+    }
+}
@@ -0,0 +1,201 @@
+package renderer;
+
+import geometries.AccelerationType;
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Sphere;
+import geometries.SphereSet;
+import geometries.TriangleMesh;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link renderer.RenderCache}.
+ */
+public class RenderCacheTests {
+
+    /**
+     * Creates a scene of a few spheres.
+     *
+     * @param material the material of the spheres
+     * @return the scene
+     */
+    private static Scene createScene(Material material) {
+        Scene scene = new Scene("Test");
+        for (int i = 0; i < 5; i++) {
+            scene.geometries.add(new Sphere(1 + i % 3, new Point(i * 4 - 8, i % 2 * 3, -20 - i)).setEmission(new Color(100, 50, 20))
+                    .setMaterial(material));
+        }
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 10, 0)));
+        return scene;
+    }
+
+    /**
+     * Creates a camera of a scene.
+     *
+     * @param scene    the scene
+     * @param fileName the name of the image file
+     * @return the built camera
+     */
+    private static Camera createCamera(Scene scene, String fileName) {
+        return Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(12, 8)
+                .setImageWriter(new ImageWriter(fileName, 60, 40))
+                .build();
+    }
+
+    /**
+     * Reads an image file from the output directory.
+     *
+     * @param name the name of the image file (without extension)
+     * @return the bytes of the file
+     */
+    private static byte[] readImage(String name) {
+        try {
+            return Files.readAllBytes(new File(ImageWriter.OUTPUT_DIRECTORY + '/' + name + ".png").toPath());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCache#contentHash(Camera)}.
+     */
+    @Test
+    void testContentHash() {
+        Material material = new Material().setKD(0.5).setKS(0.5).setShininess(20);
+        String hash = RenderCache.contentHash(createCamera(createScene(material), "base/cache"));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an equal scene, with an acceleration structure and other render settings, has the same hash
+        Scene scene = createScene(material).buildAcceleration();
+        Camera camera = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(10).setVPSize(12, 8)
+                .setImageWriter(new ImageWriter("base/other", 60, 40))
+                .setTileSize(8).setMultithreading(2)
+                .build();
+        assertEquals(hash, RenderCache.contentHash(camera), "Render settings should not change the hash");
+        Scene grid = createScene(material).setAcceleration(AccelerationType.GRID).buildAcceleration();
+        assertEquals(hash, RenderCache.contentHash(createCamera(grid, "base/cache")),
+                "The kind of the acceleration structure should not change the hash");
+        Scene nested = new Scene("Test");
+        nested.geometries.add(new Geometries(createScene(material).geometries.getGeometries().toArray(new Intersectable[0])));
+        nested.lights.addAll(createScene(material).lights);
+        assertEquals(hash, RenderCache.contentHash(createCamera(nested, "base/cache")),
+                "Nesting the geometries in a collection should not change the hash");
+        Camera compiled = new Camera.Builder(createCamera(createScene(material), "base/cache"))
+                .setRayTracer(new SimpleRayTracer(createScene(material).compile())).build();
+        assertEquals(hash, RenderCache.contentHash(compiled), "Compiling the scene should not change the hash");
+
+        // TC02: a changed material, light, background or resolution changes the hash
+        assertNotEquals(hash, RenderCache.contentHash(createCamera(createScene(new Material().setKD(0.6)), "base/cache")),
+                "A material should change the hash");
+        Scene lit = createScene(material);
+        ((PointLight) lit.lights.get(0)).setKL(0.1);
+        assertNotEquals(hash, RenderCache.contentHash(createCamera(lit, "base/cache")), "A light should change the hash");
+        assertNotEquals(hash, RenderCache.contentHash(createCamera(createScene(material).setBackground(new Color(10, 10, 10)), "base/cache")),
+                "The background should change the hash");
+        Camera small = new Camera.Builder(createCamera(createScene(material), "base/cache"))
+                .setImageWriter(new ImageWriter("base/cache", 30, 20)).build();
+        assertNotEquals(hash, RenderCache.contentHash(small), "The resolution should change the hash");
+    }
+
+    /**
+     * Creates a scene of a sphere set and a triangle mesh.
+     *
+     * @return the scene
+     */
+    private static Scene createPrimitivesScene() {
+        Scene scene = new Scene("Test");
+        SphereSet set = new SphereSet();
+        int appearance = set.addAppearance(new Material().setKD(0.5), new Color(100, 50, 20));
+        for (int i = 0; i < 40; i++) set.add(0.5, (i * 7 % 40) * 0.5 - 10, i % 3 - 1, -20, appearance);
+        TriangleMesh mesh = new TriangleMesh().setEmission(new Color(20, 50, 100));
+        for (int i = 0; i < 10; i++) {
+            mesh.addTriangle(mesh.addVertex(i * 2 - 10, -4, -25), mesh.addVertex(i * 2 - 9, -4, -25), mesh.addVertex(i * 2 - 9.5, -3, -25));
+        }
+        scene.geometries.add(set, mesh);
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 10, 0)));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCache#contentHash(Camera)} of sphere sets and meshes.
+     */
+    @Test
+    void testContentHashPrimitives() {
+        Camera camera = createCamera(createPrimitivesScene(), "base/cache");
+        String hash = RenderCache.contentHash(camera);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: rendering, which builds the hierarchies of the set and the mesh, does not change the hash
+        camera.generateRenderedImage();
+        assertEquals(hash, RenderCache.contentHash(camera), "Rendering should not change the hash");
+
+        // TC02: an equal scene that was never rendered has the same hash
+        assertEquals(hash, RenderCache.contentHash(createCamera(createPrimitivesScene(), "base/cache")),
+                "An equal scene should have the same hash");
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCache#renderToImage(Camera)}.
+     */
+    @Test
+    void testRenderToImage() {
+        File directory = new File(ImageWriter.OUTPUT_DIRECTORY, "base/renderCache");
+        File[] stale = directory.listFiles();
+        if (stale != null) {
+            for (File file : stale) file.delete();
+        }
+        Material material = new Material().setKD(0.5).setKS(0.5).setShininess(20);
+        RenderCache cache = new RenderCache(directory, 1 << 20);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a new render is rendered and cached
+        assertFalse(cache.renderToImage(createCamera(createScene(material), "base/cache_first")), "The first render should miss");
+        assertEquals(1, cache.getEntryCount(), "The image should be cached");
+        assertEquals(new File(ImageWriter.OUTPUT_DIRECTORY, "base/cache_first.png").length(), cache.getSize(), "Wrong cache size");
+
+        // TC02: an identical render is copied from the cache
+        Camera repeated = createCamera(createScene(material), "base/cache_second");
+        assertTrue(cache.renderToImage(repeated), "The repeated render should hit");
+        assertArrayEquals(readImage("base/cache_first"), readImage("base/cache_second"), "Wrong cached image");
+        assertEquals(0, repeated.getImageWriter().getSampleCount(30, 20), "A cached render should not render");
+        assertEquals(1, cache.getHits(), "Wrong hit count");
+        assertEquals(1, cache.getMisses(), "Wrong miss count");
+
+        // TC03: a cache opened again on the directory keeps its images
+        RenderCache reopened = new RenderCache(directory, 1 << 20);
+        assertEquals(1, reopened.getEntryCount(), "The reopened cache should keep the image");
+        assertTrue(reopened.renderToImage(createCamera(createScene(material), "base/cache_second")), "The reopened cache should hit");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the least recently used image is evicted to fit a new one
+        long size = cache.getSize();
+        RenderCache small = new RenderCache(directory, size + size / 2);
+        assertFalse(small.renderToImage(createCamera(createScene(new Material().setKD(0.2)), "base/cache_third")),
+                "A changed render should miss");
+        assertEquals(1, small.getEvictions(), "The old image should be evicted");
+        assertEquals(1, small.getEntryCount(), "Only the new image should be cached");
+        assertFalse(small.renderToImage(createCamera(createScene(material), "base/cache_first")), "The evicted image should miss");
+
+        // TC11: invalid arguments
+        assertThrows(IllegalArgumentException.class, () -> new RenderCache(directory, 0), "Zero cache size");
+        assertThrows(IllegalArgumentException.class, () -> new RenderCache(null, 1), "Null directory");
+        assertThrows(IllegalArgumentException.class, () -> cache.renderToImage(null), "Null camera");
+    }
+}
@@ -0,0 +1,112 @@
+package renderer;
+
+import geometries.Instance;
+import geometries.Sphere;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link renderer.SequenceRenderer}.
+ */
+public class SequenceRendererTests {
+
+    /**
+     * Creates the camera builder of a frame of a turntable, orbiting the origin.
+     *
+     * @param frame the frame number
+     * @return the builder, without a ray tracer and an image writer
+     */
+    private static Camera.Builder createCamera(int frame) {
+        double angle = Math.toRadians(frame * 15);
+        Point location = new Point(40 * Math.sin(angle), 5, 40 * Math.cos(angle));
+        Vector vTo = Point.ZERO.subtract(location).normalize();
+        Vector vUp = vTo.crossProduct(new Vector(0, 1, 0)).crossProduct(vTo).normalize();
+        return Camera.getBuilder()
+                .setLocation(location)
+                .setDirection(vTo, vUp)
+                .setVPDistance(10).setVPSize(12, 8)
+                .setTileSize(8);
+    }
+
+    /**
+     * Gets the transform of the animated sphere at a frame.
+     *
+     * @param frame the frame number
+     * @return the rotation of the sphere about the vertical axis
+     */
+    private static Transform transformOf(int frame) {
+        return Transform.rotation(new Vector(0, 1, 0), frame * 30);
+    }
+
+    /**
+     * Reads an image from the output directory.
+     *
+     * @param name the name of the image file (without extension)
+     * @return the image
+     */
+    private static BufferedImage readImage(String name) {
+        try {
+            return ImageIO.read(new File(ImageWriter.OUTPUT_DIRECTORY + '/' + name + ".png"));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.SequenceRenderer#render(int, int)}.
+     */
+    @Test
+    void testRender() {
+        Scene scene = new Scene("Test");
+        scene.geometries.add(new Sphere(4, Point.ZERO).setEmission(new Color(40, 60, 100))
+                .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(20)));
+        Instance moon = new Instance(new Sphere(2, new Point(10, 0, 0)).setEmission(new Color(100, 50, 20))
+                .setMaterial(new Material().setKD(0.5)), transformOf(0));
+        scene.geometries.add(moon);
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 20, 30)));
+
+        SequenceRenderer sequence = new SequenceRenderer(scene, "base/sequence", 30, 20)
+                .setCamera(SequenceRendererTests::createCamera)
+                .setAnimation(frame -> moon.setTransform(transformOf(frame)))
+                .setMultithreading(2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every frame is written under its number as it renders alone
+        sequence.render(3, 4);
+        assertTrue(scene.geometries.hasAcceleration(), "The scene should be prepared for the frames");
+        for (int frame = 3; frame < 7; frame++) {
+            moon.setTransform(transformOf(frame));
+            scene.geometries.refitAcceleration();
+            ImageWriter expected = new ImageWriter("base/sequence_expected", 30, 20);
+            createCamera(frame).setRayTracer(new SimpleRayTracer(scene)).setImageWriter(expected).build()
+                    .generateRenderedImage().writeToImage();
+
+            BufferedImage expectedImage = readImage("base/sequence_expected");
+            BufferedImage actualImage = readImage(sequence.getFrameFileName(frame));
+            assertNotNull(actualImage, "Frame " + frame + " was not written");
+            for (int y = 0; y < 20; y++) {
+                for (int x = 0; x < 30; x++) {
+                    assertEquals(expectedImage.getRGB(x, y), actualImage.getRGB(x, y),
+                            "Frame " + frame + " differs at (" + x + "," + y + ")");
+                }
+            }
+        }
+        assertEquals("base/sequence_0012", sequence.getFrameFileName(12), "Wrong frame file name");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: invalid arguments
+        assertThrows(IllegalArgumentException.class, () -> sequence.setMultithreading(0), "No threads");
+        assertThrows(IllegalArgumentException.class, () -> sequence.render(0, -1), "Negative frame count");
+        assertThrows(IllegalStateException.class,
+                () -> new SequenceRenderer(scene, "base/sequence", 30, 20).render(0, 1), "No camera");
+    }
+}
@@ -0,0 +1,200 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Instance;
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.CompiledScene;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SimpleRayTracer}.
+ */
+class SimpleRayTracerTests {
+
+    /**
+     * Builds a scene of a floor shadowed by a sphere and a triangle, and of many small spheres
+     * away from the light, so that a shadow ray searching the scene tests many geometries.
+     *
+     * @return the scene
+     */
+    private Scene buildShadowScene() {
+        Scene scene = new Scene("Shadows");
+        Material material = new Material().setKD(0.5).setKS(0.5).setShininess(30);
+        scene.geometries.add(
+                new Plane(new Point(0, 0, -150), new Vector(0, 0, 1)).setEmission(new Color(20, 20, 20)).setMaterial(material),
+                new Sphere(40, new Point(0, 0, -50)).setEmission(new Color(0, 0, 100)).setMaterial(material),
+                new Triangle(new Point(-70, -40, 0), new Point(-40, -70, 0), new Point(-68, -68, -4))
+                        .setEmission(new Color(0, 0, 100)).setMaterial(material));
+        for (int i = 0; i < 50; i++) {
+            scene.geometries.add(new Sphere(2, new Point(-90 + 4 * i, 90, -140)).setMaterial(material));
+        }
+        scene.lights.add(new SpotLight(new Color(400, 240, 0), new Point(-100, -100, 200), new Vector(1, 1, -3))
+                .setKL(1E-5).setKQ(1.5E-7));
+        return scene;
+    }
+
+    /**
+     * Renders the shadow scene.
+     *
+     * @param occluderCache whether the ray tracer caches the occluders of shadow rays
+     * @return the camera after rendering, holding the image and the statistics
+     */
+    private Camera render(boolean occluderCache) {
+        Camera camera = Camera.getBuilder()
+                .setLocation(new Point(0, 0, 1000))
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(1000).setVPSize(200, 200)
+                .setImageWriter(new ImageWriter("occluders", 50, 50))
+                .setRayTracer(new SimpleRayTracer(buildShadowScene()).setOccluderCache(occluderCache))
+                .enableStatistics()
+                .build();
+        camera.generateRenderedImage();
+        return camera;
+    }
+
+    /**
+     * Counts the intersection tests of a render.
+     *
+     * @param statistics the statistics of the render
+     * @return the number of tests of all the geometry classes
+     */
+    private long countTests(RenderStatistics statistics) {
+        return statistics.getIntersectionTests("Plane") + statistics.getIntersectionTests("Sphere")
+                + statistics.getIntersectionTests("Triangle");
+    }
+
+    /**
+     * Test method for {@link SimpleRayTracer#setOccluderCache(boolean)}.
+     */
+    @Test
+    void testOccluderCache() {
+        Camera cached = render(true);
+        Camera uncached = render(false);
+        RenderStatistics cachedStatistics = cached.getStatistics();
+        RenderStatistics uncachedStatistics = uncached.getStatistics();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the cache does not change the image
+        ImageWriter cachedImage = cached.getImageWriter();
+        ImageWriter uncachedImage = uncached.getImageWriter();
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                assertEquals(uncachedImage.getPixelColor(x, y).toString(), cachedImage.getPixelColor(x, y).toString(),
+                        "Wrong color of pixel (" + x + "," + y + ")");
+            }
+        }
+
+        // TC02: shadowed pixels are found blocked by the cached occluder, saving intersection tests
+        assertEquals(0, uncachedStatistics.getOccluderCacheHits(), "Disabled cache should not be hit");
+        assertTrue(cachedStatistics.getOccluderCacheHits() > 0, "Shadowed neighbors should hit the cache");
+        assertEquals(uncachedStatistics.getRays(RayStatistics.RayType.SHADOW), cachedStatistics.getRays(RayStatistics.RayType.SHADOW),
+                "The cache should not change the shadow rays");
+        assertTrue(countTests(cachedStatistics) < countTests(uncachedStatistics), "The cache should save intersection tests");
+    }
+
+    /**
+     * Test method for {@link SimpleRayTracer#setOccluderCache(boolean)} after the occluder turns transparent.
+     */
+    @Test
+    void testOccluderCacheTransparency() {
+        Scene scene = new Scene("Test");
+        Material occluderMaterial = new Material();
+        scene.geometries.add(new Plane(new Point(0, 0, -100), new Vector(0, 0, 1)).setMaterial(new Material().setKD(1)),
+                new Sphere(10, new Point(0, 0, -50)).setMaterial(occluderMaterial));
+        scene.lights.add(new PointLight(new Color(200, 200, 200), Point.ZERO));
+        Ray ray = new Ray(new Point(30, 0, 0), new Vector(-30, 0, -100));
+        SimpleRayTracer rayTracer = new SimpleRayTracer(scene);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the floor behind the opaque sphere is shadowed, caching the sphere
+        assertEquals(Color.BLACK.getColor(), rayTracer.traceRay(ray).getColor(), "The floor should be shadowed");
+
+        // TC02: once the cached sphere turns transparent, the floor is lit as without the cache
+        occluderMaterial.setKT(1);
+        Color expected = new SimpleRayTracer(scene).setOccluderCache(false).traceRay(ray);
+        assertNotEquals(Color.BLACK.getColor(), expected.getColor(), "The floor should be lit");
+        assertEquals(expected.getColor(), rayTracer.traceRay(ray).getColor(), "A transparent occluder should not shadow");
+    }
+
+    /**
+     * Renders a scene into a new image.
+     *
+     * @param rayTracer the ray tracer of the scene
+     * @return the image writer of the render
+     */
+    private ImageWriter renderImage(RayTracerBase rayTracer) {
+        return Camera.getBuilder()
+                .setLocation(new Point(0, 0, 1000))
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(1000).setVPSize(200, 200)
+                .setImageWriter(new ImageWriter("compiled", 50, 50))
+                .setRayTracer(rayTracer)
+                .build()
+                .generateRenderedImage()
+                .getImageWriter();
+    }
+
+    /**
+     * Asserts that two images are equal.
+     *
+     * @param expected the expected image
+     * @param actual   the checked image
+     * @param message  the description of the check
+     */
+    private void assertImage(ImageWriter expected, ImageWriter actual, String message) {
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                assertEquals(expected.getPixelColor(x, y).getColor(), actual.getPixelColor(x, y).getColor(),
+                        message + " at (" + x + "," + y + ")");
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link SimpleRayTracer#SimpleRayTracer(CompiledScene)}.
+     */
+    @Test
+    void testCompiledScene() {
+        Scene scene = buildShadowScene();
+        Material material = new Material().setKD(0.3).setKS(0.3).setShininess(10).setKR(0.3);
+        Geometries nested = new Geometries(new Sphere(10, new Point(60, 60, -40)).setMaterial(material),
+                new Geometries(new Sphere(8, new Point(-60, 60, -40)).setMaterial(material)));
+        scene.geometries.add(nested, new Instance(new Sphere(10, Point.ZERO).setEmission(new Color(50, 0, 0)),
+                Transform.translation(60, -60, -40)));
+        scene.setAmbientLight(new AmbientLight(new Color(40, 40, 40), new Double3(0.5)));
+        scene.lights.add(new PointLight(new Color(100, 100, 100), new Point(0, 0, 100)));
+        CompiledScene compiled = scene.compile();
+        ImageWriter live = renderImage(new SimpleRayTracer(scene));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the compiled scene renders as the scene, with flattened geometries and fixed lights
+        ImageWriter image = renderImage(new SimpleRayTracer(compiled));
+        assertImage(live, image, "Compiled scene differs");
+        assertEquals(56, compiled.getGeometries().getGeometries().size(), "Nested geometries should be flattened");
+        assertTrue(compiled.getGeometries().hasAcceleration(), "The geometries should be accelerated");
+        assertEquals(2, compiled.getLightCount(), "Wrong number of lights");
+        assertEquals(new Color(20, 20, 20).getColor(), compiled.getAmbient().getColor(), "Wrong ambient intensity");
+
+        // TC02: later changes of the scene do not change the compiled scene
+        scene.lights.clear();
+        scene.setBackground(new Color(100, 100, 100));
+        scene.geometries.add(new Sphere(50, new Point(0, 0, 0)));
+        assertImage(image, renderImage(new SimpleRayTracer(compiled)), "Scene changes leak into the compiled scene");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the geometries and the lights of the compiled scene cannot be changed
+        assertThrows(IllegalStateException.class, () -> compiled.getGeometries().add(new Sphere(1, Point.ZERO)), "Added geometry");
+        assertThrows(UnsupportedOperationException.class, () -> compiled.getGeometries().getGeometries().clear(), "Removed geometries");
+        compiled.getLights()[0] = null;
+        assertNotNull(compiled.getLight(0), "Changed lights");
+    }
+}
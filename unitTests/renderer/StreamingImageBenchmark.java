@@ -0,0 +1,40 @@
+package renderer;
+
+import primitives.Color;
+
+/**
+ * Benchmark of the streaming {@link ImageWriter} on a large image.
+ * <p>
+ * Fills a gradient image tile after tile in row-major order, the way the camera renders, and
+ * writes it to the PNG file band after band, reporting the peak heap in use. Run with an optional
+ * image size (default 20000, for 20000x20000 pixels) and band height (default 32), with a small
+ * heap to show that the image size does not bound it, e.g. {@code -Xmx256m}.
+ * </p>
+ */
+public class StreamingImageBenchmark {
+    /**
+     * Runs the benchmark.
+     *
+     * @param args optional image size and band height
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int bandHeight = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        Runtime runtime = Runtime.getRuntime();
+        long peak = 0;
+
+        long start = System.nanoTime();
+        ImageWriter imageWriter = new ImageWriter("Benchmark/streaming", size, size, bandHeight);
+        for (Tile tile : Tile.split(size, size, bandHeight)) {
+            for (int y = tile.getY(); y < tile.getY() + tile.getHeight(); y++) {
+                for (int x = tile.getX(); x < tile.getX() + tile.getWidth(); x++) {
+                    imageWriter.setPixelColor(x, y, new Color(x * 255.0 / size, y * 255.0 / size, (x ^ y) & 255));
+                }
+            }
+            if (tile.getX() == 0) peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory());
+        }
+        imageWriter.saveImageToFile();
+        System.out.printf("%dx%d pixels in bands of %d rows: written in %.1f s, peak heap %.0f MB (max %.0f MB)%n",
+                size, size, bandHeight, (System.nanoTime() - start) / 1e9, peak / 1e6, runtime.maxMemory() / 1e6);
+    }
+}
@@ -0,0 +1,237 @@
+package renderer.distributed;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RenderCoordinator} and {@link RenderWorker}.
+ */
+class RenderCoordinatorTests {
+    private static final int WIDTH = 48;
+    private static final int HEIGHT = 40;
+
+    /**
+     * The scene of the tests - a sphere and a triangle lit by a point light
+     */
+    private final Scene scene = new Scene("Distributed scene")
+            .setBackground(new Color(20, 20, 40))
+            .setAmbientLight(new AmbientLight(new Color(255, 255, 255), new Double3(0.1)));
+
+    RenderCoordinatorTests() {
+        scene.geometries.add(
+                new Sphere(50, new Point(0, 0, -100))
+                        .setEmission(new Color(100, 30, 30))
+                        .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(30)),
+                new Triangle(new Point(-100, -100, -150), new Point(100, -100, -150), new Point(0, 100, -150))
+                        .setEmission(new Color(30, 30, 100))
+                        .setMaterial(new Material().setKD(0.5)));
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(50, 50, 100)).setKL(0.0005));
+    }
+
+    /**
+     * Builds a camera of the test scene.
+     *
+     * @param name the image name
+     * @return the camera
+     */
+    private Camera buildCamera(String name) {
+        return Camera.getBuilder()
+                .setLocation(new Point(0, 0, 200))
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(150).setVPSize(240, 200)
+                .setTileSize(16)
+                .setImageWriter(new ImageWriter(name, WIDTH, HEIGHT))
+                .setRayTracer(new SimpleRayTracer(scene))
+                .build();
+    }
+
+    /**
+     * Checks that a distributed image is identical to the image rendered locally.
+     *
+     * @param distributed the camera of the distributed render
+     */
+    private void assertSameAsLocal(Camera distributed) {
+        ImageWriter local = buildCamera("local").generateRenderedImage().getImageWriter();
+        ImageWriter remote = distributed.getImageWriter();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(local.getPixelColor(x, y).getColor(), remote.getPixelColor(x, y).getColor(),
+                        "Wrong pixel (" + x + "," + y + ")");
+            }
+        }
+    }
+
+    /**
+     * Starts an in-process worker on a free port.
+     *
+     * @return the worker
+     * @throws IOException if the server socket cannot be opened
+     */
+    private static RenderWorker startWorker() throws IOException {
+        RenderWorker worker = new RenderWorker(new ServerSocket(0));
+        Thread thread = new Thread(worker);
+        thread.setDaemon(true);
+        thread.start();
+        return worker;
+    }
+
+    /**
+     * Test method for {@link RenderCoordinator#render(List)} with in-process workers.
+     */
+    @Test
+    void testRenderOnWorkers() throws IOException {
+        List<InetSocketAddress> workers = List.of(
+                new InetSocketAddress("localhost", startWorker().getPort()),
+                new InetSocketAddress("localhost", startWorker().getPort()));
+
+        RenderCoordinator coordinator = new RenderCoordinator(scene, buildCamera("distributed"));
+        assertSameAsLocal(coordinator.render(workers));
+        assertEquals(0, coordinator.getReissuedTiles(), "No tile should be re-issued without failures");
+    }
+
+    /**
+     * Test method for {@link RenderCoordinator#render(List)} when a worker dies in the middle of a tile.
+     */
+    @Test
+    void testRenderReissuesTilesOfFailedWorker() throws Exception {
+        // The failing worker reads the job and a single tile request, then drops the connection.
+        // The healthy worker starts accepting only after that, so the failure always happens.
+        ServerSocket failingSocket = new ServerSocket(0);
+        CountDownLatch failed = new CountDownLatch(1);
+        Thread failing = new Thread(() -> {
+            try (failingSocket; Socket socket = failingSocket.accept()) {
+                ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+                in.readObject();
+                for (int i = 0; i < 4; i++) in.readInt();
+            } catch (IOException | ClassNotFoundException ignored) {
+            } finally {
+                failed.countDown();
+            }
+        });
+        failing.setDaemon(true);
+        failing.start();
+
+        ServerSocket healthySocket = new ServerSocket(0);
+        RenderWorker healthy = new RenderWorker(healthySocket);
+        Thread healthyThread = new Thread(() -> {
+            try {
+                failed.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            healthy.run();
+        });
+        healthyThread.setDaemon(true);
+        healthyThread.start();
+
+        RenderCoordinator coordinator = new RenderCoordinator(scene, buildCamera("distributedFailure"));
+        Camera camera = coordinator.render(List.of(
+                new InetSocketAddress("localhost", failingSocket.getLocalPort()),
+                new InetSocketAddress("localhost", healthy.getPort())));
+
+        assertSameAsLocal(camera);
+        assertEquals(1, coordinator.getReissuedTiles(), "The tile of the failed worker should be re-issued");
+        healthySocket.close();
+    }
+
+    /**
+     * Test method for {@link RenderCoordinator#render(List)} when no worker is reachable.
+     */
+    @Test
+    void testRenderWithoutLiveWorkers() throws IOException {
+        int deadPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+        RenderCoordinator coordinator = new RenderCoordinator(scene, buildCamera("distributedDead"));
+        assertThrows(IllegalStateException.class,
+                () -> coordinator.render(List.of(new InetSocketAddress("localhost", deadPort))),
+                "Rendering without live workers should fail");
+        assertThrows(IllegalArgumentException.class, () -> coordinator.render(List.of()),
+                "Rendering without workers should fail");
+    }
+
+    /**
+     * Serializes an object and reads it back through the job filter of the workers.
+     *
+     * @param object the object
+     * @return the object read back
+     * @throws IOException            if the filter rejects the object
+     * @throws ClassNotFoundException if a class of the object is missing
+     */
+    private static Object readFiltered(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        in.setObjectInputFilter(RenderWorker.JOB_FILTER);
+        return in.readObject();
+    }
+
+    /**
+     * Test method for {@link RenderWorker#JOB_FILTER}.
+     *
+     * @throws Exception if a render job cannot be read
+     */
+    @Test
+    void testJobFilter() throws Exception {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a render job, also of a scene with an acceleration structure, passes the filter
+        assertInstanceOf(RenderJob.class, readFiltered(new RenderJob(scene, buildCamera("filter"))), "A job should pass");
+        scene.buildAcceleration();
+        assertInstanceOf(RenderJob.class, readFiltered(new RenderJob(scene, buildCamera("filter"))),
+                "A job with an acceleration structure should pass");
+        // TC02: a class outside the scene model is rejected
+        assertThrows(InvalidClassException.class, () -> readFiltered(new HashMap<>()), "A foreign class should be rejected");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an array over the length limit is rejected
+        assertThrows(InvalidClassException.class, () -> readFiltered(new byte[16777217]), "A huge array should be rejected");
+        // TC11: a graph over the depth limit is rejected
+        LinkedList<Object> nested = new LinkedList<>();
+        for (int i = 0; i < 100; i++) {
+            LinkedList<Object> outer = new LinkedList<>();
+            outer.add(nested);
+            nested = outer;
+        }
+        Object deep = nested;
+        assertThrows(InvalidClassException.class, () -> readFiltered(deep), "A deep graph should be rejected");
+    }
+
+    /**
+     * Test method for {@link RenderCoordinator#render(List)} with worker processes on this machine.
+     */
+    @Test
+    void testRenderOnLocalWorkerProcesses() throws IOException {
+        try (LocalWorkerPool pool = LocalWorkerPool.start(3)) {
+            assertEquals(3, pool.getAddresses().size(), "Wrong number of worker processes");
+            assertSameAsLocal(new RenderCoordinator(scene, buildCamera("distributedProcesses")).render(pool.getAddresses()));
+        }
+    }
+}